@@ -0,0 +1,424 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.client;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.websocket.CloseReason;
+import javax.websocket.DeploymentException;
+
+import org.glassfish.tyrus.core.Beta;
+
+/**
+ * {@link ClientManager.ReconnectHandler} with exponential backoff and decorrelated jitter.
+ * <p>
+ * The delay before each reconnect attempt is chosen randomly between the initial delay and three times the previous
+ * delay, but never more than the maximal delay ("decorrelated jitter"). This spreads reconnecting clients in time,
+ * so they don't overload the server when it comes back after a restart. When the server responds with {@value
+ * org.glassfish.tyrus.spi.UpgradeResponse#RETRY_AFTER} (see {@link RetryAfterException}), the next attempt is made
+ * after the requested delay plus a random part of the backoff delay. The delay is reset when a connection is
+ * established.
+ * <p>
+ * Each connection started by {@link ClientManager} has its own backoff state, while the limit of concurrent reconnect
+ * attempts (see {@link #setMaxConcurrentReconnects(int)}) and the statistics are shared by all the connections of the
+ * {@link ClientManager} which has this handler registered. Reconnect attempts exceeding the limit are postponed by
+ * another backoff delay.
+ * <p>
+ * A session closed with {@link CloseReason.CloseCodes#NORMAL_CLOSURE} is not reconnected, other close reasons and
+ * connection failures are reconnected until the maximal number of attempts is reached.
+ * <pre>
+ *     final BackoffReconnectHandler reconnectHandler = new BackoffReconnectHandler()
+ *             .setInitialDelay(1, TimeUnit.SECONDS)
+ *             .setMaxDelay(2, TimeUnit.MINUTES)
+ *             .setMaxConcurrentReconnects(100);
+ *     client.getProperties().put(ClientProperties.RECONNECT_HANDLER, reconnectHandler);
+ * </pre>
+ * The handler should be configured before it is registered.
+ *
+ * @see ClientProperties#RECONNECT_HANDLER
+ */
+@Beta
+public class BackoffReconnectHandler extends ClientManager.ReconnectHandler {
+
+    private static final Logger LOGGER = Logger.getLogger(BackoffReconnectHandler.class.getName());
+
+    /**
+     * Default initial delay in milliseconds.
+     */
+    public static final long DEFAULT_INITIAL_DELAY = 1000;
+
+    /**
+     * Default maximal delay in milliseconds.
+     */
+    public static final long DEFAULT_MAX_DELAY = 60000;
+
+    private final AtomicLong scheduledReconnects = new AtomicLong();
+    private final AtomicLong reconnectAttempts = new AtomicLong();
+    private final AtomicLong successfulReconnects = new AtomicLong();
+    private final AtomicLong postponedReconnects = new AtomicLong();
+    private final AtomicLong abandonedReconnects = new AtomicLong();
+    private final AtomicLong totalDelay = new AtomicLong();
+    private final AtomicLong maxObservedDelay = new AtomicLong();
+    private final AtomicInteger reconnectsInProgress = new AtomicInteger();
+
+    private volatile long initialDelay = DEFAULT_INITIAL_DELAY;
+    private volatile long maxDelay = DEFAULT_MAX_DELAY;
+    private volatile int maxAttempts = -1;
+    private volatile boolean reconnectOnDisconnect = true;
+    private volatile Semaphore reconnectPermits = null;
+
+    /**
+     * Set the lower bound of the delay, which is also the delay of the first reconnect attempt.
+     * <p>
+     * Default value is {@value #DEFAULT_INITIAL_DELAY} milliseconds.
+     *
+     * @param delay initial delay, has to be positive.
+     * @param unit  time unit of the delay.
+     * @return updated handler.
+     */
+    public BackoffReconnectHandler setInitialDelay(long delay, TimeUnit unit) {
+        if (delay <= 0) {
+            throw new IllegalArgumentException("Initial delay must be positive.");
+        }
+        this.initialDelay = unit.toMillis(delay);
+        return this;
+    }
+
+    /**
+     * Set the upper bound of the delay.
+     * <p>
+     * Default value is {@value #DEFAULT_MAX_DELAY} milliseconds.
+     *
+     * @param delay maximal delay, has to be positive.
+     * @param unit  time unit of the delay.
+     * @return updated handler.
+     */
+    public BackoffReconnectHandler setMaxDelay(long delay, TimeUnit unit) {
+        if (delay <= 0) {
+            throw new IllegalArgumentException("Maximal delay must be positive.");
+        }
+        this.maxDelay = unit.toMillis(delay);
+        return this;
+    }
+
+    /**
+     * Set the maximal number of consecutive reconnect attempts of a connection. When reached, the connection is not
+     * reconnected anymore.
+     * <p>
+     * Default value is {@code -1}, which means no limit.
+     *
+     * @param maxAttempts maximal number of consecutive attempts, {@code -1} for no limit.
+     * @return updated handler.
+     */
+    public BackoffReconnectHandler setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < -1) {
+            throw new IllegalArgumentException("Maximal number of attempts must be -1 or greater.");
+        }
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * Set the maximal number of reconnect attempts in progress at the same time.
+     * <p>
+     * Default value is {@code 0}, which means no limit.
+     *
+     * @param maxConcurrentReconnects maximal number of concurrent reconnect attempts, {@code 0} for no limit.
+     * @return updated handler.
+     */
+    public BackoffReconnectHandler setMaxConcurrentReconnects(int maxConcurrentReconnects) {
+        if (maxConcurrentReconnects < 0) {
+            throw new IllegalArgumentException("Maximal number of concurrent reconnects cannot be negative.");
+        }
+        this.reconnectPermits = maxConcurrentReconnects == 0 ? null : new Semaphore(maxConcurrentReconnects);
+        return this;
+    }
+
+    /**
+     * Set whether a session should be reconnected when it is closed.
+     * <p>
+     * When set to {@code false}, only connection failures are reconnected. Default value is {@code true}.
+     *
+     * @param reconnectOnDisconnect {@code true} if closed sessions should be reconnected.
+     * @return updated handler.
+     */
+    public BackoffReconnectHandler setReconnectOnDisconnect(boolean reconnectOnDisconnect) {
+        this.reconnectOnDisconnect = reconnectOnDisconnect;
+        return this;
+    }
+
+    /**
+     * Get the number of reconnect attempts which have been scheduled.
+     *
+     * @return number of scheduled reconnect attempts.
+     */
+    public long getScheduledReconnects() {
+        return scheduledReconnects.get();
+    }
+
+    /**
+     * Get the number of reconnect attempts which have been started.
+     *
+     * @return number of started reconnect attempts.
+     */
+    public long getReconnectAttempts() {
+        return reconnectAttempts.get();
+    }
+
+    /**
+     * Get the number of reconnect attempts which have established a connection.
+     *
+     * @return number of successful reconnect attempts.
+     */
+    public long getSuccessfulReconnects() {
+        return successfulReconnects.get();
+    }
+
+    /**
+     * Get the number of reconnect attempts which have been postponed, because the limit of concurrent reconnects was
+     * reached.
+     *
+     * @return number of postponed reconnect attempts.
+     */
+    public long getPostponedReconnects() {
+        return postponedReconnects.get();
+    }
+
+    /**
+     * Get the number of connections which have not been reconnected, because the maximal number of attempts was
+     * reached.
+     *
+     * @return number of abandoned connections.
+     */
+    public long getAbandonedReconnects() {
+        return abandonedReconnects.get();
+    }
+
+    /**
+     * Get the number of reconnect attempts in progress.
+     *
+     * @return number of reconnect attempts in progress.
+     */
+    public int getReconnectsInProgress() {
+        return reconnectsInProgress.get();
+    }
+
+    /**
+     * Get the average delay of the scheduled and postponed reconnect attempts.
+     *
+     * @return average delay in milliseconds, {@code 0} if no reconnect attempt has been scheduled.
+     */
+    public long getAverageDelay() {
+        final long count = scheduledReconnects.get() + postponedReconnects.get();
+        return count == 0 ? 0 : totalDelay.get() / count;
+    }
+
+    /**
+     * Get the longest delay of the scheduled and postponed reconnect attempts.
+     *
+     * @return maximal delay in milliseconds.
+     */
+    public long getMaxObservedDelay() {
+        return maxObservedDelay.get();
+    }
+
+    /**
+     * Per connection handlers are created by {@link #forConnection()}, this instance is never asked directly.
+     */
+    @Override
+    public boolean onDisconnect(CloseReason closeReason) {
+        return false;
+    }
+
+    /**
+     * Per connection handlers are created by {@link #forConnection()}, this instance is never asked directly.
+     */
+    @Override
+    public boolean onConnectFailure(Exception exception) {
+        return false;
+    }
+
+    @Override
+    ClientManager.ReconnectHandler forConnection() {
+        return new ConnectionReconnectHandler();
+    }
+
+    private void recordDelay(long delay) {
+        totalDelay.addAndGet(delay);
+
+        long max;
+        do {
+            max = maxObservedDelay.get();
+        } while (delay > max && !maxObservedDelay.compareAndSet(max, delay));
+    }
+
+    /**
+     * Backoff state of a single connection.
+     */
+    private class ConnectionReconnectHandler extends ClientManager.ReconnectHandler {
+
+        private final AtomicBoolean reconnecting = new AtomicBoolean(false);
+        private volatile Semaphore acquiredPermit = null;
+
+        // accessed by one reconnect attempt at a time
+        private volatile long previousDelay = 0;
+        private volatile long delay = 0;
+        private volatile int attempts = 0;
+
+        @Override
+        public boolean onDisconnect(CloseReason closeReason) {
+            // the connection has been established, start over.
+            previousDelay = 0;
+            attempts = 0;
+
+            if (!reconnectOnDisconnect
+                    || closeReason.getCloseCode().getCode() == CloseReason.CloseCodes.NORMAL_CLOSURE.getCode()) {
+                return false;
+            }
+
+            return scheduleReconnect(null);
+        }
+
+        @Override
+        public boolean onConnectFailure(Exception exception) {
+            Throwable t = exception;
+            if (t instanceof DeploymentException) {
+                t = t.getCause();
+            }
+
+            Long retryAfter = null;
+            if (t instanceof RetryAfterException && ((RetryAfterException) t).getDelay() != null) {
+                retryAfter = TimeUnit.SECONDS.toMillis(Math.max(((RetryAfterException) t).getDelay(), 0));
+            }
+
+            return scheduleReconnect(retryAfter);
+        }
+
+        @Override
+        public long getDelay() {
+            return TimeUnit.MILLISECONDS.toSeconds(delay);
+        }
+
+        @Override
+        long getDelayMillis() {
+            return delay;
+        }
+
+        @Override
+        boolean tryStartReconnect() {
+            final Semaphore permits = reconnectPermits;
+            if (permits != null) {
+                if (!permits.tryAcquire()) {
+                    delay = nextBackoffDelay();
+                    postponedReconnects.incrementAndGet();
+                    recordDelay(delay);
+                    return false;
+                }
+                acquiredPermit = permits;
+            }
+
+            reconnecting.set(true);
+            reconnectAttempts.incrementAndGet();
+            reconnectsInProgress.incrementAndGet();
+            return true;
+        }
+
+        @Override
+        void reconnectFinished(boolean connected) {
+            if (!reconnecting.compareAndSet(true, false)) {
+                return;
+            }
+
+            if (connected) {
+                successfulReconnects.incrementAndGet();
+            }
+
+            reconnectsInProgress.decrementAndGet();
+            final Semaphore permit = acquiredPermit;
+            if (permit != null) {
+                acquiredPermit = null;
+                permit.release();
+            }
+        }
+
+        private boolean scheduleReconnect(Long retryAfter) {
+            if (maxAttempts != -1 && attempts >= maxAttempts) {
+                abandonedReconnects.incrementAndGet();
+                LOGGER.log(Level.FINE, String.format("Reconnect abandoned after %d attempts.", attempts));
+                return false;
+            }
+            attempts++;
+
+            final long backoff = nextBackoffDelay();
+            delay = retryAfter == null ? backoff : retryAfter + randomBetween(0, backoff);
+
+            scheduledReconnects.incrementAndGet();
+            recordDelay(delay);
+            LOGGER.log(Level.FINE, String.format("Reconnect attempt %d scheduled in %d ms.", attempts, delay));
+            return true;
+        }
+
+        /**
+         * Decorrelated jitter: random value between the initial delay and three times the previous delay, capped by
+         * the maximal delay.
+         */
+        private long nextBackoffDelay() {
+            final long base = Math.min(initialDelay, maxDelay);
+            final long previous = previousDelay == 0 ? base : previousDelay;
+            previousDelay = randomBetween(base, Math.min(maxDelay, previous * 3));
+            return previousDelay;
+        }
+
+        private long randomBetween(long lower, long upper) {
+            if (upper <= lower) {
+                return lower;
+            }
+            return lower + (long) (ThreadLocalRandom.current().nextDouble() * (upper - lower + 1));
+        }
+    }
+}
@@ -53,6 +53,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
@@ -584,133 +585,170 @@ public class ClientManager extends BaseContainer implements WebSocketContainer {
 
                 final Runnable connector = new Runnable() {
 
+                    private final ReconnectHandler connectionReconnectHandler =
+                            userReconnectHandler == null ? null : userReconnectHandler.forConnection();
                     private final ReconnectHandler reconnectHandler =
-                            retryAfterEnabled ? new RetryAfterReconnectHandler(userReconnectHandler)
-                                    : userReconnectHandler;
+                            retryAfterEnabled ? new RetryAfterReconnectHandler(connectionReconnectHandler)
+                                    : connectionReconnectHandler;
+                    private final AtomicBoolean reconnectScheduled = new AtomicBoolean(false);
+
+                    // set by connect() when the reconnect handler asks for a retry without delay.
+                    private boolean retryImmediately = false;
 
                     @Override
                     public void run() {
+                        boolean reconnect = reconnectScheduled.getAndSet(false);
+                        while (true) {
+                            if (reconnect && !reconnectHandler.tryStartReconnect()) {
+                                reconnect(reconnectHandler.getDelayMillis());
+                                return;
+                            }
 
-                        do {
-                            final CountDownLatch responseLatch = new CountDownLatch(1);
-                            final DebugContext debugContext = new DebugContext();
+                            boolean connected = false;
+                            try {
+                                connected = connect();
+                            } finally {
+                                if (reconnect) {
+                                    reconnectHandler.reconnectFinished(connected);
+                                }
+                            }
 
-                            final ClientManagerHandshakeListener listener = new ClientManagerHandshakeListener() {
+                            if (!retryImmediately) {
+                                return;
+                            }
+                            // an immediate retry is a reconnect attempt as well, it is subject to the limit of
+                            // concurrent reconnects.
+                            retryImmediately = false;
+                            reconnect = true;
+                        }
+                    }
 
-                                private volatile Session session;
-                                private volatile Throwable throwable;
+                    private void reconnect(long delay) {
+                        reconnectScheduled.set(true);
+                        if (delay <= 0) {
+                            run();
+                        } else {
+                            getScheduledExecutorService().schedule(this, delay, TimeUnit.MILLISECONDS);
+                        }
+                    }
 
-                                @Override
-                                public void onSessionCreated(Session session) {
-                                    this.session = session;
-                                    debugContext.flush();
-                                    responseLatch.countDown();
-                                }
+                    /**
+                     * Make one connection attempt.
+                     *
+                     * @return {@code true} when the connection has been established.
+                     */
+                    private boolean connect() {
+                        final CountDownLatch responseLatch = new CountDownLatch(1);
+                        final DebugContext debugContext = new DebugContext();
+
+                        final ClientManagerHandshakeListener listener = new ClientManagerHandshakeListener() {
+
+                            private volatile Session session;
+                            private volatile Throwable throwable;
+
+                            @Override
+                            public void onSessionCreated(Session session) {
+                                this.session = session;
+                                debugContext.flush();
+                                responseLatch.countDown();
+                            }
 
-                                @Override
-                                public void onError(Throwable exception) {
-                                    throwable = exception;
-                                    debugContext.flush();
-                                    responseLatch.countDown();
-                                }
+                            @Override
+                            public void onError(Throwable exception) {
+                                throwable = exception;
+                                debugContext.flush();
+                                responseLatch.countDown();
+                            }
 
-                                @Override
-                                public Session getSession() {
-                                    return session;
-                                }
+                            @Override
+                            public Session getSession() {
+                                return session;
+                            }
 
-                                @Override
-                                public Throwable getThrowable() {
-                                    return throwable;
-                                }
-                            };
+                            @Override
+                            public Throwable getThrowable() {
+                                return throwable;
+                            }
+                        };
+
+                        try {
+                            TyrusEndpointWrapper clientEndpoint =
+                                    new TyrusEndpointWrapper(
+                                            endpoint, config, componentProvider,
+                                            webSocketContainer == null ? ClientManager.this
+                                                    : webSocketContainer, url, null,
+                                            new TyrusEndpointWrapper.SessionListener() {
+
+                                                @Override
+                                                public void onClose(TyrusSession session,
+                                                                    CloseReason closeReason) {
+                                                    if (reconnectHandler != null
+                                                            && reconnectHandler.onDisconnect(closeReason)) {
+                                                        reconnect(reconnectHandler.getDelayMillis());
+                                                    } else {
+                                                        clientActivityListener.onConnectionTerminated();
+                                                    }
+                                                }
+                                            }, null, null, null
+                                    );
 
+                            final URI uri;
                             try {
-                                final Runnable that = this;
-
-                                TyrusEndpointWrapper clientEndpoint =
-                                        new TyrusEndpointWrapper(
-                                                endpoint, config, componentProvider,
-                                                webSocketContainer == null ? ClientManager.this
-                                                        : webSocketContainer, url, null,
-                                                new TyrusEndpointWrapper.SessionListener() {
-
-                                                    @Override
-                                                    public void onClose(TyrusSession session,
-                                                                        CloseReason closeReason) {
-                                                        if (reconnectHandler != null
-                                                                && reconnectHandler.onDisconnect(closeReason)) {
-                                                            long delay = reconnectHandler.getDelay();
-                                                            if (delay <= 0) {
-                                                                run();
-                                                            } else {
-                                                                getScheduledExecutorService()
-                                                                        .schedule(that, delay, TimeUnit.SECONDS);
-                                                            }
-                                                        } else {
-                                                            clientActivityListener.onConnectionTerminated();
-                                                        }
-                                                    }
-                                                }, null, null, null
-                                        );
-
-                                final URI uri;
-                                try {
-                                    uri = new URI(url);
-                                } catch (URISyntaxException e) {
-                                    throw new DeploymentException("Invalid URI.", e);
-                                }
+                                uri = new URI(url);
+                            } catch (URISyntaxException e) {
+                                throw new DeploymentException("Invalid URI.", e);
+                            }
 
-                                TyrusClientEngine clientEngine =
-                                        new TyrusClientEngine(clientEndpoint, listener, copiedProperties, uri,
-                                                              debugContext);
-
-                                container.openClientSocket(config, copiedProperties, clientEngine);
-
-                                try {
-                                    final boolean countedDown =
-                                            responseLatch.await(handshakeTimeout, TimeUnit.MILLISECONDS);
-                                    if (countedDown) {
-                                        final Throwable exception = listener.getThrowable();
-                                        if (exception != null) {
-                                            if (exception instanceof DeploymentException) {
-                                                throw (DeploymentException) exception;
-                                            } else {
-                                                throw new DeploymentException("Handshake error.", exception);
-                                            }
-                                        }
+                            TyrusClientEngine clientEngine =
+                                    new TyrusClientEngine(clientEndpoint, listener, copiedProperties, uri,
+                                                          debugContext);
+
+                            container.openClientSocket(config, copiedProperties, clientEngine);
 
-                                        future.setResult(listener.getSession());
-                                        return;
-                                    } else {
-                                        // timeout!
-                                        final ClientEngine.TimeoutHandler timeoutHandler =
-                                                clientEngine.getTimeoutHandler();
-                                        if (timeoutHandler != null) {
-                                            timeoutHandler.handleTimeout();
+                            try {
+                                final boolean countedDown =
+                                        responseLatch.await(handshakeTimeout, TimeUnit.MILLISECONDS);
+                                if (countedDown) {
+                                    final Throwable exception = listener.getThrowable();
+                                    if (exception != null) {
+                                        if (exception instanceof DeploymentException) {
+                                            throw (DeploymentException) exception;
+                                        } else {
+                                            throw new DeploymentException("Handshake error.", exception);
                                         }
                                     }
-                                } catch (DeploymentException e) {
-                                    throw e;
-                                } catch (Exception e) {
-                                    throw new DeploymentException("Handshake response not received.", e);
-                                }
 
-                                throw new DeploymentException("Handshake response not received.");
-                            } catch (Exception e) {
-                                if (reconnectHandler == null || !reconnectHandler.onConnectFailure(e)) {
-                                    future.setFailure(e);
-                                    return;
+                                    future.setResult(listener.getSession());
+                                    return true;
                                 } else {
-                                    long delay = reconnectHandler.getDelay();
-                                    if (delay > 0) {
-                                        getScheduledExecutorService().schedule(this, delay, TimeUnit.SECONDS);
-                                        return;
+                                    // timeout!
+                                    final ClientEngine.TimeoutHandler timeoutHandler =
+                                            clientEngine.getTimeoutHandler();
+                                    if (timeoutHandler != null) {
+                                        timeoutHandler.handleTimeout();
                                     }
                                 }
+                            } catch (DeploymentException e) {
+                                throw e;
+                            } catch (Exception e) {
+                                throw new DeploymentException("Handshake response not received.", e);
+                            }
+
+                            throw new DeploymentException("Handshake response not received.");
+                        } catch (Exception e) {
+                            if (reconnectHandler == null || !reconnectHandler.onConnectFailure(e)) {
+                                future.setFailure(e);
+                                return false;
+                            } else {
+                                long delay = reconnectHandler.getDelayMillis();
+                                if (delay > 0) {
+                                    reconnect(delay);
+                                } else {
+                                    retryImmediately = true;
+                                }
+                                return false;
                             }
                         }
-                        while (true);
                     }
                 };
 
@@ -836,6 +874,11 @@ public class ClientManager extends BaseContainer implements WebSocketContainer {
         return properties;
     }
 
+    @Override
+    protected boolean isVirtualThreadsEnabled() {
+        return Utils.getProperty(properties, ClientProperties.VIRTUAL_THREADS_ENABLED, Boolean.class, false);
+    }
+
     /**
      * Executor service which just executes provided {@link Runnable} in the very same thread.
      */
@@ -920,6 +963,42 @@ public class ClientManager extends BaseContainer implements WebSocketContainer {
         public long getDelay() {
             return RECONNECT_DELAY;
         }
+
+        /**
+         * Get reconnect delay in milliseconds.
+         *
+         * @return reconnect delay in milliseconds, {@link #getDelay()} by default.
+         */
+        long getDelayMillis() {
+            return TimeUnit.SECONDS.toMillis(getDelay());
+        }
+
+        /**
+         * Get the handler used for a single connection, which can keep the reconnect state of the connection.
+         *
+         * @return reconnect handler for a new connection, this instance by default.
+         */
+        ReconnectHandler forConnection() {
+            return this;
+        }
+
+        /**
+         * Called before a reconnect attempt is started.
+         *
+         * @return {@code true} if the attempt can be started now, {@code false} if it should be postponed by
+         * {@link #getDelayMillis()}.
+         */
+        boolean tryStartReconnect() {
+            return true;
+        }
+
+        /**
+         * Called when a reconnect attempt started by {@link #tryStartReconnect()} has finished.
+         *
+         * @param connected {@code true} if the connection has been established.
+         */
+        void reconnectFinished(boolean connected) {
+        }
     }
 
     private static class RetryAfterReconnectHandler extends ReconnectHandler {
@@ -930,7 +1009,8 @@ public class ClientManager extends BaseContainer implements WebSocketContainer {
         private final AtomicInteger retryCounter = new AtomicInteger(0);
         private final ReconnectHandler userReconnectHandler;
 
-        private long delay = 0;
+        private volatile long delay = 0;
+        private volatile boolean retryAfterDelay = false;
 
         RetryAfterReconnectHandler(final ReconnectHandler userReconnectHandler) {
             this.userReconnectHandler = userReconnectHandler;
@@ -938,6 +1018,7 @@ public class ClientManager extends BaseContainer implements WebSocketContainer {
 
         @Override
         public boolean onDisconnect(CloseReason closeReason) {
+            retryAfterDelay = false;
             return userReconnectHandler != null && userReconnectHandler.onDisconnect(closeReason);
         }
 
@@ -953,18 +1034,38 @@ public class ClientManager extends BaseContainer implements WebSocketContainer {
                                 && retryAfterException.getDelay() <= RETRY_AFTER_MAX_DELAY) {
 
                             delay = retryAfterException.getDelay() < 0 ? 0 : retryAfterException.getDelay();
+                            retryAfterDelay = true;
                             return true;
                         }
                     }
                 }
             }
 
+            retryAfterDelay = false;
             return userReconnectHandler != null && userReconnectHandler.onConnectFailure(exception);
         }
 
         @Override
         public long getDelay() {
-            return delay;
+            return retryAfterDelay || userReconnectHandler == null ? delay : userReconnectHandler.getDelay();
+        }
+
+        @Override
+        long getDelayMillis() {
+            return retryAfterDelay || userReconnectHandler == null ? TimeUnit.SECONDS.toMillis(delay)
+                    : userReconnectHandler.getDelayMillis();
+        }
+
+        @Override
+        boolean tryStartReconnect() {
+            return userReconnectHandler == null || userReconnectHandler.tryStartReconnect();
+        }
+
+        @Override
+        void reconnectFinished(boolean connected) {
+            if (userReconnectHandler != null) {
+                userReconnectHandler.reconnectFinished(connected);
+            }
         }
     }
 
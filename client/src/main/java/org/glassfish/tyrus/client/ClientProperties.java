@@ -46,6 +46,7 @@ import org.glassfish.tyrus.client.auth.AuthConfig;
 import org.glassfish.tyrus.client.auth.AuthenticationException;
 import org.glassfish.tyrus.client.auth.Authenticator;
 import org.glassfish.tyrus.client.auth.Credentials;
+import org.glassfish.tyrus.core.Beta;
 import org.glassfish.tyrus.spi.UpgradeResponse;
 
 /**
@@ -68,6 +69,7 @@ public final class ClientProperties {
      * Value must be {@link org.glassfish.tyrus.client.ClientManager.ReconnectHandler} instance.
      *
      * @see ClientProperties#RETRY_AFTER_SERVICE_UNAVAILABLE
+     * @see BackoffReconnectHandler
      */
     public static final String RECONNECT_HANDLER = "org.glassfish.tyrus.client.ClientManager.ReconnectHandler";
 
@@ -307,4 +309,47 @@ public final class ClientProperties {
      * of masking keys.
      */
     public static final String MASKING_KEY_GENERATOR = "org.glassfish.tyrus.client.maskingKeyGenerator";
+
+    /**
+     * Use virtual threads for executing tasks of the client container, such as asynchronous connect and reconnect,
+     * and, on the JDK client transport, for processing completed reads and writes (message handlers, send
+     * completion). The threads of the JDK client channel groups configured by {@link #WORKER_THREAD_POOL_CONFIG}
+     * remain platform threads, since they block in the selector.
+     * <p>
+     * Virtual threads are available on JDK 21 and newer; on older JDKs the property is ignored and platform threads
+     * are used.
+     * <p>
+     * Expected value is {@code true} or {@code false} and the default value is {@code false}.
+     *
+     * @see org.glassfish.tyrus.core.VirtualThreads
+     */
+    @Beta
+    public static final String VIRTUAL_THREADS_ENABLED = "org.glassfish.tyrus.client.virtualThreadsEnabled";
+
+    /**
+     * Number of channel groups the JDK client transport spreads its connections over ({@link Integer} value).
+     * <p>
+     * Each channel group has its own thread pool created according to {@link #WORKER_THREAD_POOL_CONFIG}, so the
+     * total number of worker threads can be up to this number times the maximal pool size. Connections are assigned
+     * to the groups as configured by {@link #CHANNEL_GROUP_ASSIGNMENT}.
+     * <p>
+     * The default value is {@code 1}. The property is ignored by the Grizzly client.
+     *
+     * @see #CHANNEL_GROUP_ASSIGNMENT
+     */
+    @Beta
+    public static final String CHANNEL_GROUP_COUNT = "org.glassfish.tyrus.client.jdk.channelGroupCount";
+
+    /**
+     * The way connections of the JDK client transport are assigned to channel groups ({@link String} value).
+     * <p>
+     * {@code "round-robin"} (the default value) assigns connections to the groups one after another, {@code "hash"}
+     * assigns all the connections to the same server address to the same group.
+     * <p>
+     * The property has effect only if {@link #CHANNEL_GROUP_COUNT} is greater than {@code 1}.
+     *
+     * @see #CHANNEL_GROUP_COUNT
+     */
+    @Beta
+    public static final String CHANNEL_GROUP_ASSIGNMENT = "org.glassfish.tyrus.client.jdk.channelGroupAssignment";
 }
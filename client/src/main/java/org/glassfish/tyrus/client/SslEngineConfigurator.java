@@ -47,6 +47,8 @@ import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 
+import org.glassfish.tyrus.core.Beta;
+
 /**
  * SSLEngineConfigurator class from Grizzly project.
  * <p>
@@ -210,6 +212,22 @@ public class SslEngineConfigurator {
      * @return {@link SSLEngine}.
      */
     public SSLEngine createSSLEngine(String serverHost) {
+        return createSSLEngine(serverHost, -1);
+    }
+
+    /**
+     * Create and configure {@link SSLEngine}, based on current settings.
+     * <p>
+     * Unlike {@link #createSSLEngine(String)}, the created engine knows the server port, so the {@link SSLContext}
+     * can resume a TLS session previously established with the same host and port.
+     *
+     * @param serverHost server host, which will be used to verify authenticity of the server (the provided host name
+     *                   will compared to the host in the certificate provided by the server).
+     * @param serverPort server port, {@code -1} if not known.
+     * @return {@link SSLEngine}.
+     */
+    @Beta
+    public SSLEngine createSSLEngine(String serverHost, int serverPort) {
         if (sslContext == null) {
             synchronized (sync) {
                 if (sslContext == null) {
@@ -218,9 +236,9 @@ public class SslEngineConfigurator {
             }
         }
 
-        /* the port is not part of host name verification, it is present in the constructor because of Kerberos
-        (which is not supported by Tyrus) */
-        final SSLEngine sslEngine = sslContext.createSSLEngine(serverHost, -1);
+        /* the port is not part of host name verification, the SSL context uses it as a part of the key when looking up
+        a session to be resumed */
+        final SSLEngine sslEngine = sslContext.createSSLEngine(serverHost, serverPort);
         configure(sslEngine);
 
         return sslEngine;
@@ -67,6 +67,7 @@ import org.glassfish.tyrus.client.auth.AuthenticationException;
 import org.glassfish.tyrus.client.auth.Authenticator;
 import org.glassfish.tyrus.client.auth.Credentials;
 import org.glassfish.tyrus.core.DebugContext;
+import org.glassfish.tyrus.core.FrameReadHandler;
 import org.glassfish.tyrus.core.Handshake;
 import org.glassfish.tyrus.core.HandshakeException;
 import org.glassfish.tyrus.core.MaskingKeyGenerator;
@@ -105,7 +106,6 @@ public class TyrusClientEngine implements ClientEngine {
     private static final Logger LOGGER = Logger.getLogger(TyrusClientEngine.class.getName());
 
     private static final Version DEFAULT_VERSION = Version.DRAFT17;
-    private static final int BUFFER_STEP_SIZE = 256;
     private static final int DEFAULT_REDIRECT_THRESHOLD = 5;
 
     private final ProtocolHandler protocolHandler;
@@ -680,7 +680,7 @@ public class TyrusClientEngine implements ClientEngine {
         public void onError(Throwable exception);
     }
 
-    private static class TyrusReadHandler implements ReadHandler {
+    private static class TyrusReadHandler implements FrameReadHandler {
 
         private final int incomingBufferSize;
         private final ProtocolHandler handler;
@@ -688,8 +688,6 @@ public class TyrusClientEngine implements ClientEngine {
         private final List<Extension> negotiatedExtensions;
         private final ExtendedExtension.ExtensionContext extensionContext;
 
-        private ByteBuffer buffer = null;
-
         TyrusReadHandler(final ProtocolHandler protocolHandler, final TyrusWebSocket socket, int incomingBufferSize,
                          List<Extension> negotiatedExtensions, ExtendedExtension.ExtensionContext extensionContext) {
             this.handler = protocolHandler;
@@ -706,53 +704,55 @@ public class TyrusClientEngine implements ClientEngine {
             try {
                 if (data != null && data.hasRemaining()) {
 
-                    if (buffer != null) {
-                        data = Utils.appendBuffers(buffer, data, incomingBufferSize, BUFFER_STEP_SIZE);
-                    } else {
-                        int newSize = data.remaining();
-                        if (newSize > incomingBufferSize) {
-                            throw new IllegalArgumentException("Buffer overflow.");
-                        } else {
-                            final int roundedSize = (newSize % BUFFER_STEP_SIZE) > 0 ? ((newSize / BUFFER_STEP_SIZE)
-                                    + 1) * BUFFER_STEP_SIZE : newSize;
-                            final ByteBuffer result = ByteBuffer.allocate(roundedSize > incomingBufferSize ? newSize
-                                                                                  : roundedSize);
-                            result.flip();
-                            data = Utils.appendBuffers(result, data, incomingBufferSize, BUFFER_STEP_SIZE);
-                        }
-                    }
-
                     do {
-                        Frame frame = handler.unframe(data);
+                        Frame frame = handler.unframe(data, incomingBufferSize);
                         if (frame == null) {
-                            buffer = data;
+                            // the whole buffer was consumed, the rest of the frame (if any) comes with the
+                            // next buffer.
                             break;
                         } else {
-                            for (Extension extension : negotiatedExtensions) {
-                                if (extension instanceof ExtendedExtension) {
-                                    try {
-                                        frame = ((ExtendedExtension) extension)
-                                                .processIncoming(extensionContext, frame);
-                                    } catch (Throwable t) {
-                                        LOGGER.log(
-                                                Level.FINE,
-                                                String.format(
-                                                        "Extension '%s' threw an exception during processIncoming "
-                                                                + "method invocation: \"%s\".",
-                                                        extension.getName(), t.getMessage()), t);
-                                    }
-                                }
-                            }
-
-                            handler.process(frame, socket);
+                            handleFrame(frame);
                         }
                     } while (true);
                 }
-            } catch (WebSocketException e) {
-                LOGGER.log(Level.FINE, e.getMessage(), e);
-                socket.onClose(new CloseFrame(e.getCloseReason()));
             } catch (Exception e) {
-                LOGGER.log(Level.FINE, e.getMessage(), e);
+                handleException(e);
+            }
+        }
+
+        @Override
+        public void handle(Frame frame) {
+            try {
+                handleFrame(handler.checkIncoming(frame, incomingBufferSize));
+            } catch (Exception e) {
+                handleException(e);
+            }
+        }
+
+        private void handleFrame(Frame frame) {
+            for (Extension extension : negotiatedExtensions) {
+                if (extension instanceof ExtendedExtension) {
+                    try {
+                        frame = ((ExtendedExtension) extension).processIncoming(extensionContext, frame);
+                    } catch (Throwable t) {
+                        LOGGER.log(
+                                Level.FINE,
+                                String.format(
+                                        "Extension '%s' threw an exception during processIncoming "
+                                                + "method invocation: \"%s\".",
+                                        extension.getName(), t.getMessage()), t);
+                    }
+                }
+            }
+
+            handler.process(frame, socket);
+        }
+
+        private void handleException(Exception e) {
+            LOGGER.log(Level.FINE, e.getMessage(), e);
+            if (e instanceof WebSocketException) {
+                socket.onClose(new CloseFrame(((WebSocketException) e).getCloseReason()));
+            } else {
                 socket.onClose(new CloseFrame(new CloseReason(CloseReason.CloseCodes.UNEXPECTED_CONDITION, e
                         .getMessage())));
             }
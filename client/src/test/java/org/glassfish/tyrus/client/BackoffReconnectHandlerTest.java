@@ -0,0 +1,172 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.client;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.websocket.CloseReason;
+import javax.websocket.DeploymentException;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link BackoffReconnectHandler}.
+ */
+public class BackoffReconnectHandlerTest {
+
+    private static final CloseReason GOING_AWAY = new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "restart");
+
+    @Test
+    public void testDelayBounds() {
+        final BackoffReconnectHandler handler = new BackoffReconnectHandler()
+                .setInitialDelay(100, TimeUnit.MILLISECONDS)
+                .setMaxDelay(5, TimeUnit.SECONDS);
+        final ClientManager.ReconnectHandler connection = handler.forConnection();
+
+        long previous = 100;
+        for (int i = 0; i < 50; i++) {
+            assertTrue(connection.onConnectFailure(new DeploymentException("failed", new IOException())));
+            final long delay = connection.getDelayMillis();
+            assertTrue("Delay " + delay + " below initial delay.", delay >= 100);
+            assertTrue("Delay " + delay + " above maximal delay.", delay <= 5000);
+            assertTrue("Delay " + delay + " grows too fast.", delay <= previous * 3);
+            previous = delay;
+        }
+
+        assertEquals(50, handler.getScheduledReconnects());
+        assertTrue(handler.getMaxObservedDelay() <= 5000);
+        assertTrue(handler.getAverageDelay() >= 100);
+    }
+
+    @Test
+    public void testJitter() {
+        final BackoffReconnectHandler handler = new BackoffReconnectHandler()
+                .setInitialDelay(1, TimeUnit.SECONDS);
+
+        boolean different = false;
+        long first = -1;
+        for (int i = 0; i < 20; i++) {
+            final ClientManager.ReconnectHandler connection = handler.forConnection();
+            assertTrue(connection.onDisconnect(GOING_AWAY));
+            if (first == -1) {
+                first = connection.getDelayMillis();
+            } else if (first != connection.getDelayMillis()) {
+                different = true;
+            }
+        }
+
+        assertTrue("Connections reconnect in lockstep.", different);
+    }
+
+    @Test
+    public void testNormalClosure() {
+        final BackoffReconnectHandler handler = new BackoffReconnectHandler();
+
+        assertFalse(handler.forConnection()
+                           .onDisconnect(new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, "bye")));
+        assertEquals(0, handler.getScheduledReconnects());
+    }
+
+    @Test
+    public void testReconnectOnDisconnectDisabled() {
+        final BackoffReconnectHandler handler = new BackoffReconnectHandler().setReconnectOnDisconnect(false);
+
+        assertFalse(handler.forConnection().onDisconnect(GOING_AWAY));
+    }
+
+    @Test
+    public void testRetryAfter() {
+        final BackoffReconnectHandler handler = new BackoffReconnectHandler()
+                .setInitialDelay(100, TimeUnit.MILLISECONDS)
+                .setMaxDelay(200, TimeUnit.MILLISECONDS);
+        final ClientManager.ReconnectHandler connection = handler.forConnection();
+
+        assertTrue(connection.onConnectFailure(
+                new DeploymentException("unavailable", new RetryAfterException("unavailable", 10L))));
+        final long delay = connection.getDelayMillis();
+        assertTrue(delay >= 10000);
+        assertTrue(delay <= 10200);
+        assertEquals(10, connection.getDelay());
+    }
+
+    @Test
+    public void testMaxAttempts() {
+        final BackoffReconnectHandler handler = new BackoffReconnectHandler().setMaxAttempts(2);
+        final ClientManager.ReconnectHandler connection = handler.forConnection();
+
+        assertTrue(connection.onConnectFailure(new IOException()));
+        assertTrue(connection.onConnectFailure(new IOException()));
+        assertFalse(connection.onConnectFailure(new IOException()));
+        assertEquals(1, handler.getAbandonedReconnects());
+
+        // established connection starts over
+        assertTrue(connection.onDisconnect(GOING_AWAY));
+    }
+
+    @Test
+    public void testMaxConcurrentReconnects() {
+        final BackoffReconnectHandler handler = new BackoffReconnectHandler().setMaxConcurrentReconnects(1);
+        final ClientManager.ReconnectHandler first = handler.forConnection();
+        final ClientManager.ReconnectHandler second = handler.forConnection();
+
+        assertTrue(first.tryStartReconnect());
+        assertFalse(second.tryStartReconnect());
+        assertTrue(second.getDelayMillis() >= BackoffReconnectHandler.DEFAULT_INITIAL_DELAY);
+        assertEquals(1, handler.getPostponedReconnects());
+        assertEquals(1, handler.getReconnectsInProgress());
+
+        first.reconnectFinished(true);
+        // finishing twice does not release another permit
+        first.reconnectFinished(false);
+        assertEquals(0, handler.getReconnectsInProgress());
+
+        assertTrue(second.tryStartReconnect());
+        assertFalse(first.tryStartReconnect());
+        second.reconnectFinished(true);
+
+        assertEquals(2, handler.getReconnectAttempts());
+        assertEquals(2, handler.getSuccessfulReconnects());
+    }
+}
@@ -271,7 +271,7 @@ class GrizzlyClientFilter extends BaseFilter {
                 TaskProcessor taskProcessor = TASK_PROCESSOR.get(ctx.getConnection());
                 taskProcessor.processTask(new ProcessTask(webSocketBuffer, readHandler));
             }
-            return ctx.getStopAction();
+            return ((GrizzlyWriter) tyrusConnection.getWriter()).readCompleted(ctx);
         }
 
         // tyrusConnection == null
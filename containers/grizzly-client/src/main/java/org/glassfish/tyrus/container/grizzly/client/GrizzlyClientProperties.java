@@ -40,6 +40,8 @@
 
 package org.glassfish.tyrus.container.grizzly.client;
 
+import org.glassfish.tyrus.core.Beta;
+
 /**
  * Grizzly client properties.
  *
@@ -67,4 +69,32 @@ public final class GrizzlyClientProperties {
      */
     public static final String SELECTOR_THREAD_POOL_CONFIG =
             "org.glassfish.tyrus.client.grizzly.selectorThreadPoolConfig";
+
+    /**
+     * Client-side property to enable the transport pool.
+     * <p>
+     * When enabled, client connections don't create their own transport (with own selector and worker threads), but
+     * are spread over a fixed number of transports shared by all such connections (see {@link
+     * #TRANSPORT_POOL_SIZE}). Each transport of the pool is started when the first connection uses it and stopped
+     * when it has not been used by any connection for {@link org.glassfish.tyrus.client
+     * .ClientProperties#SHARED_CONTAINER_IDLE_TIMEOUT} seconds.
+     * <p>
+     * Each transport of the pool uses {@link #WORKER_THREAD_POOL_CONFIG} (or {@link org.glassfish.tyrus.client
+     * .ClientProperties#WORKER_THREAD_POOL_CONFIG}) and {@link #SELECTOR_THREAD_POOL_CONFIG}; a single selector thread
+     * is used when the selector configuration is not set. Connections with different pool size, thread pool
+     * configurations or idle timeout use different pools.
+     * <p>
+     * Value is expected to be {@code boolean}, default value is {@code false}. When set to {@code true}, it takes
+     * precedence over {@link org.glassfish.tyrus.client.ClientProperties#SHARED_CONTAINER}.
+     */
+    @Beta
+    public static final String TRANSPORT_POOL = "org.glassfish.tyrus.client.grizzly.transportPool";
+
+    /**
+     * Client-side property to set the number of transports in the transport pool (see {@link #TRANSPORT_POOL}).
+     * <p>
+     * Value is expected to be positive {@code int}, default value is the number of available processors.
+     */
+    @Beta
+    public static final String TRANSPORT_POOL_SIZE = "org.glassfish.tyrus.client.grizzly.transportPoolSize";
 }
@@ -175,6 +175,7 @@ public class GrizzlyClientSocket {
     private final ClientEngine clientEngine;
     private final boolean sharedTransport;
     private final Integer sharedTransportTimeout;
+    private final GrizzlyTransportPool transportPool;
     private final Map<String, String> proxyHeaders;
     private final Map<String, Object> properties;
 
@@ -212,7 +213,11 @@ public class GrizzlyClientSocket {
                     shared = true;
                 }
             }
-            sharedTransport = (shared == null ? false : shared);
+            final Boolean pooled = Utils.getProperty(properties, GrizzlyClientProperties.TRANSPORT_POOL, Boolean.class);
+            final boolean transportPoolEnabled = (pooled == null ? false : pooled);
+
+            // transport pool takes precedence over the shared transport.
+            sharedTransport = !transportPoolEnabled && (shared == null ? false : shared);
             if (sharedTransport) {
                 GrizzlyTransportTimeoutFilter.touch();
             }
@@ -221,7 +226,24 @@ public class GrizzlyClientSocket {
                     Utils.getProperty(properties, ClientProperties.SHARED_CONTAINER_IDLE_TIMEOUT, Integer.class);
             // default value for shared transport timeout is 30.
             sharedTransportTimeout =
-                    (sharedTransport && sharedTransportTimeoutProperty != null) ? sharedTransportTimeoutProperty : 30;
+                    ((sharedTransport || transportPoolEnabled) && sharedTransportTimeoutProperty != null)
+                            ? sharedTransportTimeoutProperty : 30;
+
+            if (transportPoolEnabled) {
+                final Integer transportPoolSize =
+                        Utils.getProperty(properties, GrizzlyClientProperties.TRANSPORT_POOL_SIZE, Integer.class);
+                if (transportPoolSize != null && transportPoolSize <= 0) {
+                    throw new DeploymentException(String.format("%s must be positive, was %d.",
+                                                                GrizzlyClientProperties.TRANSPORT_POOL_SIZE,
+                                                                transportPoolSize));
+                }
+
+                transportPool = GrizzlyTransportPool.getInstance(
+                        transportPoolSize == null ? Runtime.getRuntime().availableProcessors() : transportPoolSize,
+                        workerThreadPoolConfig, selectorThreadPoolConfig, sharedTransportTimeout);
+            } else {
+                transportPool = null;
+            }
             this.clientEngine = clientEngine;
         } catch (RuntimeException e) {
             throw new DeploymentException(e.getMessage(), e);
@@ -312,7 +334,8 @@ public class GrizzlyClientSocket {
         }
 
 
-        final ClientEngine.TimeoutHandler timeoutHandler = sharedTransport ? null : new ClientEngine.TimeoutHandler() {
+        final boolean ownTransport = !sharedTransport && transportPool == null;
+        final ClientEngine.TimeoutHandler timeoutHandler = !ownTransport ? null : new ClientEngine.TimeoutHandler() {
             @Override
             public void handleTimeout() {
                 closeTransport(privateTransport);
@@ -326,14 +349,21 @@ public class GrizzlyClientSocket {
         Throwable exception = null;
 
         for (Proxy proxy : proxies) {
-            if (!sharedTransport) {
+            GrizzlyTransportPool.Reference transportReference = null;
+            final TCPNIOTransport connectionTransport;
+            if (transportPool != null) {
+                transportReference = transportPool.acquire();
+                connectionTransport = transportReference.getTransport();
+            } else if (!sharedTransport) {
                 privateTransport = createTransport(workerThreadPoolConfig, selectorThreadPoolConfig);
                 privateTransport.start();
+                connectionTransport = privateTransport;
+            } else {
+                connectionTransport = transport;
             }
 
-            final TCPNIOConnectorHandler connectorHandler =
-                    new TCPNIOConnectorHandler(sharedTransport ? transport : privateTransport) {
-                    };
+            final TCPNIOConnectorHandler connectorHandler = new TCPNIOConnectorHandler(connectionTransport) {
+            };
 
             connectorHandler.setSyncConnectTimeout(timeoutMs, TimeUnit.MILLISECONDS);
 
@@ -345,7 +375,7 @@ public class GrizzlyClientSocket {
                     try {
                         connectAddress = new InetSocketAddress(requestURI.getHost(), Utils.getWsPort(requestURI));
                     } catch (IllegalArgumentException e) {
-                        closeTransport(privateTransport);
+                        closeTransport(privateTransport, transportReference);
                         throw new DeploymentException(e.getMessage(), e);
                     }
 
@@ -379,8 +409,8 @@ public class GrizzlyClientSocket {
             connectorHandler.setProcessor(
                     createFilterChain(clientEngine, null, clientSSLEngineConfigurator,
                                       !(proxy.type() == Proxy.Type.DIRECT), requestURI, sharedTransport,
-                                      sharedTransportTimeout, proxyHeaders, grizzlyConnector, sslHandshakeFuture,
-                                      upgradeRequest));
+                                      sharedTransportTimeout, transportReference, proxyHeaders, grizzlyConnector,
+                                      sslHandshakeFuture, upgradeRequest));
 
             connectionGrizzlyFuture = connectorHandler.connect(connectAddress);
 
@@ -405,11 +435,11 @@ public class GrizzlyClientSocket {
             } catch (InterruptedException interruptedException) {
                 LOGGER.log(Level.CONFIG, String.format("Connection to '%s' failed.", requestURI), interruptedException);
                 exception = interruptedException;
-                closeTransport(privateTransport);
+                closeTransport(privateTransport, transportReference);
             } catch (TimeoutException timeoutException) {
                 LOGGER.log(Level.CONFIG, String.format("Connection to '%s' failed.", requestURI), timeoutException);
                 exception = timeoutException;
-                closeTransport(privateTransport);
+                closeTransport(privateTransport, transportReference);
             } catch (ExecutionException executionException) {
                 LOGGER.log(Level.CONFIG, String.format("Connection to '%s' failed.", requestURI), executionException);
 
@@ -420,7 +450,7 @@ public class GrizzlyClientSocket {
                     ProxySelector.getDefault().connectFailed(requestURI, socketAddress, ioException);
                 }
 
-                closeTransport(privateTransport);
+                closeTransport(privateTransport, transportReference);
             }
         }
 
@@ -640,6 +670,7 @@ public class GrizzlyClientSocket {
                                                boolean proxy,
                                                final URI uri,
                                                boolean sharedTransport, Integer sharedTransportTimeout,
+                                               GrizzlyTransportPool.Reference transportReference,
                                                Map<String, String> proxyHeaders,
                                                Callable<Void> grizzlyConnector,
                                                final TyrusFuture<Void> sslHandshakeFuture,
@@ -648,6 +679,9 @@ public class GrizzlyClientSocket {
         Filter sslFilter = null;
 
         clientFilterChainBuilder.add(new TransportFilter());
+        if (transportReference != null) {
+            clientFilterChainBuilder.add(transportReference.createReleaseFilter());
+        }
         if (serverSSLEngineConfigurator != null || clientSSLEngineConfigurator != null) {
             sslFilter = new SSLFilter(serverSSLEngineConfigurator, clientSSLEngineConfigurator) {
                 {
@@ -705,12 +739,21 @@ public class GrizzlyClientSocket {
 
 
         clientFilterChainBuilder.add(new GrizzlyClientFilter(engine, proxy,
-                                                             sslFilter, httpCodecFilter, uri, sharedTransport,
+                                                             sslFilter, httpCodecFilter, uri,
+                                                             sharedTransport || transportReference != null,
                                                              proxyHeaders, grizzlyConnector, upgradeRequest));
 
         return clientFilterChainBuilder.build();
     }
 
+    private void closeTransport(TCPNIOTransport transport, GrizzlyTransportPool.Reference transportReference) {
+        if (transportReference != null) {
+            transportReference.release();
+        } else {
+            closeTransport(transport);
+        }
+    }
+
     private void closeTransport(TCPNIOTransport transport) {
         if (transport != null) {
             try {
@@ -0,0 +1,320 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.container.grizzly.client;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.glassfish.grizzly.filterchain.BaseFilter;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
+
+/**
+ * A fixed number of {@link TCPNIOTransport}s shared by all client connections that have enabled {@link
+ * GrizzlyClientProperties#TRANSPORT_POOL}.
+ * <p>
+ * Connections are assigned to the transports round-robin, so each transport (with its own selector and worker
+ * threads) serves only a part of the connections. Every transport counts the connections that use it; a transport
+ * is started when the first connection is assigned to it and stopped only when no connection has been using it for
+ * the idle timeout. Assigning a connection and stopping a transport are done under the same lock, so a connection is
+ * never assigned to a transport that is being stopped.
+ * <p>
+ * There is one pool for each distinct configuration (pool size, thread pool configurations and idle timeout).
+ */
+class GrizzlyTransportPool {
+
+    private static final Logger LOGGER = Logger.getLogger(GrizzlyTransportPool.class.getName());
+
+    /**
+     * Pools with distinct configurations. {@link ThreadPoolConfig} does not implement {@code equals}, so the
+     * configurations are compared by {@link #matches}; there are typically only a few of them.
+     */
+    private static final List<GrizzlyTransportPool> REGISTRY = new CopyOnWriteArrayList<GrizzlyTransportPool>();
+
+    private static final ScheduledExecutorService idleTimeoutExecutor =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r);
+                    thread.setName("tyrus-grizzly-transport-pool-idle-timeout");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final PooledTransport[] transports;
+    private final ThreadPoolConfig workerThreadPoolConfig;
+    private final ThreadPoolConfig selectorThreadPoolConfig;
+    private final int idleTimeout;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private GrizzlyTransportPool(int size, ThreadPoolConfig workerThreadPoolConfig,
+                                 ThreadPoolConfig selectorThreadPoolConfig, int idleTimeout) {
+        this.workerThreadPoolConfig = workerThreadPoolConfig;
+        this.selectorThreadPoolConfig = selectorThreadPoolConfig;
+        this.idleTimeout = idleTimeout;
+        this.transports = new PooledTransport[size];
+        for (int i = 0; i < size; i++) {
+            transports[i] = new PooledTransport();
+        }
+    }
+
+    /**
+     * Get the transport pool for the given configuration, create it if it does not exist yet.
+     *
+     * @param size                     number of transports.
+     * @param workerThreadPoolConfig   worker thread pool configuration of each transport, {@code null} for default.
+     * @param selectorThreadPoolConfig selector thread pool configuration of each transport, {@code null} for a
+     *                                 single selector thread.
+     * @param idleTimeout              time in seconds after which an unused transport is stopped.
+     * @return transport pool.
+     */
+    static GrizzlyTransportPool getInstance(int size, ThreadPoolConfig workerThreadPoolConfig,
+                                            ThreadPoolConfig selectorThreadPoolConfig, int idleTimeout) {
+        final int count = Math.max(size, 1);
+
+        for (GrizzlyTransportPool pool : REGISTRY) {
+            if (pool.matches(count, workerThreadPoolConfig, selectorThreadPoolConfig, idleTimeout)) {
+                return pool;
+            }
+        }
+
+        synchronized (REGISTRY) {
+            for (GrizzlyTransportPool pool : REGISTRY) {
+                if (pool.matches(count, workerThreadPoolConfig, selectorThreadPoolConfig, idleTimeout)) {
+                    return pool;
+                }
+            }
+
+            final GrizzlyTransportPool pool = new GrizzlyTransportPool(
+                    count, workerThreadPoolConfig == null ? null : workerThreadPoolConfig.copy(),
+                    selectorThreadPoolConfig == null ? null : selectorThreadPoolConfig.copy(), idleTimeout);
+            REGISTRY.add(pool);
+            return pool;
+        }
+    }
+
+    private boolean matches(int size, ThreadPoolConfig workerThreadPoolConfig,
+                            ThreadPoolConfig selectorThreadPoolConfig, int idleTimeout) {
+        return transports.length == size && this.idleTimeout == idleTimeout
+                && sameConfig(this.workerThreadPoolConfig, workerThreadPoolConfig)
+                && sameConfig(this.selectorThreadPoolConfig, selectorThreadPoolConfig);
+    }
+
+    /**
+     * Compare the settings of two thread pool configurations. Objects referenced by the configurations (queue,
+     * thread factory, class loader) are compared by identity.
+     */
+    private static boolean sameConfig(ThreadPoolConfig config1, ThreadPoolConfig config2) {
+        if (config1 == null || config2 == null) {
+            return config1 == config2;
+        }
+
+        return config1.getCorePoolSize() == config2.getCorePoolSize()
+                && config1.getMaxPoolSize() == config2.getMaxPoolSize()
+                && config1.getQueueLimit() == config2.getQueueLimit()
+                && config1.getKeepAliveTime(TimeUnit.MILLISECONDS) == config2.getKeepAliveTime(TimeUnit.MILLISECONDS)
+                && config1.getPriority() == config2.getPriority()
+                && config1.isDaemon() == config2.isDaemon()
+                && (config1.getPoolName() == null
+                ? config2.getPoolName() == null : config1.getPoolName().equals(config2.getPoolName()))
+                && config1.getQueue() == config2.getQueue()
+                && config1.getThreadFactory() == config2.getThreadFactory()
+                && config1.getInitialClassLoader() == config2.getInitialClassLoader();
+    }
+
+    /**
+     * Assign a new connection to one of the transports.
+     *
+     * @return reference to the transport, which has to be released when the connection is closed or could not be
+     * established.
+     * @throws IOException if the transport could not be started.
+     */
+    Reference acquire() throws IOException {
+        final PooledTransport transport =
+                transports[(next.getAndIncrement() & Integer.MAX_VALUE) % transports.length];
+        return new Reference(transport, transport.acquire());
+    }
+
+    private TCPNIOTransport createTransport() {
+        TCPNIOTransportBuilder transportBuilder = TCPNIOTransportBuilder.newInstance();
+        // see GrizzlyClientSocket#createTransport
+        transportBuilder.setReuseAddress(false);
+        transportBuilder.setWorkerThreadPoolConfig(
+                workerThreadPoolConfig == null ? ThreadPoolConfig.defaultConfig() : workerThreadPoolConfig.copy());
+
+        if (selectorThreadPoolConfig == null) {
+            // the pool itself spreads the connections over multiple selectors
+            transportBuilder.setSelectorThreadPoolConfig(
+                    ThreadPoolConfig.defaultConfig().setMaxPoolSize(1).setCorePoolSize(1));
+            TCPNIOTransport transport = transportBuilder.build();
+            transport.setSelectorRunnersCount(1);
+            return transport;
+        }
+
+        transportBuilder.setSelectorThreadPoolConfig(selectorThreadPoolConfig.copy());
+        TCPNIOTransport transport = transportBuilder.build();
+        transport.setSelectorRunnersCount(selectorThreadPoolConfig.getMaxPoolSize());
+        return transport;
+    }
+
+    /**
+     * Reference to a pooled transport held by a single connection.
+     */
+    static class Reference {
+
+        private final PooledTransport pooledTransport;
+        private final TCPNIOTransport transport;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Reference(PooledTransport pooledTransport, TCPNIOTransport transport) {
+            this.pooledTransport = pooledTransport;
+            this.transport = transport;
+        }
+
+        /**
+         * Get the transport the connection should be opened with.
+         *
+         * @return transport.
+         */
+        TCPNIOTransport getTransport() {
+            return transport;
+        }
+
+        /**
+         * Release the transport. Calling this method more than once has no effect.
+         */
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                pooledTransport.release();
+            }
+        }
+
+        /**
+         * Create a filter that releases this reference when the connection is closed.
+         *
+         * @return filter to be added to the filter chain of the connection.
+         */
+        BaseFilter createReleaseFilter() {
+            return new BaseFilter() {
+                @Override
+                public NextAction handleClose(FilterChainContext ctx) throws IOException {
+                    release();
+                    return super.handleClose(ctx);
+                }
+            };
+        }
+    }
+
+    private class PooledTransport {
+
+        // all fields guarded by this
+        private TCPNIOTransport transport;
+        private IdleTimeoutTask idleTimeoutTask;
+        private int references = 0;
+
+        synchronized TCPNIOTransport acquire() throws IOException {
+            if (idleTimeoutTask != null) {
+                idleTimeoutTask.future.cancel(false);
+                idleTimeoutTask = null;
+            }
+
+            if (transport == null) {
+                LOGGER.log(Level.FINE, "Starting pooled transport.");
+                final TCPNIOTransport newTransport = createTransport();
+                newTransport.start();
+                transport = newTransport;
+            }
+
+            references++;
+            return transport;
+        }
+
+        synchronized void release() {
+            references--;
+            if (references == 0) {
+                final IdleTimeoutTask task = new IdleTimeoutTask();
+                task.future = idleTimeoutExecutor.schedule(task, idleTimeout, TimeUnit.SECONDS);
+                idleTimeoutTask = task;
+            }
+        }
+
+        private synchronized void stopIfUnused(IdleTimeoutTask task) {
+            // a task cancelled too late must not stop a transport which has been acquired and released since
+            if (references != 0 || idleTimeoutTask != task || transport == null) {
+                return;
+            }
+
+            LOGGER.log(Level.FINE, "Stopping pooled transport.");
+            try {
+                transport.shutdownNow();
+            } catch (IOException e) {
+                LOGGER.log(Level.INFO, "Exception thrown when closing Grizzly transport: " + e.getMessage(), e);
+            }
+            transport = null;
+            idleTimeoutTask = null;
+        }
+
+        private class IdleTimeoutTask implements Runnable {
+
+            // guarded by PooledTransport.this
+            private ScheduledFuture<?> future;
+
+            @Override
+            public void run() {
+                stopIfUnused(this);
+            }
+        }
+    }
+}
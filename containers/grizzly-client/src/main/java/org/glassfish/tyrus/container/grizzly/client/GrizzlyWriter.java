@@ -51,7 +51,11 @@ import org.glassfish.grizzly.Buffer;
 import org.glassfish.grizzly.Connection;
 import org.glassfish.grizzly.EmptyCompletionHandler;
 import org.glassfish.grizzly.WriteHandler;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.NextAction;
 import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.CompositeBuffer;
+import org.glassfish.grizzly.memory.MemoryManager;
 
 import static org.glassfish.tyrus.container.grizzly.client.TaskProcessor.Task;
 
@@ -61,8 +65,13 @@ import static org.glassfish.tyrus.container.grizzly.client.TaskProcessor.Task;
 public class GrizzlyWriter extends Writer {
 
     private final TaskProcessor taskProcessor;
+    private final Object readLock = new Object();
     final org.glassfish.grizzly.Connection connection;
 
+    // guarded by readLock
+    private boolean suspendRequested = false;
+    private FilterChainContext suspendedContext = null;
+
     public GrizzlyWriter(final org.glassfish.grizzly.Connection connection) {
         this.connection = connection;
         this.connection.configureBlocking(false);
@@ -78,30 +87,37 @@ public class GrizzlyWriter extends Writer {
 
         final Buffer message = Buffers.wrap(connection.getTransport().getMemoryManager(), buffer);
 
-        final EmptyCompletionHandler emptyCompletionHandler = new EmptyCompletionHandler() {
-            @Override
-            public void cancelled() {
-                if (completionHandler != null) {
-                    completionHandler.cancelled();
-                }
-            }
+        taskProcessor.processTask(new WriteTask(connection, message,
+                                                new CompletionHandlerAdapter<ByteBuffer>(completionHandler, buffer)));
+    }
 
-            @Override
-            public void completed(Object result) {
-                if (completionHandler != null) {
-                    completionHandler.completed(buffer);
-                }
-            }
+    /**
+     * Writes the buffers as one composite Grizzly buffer, so they don't need to be merged.
+     *
+     * @param buffers           bytes to write.
+     * @param completionHandler completion handler to know the write status.
+     */
+    @Override
+    public void write(final ByteBuffer[] buffers, final CompletionHandler<ByteBuffer[]> completionHandler) {
+        if (!connection.isOpen()) {
+            completionHandler.failed(new IllegalStateException("Connection is not open."));
+            return;
+        }
 
-            @Override
-            public void failed(Throwable throwable) {
-                if (completionHandler != null) {
-                    completionHandler.failed(throwable);
-                }
-            }
-        };
+        final MemoryManager memoryManager = connection.getTransport().getMemoryManager();
+        final Buffer[] wrapped = new Buffer[buffers.length];
+        for (int i = 0; i < buffers.length; i++) {
+            wrapped[i] = Buffers.wrap(memoryManager, buffers[i]);
+        }
 
-        taskProcessor.processTask(new WriteTask(connection, message, emptyCompletionHandler));
+        final CompositeBuffer message = CompositeBuffer.newBuffer(memoryManager, wrapped);
+        // the buffers are owned by Tyrus runtime, Grizzly must not return them to its pool.
+        message.allowBufferDispose(false);
+        message.allowInternalBuffersDispose(false);
+
+        final CompletionHandlerAdapter<ByteBuffer[]> adapter =
+                new CompletionHandlerAdapter<ByteBuffer[]>(completionHandler, buffers);
+        taskProcessor.processTask(new WriteTask(connection, message, adapter));
     }
 
     private class WriterCondition implements TaskProcessor.Condition {
@@ -133,6 +149,51 @@ public class GrizzlyWriter extends Writer {
         }
     }
 
+    @Override
+    public boolean suspendReading() {
+        synchronized (readLock) {
+            suspendRequested = true;
+        }
+        return true;
+    }
+
+    @Override
+    public void resumeReading() {
+        final FilterChainContext context;
+        synchronized (readLock) {
+            suspendRequested = false;
+            context = suspendedContext;
+            suspendedContext = null;
+        }
+
+        if (context != null) {
+            // completes the suspended read, which makes Grizzly enable the read interest again.
+            context.resume(context.getStopAction());
+        }
+    }
+
+    /**
+     * Finish processing of data read from the connection.
+     * <p>
+     * Filters passing the read data to Tyrus return the result of this method from their {@code handleRead} method.
+     * If reading has been suspended, the processing of the current read event is suspended, so Grizzly does not read
+     * from the connection until {@link #resumeReading()} is invoked.
+     *
+     * @param ctx context of the current read event.
+     * @return next action to be returned from {@code handleRead}.
+     */
+    public NextAction readCompleted(FilterChainContext ctx) {
+        synchronized (readLock) {
+            if (suspendRequested && suspendedContext == null) {
+                ctx.suspend();
+                suspendedContext = ctx;
+                return ctx.getSuspendAction();
+            }
+        }
+
+        return ctx.getStopAction();
+    }
+
     @Override
     public void close() {
         taskProcessor.processTask(new CloseTask(connection));
@@ -153,6 +214,42 @@ public class GrizzlyWriter extends Writer {
         return this.getClass().getName() + " " + connection.toString() + " " + connection.hashCode();
     }
 
+    /**
+     * Notifies Tyrus {@link CompletionHandler} about the status of a Grizzly write.
+     *
+     * @param <T> type of the written data.
+     */
+    private static class CompletionHandlerAdapter<T> extends EmptyCompletionHandler {
+        private final CompletionHandler<T> completionHandler;
+        private final T data;
+
+        private CompletionHandlerAdapter(CompletionHandler<T> completionHandler, T data) {
+            this.completionHandler = completionHandler;
+            this.data = data;
+        }
+
+        @Override
+        public void cancelled() {
+            if (completionHandler != null) {
+                completionHandler.cancelled();
+            }
+        }
+
+        @Override
+        public void completed(Object result) {
+            if (completionHandler != null) {
+                completionHandler.completed(data);
+            }
+        }
+
+        @Override
+        public void failed(Throwable throwable) {
+            if (completionHandler != null) {
+                completionHandler.failed(throwable);
+            }
+        }
+    }
+
     private class WriteTask extends Task {
         private final Connection connection;
         private final Buffer message;
@@ -52,6 +52,7 @@ import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 
 import org.glassfish.tyrus.core.DebugContext;
+import org.glassfish.tyrus.core.SessionAdmissionController;
 import org.glassfish.tyrus.core.TyrusWebSocketEngine;
 import org.glassfish.tyrus.core.Utils;
 import org.glassfish.tyrus.core.cluster.ClusterContext;
@@ -122,8 +123,17 @@ public class GrizzlyServerContainer extends ServerContainerFactory {
                 Utils.getProperty(localProperties, TyrusWebSocketEngine.MAX_SESSIONS_PER_APP, Integer.class);
         final Integer maxSessionsPerRemoteAddr =
                 Utils.getProperty(localProperties, TyrusWebSocketEngine.MAX_SESSIONS_PER_REMOTE_ADDR, Integer.class);
+        final SessionAdmissionController admissionController =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.ADMISSION_CONTROLLER,
+                                  SessionAdmissionController.class);
         final Boolean parallelBroadcastEnabled =
                 Utils.getProperty(localProperties, TyrusWebSocketEngine.PARALLEL_BROADCAST_ENABLED, Boolean.class);
+        final Boolean orderedDispatchEnabled =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.ORDERED_DISPATCH_ENABLED, Boolean.class);
+        final Integer orderedDispatchMaxBacklog =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.ORDERED_DISPATCH_MAX_BACKLOG, Integer.class);
+        final boolean virtualThreadsEnabled =
+                Utils.getProperty(localProperties, TyrusWebSocketEngine.VIRTUAL_THREADS_ENABLED, Boolean.class, false);
         final DebugContext.TracingType tracingType =
                 Utils.getProperty(localProperties, TyrusWebSocketEngine.TRACING_TYPE, DebugContext.TracingType.class,
                                   DebugContext.TracingType.OFF);
@@ -140,7 +150,10 @@ public class GrizzlyServerContainer extends ServerContainerFactory {
                                         .applicationEventListener(applicationEventListener)
                                         .maxSessionsPerApp(maxSessionsPerApp)
                                         .maxSessionsPerRemoteAddr(maxSessionsPerRemoteAddr)
+                                        .admissionController(admissionController)
                                         .parallelBroadcastEnabled(parallelBroadcastEnabled)
+                                        .orderedDispatchEnabled(orderedDispatchEnabled)
+                                        .orderedDispatchMaxBacklog(orderedDispatchMaxBacklog)
                                         .tracingType(tracingType)
                                         .tracingThreshold(tracingThreshold)
                                         .build();
@@ -164,6 +177,11 @@ public class GrizzlyServerContainer extends ServerContainerFactory {
                 return engine;
             }
 
+            @Override
+            protected boolean isVirtualThreadsEnabled() {
+                return virtualThreadsEnabled;
+            }
+
             @Override
             public void start(final String rootPath, int port) throws IOException, DeploymentException {
                 contextPath = rootPath;
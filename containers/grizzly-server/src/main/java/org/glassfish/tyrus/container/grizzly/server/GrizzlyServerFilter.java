@@ -210,21 +210,9 @@ class GrizzlyServerFilter extends BaseFilter {
             Buffer buffer = message.getContent();
             message.recycle();
             final ReadHandler readHandler = tyrusConnection.getReadHandler();
-            TaskProcessor taskProcessor = getTaskProcessor(ctx);
-            if (!buffer.isComposite()) {
-                taskProcessor.processTask(new ProcessTask(buffer.toByteBuffer(), readHandler));
-            } else {
-                final ByteBufferArray byteBufferArray = buffer.toByteBufferArray();
-                final ByteBuffer[] array = byteBufferArray.getArray();
-
-                for (int i = 0; i < byteBufferArray.size(); i++) {
-                    taskProcessor.processTask(new ProcessTask(array[i], readHandler));
-                }
-
-                byteBufferArray.recycle();
-            }
+            getTaskProcessor(ctx).processTask(new ProcessTask(buffer, readHandler));
         }
-        return ctx.getStopAction();
+        return ((GrizzlyWriter) tyrusConnection.getWriter()).readCompleted(ctx);
     }
 
     private org.glassfish.tyrus.spi.Connection getConnection(FilterChainContext ctx) {
@@ -365,18 +353,41 @@ class GrizzlyServerFilter extends BaseFilter {
         return requestContext;
     }
 
+    /**
+     * Passes the content of a Grizzly {@link Buffer} to the {@link ReadHandler}.
+     * <p>
+     * Composite buffers are not merged; their components are handed over one by one, since the frame parser is able
+     * to continue with a frame split between them. The read handler consumes all the data and keeps no reference to
+     * it, so the buffer is released back to the memory manager when the handler returns.
+     */
     private class ProcessTask extends TaskProcessor.Task {
-        private final ByteBuffer buffer;
+        private final Buffer buffer;
         private final ReadHandler readHandler;
 
-        private ProcessTask(ByteBuffer buffer, ReadHandler readHandler) {
+        private ProcessTask(Buffer buffer, ReadHandler readHandler) {
             this.buffer = buffer;
             this.readHandler = readHandler;
         }
 
         @Override
         public void execute() {
-            readHandler.handle(buffer);
+            try {
+                if (!buffer.isComposite()) {
+                    readHandler.handle(buffer.toByteBuffer());
+                } else {
+                    final ByteBufferArray byteBufferArray = buffer.toByteBufferArray();
+                    try {
+                        final ByteBuffer[] array = byteBufferArray.getArray();
+                        for (int i = 0; i < byteBufferArray.size(); i++) {
+                            readHandler.handle(array[i]);
+                        }
+                    } finally {
+                        byteBufferArray.recycle();
+                    }
+                }
+            } finally {
+                buffer.tryDispose();
+            }
         }
     }
 
@@ -52,9 +52,14 @@ import javax.websocket.server.ServerApplicationConfig;
 import javax.websocket.server.ServerEndpointConfig;
 
 import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.core.Beta;
+import org.glassfish.tyrus.core.FrameReadHandler;
+import org.glassfish.tyrus.core.FrameWriter;
 import org.glassfish.tyrus.core.RequestContext;
 import org.glassfish.tyrus.core.TyrusUpgradeResponse;
 import org.glassfish.tyrus.core.TyrusWebSocketEngine;
+import org.glassfish.tyrus.core.Utils;
+import org.glassfish.tyrus.core.frame.Frame;
 import org.glassfish.tyrus.server.TyrusServerContainer;
 import org.glassfish.tyrus.spi.ClientContainer;
 import org.glassfish.tyrus.spi.ClientEngine;
@@ -80,6 +85,19 @@ public class InMemoryClientContainer implements ClientContainer {
      */
     public static final String SERVER_CONFIG = "org.glassfish.tyrus.container.inmemory.ServerConfig";
 
+    /**
+     * Property used to enable passing frames directly between the client and the server.
+     * <p>
+     * When enabled, outgoing frames are handed to the other side of the connection as objects, so they are not
+     * masked, serialized and parsed again. Extensions, close handshake and the incoming message size limits work the
+     * same way as without this property.
+     * <p>
+     * Value is expected to be {@code boolean}, default value is {@code false}. Can be set in {@link
+     * ClientManager#getProperties()} or as user property in {@link javax.websocket.ClientEndpointConfig}.
+     */
+    @Beta
+    public static final String DIRECT_FRAMES = "org.glassfish.tyrus.container.inmemory.directFrames";
+
     @Override
     public void openClientSocket(ClientEndpointConfig cec, Map<String, Object> properties,
                                  final ClientEngine clientEngine) throws DeploymentException, IOException {
@@ -147,18 +165,35 @@ public class InMemoryClientContainer implements ClientContainer {
                 throw new DeploymentException("");
             case SUCCESS:
 
-                final InMemoryWriter clientWriter = new InMemoryWriter() {
-                    @Override
-                    public void close() throws IOException {
-                        tyrusServerContainer.shutdown();
-                    }
-                };
-                final InMemoryWriter serverWriter = new InMemoryWriter() {
-                    @Override
-                    public void close() throws IOException {
-                        tyrusServerContainer.shutdown();
-                    }
-                };
+                final Writer clientWriter;
+                final Writer serverWriter;
+                if (isDirectFrames(cec, properties)) {
+                    clientWriter = new InMemoryFrameWriter() {
+                        @Override
+                        public void close() throws IOException {
+                            tyrusServerContainer.shutdown();
+                        }
+                    };
+                    serverWriter = new InMemoryFrameWriter() {
+                        @Override
+                        public void close() throws IOException {
+                            tyrusServerContainer.shutdown();
+                        }
+                    };
+                } else {
+                    clientWriter = new InMemoryWriter() {
+                        @Override
+                        public void close() throws IOException {
+                            tyrusServerContainer.shutdown();
+                        }
+                    };
+                    serverWriter = new InMemoryWriter() {
+                        @Override
+                        public void close() throws IOException {
+                            tyrusServerContainer.shutdown();
+                        }
+                    };
+                }
 
                 final Connection serverConnection = upgradeInfo.createConnection(serverWriter, null);
                 final ClientEngine.ClientUpgradeInfo clientClientUpgradeInfo =
@@ -169,11 +204,20 @@ public class InMemoryClientContainer implements ClientContainer {
                     throw new DeploymentException("");
                 }
 
-                serverWriter.setReadHandler(clientConnection.getReadHandler());
-                clientWriter.setReadHandler(serverConnection.getReadHandler());
+                ((ReadHandlerAware) serverWriter).setReadHandler(clientConnection.getReadHandler());
+                ((ReadHandlerAware) clientWriter).setReadHandler(serverConnection.getReadHandler());
         }
     }
 
+    private static boolean isDirectFrames(ClientEndpointConfig cec, Map<String, Object> properties) {
+        final Boolean directFrames = Utils.getProperty(properties, DIRECT_FRAMES, Boolean.class);
+        if (directFrames != null) {
+            return directFrames;
+        }
+
+        return Utils.getProperty(cec.getUserProperties(), DIRECT_FRAMES, Boolean.class, false);
+    }
+
     private ServerApplicationConfig getServerApplicationConfig(ClientEndpointConfig clientEndpointConfig) throws
             DeploymentException {
         final Object o = clientEndpointConfig.getUserProperties().get(SERVER_CONFIG);
@@ -184,7 +228,12 @@ public class InMemoryClientContainer implements ClientContainer {
         throw new DeploymentException("ServerApplicationConfig not present.");
     }
 
-    private abstract static class InMemoryWriter extends Writer {
+    private interface ReadHandlerAware {
+
+        void setReadHandler(ReadHandler readHandler);
+    }
+
+    private abstract static class InMemoryWriter extends Writer implements ReadHandlerAware {
 
         private final List<ByteBuffer> cache = new ArrayList<ByteBuffer>();
         private volatile ReadHandler readHandler = null;
@@ -202,7 +251,8 @@ public class InMemoryClientContainer implements ClientContainer {
             }
         }
 
-        private void setReadHandler(ReadHandler readHandler) {
+        @Override
+        public void setReadHandler(ReadHandler readHandler) {
             synchronized (cache) {
                 for (ByteBuffer buffer : cache) {
                     readHandler.handle(buffer);
@@ -211,4 +261,61 @@ public class InMemoryClientContainer implements ClientContainer {
             }
         }
     }
+
+    /**
+     * Writer passing frames directly to {@link FrameReadHandler} of the other side.
+     * <p>
+     * Serialized data (e.g. broadcast frames) is passed as it is, the order of frames and serialized data is kept.
+     */
+    private abstract static class InMemoryFrameWriter extends FrameWriter implements ReadHandlerAware {
+
+        // ByteBuffer or Frame instances written before the read handler was set
+        private final List<Object> cache = new ArrayList<Object>();
+        private volatile FrameReadHandler readHandler = null;
+
+        @Override
+        public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+            synchronized (cache) {
+                if (readHandler == null) {
+                    cache.add(buffer);
+                } else {
+                    readHandler.handle(buffer);
+                }
+
+                completionHandler.completed(buffer);
+            }
+        }
+
+        @Override
+        public void write(Frame frame, CompletionHandler<Frame> completionHandler) {
+            synchronized (cache) {
+                if (readHandler == null) {
+                    cache.add(frame);
+                } else {
+                    readHandler.handle(frame);
+                }
+
+                completionHandler.completed(frame);
+            }
+        }
+
+        @Override
+        public void setReadHandler(ReadHandler readHandler) {
+            if (!(readHandler instanceof FrameReadHandler)) {
+                throw new IllegalStateException("Direct frames require read handler of Tyrus runtime.");
+            }
+
+            final FrameReadHandler frameReadHandler = (FrameReadHandler) readHandler;
+            synchronized (cache) {
+                for (Object data : cache) {
+                    if (data instanceof Frame) {
+                        frameReadHandler.handle((Frame) data);
+                    } else {
+                        frameReadHandler.handle((ByteBuffer) data);
+                    }
+                }
+                this.readHandler = frameReadHandler;
+            }
+        }
+    }
 }
@@ -0,0 +1,246 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.container.inmemory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.websocket.ClientEndpointConfig;
+import javax.websocket.CloseReason;
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.MessageHandler;
+import javax.websocket.OnMessage;
+import javax.websocket.Session;
+import javax.websocket.server.ServerApplicationConfig;
+import javax.websocket.server.ServerEndpoint;
+import javax.websocket.server.ServerEndpointConfig;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.client.ClientProperties;
+import org.glassfish.tyrus.server.TyrusServerConfiguration;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link InMemoryClientContainer#DIRECT_FRAMES}.
+ */
+public class DirectFramesTest {
+
+    private static final String MESSAGE = "in-memory direct frames";
+
+    @ServerEndpoint("/echo")
+    public static class EchoEndpoint {
+
+        @OnMessage
+        public String onMessage(String message) {
+            return message;
+        }
+
+        @OnMessage
+        public byte[] onMessage(byte[] message) {
+            return message;
+        }
+    }
+
+    @ServerEndpoint("/store")
+    public static class StoringEndpoint {
+
+        private static final AtomicReference<byte[]> RECEIVED = new AtomicReference<byte[]>();
+        private static final CountDownLatch MESSAGE_LATCH = new CountDownLatch(1);
+
+        @OnMessage
+        public void onMessage(byte[] message) {
+            RECEIVED.set(message);
+            MESSAGE_LATCH.countDown();
+        }
+    }
+
+    @Test
+    public void testText() throws Exception {
+        final CountDownLatch messageLatch = new CountDownLatch(1);
+
+        final Session session = connect(createClient(), new Endpoint() {
+            @Override
+            public void onOpen(Session session, EndpointConfig config) {
+                session.addMessageHandler(new MessageHandler.Whole<String>() {
+                    @Override
+                    public void onMessage(String message) {
+                        if (MESSAGE.equals(message)) {
+                            messageLatch.countDown();
+                        }
+                    }
+                });
+            }
+        });
+
+        session.getBasicRemote().sendText(MESSAGE);
+        assertTrue(messageLatch.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPartialText() throws Exception {
+        final CountDownLatch messageLatch = new CountDownLatch(1);
+
+        final Session session = connect(createClient(), new Endpoint() {
+            @Override
+            public void onOpen(Session session, EndpointConfig config) {
+                session.addMessageHandler(new MessageHandler.Whole<String>() {
+                    @Override
+                    public void onMessage(String message) {
+                        if ((MESSAGE + MESSAGE).equals(message)) {
+                            messageLatch.countDown();
+                        }
+                    }
+                });
+            }
+        });
+
+        session.getBasicRemote().sendText(MESSAGE, false);
+        session.getBasicRemote().sendText(MESSAGE, true);
+        assertTrue(messageLatch.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testBinaryPayloadNotShared() throws Exception {
+        final byte[] sent = MESSAGE.getBytes("UTF-8");
+        final byte[] expected = Arrays.copyOf(sent, sent.length);
+
+        final Session session = connect(createClient(), new Endpoint() {
+            @Override
+            public void onOpen(Session session, EndpointConfig config) {
+            }
+        }, "/store");
+
+        session.getBasicRemote().sendBinary(ByteBuffer.wrap(sent));
+        // the sender is free to reuse its array once the send has returned
+        Arrays.fill(sent, (byte) 0);
+
+        assertTrue(StoringEndpoint.MESSAGE_LATCH.await(1, TimeUnit.SECONDS));
+        assertArrayEquals(expected, StoringEndpoint.RECEIVED.get());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        final CountDownLatch closeLatch = new CountDownLatch(1);
+        final AtomicReference<CloseReason> closeReason = new AtomicReference<CloseReason>();
+
+        final Session session = connect(createClient(), new Endpoint() {
+            @Override
+            public void onOpen(Session session, EndpointConfig config) {
+            }
+
+            @Override
+            public void onClose(Session session, CloseReason reason) {
+                closeReason.set(reason);
+                closeLatch.countDown();
+            }
+        });
+
+        session.close(new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "bye"));
+        assertTrue(closeLatch.await(1, TimeUnit.SECONDS));
+        assertEquals(CloseReason.CloseCodes.GOING_AWAY, closeReason.get().getCloseCode());
+    }
+
+    @Test
+    public void testIncomingSizeLimit() throws Exception {
+        final CountDownLatch closeLatch = new CountDownLatch(1);
+        final AtomicReference<CloseReason> closeReason = new AtomicReference<CloseReason>();
+
+        final ClientManager client = createClient();
+        client.getProperties().put(ClientProperties.INCOMING_BUFFER_SIZE, MESSAGE.length() - 1);
+
+        final Session session = connect(client, new Endpoint() {
+            @Override
+            public void onOpen(Session session, EndpointConfig config) {
+                session.addMessageHandler(new MessageHandler.Whole<String>() {
+                    @Override
+                    public void onMessage(String message) {
+                    }
+                });
+            }
+
+            @Override
+            public void onClose(Session session, CloseReason reason) {
+                closeReason.set(reason);
+                closeLatch.countDown();
+            }
+        });
+
+        // the echoed message is bigger than the client accepts.
+        session.getBasicRemote().sendText(MESSAGE);
+        assertTrue(closeLatch.await(1, TimeUnit.SECONDS));
+        assertEquals(CloseReason.CloseCodes.UNEXPECTED_CONDITION, closeReason.get().getCloseCode());
+    }
+
+    private ClientManager createClient() {
+        final ClientManager client = ClientManager.createClient(InMemoryClientContainer.class.getName());
+        client.getProperties().put(InMemoryClientContainer.DIRECT_FRAMES, true);
+        return client;
+    }
+
+    private Session connect(ClientManager client, Endpoint endpoint) throws IOException, DeploymentException {
+        return connect(client, endpoint, "/echo");
+    }
+
+    private Session connect(ClientManager client, Endpoint endpoint, String path)
+            throws IOException, DeploymentException {
+        final ServerApplicationConfig serverConfig = new TyrusServerConfiguration(
+                new HashSet<Class<?>>(Arrays.<Class<?>>asList(EchoEndpoint.class, StoringEndpoint.class)),
+                Collections.<ServerEndpointConfig>emptySet());
+
+        final ClientEndpointConfig cec = ClientEndpointConfig.Builder.create().build();
+        cec.getUserProperties().put(InMemoryClientContainer.SERVER_CONFIG, serverConfig);
+
+        return client.connectToServer(endpoint, cec, URI.create("ws://inmemory" + path));
+    }
+}
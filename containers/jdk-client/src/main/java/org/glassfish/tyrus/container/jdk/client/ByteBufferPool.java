@@ -0,0 +1,133 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.container.jdk.client;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of heap {@link ByteBuffer}s shared by all the connections.
+ * <p>
+ * Buffers are pooled by their capacity. The buffers are meant to be borrowed only for the duration of a single
+ * operation (like {@link javax.net.ssl.SSLEngine#wrap(ByteBuffer, ByteBuffer)}), so a connection does not hold any
+ * buffer while it is idle. At most {@code maxPooled} buffers of each capacity are kept, buffers released over the
+ * limit are left to the garbage collector.
+ */
+class ByteBufferPool {
+
+    private final ConcurrentMap<Integer, SizePool> pools = new ConcurrentHashMap<Integer, SizePool>();
+    private final int maxPooled;
+
+    /**
+     * Constructor.
+     *
+     * @param maxPooled maximal number of buffers of the same capacity kept in the pool.
+     */
+    ByteBufferPool(int maxPooled) {
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Borrow a cleared buffer of the given capacity.
+     *
+     * @param capacity capacity of the buffer.
+     * @return buffer from the pool or a newly allocated one if the pool does not have any buffer of the capacity.
+     */
+    ByteBuffer acquire(int capacity) {
+        final SizePool pool = pools.get(capacity);
+        if (pool != null) {
+            final ByteBuffer buffer = pool.buffers.poll();
+            if (buffer != null) {
+                pool.count.decrementAndGet();
+                buffer.clear();
+                return buffer;
+            }
+        }
+
+        return ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * Return a buffer obtained by {@link #acquire(int)} to the pool. The buffer must not be used after it has been
+     * released.
+     *
+     * @param buffer buffer to be returned.
+     */
+    void release(ByteBuffer buffer) {
+        final int capacity = buffer.capacity();
+        SizePool pool = pools.get(capacity);
+        if (pool == null) {
+            final SizePool newPool = new SizePool();
+            pool = pools.putIfAbsent(capacity, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+
+        if (pool.count.incrementAndGet() > maxPooled) {
+            pool.count.decrementAndGet();
+            return;
+        }
+
+        pool.buffers.offer(buffer);
+    }
+
+    /**
+     * Get the number of buffers of the given capacity that are currently in the pool.
+     *
+     * @param capacity capacity of the buffers.
+     * @return number of pooled buffers.
+     */
+    int getPooledCount(int capacity) {
+        final SizePool pool = pools.get(capacity);
+        return pool == null ? 0 : pool.count.get();
+    }
+
+    private static class SizePool {
+
+        private final Queue<ByteBuffer> buffers = new ConcurrentLinkedQueue<ByteBuffer>();
+        private final AtomicInteger count = new AtomicInteger();
+    }
+}
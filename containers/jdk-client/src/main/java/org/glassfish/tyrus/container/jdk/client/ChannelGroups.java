@@ -0,0 +1,279 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.container.jdk.client;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.glassfish.tyrus.client.ThreadPoolConfig;
+import org.glassfish.tyrus.core.VirtualThreads;
+
+/**
+ * Set of {@link AsynchronousChannelGroup}s shared by all JDK client connections with the same configuration.
+ * <p>
+ * Each configuration (thread pool config, idle timeout and number of groups) gets its own set of groups, so a
+ * connection with a different configuration never tears down groups used by other connections. Every group has its
+ * own thread pool created from the {@link ThreadPoolConfig}; connections are assigned to the groups either
+ * round-robin or by the hash of the remote address.
+ * <p>
+ * A group is created lazily when a connection is assigned to it and shut down when no connection has been using it
+ * for the idle timeout. Opening and closing a connection synchronizes only on the group the connection is assigned
+ * to.
+ * <p>
+ * The thread pools of the groups always use platform threads: the JDK runs the event handling of a group with a
+ * cached thread pool on the pool threads, which block in the selector and would pin the carriers of virtual threads.
+ * When virtual threads are enabled, the connections process completed operations on {@link #getHandlerExecutor()}
+ * instead.
+ */
+class ChannelGroups {
+
+    private static final int DEFAULT_CONNECTION_CLOSE_WAIT = 30;
+
+    /**
+     * Group sets with distinct configurations. Configurations are compared using {@link ThreadPoolConfig#equals}
+     * only, so the sets are kept in a list; there are typically only a few of them.
+     */
+    private static final List<ChannelGroups> REGISTRY = new CopyOnWriteArrayList<ChannelGroups>();
+
+    private static final ScheduledExecutorService connectionCloseScheduler =
+            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r);
+                    thread.setName("tyrus-jdk-container-idle-timeout");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    private final ThreadPoolConfig threadPoolConfig;
+    private final int idleTimeout;
+    private final boolean hashAssignment;
+    private final boolean virtualThreads;
+    private final Group[] groups;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private ChannelGroups(ThreadPoolConfig threadPoolConfig, int idleTimeout, int groupCount,
+                          boolean hashAssignment, boolean virtualThreads) {
+        this.threadPoolConfig = threadPoolConfig;
+        this.idleTimeout = idleTimeout;
+        this.hashAssignment = hashAssignment;
+        this.virtualThreads = virtualThreads;
+        this.groups = new Group[groupCount];
+        for (int i = 0; i < groupCount; i++) {
+            groups[i] = new Group();
+        }
+    }
+
+    /**
+     * Get the set of channel groups for the given configuration.
+     *
+     * @param threadPoolConfig thread pool configuration used for creating thread pools of the groups.
+     * @param idleTimeout      idle time in seconds after which an unused group will be shut down. If {@code null},
+     *                         default value (30 seconds) will be used.
+     * @param groupCount       number of channel groups.
+     * @param hashAssignment   if {@code true}, connections are assigned to groups by the hash of the remote address,
+     *                         round-robin otherwise.
+     * @param virtualThreads   if {@code true}, completed operations are processed on virtual threads, see
+     *                         {@link #getHandlerExecutor()}.
+     * @return set of channel groups.
+     */
+    static ChannelGroups get(ThreadPoolConfig threadPoolConfig, Integer idleTimeout, int groupCount,
+                             boolean hashAssignment, boolean virtualThreads) {
+        final int closeWait = idleTimeout == null ? DEFAULT_CONNECTION_CLOSE_WAIT : idleTimeout;
+        final int count = Math.max(groupCount, 1);
+
+        for (ChannelGroups channelGroups : REGISTRY) {
+            if (channelGroups.matches(threadPoolConfig, closeWait, count, hashAssignment, virtualThreads)) {
+                return channelGroups;
+            }
+        }
+
+        synchronized (REGISTRY) {
+            for (ChannelGroups channelGroups : REGISTRY) {
+                if (channelGroups.matches(threadPoolConfig, closeWait, count, hashAssignment, virtualThreads)) {
+                    return channelGroups;
+                }
+            }
+
+            final ChannelGroups channelGroups =
+                    new ChannelGroups(threadPoolConfig.copy(), closeWait, count, hashAssignment, virtualThreads);
+            REGISTRY.add(channelGroups);
+            return channelGroups;
+        }
+    }
+
+    private boolean matches(ThreadPoolConfig threadPoolConfig, int idleTimeout, int groupCount,
+                            boolean hashAssignment, boolean virtualThreads) {
+        return this.threadPoolConfig.equals(threadPoolConfig) && this.idleTimeout == idleTimeout
+                && groups.length == groupCount && this.hashAssignment == hashAssignment
+                && this.virtualThreads == virtualThreads;
+    }
+
+    /**
+     * Get the executor completed reads and writes should be processed on.
+     *
+     * @return executor starting a virtual thread for every task or {@code null} if the operations should be processed
+     * directly on the threads of the channel group.
+     */
+    ExecutorService getHandlerExecutor() {
+        return virtualThreads ? VirtualHandlerExecutorHolder.INSTANCE : null;
+    }
+
+    /**
+     * Select a group for a new connection.
+     *
+     * @param remoteAddress address the connection is going to be connected to.
+     * @return selected group, {@link Group#acquire()} has to be called before the group is used.
+     */
+    Group select(SocketAddress remoteAddress) {
+        if (groups.length == 1) {
+            return groups[0];
+        }
+
+        final int index;
+        if (hashAssignment && remoteAddress != null) {
+            index = (remoteAddress.hashCode() & Integer.MAX_VALUE) % groups.length;
+        } else {
+            index = (next.getAndIncrement() & Integer.MAX_VALUE) % groups.length;
+        }
+        return groups[index];
+    }
+
+    private void groupClosed() {
+        for (Group group : groups) {
+            if (group.isActive()) {
+                return;
+            }
+        }
+
+        // forget configurations which are not used anymore; a connection which has obtained this instance in the
+        // meantime just creates the group again.
+        REGISTRY.remove(this);
+    }
+
+    /**
+     * One {@link AsynchronousChannelGroup} with its own thread pool and a count of connections using it.
+     */
+    class Group {
+
+        // all fields guarded by this
+        private AsynchronousChannelGroup channelGroup;
+        private ScheduledFuture<?> closeWaitTask;
+        private int connections = 0;
+
+        /**
+         * Register a new connection and get the channel group the connection should be opened with.
+         *
+         * @return channel group.
+         * @throws IOException if the channel group could not be created.
+         */
+        synchronized AsynchronousChannelGroup acquire() throws IOException {
+            if (closeWaitTask != null) {
+                closeWaitTask.cancel(false);
+                closeWaitTask = null;
+            }
+
+            if (channelGroup == null) {
+                // thread pool is owned by the channel group and will be shut down when channel group is shut down
+                channelGroup = AsynchronousChannelGroup.withCachedThreadPool(
+                        TransportFilter.createExecutor(threadPoolConfig), threadPoolConfig.getCorePoolSize());
+            }
+
+            connections++;
+            return channelGroup;
+        }
+
+        /**
+         * Unregister a connection registered by {@link #acquire()}.
+         * <p>
+         * When no connection is using the group, the group will be shut down after the idle timeout.
+         */
+        synchronized void release() {
+            connections--;
+            if (connections == 0) {
+                scheduleClose();
+            }
+        }
+
+        synchronized boolean isActive() {
+            return channelGroup != null;
+        }
+
+        private void scheduleClose() {
+            closeWaitTask = connectionCloseScheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (Group.this) {
+                        if (connections != 0 || closeWaitTask == null || channelGroup == null) {
+                            return;
+                        }
+                        channelGroup.shutdown();
+                        channelGroup = null;
+                        closeWaitTask = null;
+                    }
+
+                    groupClosed();
+                }
+            }, idleTimeout, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Lazily created executor processing completed operations on virtual threads, {@code null} if virtual threads are
+     * not supported.
+     */
+    private static class VirtualHandlerExecutorHolder {
+
+        private static final ExecutorService INSTANCE =
+                VirtualThreads.newThreadPerTaskExecutor("tyrus-jdk-client-virtual-");
+    }
+}
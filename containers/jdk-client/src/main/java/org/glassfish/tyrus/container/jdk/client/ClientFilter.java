@@ -297,6 +297,17 @@ class ClientFilter extends Filter {
         public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
             downstreamFilter.write(buffer, completionHandler);
         }
+
+        @Override
+        public boolean suspendReading() {
+            downstreamFilter.suspendReading();
+            return true;
+        }
+
+        @Override
+        public void resumeReading() {
+            downstreamFilter.resumeReading();
+        }
     }
 
     private JdkUpgradeRequest createHandshakeUpgradeRequest(final UpgradeRequest upgradeRequest) {
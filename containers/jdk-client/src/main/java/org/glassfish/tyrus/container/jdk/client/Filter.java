@@ -88,6 +88,26 @@ class Filter {
     void startSsl() {
     }
 
+    /**
+     * Stop reading from the connection, it is passed on in the filter chain until a filter responsible for reading
+     * from the connection is reached.
+     */
+    void suspendReading() {
+        if (downstreamFilter != null) {
+            downstreamFilter.suspendReading();
+        }
+    }
+
+    /**
+     * Resume reading from the connection suspended by {@link #suspendReading()}, it is passed on in the filter chain
+     * until a filter responsible for reading from the connection is reached.
+     */
+    void resumeReading() {
+        if (downstreamFilter != null) {
+            downstreamFilter.resumeReading();
+        }
+    }
+
     /**
      * Initiate connect.
      * <p/>
@@ -39,208 +39,286 @@
  */
 package org.glassfish.tyrus.container.jdk.client;
 
-import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+
+import javax.websocket.HandshakeResponse;
+import javax.websocket.server.HandshakeRequest;
 
 import org.glassfish.tyrus.core.TyrusUpgradeResponse;
-import org.glassfish.tyrus.core.Utils;
+import org.glassfish.tyrus.spi.UpgradeRequest;
+import org.glassfish.tyrus.spi.UpgradeResponse;
 
 /**
+ * Incremental parser of a HTTP upgrade response.
+ * <p>
+ * The response is parsed directly from the {@link ByteBuffer}s passed to {@link #appendData(ByteBuffer)} line by
+ * line, so the state of the parser is kept across reads and the response is never converted to a single {@link
+ * String}. Only the currently parsed line is buffered. Names of well-known headers are not allocated, but the
+ * constants are used instead.
+ *
  * @author Petr Janouch
  */
 class HttpResponseParser {
 
-    private static final String ENCODING = "ISO-8859-1";
-    private static final String LINE_SEPARATOR = "\r\n";
-    private static final int BUFFER_STEP_SIZE = 256;
+    private static final Charset ENCODING = Charset.forName("ISO-8859-1");
+    private static final int LINE_BUFFER_INITIAL_SIZE = 256;
     // this is package private because of the test
     static final int BUFFER_MAX_SIZE = 16384;
 
-    private volatile boolean complete = false;
-    private volatile ByteBuffer buffer;
-    private volatile State findEndState = State.INIT;
+    /**
+     * Header names that are returned as constants, when they appear in the response with exactly this case.
+     */
+    private static final String[] KNOWN_HEADERS = {
+            UpgradeRequest.UPGRADE,
+            UpgradeRequest.CONNECTION,
+            HandshakeResponse.SEC_WEBSOCKET_ACCEPT,
+            HandshakeRequest.SEC_WEBSOCKET_PROTOCOL,
+            HandshakeRequest.SEC_WEBSOCKET_EXTENSIONS,
+            UpgradeResponse.LOCATION,
+            UpgradeResponse.RETRY_AFTER,
+            UpgradeResponse.WWW_AUTHENTICATE,
+            "Content-Length",
+            "Content-Type",
+            "Date",
+            "Server",
+            "Set-Cookie",
+    };
+    private static final byte[][] KNOWN_HEADER_BYTES = new byte[KNOWN_HEADERS.length][];
 
-    HttpResponseParser() {
-        buffer = ByteBuffer.allocate(1024);
-        buffer.flip(); //buffer created for read
+    static {
+        for (int i = 0; i < KNOWN_HEADERS.length; i++) {
+            KNOWN_HEADER_BYTES[i] = KNOWN_HEADERS[i].getBytes(ENCODING);
+        }
     }
 
+    private volatile boolean complete = false;
+    private volatile boolean destroyed = false;
+
+    private TyrusUpgradeResponse response = new TyrusUpgradeResponse();
+    private byte[] line = new byte[LINE_BUFFER_INITIAL_SIZE];
+    private int lineLength = 0;
+    private int responseSize = 0;
+    private boolean statusLineParsed = false;
+
     TyrusUpgradeResponse parseUpgradeResponse() throws ParseException {
-        String response = bufferToString();
-        String[] tokens = response.split(LINE_SEPARATOR);
-        TyrusUpgradeResponse tyrusUpgradeResponse = new TyrusUpgradeResponse();
-        parseFirstLine(tokens, tyrusUpgradeResponse);
-        List<String> lines = new LinkedList<>();
-        lines.addAll(Arrays.asList(tokens).subList(1, tokens.length));
-        Map<String, String> headers = parseHeaders(lines);
-        for (Map.Entry<String, String> entry : headers.entrySet()) {
-            final List<String> values = tyrusUpgradeResponse.getHeaders().get(entry.getKey());
-            if (values == null) {
-                tyrusUpgradeResponse.getHeaders().put(entry.getKey(), Utils.parseHeaderValue(entry.getValue()));
-            } else {
-                values.addAll(Utils.parseHeaderValue(entry.getValue()));
-            }
+        if (!complete) {
+            throw new ParseException("Incomplete HTTP response");
         }
-        return tyrusUpgradeResponse;
+
+        return response;
     }
 
     boolean isComplete() {
         return complete;
     }
 
+    /**
+     * Parse the data from the buffer until the end of the response has been reached or all the data has been
+     * consumed. When the response is complete, the position of the buffer is set just after the end of the response.
+     *
+     * @param data data to be parsed.
+     * @throws ParseException if the response is not valid or it is too big.
+     */
     void appendData(ByteBuffer data) throws ParseException {
-        if (buffer == null) {
-            // parser was already destroyed.
+        if (destroyed || complete) {
             return;
         }
 
-        int responseEndPosition = getEndPosition(data);
-        if (responseEndPosition == -1) {
-            checkResponseSize(data);
-            buffer = Utils.appendBuffers(buffer, data, BUFFER_MAX_SIZE, BUFFER_STEP_SIZE);
-            return;
-        }
+        while (data.hasRemaining()) {
+            final byte b = data.get();
 
-        int limit = data.limit();
-        data.limit(responseEndPosition + 1);
-        checkResponseSize(data);
-        buffer = Utils.appendBuffers(buffer, data, BUFFER_MAX_SIZE, BUFFER_STEP_SIZE);
-        data.limit(limit);
-        data.position(responseEndPosition + 1);
-        complete = true;
+            if (++responseSize > BUFFER_MAX_SIZE) {
+                throw new ParseException(
+                        "Upgrade response too big, sizes only up to " + BUFFER_MAX_SIZE + "B are supported.");
+            }
+
+            if (b != '\n') {
+                appendToLine(b);
+                continue;
+            }
+
+            // strip CR of the line separator
+            if (lineLength > 0 && line[lineLength - 1] == '\r') {
+                lineLength--;
+            }
+
+            if (!statusLineParsed) {
+                parseStatusLine();
+                statusLineParsed = true;
+            } else if (lineLength == 0) {
+                // an empty line terminates the response
+                complete = true;
+                return;
+            } else {
+                parseHeader();
+            }
+
+            lineLength = 0;
+        }
     }
 
-    private void checkResponseSize(ByteBuffer partToBeAppended) throws ParseException {
-        if (buffer.remaining() + partToBeAppended.remaining() > BUFFER_MAX_SIZE) {
-            throw new ParseException(
-                    "Upgrade response too big, sizes only up to " + BUFFER_MAX_SIZE + "B are supported.");
+    private void appendToLine(byte b) {
+        if (lineLength == line.length) {
+            final byte[] newLine = new byte[Math.min(line.length * 2, BUFFER_MAX_SIZE)];
+            System.arraycopy(line, 0, newLine, 0, lineLength);
+            line = newLine;
         }
+
+        line[lineLength++] = b;
     }
 
-    private void parseFirstLine(String[] responseLines, TyrusUpgradeResponse tyrusUpgradeResponse) throws
-            ParseException {
-        if (responseLines.length == 0) {
+    private void parseStatusLine() throws ParseException {
+        if (lineLength == 0) {
             throw new ParseException("Empty HTTP response");
         }
-        String firstLine = responseLines[0];
-        int versionEndIndex = firstLine.indexOf(' ');
-        if (versionEndIndex == -1) {
-            throw new ParseException("Unexpected format of the first line of a HTTP response: " + firstLine);
+
+        final int versionEnd = indexOf(' ', 0);
+        final int statusCodeEnd = versionEnd == -1 ? -1 : indexOf(' ', versionEnd + 1);
+        if (statusCodeEnd == -1) {
+            throw new ParseException(
+                    "Unexpected format of the first line of a HTTP response: " + lineToString(0, lineLength));
         }
-        int statusCodeEndIndex = firstLine.indexOf(' ', versionEndIndex + 1);
-        if (statusCodeEndIndex == -1) {
-            throw new ParseException("Unexpected format of the first line of a HTTP response: " + firstLine);
+
+        int status = 0;
+        for (int i = versionEnd + 1; i < statusCodeEnd; i++) {
+            final byte b = line[i];
+            if (b < '0' || b > '9' || status > 99) {
+                status = -1;
+                break;
+            }
+            status = status * 10 + (b - '0');
         }
-        String statusCode = firstLine.substring(versionEndIndex + 1, statusCodeEndIndex);
-        String reasonPhrase = firstLine.substring(statusCodeEndIndex + 1);
-        int status;
-        try {
-            status = Integer.parseInt(statusCode);
-        } catch (Exception e) {
-            throw new ParseException("Invalid format of status code: " + statusCode);
+
+        if (status <= 0) {
+            throw new ParseException(
+                    "Invalid format of status code: " + lineToString(versionEnd + 1, statusCodeEnd));
         }
-        tyrusUpgradeResponse.setStatus(status);
-        tyrusUpgradeResponse.setReasonPhrase(reasonPhrase);
 
+        response.setStatus(status);
+        response.setReasonPhrase(lineToString(statusCodeEnd + 1, lineLength));
     }
 
-    private Map<String, String> parseHeaders(List<String> headerLines) {
-        Map<String, String> headers = new HashMap<>();
-        for (String headerLine : headerLines) {
-            int separatorIndex = headerLine.indexOf(':');
-            if (separatorIndex != -1) {
-                String headerKey = headerLine.substring(0, separatorIndex);
-                String headerValue = headerLine.substring(separatorIndex + 1);
-
-                if (headers.containsKey(headerKey)) {
-                    headers.put(headerKey, headers.get(headerKey) + ", " + headerValue);
-                } else {
-                    headers.put(headerKey, headerValue);
-                }
-            }
+    private void parseHeader() {
+        final int separatorIndex = indexOf(':', 0);
+        if (separatorIndex == -1) {
+            // not a header, ignore it
+            return;
         }
-        return headers;
-    }
 
-    private String bufferToString() {
-        byte[] bytes = Utils.getRemainingArray(buffer);
-        String str;
-        try {
-            str = new String(bytes, ENCODING);
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException("Unsupported encoding" + ENCODING, e);
+        final String name = headerName(separatorIndex);
+        final List<String> values = response.getHeaders().get(name);
+        if (values == null) {
+            final List<String> newValues = new ArrayList<String>(1);
+            parseHeaderValue(separatorIndex + 1, newValues);
+            response.getHeaders().put(name, newValues);
+        } else {
+            parseHeaderValue(separatorIndex + 1, values);
         }
-        return str;
     }
 
-    void destroy() {
-        buffer = null;
+    private String headerName(int length) {
+        for (int i = 0; i < KNOWN_HEADER_BYTES.length; i++) {
+            final byte[] known = KNOWN_HEADER_BYTES[i];
+            if (known.length == length && regionEquals(known, length)) {
+                return KNOWN_HEADERS[i];
+            }
+        }
+
+        return lineToString(0, length);
     }
 
-    void clear() {
-        buffer.clear();
-        buffer.flip();
-        complete = false;
-        findEndState = State.INIT;
+    private boolean regionEquals(byte[] bytes, int length) {
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] != line[i]) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
-    private int getEndPosition(ByteBuffer buffer) {
-        byte[] bytes = buffer.array();
+    /**
+     * Split the header value into values separated by comma, the same way as {@link
+     * org.glassfish.tyrus.core.Utils#parseHeaderValue(String)} does.
+     */
+    private void parseHeaderValue(int from, List<String> values) {
+        // 0 - start of new header value
+        // 1 - non-quoted value
+        // 2 - quoted value
+        // 3 - end of quoted value (after '\"', before ',')
+        int state = 0;
+        int valueStart = -1;
 
-        for (int i = buffer.position(); i < buffer.limit(); i++) {
-            byte b = bytes[i];
-            switch (findEndState) {
-                case INIT: {
-                    if (b == '\r') {
-                        findEndState = State.R;
+        for (int i = from; i < lineLength; i++) {
+            final char c = (char) (line[i] & 0xFF);
+            switch (state) {
+                case 0:
+                    // ignore leading whitespace
+                    if (Character.isWhitespace(c)) {
+                        break;
                     }
+                    valueStart = i;
+                    state = c == '\"' ? 2 : 1;
                     break;
-                }
-                case R: {
-                    if (b == '\n') {
-                        findEndState = State.RN;
-                    } else {
-                        findEndReset(b);
+                case 1:
+                    if (c == ',') {
+                        values.add(lineToString(valueStart, i));
+                        valueStart = -1;
+                        state = 0;
                     }
                     break;
-                }
-                case RN: {
-                    if (b == '\r') {
-                        findEndState = State.RNR;
-                    } else {
-                        findEndState = State.INIT;
+                case 2:
+                    if (c == '\"') {
+                        values.add(lineToString(valueStart, i + 1));
+                        valueStart = -1;
+                        state = 3;
                     }
                     break;
-                }
-                case RNR: {
-                    if (b == '\n') {
-                        return i;
-                    } else {
-                        findEndReset(b);
+                case 3:
+                    if (c == ',') {
+                        state = 0;
                     }
+
+                    // anything else is an error - ignore for now.
+                    break;
+                default:
+                    // should not happen
                     break;
-                }
             }
         }
-        return -1;
+
+        if (valueStart != -1) {
+            values.add(lineToString(valueStart, lineLength));
+        }
     }
 
-    private void findEndReset(byte b) {
-        findEndState = State.INIT;
-        if (b == '\r') {
-            findEndState = State.R;
+    private int indexOf(char c, int from) {
+        for (int i = from; i < lineLength; i++) {
+            if (line[i] == c) {
+                return i;
+            }
         }
+
+        return -1;
     }
 
-    private enum State {
-        INIT,
-        R,
-        RN,
-        RNR,
+    private String lineToString(int from, int to) {
+        return new String(line, from, to - from, ENCODING);
+    }
+
+    void destroy() {
+        destroyed = true;
+        line = null;
+    }
+
+    void clear() {
+        response = new TyrusUpgradeResponse();
+        complete = false;
+        lineLength = 0;
+        responseSize = 0;
+        statusLineParsed = false;
     }
 }
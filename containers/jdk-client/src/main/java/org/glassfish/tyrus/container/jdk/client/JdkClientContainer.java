@@ -47,6 +47,7 @@ import java.net.SocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
@@ -59,6 +60,7 @@ import javax.websocket.ClientEndpointConfig;
 import javax.websocket.DeploymentException;
 
 import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
 
 import org.glassfish.tyrus.client.ClientManager;
 import org.glassfish.tyrus.client.ClientProperties;
@@ -67,6 +69,7 @@ import org.glassfish.tyrus.client.SslEngineConfigurator;
 import org.glassfish.tyrus.client.ThreadPoolConfig;
 import org.glassfish.tyrus.core.ReflectionHelper;
 import org.glassfish.tyrus.core.Utils;
+import org.glassfish.tyrus.core.VirtualThreads;
 import org.glassfish.tyrus.spi.ClientContainer;
 import org.glassfish.tyrus.spi.ClientEngine;
 import org.glassfish.tyrus.spi.CompletionHandler;
@@ -94,6 +97,8 @@ public class JdkClientContainer implements ClientContainer {
      * turned on.
      */
     private static final int INPUT_BUFFER_SIZE = 2048;
+    private static final String CHANNEL_GROUP_ROUND_ROBIN = "round-robin";
+    private static final String CHANNEL_GROUP_HASH = "hash";
     private static final Logger LOGGER = Logger.getLogger(JdkClientContainer.class.getName());
 
     @Override
@@ -119,10 +124,43 @@ public class JdkClientContainer implements ClientContainer {
             }
         }
 
+        // the threads of the channel groups block in the selector, so they stay platform threads; only the
+        // processing of completed reads and writes is moved to virtual threads.
+        boolean virtualThreads =
+                Utils.getProperty(properties, ClientProperties.VIRTUAL_THREADS_ENABLED, Boolean.class, false);
+        if (virtualThreads && !VirtualThreads.isSupported()) {
+            LOGGER.log(Level.CONFIG,
+                       "Virtual threads are not supported by the current JDK, platform threads will be used.");
+            virtualThreads = false;
+        }
+
         final Integer containerIdleTimeout =
                 Utils.getProperty(properties, ClientProperties.SHARED_CONTAINER_IDLE_TIMEOUT, Integer.class);
 
+        final int channelGroupCount =
+                Utils.getProperty(properties, ClientProperties.CHANNEL_GROUP_COUNT, Integer.class, 1);
+        if (channelGroupCount < 1) {
+            throw new DeploymentException(String.format("Invalid value of %s: %d, positive number expected.",
+                                                        ClientProperties.CHANNEL_GROUP_COUNT, channelGroupCount));
+        }
+
+        final String channelGroupAssignment =
+                Utils.getProperty(properties, ClientProperties.CHANNEL_GROUP_ASSIGNMENT, String.class,
+                                  CHANNEL_GROUP_ROUND_ROBIN);
+        final boolean hashAssignment;
+        if (CHANNEL_GROUP_HASH.equalsIgnoreCase(channelGroupAssignment)) {
+            hashAssignment = true;
+        } else if (CHANNEL_GROUP_ROUND_ROBIN.equalsIgnoreCase(channelGroupAssignment)) {
+            hashAssignment = false;
+        } else {
+            throw new DeploymentException(String.format("Invalid value of %s: %s, \"%s\" or \"%s\" expected.",
+                                                        ClientProperties.CHANNEL_GROUP_ASSIGNMENT,
+                                                        channelGroupAssignment, CHANNEL_GROUP_ROUND_ROBIN,
+                                                        CHANNEL_GROUP_HASH));
+        }
+
         final ThreadPoolConfig finalThreadPoolConfig = threadPoolConfig;
+        final boolean finalVirtualThreads = virtualThreads;
         final Callable<Void> jdkConnector = new Callable<Void>() {
 
             @Override
@@ -141,13 +179,15 @@ public class JdkClientContainer implements ClientContainer {
 
                 if (secure) {
                     TransportFilter transportFilter =
-                            createTransportFilter(SSL_INPUT_BUFFER_SIZE, finalThreadPoolConfig, containerIdleTimeout);
+                            createTransportFilter(SSL_INPUT_BUFFER_SIZE, finalThreadPoolConfig, containerIdleTimeout,
+                                                  channelGroupCount, hashAssignment, finalVirtualThreads);
                     SslFilter sslFilter = createSslFilter(cec, properties, transportFilter, uri);
                     writeQueue = createTaskQueueFilter(sslFilter);
 
                 } else {
                     TransportFilter transportFilter =
-                            createTransportFilter(INPUT_BUFFER_SIZE, finalThreadPoolConfig, containerIdleTimeout);
+                            createTransportFilter(INPUT_BUFFER_SIZE, finalThreadPoolConfig, containerIdleTimeout,
+                                                  channelGroupCount, hashAssignment, finalVirtualThreads);
                     writeQueue = createTaskQueueFilter(transportFilter);
                 }
 
@@ -226,7 +266,7 @@ public class JdkClientContainer implements ClientContainer {
             // property is set, we need to figure out whether new or deprecated one is used and act accordingly.
             if (sslEngineConfiguratorObject instanceof SslEngineConfigurator) {
                 sslFilter = new SslFilter(transportFilter, (SslEngineConfigurator) sslEngineConfiguratorObject,
-                                          uri.getHost());
+                                          uri.getHost(), Utils.getWsPort(uri));
             } else if (sslEngineConfiguratorObject instanceof org.glassfish.tyrus.container.jdk.client
                     .SslEngineConfigurator) {
                 sslFilter = new SslFilter(transportFilter,
@@ -256,8 +296,25 @@ public class JdkClientContainer implements ClientContainer {
                 }
             }
 
+            /* Reuse the SSL context created from the same configuration, otherwise TLS sessions could not be resumed,
+            because they are cached by the SSL context. */
+            final SSLContext sslContext = DefaultSslContextHolder.get(defaultConfig, Arrays.asList(
+                    wlsSslTrustStore, wlsSslTrustStorePassword,
+                    System.getProperty(SslContextConfigurator.TRUST_STORE_PROVIDER),
+                    System.getProperty(SslContextConfigurator.KEY_STORE_PROVIDER),
+                    System.getProperty(SslContextConfigurator.TRUST_STORE_TYPE),
+                    System.getProperty(SslContextConfigurator.KEY_STORE_TYPE),
+                    System.getProperty(SslContextConfigurator.TRUST_STORE_PASSWORD),
+                    System.getProperty(SslContextConfigurator.KEY_STORE_PASSWORD),
+                    System.getProperty(SslContextConfigurator.TRUST_STORE_FILE),
+                    System.getProperty(SslContextConfigurator.KEY_STORE_FILE),
+                    System.getProperty(SslContextConfigurator.KEY_FACTORY_MANAGER_ALGORITHM),
+                    System.getProperty(SslContextConfigurator.TRUST_FACTORY_MANAGER_ALGORITHM)));
+
             // client mode = true, needClientAuth = false, wantClientAuth = false
-            SslEngineConfigurator sslEngineConfigurator = new SslEngineConfigurator(defaultConfig, true, false, false);
+            SslEngineConfigurator sslEngineConfigurator = sslContext != null
+                    ? new SslEngineConfigurator(sslContext, true, false, false)
+                    : new SslEngineConfigurator(defaultConfig, true, false, false);
             String wlsSslProtocols = (String) cec.getUserProperties().get(ClientManager.WLS_SSL_PROTOCOLS_PROPERTY);
             if (wlsSslProtocols != null) {
                 sslEngineConfigurator.setEnabledProtocols(wlsSslProtocols.split(","));
@@ -294,14 +351,16 @@ public class JdkClientContainer implements ClientContainer {
 
             }
 
-            sslFilter = new SslFilter(transportFilter, sslEngineConfigurator, uri.getHost());
+            sslFilter = new SslFilter(transportFilter, sslEngineConfigurator, uri.getHost(), Utils.getWsPort(uri));
         }
         return sslFilter;
     }
 
     private TransportFilter createTransportFilter(int sslInputBufferSize, ThreadPoolConfig threadPoolConfig,
-                                                  Integer containerIdleTimeout) {
-        return new TransportFilter(sslInputBufferSize, threadPoolConfig, containerIdleTimeout);
+                                                  Integer containerIdleTimeout, int channelGroupCount,
+                                                  boolean hashAssignment, boolean virtualThreads) {
+        return new TransportFilter(sslInputBufferSize, threadPoolConfig, containerIdleTimeout, channelGroupCount,
+                                   hashAssignment, virtualThreads);
     }
 
     private TaskQueueFilter createTaskQueueFilter(Filter downstreamFilter) {
@@ -468,4 +527,27 @@ public class JdkClientContainer implements ClientContainer {
             this.handler = handler;
         }
     }
+
+    /**
+     * Holds the {@link SSLContext} created from the default SSL configuration (system properties), so that all the
+     * connections using the same default configuration share the same TLS session cache.
+     */
+    private static class DefaultSslContextHolder {
+
+        private static List<String> configuration;
+        private static SSLContext sslContext;
+
+        static synchronized SSLContext get(SslContextConfigurator sslContextConfigurator, List<String> configuration) {
+            if (sslContext == null || !configuration.equals(DefaultSslContextHolder.configuration)) {
+                sslContext = sslContextConfigurator.createSSLContext();
+                DefaultSslContextHolder.configuration = configuration;
+                if (sslContext != null) {
+                    // the context has been created by the container, so its session cache can be bounded
+                    SslSessionCache.getInstance().manage(sslContext);
+                }
+            }
+
+            return sslContext;
+        }
+    }
 }
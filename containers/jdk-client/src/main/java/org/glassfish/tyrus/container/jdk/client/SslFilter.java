@@ -85,13 +85,15 @@ class SslFilter extends Filter {
     This buffer is for that purpose. */
     private static final ByteBuffer emptyBuffer = ByteBuffer.allocate(0);
 
-    // buffer for passing data to the upper filter
-    private final ByteBuffer applicationInputBuffer;
-    // buffer for passing data to the transport filter
-    private final ByteBuffer networkOutputBuffer;
+    /* Buffers for passing data to the upper filter (application input) and to the transport filter (network output)
+    are borrowed from this pool only for the duration of a single unwrap or wrap, so idle connections do not hold
+    any. */
+    private static final ByteBufferPool bufferPool = new ByteBufferPool(64);
+
     private final SSLEngine sslEngine;
     private final HostnameVerifier customHostnameVerifier;
     private final String serverHost;
+    private final int serverPort;
     private final WriteQueue writeQueue = new WriteQueue();
 
     private volatile State state = State.NOT_STARTED;
@@ -117,9 +119,27 @@ class SslFilter extends Filter {
      *                              the verification will fail.
      */
     SslFilter(Filter downstreamFilter, SslEngineConfigurator sslEngineConfigurator, String serverHost) {
+        this(downstreamFilter, sslEngineConfigurator, serverHost, -1);
+    }
+
+    /**
+     * SSL Filter constructor, takes upstream filter as a parameter.
+     * <p/>
+     * The server port allows resuming a TLS session previously established with the same server, see {@link
+     * SslSessionCache}.
+     *
+     * @param downstreamFilter      a filter that is positioned under the SSL filter.
+     * @param sslEngineConfigurator configuration of SSL engine.
+     * @param serverHost            server host (hostname or IP address), which will be used to verify authenticity of
+     *                              the server.
+     * @param serverPort            server port, {@code -1} if not known.
+     */
+    SslFilter(Filter downstreamFilter, SslEngineConfigurator sslEngineConfigurator, String serverHost,
+              int serverPort) {
         super(downstreamFilter);
         this.serverHost = serverHost;
-        sslEngine = sslEngineConfigurator.createSSLEngine(serverHost);
+        this.serverPort = serverPort;
+        sslEngine = sslEngineConfigurator.createSSLEngine(serverHost, serverPort);
         customHostnameVerifier = sslEngineConfigurator.getHostnameVerifier();
 
         /**
@@ -132,9 +152,6 @@ class SslFilter extends Filter {
             sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
             sslEngine.setSSLParameters(sslParameters);
         }
-
-        applicationInputBuffer = ByteBuffer.allocate(sslEngine.getSession().getApplicationBufferSize());
-        networkOutputBuffer = ByteBuffer.allocate(sslEngine.getSession().getPacketBufferSize());
     }
 
     /**
@@ -147,10 +164,9 @@ class SslFilter extends Filter {
               org.glassfish.tyrus.container.jdk.client.SslEngineConfigurator sslEngineConfigurator) {
         super(downstreamFilter);
         sslEngine = sslEngineConfigurator.createSSLEngine();
-        applicationInputBuffer = ByteBuffer.allocate(sslEngine.getSession().getApplicationBufferSize());
-        networkOutputBuffer = ByteBuffer.allocate(sslEngine.getSession().getPacketBufferSize());
         customHostnameVerifier = null;
         serverHost = null;
+        serverPort = -1;
     }
 
     @Override
@@ -193,9 +209,9 @@ class SslFilter extends Filter {
     }
 
     private void handleWrite(final ByteBuffer applicationData, final CompletionHandler<ByteBuffer> completionHandler) {
+        final ByteBuffer networkOutputBuffer = bufferPool.acquire(sslEngine.getSession().getPacketBufferSize());
+        boolean released = false;
         try {
-            // transport buffer always writes all data, so there are not leftovers in the networkOutputBuffer
-            networkOutputBuffer.clear();
             SSLEngineResult result = sslEngine.wrap(applicationData, networkOutputBuffer);
 
             switch (result.getStatus()) {
@@ -228,18 +244,24 @@ class SslFilter extends Filter {
                     networkOutputBuffer.flip();
                     // write only if something was written to the output buffer
                     if (networkOutputBuffer.hasRemaining()) {
+                        // the buffer will be released by the completion handler once the transport has written it
+                        released = true;
                         writeQueue.write(networkOutputBuffer, new CompletionHandler<ByteBuffer>() {
                             @Override
                             public void completed(ByteBuffer result) {
+                                bufferPool.release(networkOutputBuffer);
                                 handlePostWrite(applicationData, completionHandler);
                             }
 
                             @Override
                             public void failed(Throwable throwable) {
+                                bufferPool.release(networkOutputBuffer);
                                 completionHandler.failed(throwable);
                             }
                         });
                     } else {
+                        released = true;
+                        bufferPool.release(networkOutputBuffer);
                         handlePostWrite(applicationData, completionHandler);
                     }
                     break;
@@ -248,6 +270,10 @@ class SslFilter extends Filter {
 
         } catch (SSLException e) {
             handleSslError(e);
+        } finally {
+            if (!released) {
+                bufferPool.release(networkOutputBuffer);
+            }
         }
     }
 
@@ -381,8 +407,10 @@ class SslFilter extends Filter {
     }
 
     private boolean handleRead(ByteBuffer networkData) {
+        // upper filters copy what they need, so the buffer can be returned as soon as they have processed it
+        final ByteBuffer applicationInputBuffer =
+                bufferPool.acquire(sslEngine.getSession().getApplicationBufferSize());
         try {
-            applicationInputBuffer.clear();
             SSLEngineResult result = sslEngine.unwrap(networkData, applicationInputBuffer);
 
             switch (result.getStatus()) {
@@ -404,7 +432,6 @@ class SslFilter extends Filter {
                     if (result.bytesProduced() > 0) {
                         applicationInputBuffer.flip();
                         upstreamFilter.onRead(applicationInputBuffer);
-                        applicationInputBuffer.compact();
                     }
 
                     if (sslEngine.isInboundDone()) {
@@ -428,6 +455,8 @@ class SslFilter extends Filter {
             }
         } catch (SSLException e) {
             handleSslError(e);
+        } finally {
+            bufferPool.release(applicationInputBuffer);
         }
 
         return true;
@@ -446,9 +475,10 @@ class SslFilter extends Filter {
                 return true;
             }
 
+            ByteBuffer applicationInputBuffer = null;
             try {
-                /* we don't use networkOutputBuffer, because there might be a write operation still in progress ->
-                we don't want to corrupt the buffer it is using */
+                /* we don't use a network output buffer from the pool, because the data of this step are collected
+                over several wraps */
                 LazyBuffer outputBuffer = new LazyBuffer();
                 boolean stepFinished = false;
                 while (!stepFinished) {
@@ -507,6 +537,10 @@ class SslFilter extends Filter {
                         }
 
                         case NEED_UNWRAP: {
+                            if (applicationInputBuffer == null) {
+                                applicationInputBuffer =
+                                        bufferPool.acquire(sslEngine.getSession().getApplicationBufferSize());
+                            }
 
                             SSLEngineResult result = sslEngine.unwrap(networkData, applicationInputBuffer);
 
@@ -566,6 +600,10 @@ class SslFilter extends Filter {
 
             } catch (Exception e) {
                 handleSslError(e);
+            } finally {
+                if (applicationInputBuffer != null) {
+                    bufferPool.release(applicationInputBuffer);
+                }
             }
         }
 
@@ -601,6 +639,9 @@ class SslFilter extends Filter {
 
         if (state == State.HANDSHAKING) {
             state = State.DATA;
+            if (serverHost != null) {
+                SslSessionCache.getInstance().handshakeCompleted(serverHost, serverPort, sslEngine.getSession());
+            }
             upstreamFilter.onSslHandshakeCompleted();
         } else if (state == State.REHANDSHAKING) {
             state = State.DATA;
@@ -645,9 +686,7 @@ class SslFilter extends Filter {
      */
     private String getDebugState() {
         return "SslFilter{"
-                + "\napplicationInputBuffer=" + applicationInputBuffer
-                + ",\nnetworkOutputBuffer=" + networkOutputBuffer
-                + ",\nsslEngineStatus=" + sslEngine.getHandshakeStatus()
+                + "\nsslEngineStatus=" + sslEngine.getHandshakeStatus()
                 + ",\nsslSession=" + sslEngine.getSession()
                 + ",\nstate=" + state
                 + ",\npendingApplicationWrite=" + pendingApplicationWrite
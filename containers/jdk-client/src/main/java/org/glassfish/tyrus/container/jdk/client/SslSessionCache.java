@@ -0,0 +1,262 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.container.jdk.client;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+
+import org.glassfish.tyrus.core.Beta;
+
+/**
+ * Client side TLS session cache of the JDK client container.
+ * <p>
+ * TLS sessions are stored in the {@link SSLSessionContext client session context} of the {@link SSLContext} the
+ * connection has been created with, where they are looked up by the server host and port. The JDK client creates
+ * its {@link javax.net.ssl.SSLEngine}s with both the host and the port, so reconnecting to the same server can resume
+ * the previous session with an abbreviated handshake instead of a full one.
+ * <p>
+ * This class bounds the number of sessions the client session contexts of the {@link SSLContext}s created by the JDK
+ * client container itself keep to {@link #getMaxSize()}. Contexts supplied by the application (including {@link
+ * SSLContext#getDefault()}) are never resized, as their session cache might be shared with other code in the JVM.
+ * The class also keeps track of how many handshakes have resumed a previous session. A handshake is considered
+ * resumed when it has produced a session with the same ID as the previous handshake with the same host and port.
+ * TLS 1.3 resumptions, which do not keep the session ID, are therefore counted as full handshakes.
+ */
+@Beta
+public final class SslSessionCache {
+
+    /**
+     * Default maximal number of cached sessions.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private static final Logger LOGGER = Logger.getLogger(SslSessionCache.class.getName());
+    private static final SslSessionCache INSTANCE = new SslSessionCache(DEFAULT_MAX_SIZE);
+
+    private final AtomicLong resumedHandshakes = new AtomicLong();
+    private final AtomicLong fullHandshakes = new AtomicLong();
+
+    // guarded by this
+    private final Map<String, SessionInfo> sessions = new LinkedHashMap<String, SessionInfo>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SessionInfo> eldest) {
+            return size() > maxSize;
+        }
+    };
+    // guarded by this
+    private final Set<SSLSessionContext> managedContexts =
+            Collections.newSetFromMap(new WeakHashMap<SSLSessionContext, Boolean>());
+    private volatile int maxSize;
+
+    SslSessionCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the session cache used by the JDK client container.
+     *
+     * @return session cache.
+     */
+    public static SslSessionCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the maximal number of cached sessions.
+     *
+     * @return maximal number of cached sessions.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Set the maximal number of cached sessions.
+     * <p>
+     * The limit is applied to the client session contexts of the {@link SSLContext}s created by the JDK client
+     * container. Client session contexts with a lower limit are left untouched.
+     *
+     * @param maxSize maximal number of cached sessions, must be positive.
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Maximal size of the session cache must be positive: " + maxSize);
+        }
+
+        // the tracked sessions shrink to the new limit as new ones are inserted
+        this.maxSize = maxSize;
+
+        synchronized (this) {
+            for (SSLSessionContext sessionContext : managedContexts) {
+                limitSize(sessionContext, maxSize);
+            }
+        }
+    }
+
+    /**
+     * Get the number of handshakes that have resumed a previous session.
+     *
+     * @return number of resumed handshakes.
+     */
+    public long getResumedHandshakes() {
+        return resumedHandshakes.get();
+    }
+
+    /**
+     * Get the number of full handshakes, which have not resumed any previous session.
+     *
+     * @return number of full handshakes.
+     */
+    public long getFullHandshakes() {
+        return fullHandshakes.get();
+    }
+
+    /**
+     * Get the ratio of resumed handshakes to all completed handshakes.
+     *
+     * @return hit ratio between {@code 0} and {@code 1}, {@code 0} if no handshake has been completed.
+     */
+    public double getHitRatio() {
+        final long resumed = resumedHandshakes.get();
+        final long total = resumed + fullHandshakes.get();
+        return total == 0 ? 0 : (double) resumed / total;
+    }
+
+    /**
+     * Get the number of servers (host and port) the cache currently tracks a session for.
+     *
+     * @return number of tracked servers.
+     */
+    public synchronized int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Reset the handshake counters.
+     */
+    public void resetStatistics() {
+        resumedHandshakes.set(0);
+        fullHandshakes.set(0);
+    }
+
+    /**
+     * Bound the size of the client session context of an {@link SSLContext} created by the JDK client container.
+     * <p>
+     * Must not be called with contexts supplied by the application.
+     *
+     * @param sslContext SSL context created by the container.
+     */
+    void manage(SSLContext sslContext) {
+        final SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+        if (sessionContext == null) {
+            return;
+        }
+
+        synchronized (this) {
+            managedContexts.add(sessionContext);
+            limitSize(sessionContext, maxSize);
+        }
+    }
+
+    /**
+     * Record a completed handshake.
+     *
+     * @param host    server host.
+     * @param port    server port.
+     * @param session session negotiated by the handshake.
+     * @return {@code true} if the handshake has resumed a previous session.
+     */
+    boolean handshakeCompleted(String host, int port, SSLSession session) {
+        final String key = host + ":" + port;
+        final SessionInfo current = new SessionInfo(session);
+        final SessionInfo previous;
+        synchronized (this) {
+            previous = sessions.put(key, current);
+        }
+
+        final boolean resumed = previous != null && previous.isResumedBy(current);
+        if (resumed) {
+            resumedHandshakes.incrementAndGet();
+        } else {
+            fullHandshakes.incrementAndGet();
+        }
+
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(String.format("TLS handshake with %s completed, session resumed: %s, hit ratio: %.2f", key,
+                                      resumed, getHitRatio()));
+        }
+
+        return resumed;
+    }
+
+    private static void limitSize(SSLSessionContext sessionContext, int maxSize) {
+        final int contextSize = sessionContext.getSessionCacheSize();
+        // 0 means no limit
+        if (contextSize == 0 || contextSize > maxSize) {
+            sessionContext.setSessionCacheSize(maxSize);
+        }
+    }
+
+    private static class SessionInfo {
+
+        private final byte[] id;
+
+        SessionInfo(SSLSession session) {
+            this.id = session.getId();
+        }
+
+        boolean isResumedBy(SessionInfo session) {
+            // an empty ID means the session is not resumable
+            return id != null && id.length > 0 && Arrays.equals(id, session.id);
+        }
+    }
+}
@@ -49,17 +49,17 @@ import java.nio.channels.CompletionHandler;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.Queue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -78,43 +78,22 @@ import org.glassfish.tyrus.client.ThreadPoolConfig;
 class TransportFilter extends Filter {
 
     private static final Logger LOGGER = Logger.getLogger(TransportFilter.class.getName());
-    private static final int DEFAULT_CONNECTION_CLOSE_WAIT = 30;
-    private static final AtomicInteger openedConnections = new AtomicInteger(0);
-    private static final ScheduledExecutorService connectionCloseScheduler =
-            Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
-                @Override
-                public Thread newThread(Runnable r) {
-                    Thread thread = new Thread(r);
-                    thread.setName("tyrus-jdk-container-idle-timeout");
-                    thread.setDaemon(true);
-                    return thread;
-                }
-            });
-
-    private static volatile AsynchronousChannelGroup channelGroup;
-    private static volatile ScheduledFuture<?> closeWaitTask;
-
-    /**
-     * {@link org.glassfish.tyrus.client.ThreadPoolConfig} current {@link #channelGroup} has been created with.
-     */
-    private static volatile ThreadPoolConfig currentThreadPoolConfig;
-    /**
-     * Idle timeout that will be used when closing current {@link #channelGroup}
-     */
-    private static volatile Integer currentContainerIdleTimeout;
 
     private final int inputBufferSize;
-    private final ThreadPoolConfig threadPoolConfig;
-    private final Integer containerIdleTimeout;
+    private final ChannelGroups channelGroups;
+    private final Executor handlerExecutor;
+
+    private final AtomicReference<ByteBuffer> suspendedReadBuffer = new AtomicReference<ByteBuffer>();
+    private final AtomicBoolean groupReleased = new AtomicBoolean(false);
 
     private volatile AsynchronousSocketChannel socketChannel;
+    private volatile ChannelGroups.Group group;
+    private volatile boolean readingSuspended = false;
 
     /**
      * Constructor.
      * <p/>
-     * If the channel group is not active (all connections have been closed and the shutdown timeout is running) and a
-     * new transport is created with tread pool configuration different from the one of the current thread pool, the
-     * current thread pool will be shut down and a new one created with the new configuration.
+     * All the connections share a single channel group.
      *
      * @param inputBufferSize      size of buffer to be allocated for reading data from a socket.
      * @param threadPoolConfig     thread pool configuration used for creating thread pool.
@@ -122,10 +101,32 @@ class TransportFilter extends Filter {
      *                             default value will be used. The default value is 30 seconds.
      */
     TransportFilter(int inputBufferSize, ThreadPoolConfig threadPoolConfig, Integer containerIdleTimeout) {
+        this(inputBufferSize, threadPoolConfig, containerIdleTimeout, 1, false, false);
+    }
+
+    /**
+     * Constructor.
+     * <p/>
+     * Connections created with the same thread pool configuration, idle timeout and channel group settings share
+     * the same channel groups. Channel groups of connections with a different configuration are not affected.
+     *
+     * @param inputBufferSize      size of buffer to be allocated for reading data from a socket.
+     * @param threadPoolConfig     thread pool configuration used for creating thread pool of each channel group.
+     * @param containerIdleTimeout idle time after which the shared thread pool will be destroyed. If {@code null}
+     *                             default value will be used. The default value is 30 seconds.
+     * @param channelGroupCount    number of channel groups the connections are spread over.
+     * @param hashAssignment       if {@code true}, connections are assigned to channel groups by the hash of the
+     *                             server address, round-robin otherwise.
+     * @param virtualThreads       if {@code true}, completed reads and writes are processed on virtual threads
+     *                             instead of the threads of the channel group.
+     */
+    TransportFilter(int inputBufferSize, ThreadPoolConfig threadPoolConfig, Integer containerIdleTimeout,
+                    int channelGroupCount, boolean hashAssignment, boolean virtualThreads) {
         super(null);
         this.inputBufferSize = inputBufferSize;
-        this.threadPoolConfig = threadPoolConfig;
-        this.containerIdleTimeout = containerIdleTimeout;
+        this.channelGroups = ChannelGroups.get(threadPoolConfig, containerIdleTimeout, channelGroupCount,
+                                               hashAssignment, virtualThreads);
+        this.handlerExecutor = channelGroups.getHandlerExecutor();
     }
 
     @Override
@@ -133,17 +134,27 @@ class TransportFilter extends Filter {
         socketChannel.write(data, data, new CompletionHandler<Integer, ByteBuffer>() {
 
             @Override
-            public void completed(Integer result, ByteBuffer buffer) {
+            public void completed(Integer result, final ByteBuffer buffer) {
                 if (buffer.hasRemaining()) {
                     write(buffer, completionHandler);
                     return;
                 }
-                completionHandler.completed(buffer);
+                handle(new Runnable() {
+                    @Override
+                    public void run() {
+                        completionHandler.completed(buffer);
+                    }
+                });
             }
 
             @Override
-            public void failed(Throwable exc, ByteBuffer buffer) {
-                completionHandler.failed(exc);
+            public void failed(final Throwable exc, ByteBuffer buffer) {
+                handle(new Runnable() {
+                    @Override
+                    public void run() {
+                        completionHandler.failed(exc);
+                    }
+                });
             }
         });
     }
@@ -158,12 +169,7 @@ class TransportFilter extends Filter {
         } catch (IOException e) {
             LOGGER.log(Level.INFO, "Could not close a connection", e);
         }
-        synchronized (TransportFilter.class) {
-            openedConnections.decrementAndGet();
-            if (openedConnections.get() == 0 && channelGroup != null) {
-                scheduleClose();
-            }
-        }
+        releaseGroup();
 
         upstreamFilter = null;
     }
@@ -177,14 +183,13 @@ class TransportFilter extends Filter {
     public void handleConnect(SocketAddress serverAddress, Filter upstreamFilter) {
         this.upstreamFilter = upstreamFilter;
 
+        final ChannelGroups.Group group = channelGroups.select(serverAddress);
         try {
-            synchronized (TransportFilter.class) {
-                updateThreadPoolConfig();
-                initializeChannelGroup();
-                socketChannel = AsynchronousSocketChannel.open(channelGroup);
-                openedConnections.incrementAndGet();
-            }
+            final AsynchronousChannelGroup channelGroup = group.acquire();
+            this.group = group;
+            socketChannel = AsynchronousSocketChannel.open(channelGroup);
         } catch (IOException e) {
+            releaseGroup();
             onError(e);
             return;
         }
@@ -193,83 +198,75 @@ class TransportFilter extends Filter {
 
             @Override
             public void completed(Void result, Void nothing) {
-                final ByteBuffer inputBuffer = ByteBuffer.allocate(inputBufferSize);
-                onConnect();
-                _read(inputBuffer);
+                handle(new Runnable() {
+                    @Override
+                    public void run() {
+                        final ByteBuffer inputBuffer = ByteBuffer.allocate(inputBufferSize);
+                        onConnect();
+                        _read(inputBuffer);
+                    }
+                });
             }
 
             @Override
-            public void failed(Throwable exc, Void nothing) {
-                onError(exc);
+            public void failed(final Throwable exc, Void nothing) {
+                handle(new Runnable() {
+                    @Override
+                    public void run() {
+                        onError(exc);
+                    }
+                });
 
                 try {
                     socketChannel.close();
                 } catch (IOException e) {
                     LOGGER.log(Level.FINE, "Could not close connection", exc.getMessage());
                 }
+
+                releaseGroup();
             }
         });
     }
 
-    private void updateThreadPoolConfig() {
-
-        // the channel group is active, no change in configuration
-        if (openedConnections.get() != 0) {
-            return;
-        }
-
-        Integer closeWait = containerIdleTimeout == null ? DEFAULT_CONNECTION_CLOSE_WAIT : containerIdleTimeout;
-        // check if the new configuration is different from the one of the current container
-        if (!threadPoolConfig.equals(currentThreadPoolConfig) || !closeWait.equals(currentContainerIdleTimeout)) {
-
-            currentThreadPoolConfig = threadPoolConfig;
-            currentContainerIdleTimeout = closeWait;
-
-            if (channelGroup == null) {
-                // the channel group has not been initialized (this is a first client) - no need to shut it down
-                return;
-            }
-
-            closeWaitTask.cancel(true);
-            closeWaitTask = null;
-            channelGroup.shutdown();
-            channelGroup = null;
+    /**
+     * Release the channel group this connection has been assigned to. Does nothing if the group has not been
+     * acquired or has been already released.
+     */
+    private void releaseGroup() {
+        final ChannelGroups.Group group = this.group;
+        if (group != null && groupReleased.compareAndSet(false, true)) {
+            group.release();
         }
     }
 
-    private void initializeChannelGroup() throws IOException {
-        if (closeWaitTask != null) {
-            closeWaitTask.cancel(true);
-            closeWaitTask = null;
+    /**
+     * Create a thread pool for a channel group.
+     *
+     * @param threadPoolConfig thread pool configuration.
+     * @return new thread pool.
+     */
+    static ExecutorService createExecutor(ThreadPoolConfig threadPoolConfig) {
+        ThreadFactory threadFactory = threadPoolConfig.getThreadFactory();
+        if (threadFactory == null) {
+            threadFactory = new TransportThreadFactory(threadPoolConfig);
         }
 
-        if (channelGroup == null) {
-            ThreadFactory threadFactory = threadPoolConfig.getThreadFactory();
-            if (threadFactory == null) {
-                threadFactory = new TransportThreadFactory(threadPoolConfig);
-            }
-
-            ExecutorService executor;
-            if (threadPoolConfig.getQueue() != null) {
-                executor = new QueuingExecutor(threadPoolConfig.getCorePoolSize(), threadPoolConfig.getMaxPoolSize(),
-                                               threadPoolConfig.getKeepAliveTime(TimeUnit.MILLISECONDS),
-                                               TimeUnit.MILLISECONDS,
-                                               threadPoolConfig.getQueue(), false, threadFactory);
-            } else {
-                int taskQueueLimit = threadPoolConfig.getQueueLimit();
-                if (taskQueueLimit == -1) {
-                    taskQueueLimit = Integer.MAX_VALUE;
-                }
-
-                executor = new QueuingExecutor(threadPoolConfig.getCorePoolSize(), threadPoolConfig.getMaxPoolSize(),
-                                               threadPoolConfig.getKeepAliveTime(TimeUnit.MILLISECONDS),
-                                               TimeUnit.MILLISECONDS, new
-                        LinkedBlockingDeque<Runnable>(taskQueueLimit), true, threadFactory);
-            }
+        if (threadPoolConfig.getQueue() != null) {
+            return new QueuingExecutor(threadPoolConfig.getCorePoolSize(), threadPoolConfig.getMaxPoolSize(),
+                                       threadPoolConfig.getKeepAliveTime(TimeUnit.MILLISECONDS),
+                                       TimeUnit.MILLISECONDS,
+                                       threadPoolConfig.getQueue(), false, threadFactory);
+        }
 
-            // Thread pool is owned by the channel group and will be shut down when channel group is shut down
-            channelGroup = AsynchronousChannelGroup.withCachedThreadPool(executor, threadPoolConfig.getCorePoolSize());
+        int taskQueueLimit = threadPoolConfig.getQueueLimit();
+        if (taskQueueLimit == -1) {
+            taskQueueLimit = Integer.MAX_VALUE;
         }
+
+        return new QueuingExecutor(threadPoolConfig.getCorePoolSize(), threadPoolConfig.getMaxPoolSize(),
+                                   threadPoolConfig.getKeepAliveTime(TimeUnit.MILLISECONDS),
+                                   TimeUnit.MILLISECONDS, new
+                LinkedBlockingDeque<Runnable>(taskQueueLimit), true, threadFactory);
     }
 
     private void _read(final ByteBuffer inputBuffer) {
@@ -282,27 +279,17 @@ class TransportFilter extends Filter {
 
         socketChannel.read(inputBuffer, null, new CompletionHandler<Integer, Void>() {
             @Override
-            public void completed(Integer bytesRead, Void result) {
-
-                // connection closed by the server
-                if (bytesRead == -1) {
-                    // close will set TransportFilter.this.upstreamFilter to null
-                    Filter upstreamFilter = TransportFilter.this.upstreamFilter;
-                    if (upstreamFilter != null) {
-                        close();
-                        upstreamFilter.onConnectionClosed();
+            public void completed(final Integer bytesRead, Void result) {
+                handle(new Runnable() {
+                    @Override
+                    public void run() {
+                        onReadCompleted(bytesRead, inputBuffer);
                     }
-                    return;
-                }
-
-                inputBuffer.flip();
-                onRead(inputBuffer);
-                inputBuffer.compact();
-                _read(inputBuffer);
+                });
             }
 
             @Override
-            public void failed(Throwable exc, Void result) {
+            public void failed(final Throwable exc, Void result) {
                 /**
                  * Reading from the channel will fail if it is closing. In such cases {@link AsynchronousCloseException}
                  * is thrown. This should not be logged and no action undertaken.
@@ -311,25 +298,75 @@ class TransportFilter extends Filter {
                     return;
                 }
 
-                onError(exc);
+                handle(new Runnable() {
+                    @Override
+                    public void run() {
+                        onError(exc);
+                    }
+                });
             }
         });
     }
 
-    private void scheduleClose() {
-        closeWaitTask = connectionCloseScheduler.schedule(new Runnable() {
-            @Override
-            public void run() {
-                synchronized (TransportFilter.class) {
-                    if (closeWaitTask == null) {
-                        return;
-                    }
-                    channelGroup.shutdown();
-                    channelGroup = null;
-                    closeWaitTask = null;
-                }
+    private void onReadCompleted(int bytesRead, ByteBuffer inputBuffer) {
+        // connection closed by the server
+        if (bytesRead == -1) {
+            // close will set this.upstreamFilter to null
+            Filter upstreamFilter = this.upstreamFilter;
+            if (upstreamFilter != null) {
+                close();
+                upstreamFilter.onConnectionClosed();
+            }
+            return;
+        }
+
+        inputBuffer.flip();
+        onRead(inputBuffer);
+        inputBuffer.compact();
+
+        if (readingSuspended) {
+            suspendedReadBuffer.set(inputBuffer);
+            // resumeReading() might have been invoked before the buffer was set.
+            if (readingSuspended || !suspendedReadBuffer.compareAndSet(inputBuffer, null)) {
+                return;
             }
-        }, currentContainerIdleTimeout, TimeUnit.SECONDS);
+        }
+
+        _read(inputBuffer);
+    }
+
+    /**
+     * Process a completed operation, either directly on the current thread of the channel group or on a virtual
+     * thread, see {@link ChannelGroups#getHandlerExecutor()}.
+     *
+     * @param task processing of the completed operation.
+     */
+    private void handle(Runnable task) {
+        if (handlerExecutor == null) {
+            task.run();
+            return;
+        }
+
+        try {
+            handlerExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    @Override
+    void suspendReading() {
+        readingSuspended = true;
+    }
+
+    @Override
+    void resumeReading() {
+        readingSuspended = false;
+
+        final ByteBuffer inputBuffer = suspendedReadBuffer.getAndSet(null);
+        if (inputBuffer != null) {
+            _read(inputBuffer);
+        }
     }
 
     /**
@@ -0,0 +1,86 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.container.jdk.client;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests {@link ByteBufferPool}.
+ */
+public class ByteBufferPoolTest {
+
+    @Test
+    public void testReuse() {
+        ByteBufferPool pool = new ByteBufferPool(2);
+
+        ByteBuffer buffer = pool.acquire(100);
+        assertEquals(100, buffer.capacity());
+        buffer.put((byte) 1);
+        pool.release(buffer);
+        assertEquals(1, pool.getPooledCount(100));
+
+        ByteBuffer reused = pool.acquire(100);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(100, reused.remaining());
+        assertEquals(0, pool.getPooledCount(100));
+
+        // different capacity is not served from the pool
+        pool.release(reused);
+        assertNotSame(reused, pool.acquire(200));
+    }
+
+    @Test
+    public void testLimit() {
+        ByteBufferPool pool = new ByteBufferPool(2);
+
+        pool.release(ByteBuffer.allocate(10));
+        pool.release(ByteBuffer.allocate(10));
+        pool.release(ByteBuffer.allocate(10));
+
+        assertEquals(2, pool.getPooledCount(10));
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.container.jdk.client;
+
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.glassfish.tyrus.client.ThreadPoolConfig;
+import org.glassfish.tyrus.core.VirtualThreads;
+
+import org.junit.Test;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests assignment of connections to channel groups.
+ */
+public class ChannelGroupsTest {
+
+    @Test
+    public void testRoundRobin() throws Exception {
+        ChannelGroups channelGroups = ChannelGroups.get(ThreadPoolConfig.defaultConfig().setMaxPoolSize(3), 1, 3,
+                                                        false, false);
+        SocketAddress address = new InetSocketAddress("localhost", 8025);
+
+        ChannelGroups.Group first = channelGroups.select(address);
+        ChannelGroups.Group second = channelGroups.select(address);
+        ChannelGroups.Group third = channelGroups.select(address);
+
+        assertNotSame(first, second);
+        assertNotSame(second, third);
+        assertNotSame(first, third);
+        assertSame(first, channelGroups.select(address));
+
+        AsynchronousChannelGroup firstGroup = first.acquire();
+        AsynchronousChannelGroup secondGroup = second.acquire();
+        try {
+            assertNotSame(firstGroup, secondGroup);
+            assertSame(firstGroup, first.acquire());
+            first.release();
+        } finally {
+            first.release();
+            second.release();
+        }
+    }
+
+    @Test
+    public void testHash() {
+        ChannelGroups channelGroups = ChannelGroups.get(ThreadPoolConfig.defaultConfig().setMaxPoolSize(4), 1, 4,
+                                                        true, false);
+        SocketAddress address = new InetSocketAddress("localhost", 8025);
+
+        ChannelGroups.Group group = channelGroups.select(address);
+        for (int i = 0; i < 10; i++) {
+            assertSame(group, channelGroups.select(new InetSocketAddress("localhost", 8025)));
+        }
+    }
+
+    @Test
+    public void testSharedConfiguration() {
+        ChannelGroups channelGroups = ChannelGroups.get(ThreadPoolConfig.defaultConfig().setMaxPoolSize(5), 1, 2,
+                                                        false, false);
+
+        assertSame(channelGroups,
+                   ChannelGroups.get(ThreadPoolConfig.defaultConfig().setMaxPoolSize(5), 1, 2, false, false));
+        assertNotSame(channelGroups,
+                      ChannelGroups.get(ThreadPoolConfig.defaultConfig().setMaxPoolSize(5), 2, 2, false, false));
+        assertNotSame(channelGroups,
+                      ChannelGroups.get(ThreadPoolConfig.defaultConfig().setMaxPoolSize(5), 1, 3, false, false));
+        assertNotSame(channelGroups,
+                      ChannelGroups.get(ThreadPoolConfig.defaultConfig().setMaxPoolSize(5), 1, 2, false, true));
+    }
+
+    @Test
+    public void testIdleGroupShutdown() throws Exception {
+        ChannelGroups channelGroups = ChannelGroups.get(ThreadPoolConfig.defaultConfig().setMaxPoolSize(6), 1, 2,
+                                                        false, false);
+        ChannelGroups.Group group = channelGroups.select(null);
+
+        AsynchronousChannelGroup channelGroup = group.acquire();
+        assertTrue(group.isActive());
+        group.release();
+
+        // re-acquiring the group before the idle timeout elapses cancels the shutdown
+        assertSame(channelGroup, group.acquire());
+        group.release();
+
+        Thread.sleep(2000);
+
+        assertFalse(group.isActive());
+        assertTrue(channelGroup.isShutdown());
+    }
+
+    /**
+     * Channel group threads block in the selector, so they have to be platform threads even with virtual threads
+     * enabled. With more groups than carrier threads, virtual threads blocked in the selector would stall all the
+     * virtual threads in the JVM.
+     */
+    @Test
+    public void testMoreGroupsThanCarriers() throws Exception {
+        final int groupCount = Runtime.getRuntime().availableProcessors() + 2;
+        final ChannelGroups channelGroups = ChannelGroups.get(ThreadPoolConfig.defaultConfig().setMaxPoolSize(7), 1,
+                                                              groupCount, false, true);
+        final ExecutorService handlerExecutor = channelGroups.getHandlerExecutor();
+        if (!VirtualThreads.isSupported()) {
+            assertNull(handlerExecutor);
+            return;
+        }
+        assertNotNull(handlerExecutor);
+
+        final ServerSocket serverSocket = new ServerSocket(0, groupCount);
+        final List<ChannelGroups.Group> groups = new ArrayList<ChannelGroups.Group>();
+        final List<AsynchronousSocketChannel> channels = new ArrayList<AsynchronousSocketChannel>();
+        try {
+            final CountDownLatch handled = new CountDownLatch(groupCount);
+            final AtomicBoolean virtualGroupThread = new AtomicBoolean();
+
+            for (int i = 0; i < groupCount; i++) {
+                final ChannelGroups.Group group = channelGroups.select(null);
+                final AsynchronousSocketChannel channel = AsynchronousSocketChannel.open(group.acquire());
+                groups.add(group);
+                channels.add(channel);
+
+                channel.connect(new InetSocketAddress("127.0.0.1", serverSocket.getLocalPort()), null,
+                                new CompletionHandler<Void, Void>() {
+                                    @Override
+                                    public void completed(Void result, Void attachment) {
+                                        if (isVirtual(Thread.currentThread())) {
+                                            virtualGroupThread.set(true);
+                                        }
+                                        handlerExecutor.execute(new Runnable() {
+                                            @Override
+                                            public void run() {
+                                                if (isVirtual(Thread.currentThread())) {
+                                                    handled.countDown();
+                                                }
+                                            }
+                                        });
+                                    }
+
+                                    @Override
+                                    public void failed(Throwable exc, Void attachment) {
+                                    }
+                                });
+            }
+
+            assertTrue(handled.await(10, TimeUnit.SECONDS));
+            assertFalse(virtualGroupThread.get());
+        } finally {
+            for (AsynchronousSocketChannel channel : channels) {
+                channel.close();
+            }
+            for (ChannelGroups.Group group : groups) {
+                group.release();
+            }
+            serverSocket.close();
+        }
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        try {
+            final Method isVirtual = Thread.class.getMethod("isVirtual");
+            return (Boolean) isVirtual.invoke(thread);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
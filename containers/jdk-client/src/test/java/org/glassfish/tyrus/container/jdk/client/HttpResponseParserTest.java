@@ -0,0 +1,168 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.container.jdk.client;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+import org.glassfish.tyrus.core.TyrusUpgradeResponse;
+import org.glassfish.tyrus.spi.UpgradeRequest;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link HttpResponseParser}.
+ */
+public class HttpResponseParserTest {
+
+    private static final Charset ENCODING = Charset.forName("ISO-8859-1");
+    private static final String RESPONSE = "HTTP/1.1 101 Switching Protocols\r\n"
+            + "Upgrade: websocket\r\n"
+            + "Connection: Upgrade\r\n"
+            + "Sec-WebSocket-Accept: s3pPLMBiTxaQ9kYGzzhZRbK+xOo=\r\n"
+            + "X-Custom: a, \"b, c\"\r\n"
+            + "x-custom: d\r\n"
+            + "\r\n";
+
+    @Test
+    public void testSingleBuffer() throws ParseException {
+        HttpResponseParser parser = new HttpResponseParser();
+        parser.appendData(toBuffer(RESPONSE));
+
+        assertTrue(parser.isComplete());
+        checkResponse(parser.parseUpgradeResponse());
+    }
+
+    @Test
+    public void testByteByByte() throws ParseException {
+        HttpResponseParser parser = new HttpResponseParser();
+        byte[] bytes = RESPONSE.getBytes(ENCODING);
+        for (byte b : bytes) {
+            assertFalse(parser.isComplete());
+            parser.appendData(ByteBuffer.wrap(new byte[]{b}));
+        }
+
+        assertTrue(parser.isComplete());
+        checkResponse(parser.parseUpgradeResponse());
+    }
+
+    @Test
+    public void testRemainingData() throws ParseException {
+        HttpResponseParser parser = new HttpResponseParser();
+        ByteBuffer buffer = toBuffer(RESPONSE + "frame");
+        parser.appendData(buffer);
+
+        assertTrue(parser.isComplete());
+        assertEquals("frame", new String(buffer.array(), buffer.position(), buffer.remaining(), ENCODING));
+    }
+
+    @Test
+    public void testClear() throws ParseException {
+        HttpResponseParser parser = new HttpResponseParser();
+        parser.appendData(toBuffer("HTTP/1.1 200 Connection established\r\n\r\n"));
+        assertEquals(200, parser.parseUpgradeResponse().getStatus());
+
+        parser.clear();
+        assertFalse(parser.isComplete());
+        parser.appendData(toBuffer(RESPONSE));
+        checkResponse(parser.parseUpgradeResponse());
+    }
+
+    @Test
+    public void testInvalidStatusLine() {
+        try {
+            new HttpResponseParser().appendData(toBuffer("HTTP/1.1 1a1 Switching Protocols\r\n"));
+            fail();
+        } catch (ParseException e) {
+            // expected
+        }
+
+        try {
+            new HttpResponseParser().appendData(toBuffer("HTTP/1.1\r\n"));
+            fail();
+        } catch (ParseException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTooLarge() {
+        HttpResponseParser parser = new HttpResponseParser();
+        char[] value = new char[HttpResponseParser.BUFFER_MAX_SIZE];
+        Arrays.fill(value, 'a');
+
+        try {
+            // the limit is checked before the end of the header line has been reached
+            parser.appendData(toBuffer("HTTP/1.1 101 Switching Protocols\r\nX-Large: " + new String(value)));
+            fail();
+        } catch (ParseException e) {
+            // expected
+        }
+    }
+
+    private void checkResponse(TyrusUpgradeResponse response) {
+        assertEquals(101, response.getStatus());
+        assertEquals("Switching Protocols", response.getReasonPhrase());
+        assertEquals("websocket", response.getFirstHeaderValue(UpgradeRequest.UPGRADE));
+        assertEquals("s3pPLMBiTxaQ9kYGzzhZRbK+xOo=", response.getFirstHeaderValue("Sec-WebSocket-Accept"));
+
+        // well-known header names are not allocated
+        for (String name : response.getHeaders().keySet()) {
+            if (name.equals(UpgradeRequest.CONNECTION)) {
+                assertSame(UpgradeRequest.CONNECTION, name);
+            }
+        }
+
+        List<String> custom = response.getHeaders().get("X-Custom");
+        assertEquals(Arrays.asList("a", "\"b, c\"", "d"), custom);
+    }
+
+    private static ByteBuffer toBuffer(String s) {
+        return ByteBuffer.wrap(s.getBytes(ENCODING));
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.container.jdk.client;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSession;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link SslSessionCache}.
+ */
+public class SslSessionCacheTest {
+
+    @Test
+    public void testResumption() {
+        SslSessionCache cache = new SslSessionCache(10);
+
+        assertFalse(cache.handshakeCompleted("localhost", 8025, createSession(new byte[]{1}, 1000)));
+        // resumption - the same session
+        assertTrue(cache.handshakeCompleted("localhost", 8025, createSession(new byte[]{1}, 1000)));
+        // the same creation time alone is not a resumption
+        assertFalse(cache.handshakeCompleted("localhost", 8025, createSession(new byte[]{2}, 1000)));
+        // a full handshake
+        assertFalse(cache.handshakeCompleted("localhost", 8025, createSession(new byte[]{3}, 2000)));
+        // the same session with another port is not a resumption
+        assertFalse(cache.handshakeCompleted("localhost", 8026, createSession(new byte[]{3}, 2000)));
+        // an empty session ID is never a resumption
+        assertFalse(cache.handshakeCompleted("localhost", 8027, createSession(new byte[0], 3000)));
+        assertFalse(cache.handshakeCompleted("localhost", 8027, createSession(new byte[0], 3000)));
+
+        assertEquals(1, cache.getResumedHandshakes());
+        assertEquals(6, cache.getFullHandshakes());
+        assertEquals(1.0 / 7, cache.getHitRatio(), 0.0001);
+
+        cache.resetStatistics();
+        assertEquals(0, cache.getHitRatio(), 0);
+    }
+
+    @Test
+    public void testMaxSize() {
+        SslSessionCache cache = new SslSessionCache(2);
+
+        cache.handshakeCompleted("host1", 443, createSession(new byte[]{1}, 1));
+        cache.handshakeCompleted("host2", 443, createSession(new byte[]{2}, 2));
+        cache.handshakeCompleted("host3", 443, createSession(new byte[]{3}, 3));
+        assertEquals(2, cache.size());
+
+        // the least recently used host has been evicted
+        assertFalse(cache.handshakeCompleted("host1", 443, createSession(new byte[]{1}, 1)));
+        assertTrue(cache.handshakeCompleted("host3", 443, createSession(new byte[]{3}, 3)));
+    }
+
+    @Test
+    public void testManagedContextSize() throws Exception {
+        SslSessionCache cache = new SslSessionCache(10);
+
+        SSLContext managed = SSLContext.getInstance("TLS");
+        managed.init(null, null, null);
+        SSLContext unmanaged = SSLContext.getInstance("TLS");
+        unmanaged.init(null, null, null);
+        final int unmanagedSize = unmanaged.getClientSessionContext().getSessionCacheSize();
+
+        cache.manage(managed);
+        assertEquals(10, managed.getClientSessionContext().getSessionCacheSize());
+
+        cache.setMaxSize(5);
+        assertEquals(5, managed.getClientSessionContext().getSessionCacheSize());
+        // contexts not created by the container are left untouched
+        assertEquals(unmanagedSize, unmanaged.getClientSessionContext().getSessionCacheSize());
+    }
+
+    private static SSLSession createSession(final byte[] id, final long creationTime) {
+        return (SSLSession) Proxy.newProxyInstance(
+                SslSessionCacheTest.class.getClassLoader(), new Class[]{SSLSession.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if (method.getName().equals("getId")) {
+                            return id;
+                        } else if (method.getName().equals("getCreationTime")) {
+                            return creationTime;
+                        }
+
+                        return null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.servlet;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of byte arrays shared by all the connections of one web application.
+ * <p>
+ * Servlet streams accept only {@code byte[]}, so reading from {@link javax.servlet.ServletInputStream} and writing
+ * non-heap buffers to {@link javax.servlet.ServletOutputStream} requires an array. Instead of allocating a new one
+ * for every read or write, connections borrow an array for the duration of a read loop (or a write) and return it
+ * afterwards, so idle connections do not hold any buffer.
+ * <p>
+ * Arrays are pooled in power of two size classes between {@code minSize} and {@code maxSize}; at most
+ * {@code maxPooled} arrays are retained for each size class.
+ */
+class ServletBufferPool {
+
+    /**
+     * Default minimal (and initial) size of a read buffer.
+     */
+    static final int DEFAULT_MIN_SIZE = 4096;
+
+    /**
+     * Default maximal size of a read buffer.
+     */
+    static final int DEFAULT_MAX_SIZE = 65536;
+
+    /**
+     * Default number of retained arrays per size class.
+     */
+    static final int DEFAULT_MAX_POOLED = 64;
+
+    private static final int MAX_ARRAY_SIZE = 1 << 30;
+
+    private final int minSize;
+    private final int maxSize;
+    private final int maxPooled;
+    private final Queue<byte[]>[] pools;
+    private final AtomicInteger[] pooled;
+
+    /**
+     * Create new pool.
+     *
+     * @param minSize   minimal size of an array, rounded up to a power of two.
+     * @param maxSize   maximal size of an array, rounded up to a power of two.
+     * @param maxPooled maximal number of arrays retained per size class, {@code 0} disables pooling.
+     */
+    @SuppressWarnings("unchecked")
+    ServletBufferPool(int minSize, int maxSize, int maxPooled) {
+        this.minSize = roundUp(Math.min(Math.max(minSize, 16), MAX_ARRAY_SIZE));
+        this.maxSize = roundUp(Math.min(Math.max(maxSize, this.minSize), MAX_ARRAY_SIZE));
+        this.maxPooled = Math.max(maxPooled, 0);
+
+        final int classes =
+                Integer.numberOfTrailingZeros(this.maxSize) - Integer.numberOfTrailingZeros(this.minSize) + 1;
+        this.pools = new Queue[classes];
+        this.pooled = new AtomicInteger[classes];
+        for (int i = 0; i < classes; i++) {
+            pools[i] = new ConcurrentLinkedQueue<byte[]>();
+            pooled[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Create a pool with default settings.
+     */
+    ServletBufferPool() {
+        this(DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE, DEFAULT_MAX_POOLED);
+    }
+
+    /**
+     * Get minimal array size.
+     *
+     * @return minimal array size.
+     */
+    int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * Get maximal array size.
+     *
+     * @return maximal array size.
+     */
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Borrow an array.
+     *
+     * @param size requested size; the returned array might be bigger, but not bigger than {@link #getMaxSize()}.
+     * @return array of at least {@code min(size, getMaxSize())} bytes.
+     */
+    byte[] acquire(int size) {
+        final int sizeClass = sizeClass(size);
+        final byte[] array = pools[sizeClass].poll();
+        if (array != null) {
+            pooled[sizeClass].decrementAndGet();
+            return array;
+        }
+
+        return new byte[minSize << sizeClass];
+    }
+
+    /**
+     * Return an array obtained from {@link #acquire(int)}.
+     *
+     * @param array array to be returned; must not be used by the caller anymore.
+     */
+    void release(byte[] array) {
+        final int sizeClass = sizeClass(array.length);
+        if ((minSize << sizeClass) != array.length) {
+            return;
+        }
+
+        if (pooled[sizeClass].incrementAndGet() <= maxPooled) {
+            pools[sizeClass].offer(array);
+        } else {
+            pooled[sizeClass].decrementAndGet();
+        }
+    }
+
+    private int sizeClass(int size) {
+        if (size <= minSize) {
+            return 0;
+        }
+
+        final int rounded = size >= maxSize ? maxSize : roundUp(size);
+        return Integer.numberOfTrailingZeros(rounded) - Integer.numberOfTrailingZeros(minSize);
+    }
+
+    private static int roundUp(int size) {
+        final int highest = Integer.highestOneBit(Math.max(size, 1));
+        return highest == size ? size : highest << 1;
+    }
+}
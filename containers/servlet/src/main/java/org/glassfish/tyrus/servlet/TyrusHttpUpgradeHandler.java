@@ -43,6 +43,8 @@ package org.glassfish.tyrus.servlet;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -54,6 +56,7 @@ import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpUpgradeHandler;
 import javax.servlet.http.WebConnection;
 
+import org.glassfish.tyrus.core.Beta;
 import org.glassfish.tyrus.core.CloseReasons;
 import org.glassfish.tyrus.spi.Connection;
 import org.glassfish.tyrus.spi.WebSocketEngine;
@@ -71,14 +74,59 @@ public class TyrusHttpUpgradeHandler implements HttpUpgradeHandler, ReadListener
 
     public static final String FRAME_BUFFER_SIZE = "org.glassfish.tyrus.servlet.incoming-buffer-size";
 
+    /**
+     * Initial and minimal size of the buffer used for reading from {@link ServletInputStream}.
+     * <p>
+     * The read buffer grows (up to {@link #READ_BUFFER_MAX_SIZE}) when reads fill it completely and shrinks back when
+     * the connection reads less data. Read buffers are borrowed from a pool shared by all the connections of the web
+     * application only for the duration of a read.
+     * <p>
+     * The value is expected to be integer, default value is {@code 4096}. The value is rounded up to the nearest
+     * power of two.
+     */
+    @Beta
+    public static final String READ_BUFFER_MIN_SIZE = "org.glassfish.tyrus.servlet.read-buffer-min-size";
+
+    /**
+     * Maximal size of the buffer used for reading from {@link ServletInputStream}.
+     * <p>
+     * The value is expected to be integer, default value is {@code 65536}. The value is rounded up to the nearest
+     * power of two.
+     *
+     * @see #READ_BUFFER_MIN_SIZE
+     */
+    @Beta
+    public static final String READ_BUFFER_MAX_SIZE = "org.glassfish.tyrus.servlet.read-buffer-max-size";
+
+    /**
+     * Maximal number of idle buffers of each size retained by the buffer pool shared by all the connections of the
+     * web application.
+     * <p>
+     * The value is expected to be integer, default value is {@code 64}. Value {@code 0} disables the pooling.
+     *
+     * @see #READ_BUFFER_MIN_SIZE
+     */
+    @Beta
+    public static final String BUFFER_POOL_SIZE = "org.glassfish.tyrus.servlet.buffer-pool-size";
+
     private final CountDownLatch connectionLatch = new CountDownLatch(1);
 
     private ServletInputStream is;
     private ServletOutputStream os;
     private WebConnection wc;
-    private ByteBuffer buf;
+    private ServletBufferPool bufferPool;
+    private ExecutorService executorService;
+    /* current read buffer size; there is only one reading loop at a time, but the loop resumed after a suspension
+    runs on a different thread than the previous one */
+    private volatile int readBufferSize;
 
     private volatile boolean closed = false;
+
+    private final Object readLock = new Object();
+    // guarded by readLock
+    private boolean readingSuspended = false;
+    // reading loop left while data might still be available, guarded by readLock
+    private boolean readingStalled = false;
     private int incomingBufferSize = 4194315; // 4M (payload) + 11 (frame overhead)
 
     private static final Logger LOGGER = Logger.getLogger(TyrusHttpUpgradeHandler.class.getName());
@@ -135,99 +183,113 @@ public class TyrusHttpUpgradeHandler implements HttpUpgradeHandler, ReadListener
             // do nothing.
         }
 
-        do {
-            try {
-                int available = is.available();
-                if (available == 0) {
-                    // tomcat impl returns always 0
-                    available = 16384;
-                }
+        read();
+    }
 
-                int toRead;
-                if (buf == null) {
-                    if (available > incomingBufferSize) {
-                        toRead = incomingBufferSize;
-                    } else {
-                        toRead = available;
-                    }
-                } else {
-                    if (buf.remaining() + available > incomingBufferSize) {
-                        toRead = incomingBufferSize - buf.remaining();
-                    } else {
-                        toRead = buf.remaining() + available;
+    /**
+     * Stop reading data from the connection until {@link #resumeReading()} is invoked.
+     * <p>
+     * Servlet API does not allow to suspend reading, so the reading loop is just left; the container won't invoke
+     * {@link #onDataAvailable()} again until the available data is read.
+     */
+    void suspendReading() {
+        synchronized (readLock) {
+            readingSuspended = true;
+        }
+    }
+
+    /**
+     * Resume reading suspended by {@link #suspendReading()}.
+     * <p>
+     * If the reading loop has been left because of the suspension, it is continued using the executor service of the
+     * server container, never on the invoking thread, which is typically in the middle of dispatching the received
+     * messages.
+     */
+    void resumeReading() {
+        final boolean stalled;
+        synchronized (readLock) {
+            readingSuspended = false;
+            stalled = readingStalled;
+            readingStalled = false;
+        }
+
+        if (!stalled || closed) {
+            return;
+        }
+
+        try {
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // isReady() returning false makes the container invoke onDataAvailable() once more data is
+                    // available.
+                    if (!closed && is.isReady()) {
+                        read();
                     }
                 }
+            });
+        } catch (RejectedExecutionException e) {
+            // the container is being stopped, the connection will be closed.
+            LOGGER.log(Level.FINE, "Reading cannot be resumed.", e);
+        }
+    }
 
-                if (toRead == 0) {
-                    throw new IOException(String.format("Tyrus input buffer exceeded. Current buffer size is %s bytes.",
-                                                        incomingBufferSize));
-                }
+    private void read() {
+        final ServletBufferPool pool = getBufferPool();
+        final int maxReadBufferSize = Math.min(pool.getMaxSize(), incomingBufferSize);
+        if (readBufferSize == 0) {
+            readBufferSize = pool.getMinSize();
+        }
 
-                available -= fillBuf(toRead);
+        byte[] buffer = null;
+        // biggest amount of data obtained by a single read in this loop
+        int maxRead = 0;
+        try {
+            do {
+                try {
+                    if (buffer == null) {
+                        buffer = pool.acquire(readBufferSize);
+                    }
 
-                if (buf != null) {
+                    final int len = is.read(buffer);
+                    if (len > 0) {
+                        maxRead = Math.max(maxRead, len);
 
-                    LOGGER.finest(String.format("Remaining Data = %d", buf.remaining()));
+                        LOGGER.finest(String.format("Read data = %d", len));
 
-                    if (buf.hasRemaining()) {
-                        connection.getReadHandler().handle(buf);
+                        // the read handler consumes all the data, the buffer can be reused for the next read.
+                        connection.getReadHandler().handle(ByteBuffer.wrap(buffer, 0, len));
+
+                        if (len == buffer.length && buffer.length < maxReadBufferSize) {
+                            // there is likely more data to be read, use bigger buffer for the next read.
+                            readBufferSize = Math.min(buffer.length * 2, maxReadBufferSize);
+                            pool.release(buffer);
+                            buffer = null;
+                        }
+                    } else if (len < 0) {
+                        break;
                     }
+                } catch (IOException e) {
+                    connection.close(CloseReasons.CANNOT_ACCEPT.getCloseReason());
                 }
-            } catch (IOException e) {
-                connection.close(CloseReasons.CANNOT_ACCEPT.getCloseReason());
+
+                synchronized (readLock) {
+                    if (readingSuspended) {
+                        readingStalled = true;
+                        return;
+                    }
+                }
+            } while (!closed && is.isReady());
+        } finally {
+            if (buffer != null) {
+                pool.release(buffer);
             }
-        } while (!closed && is.isReady());
-    }
 
-    /**
-     * Fill the buf with some more websocket protocol data.
-     *
-     * @param length length of data available to read.
-     * @return legth of actually read data.
-     * @throws IOException if some other I/O error occurs.
-     */
-    private int fillBuf(int length) throws IOException {
-        byte[] data = new byte[length];
-        int len = is.read(data);
-        if (len == 0) {
-            return 0;
-        }
-        if (buf == null) {
-            LOGGER.finest("No Buffer. Allocating new one");
-            buf = ByteBuffer.wrap(data);
-            buf.limit(len);
-        } else {
-            int limit = buf.limit();
-            int capacity = buf.capacity();
-            int remaining = buf.remaining();
-
-            if (capacity - limit >= len) {
-                // Remaining data need not be changed. New data is just appended
-                LOGGER.finest("Remaining data need not be moved. New data is just appended");
-                buf.mark();
-                buf.position(limit);
-                buf.limit(capacity);
-                buf.put(data, 0, len);
-                buf.limit(limit + len);
-                buf.reset();
-            } else if (remaining + len < capacity) {
-                // Remaining data is moved to left. Then new data is appended
-                LOGGER.finest("Remaining data is moved to left. Then new data is appended");
-                buf.compact();
-                buf.put(data, 0, len);
-                buf.flip();
-            } else {
-                // Remaining data + new > capacity. So allocate new one
-                LOGGER.finest("Remaining data + new > capacity. So allocate new one");
-                byte[] array = new byte[remaining + len];
-                buf.get(array, 0, remaining);
-                System.arraycopy(data, 0, array, remaining, len);
-                buf = ByteBuffer.wrap(array);
-                buf.limit(remaining + len);
+            if (maxRead > 0 && maxRead < readBufferSize / 4) {
+                // no reads required the current buffer size, shrink it for the next reading loop.
+                readBufferSize = Math.max(readBufferSize / 2, pool.getMinSize());
             }
         }
-
-        return len;
     }
 
     @Override
@@ -276,6 +338,36 @@ public class TyrusHttpUpgradeHandler implements HttpUpgradeHandler, ReadListener
         this.incomingBufferSize = incomingBufferSize;
     }
 
+    /**
+     * Set the pool used for obtaining read and write buffers.
+     *
+     * @param bufferPool pool shared by all the connections of the web application.
+     */
+    void setBufferPool(ServletBufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+    }
+
+    /**
+     * Set the executor service used for resuming suspended reading.
+     *
+     * @param executorService executor service of the server container.
+     */
+    void setExecutorService(ExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    /**
+     * Get the pool used for obtaining read and write buffers.
+     *
+     * @return buffer pool; a default one is created when none was set.
+     */
+    ServletBufferPool getBufferPool() {
+        if (bufferPool == null) {
+            bufferPool = new ServletBufferPool();
+        }
+        return bufferPool;
+    }
+
     private void httpSessionForcedClose(int closeCode, String closeReason) {
         if (!closed) {
             try {
@@ -60,6 +60,7 @@ import javax.servlet.ServletException;
 import javax.servlet.annotation.HandlesTypes;
 
 import org.glassfish.tyrus.core.DebugContext;
+import org.glassfish.tyrus.core.SessionAdmissionController;
 import org.glassfish.tyrus.core.TyrusWebSocketEngine;
 import org.glassfish.tyrus.core.monitoring.ApplicationEventListener;
 import org.glassfish.tyrus.server.TyrusServerContainer;
@@ -100,6 +101,12 @@ public class TyrusServletContainerInitializer implements ServletContainerInitial
                 ctx, TyrusWebSocketEngine.MAX_SESSIONS_PER_REMOTE_ADDR);
         final Boolean parallelBroadcastEnabled = getBooleanContextParam(
                 ctx, TyrusWebSocketEngine.PARALLEL_BROADCAST_ENABLED);
+        final Boolean orderedDispatchEnabled = getBooleanContextParam(
+                ctx, TyrusWebSocketEngine.ORDERED_DISPATCH_ENABLED);
+        final Integer orderedDispatchMaxBacklog = getIntContextParam(
+                ctx, TyrusWebSocketEngine.ORDERED_DISPATCH_MAX_BACKLOG);
+        final Boolean virtualThreadsEnabled = getBooleanContextParam(
+                ctx, TyrusWebSocketEngine.VIRTUAL_THREADS_ENABLED);
         final DebugContext.TracingType tracingType = getEnumContextParam(
                 ctx, TyrusWebSocketEngine.TRACING_TYPE, DebugContext.TracingType.class, DebugContext.TracingType.OFF);
         final DebugContext.TracingThreshold tracingThreshold =
@@ -107,6 +114,7 @@ public class TyrusServletContainerInitializer implements ServletContainerInitial
                                     DebugContext.TracingThreshold.TRACE);
 
         final ApplicationEventListener applicationEventListener = createApplicationEventListener(ctx);
+        final SessionAdmissionController admissionController = createAdmissionController(ctx);
         final TyrusServerContainer serverContainer = new TyrusServerContainer(classes) {
 
             private final WebSocketEngine engine =
@@ -115,7 +123,10 @@ public class TyrusServletContainerInitializer implements ServletContainerInitial
                                         .incomingBufferSize(incomingBufferSize)
                                         .maxSessionsPerApp(maxSessionsPerApp)
                                         .maxSessionsPerRemoteAddr(maxSessionsPerRemoteAddr)
+                                        .admissionController(admissionController)
                                         .parallelBroadcastEnabled(parallelBroadcastEnabled)
+                                        .orderedDispatchEnabled(orderedDispatchEnabled)
+                                        .orderedDispatchMaxBacklog(orderedDispatchMaxBacklog)
                                         .tracingType(tracingType)
                                         .tracingThreshold(tracingThreshold)
                                         .build();
@@ -134,6 +145,11 @@ public class TyrusServletContainerInitializer implements ServletContainerInitial
             public WebSocketEngine getWebSocketEngine() {
                 return engine;
             }
+
+            @Override
+            protected boolean isVirtualThreadsEnabled() {
+                return virtualThreadsEnabled != null && virtualThreadsEnabled;
+            }
         };
         ctx.setAttribute(ServerContainer.class.getName(), serverContainer);
         Boolean wsadlEnabled = getBooleanContextParam(ctx, TyrusWebSocketEngine.WSADL_SUPPORT);
@@ -248,4 +264,29 @@ public class TyrusServletContainerInitializer implements ServletContainerInitial
         }
         return null;
     }
+
+    private SessionAdmissionController createAdmissionController(final ServletContext ctx) {
+        String controllerClassName = ctx.getInitParameter(TyrusWebSocketEngine.ADMISSION_CONTROLLER);
+        if (controllerClassName == null) {
+            return null;
+        }
+        try {
+            ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            Class<?> controllerClass = Class.forName(controllerClassName, true, contextClassLoader);
+
+            if (SessionAdmissionController.class.isAssignableFrom(controllerClass)) {
+                return controllerClass.asSubclass(SessionAdmissionController.class).newInstance();
+            } else {
+                LOGGER.log(Level.WARNING, "Class " + controllerClassName + " does not implement "
+                        + "SessionAdmissionController");
+            }
+        } catch (ClassNotFoundException e) {
+            LOGGER.log(Level.WARNING, "SessionAdmissionController implementation " + controllerClassName
+                    + " not found", e);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.log(Level.WARNING, "SessionAdmissionController implementation " + controllerClassName
+                    + " could not have been instantiated", e);
+        }
+        return null;
+    }
 }
@@ -45,6 +45,8 @@ import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.websocket.server.HandshakeRequest;
@@ -100,6 +102,7 @@ class TyrusServletFilter implements Filter, HttpSessionListener {
             TyrusHttpUpgradeHandler>();
 
     private org.glassfish.tyrus.server.TyrusServerContainer serverContainer = null;
+    private ServletBufferPool bufferPool = null;
     private JAXBContext wsadlJaxbContext;
 
 
@@ -118,6 +121,13 @@ class TyrusServletFilter implements Filter, HttpSessionListener {
         ServletContext servletContext = filterConfig.getServletContext();
         this.serverContainer = (org.glassfish.tyrus.server.TyrusServerContainer) servletContext
                 .getAttribute(ServerContainer.class.getName());
+        this.bufferPool = new ServletBufferPool(
+                getIntInitParam(servletContext, TyrusHttpUpgradeHandler.READ_BUFFER_MIN_SIZE,
+                                ServletBufferPool.DEFAULT_MIN_SIZE),
+                getIntInitParam(servletContext, TyrusHttpUpgradeHandler.READ_BUFFER_MAX_SIZE,
+                                ServletBufferPool.DEFAULT_MAX_SIZE),
+                getIntInitParam(servletContext, TyrusHttpUpgradeHandler.BUFFER_POOL_SIZE,
+                                ServletBufferPool.DEFAULT_MAX_POOLED));
 
         try {
             // TODO? - port/contextPath .. is it really relevant here?
@@ -129,6 +139,20 @@ class TyrusServletFilter implements Filter, HttpSessionListener {
         }
     }
 
+    private static int getIntInitParam(ServletContext servletContext, String paramName, int defaultValue) {
+        final String initParameter = servletContext.getInitParameter(paramName);
+        if (initParameter != null) {
+            try {
+                return Integer.parseInt(initParameter.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.log(Level.CONFIG, "Invalid configuration value [" + paramName + " = " + initParameter + "], "
+                        + "integer expected");
+            }
+        }
+
+        return defaultValue;
+    }
+
     @Override
     public void sessionCreated(HttpSessionEvent se) {
         // do nothing.
@@ -187,6 +211,31 @@ class TyrusServletFilter implements Filter, HttpSessionListener {
             handler.setIncomingBufferSize(incomingBufferSize);
         }
 
+        @Override
+        void setBufferPool(ServletBufferPool bufferPool) {
+            handler.setBufferPool(bufferPool);
+        }
+
+        @Override
+        ServletBufferPool getBufferPool() {
+            return handler.getBufferPool();
+        }
+
+        @Override
+        void setExecutorService(ExecutorService executorService) {
+            handler.setExecutorService(executorService);
+        }
+
+        @Override
+        void suspendReading() {
+            handler.suspendReading();
+        }
+
+        @Override
+        void resumeReading() {
+            handler.resumeReading();
+        }
+
         @Override
         WebConnection getWebConnection() {
             return handler.getWebConnection();
@@ -268,6 +317,8 @@ class TyrusServletFilter implements Filter, HttpSessionListener {
                     if (frameBufferSize != null) {
                         handler.setIncomingBufferSize(Integer.parseInt(frameBufferSize));
                     }
+                    handler.setBufferPool(bufferPool);
+                    handler.setExecutorService(serverContainer.getExecutorService());
 
                     handler.preInit(upgradeInfo, webSocketConnection, httpServletRequest.getUserPrincipal() != null);
 
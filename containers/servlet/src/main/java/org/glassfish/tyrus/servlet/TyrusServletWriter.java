@@ -60,7 +60,7 @@ import org.glassfish.tyrus.spi.Writer;
 class TyrusServletWriter extends Writer implements WriteListener {
 
     private final TyrusHttpUpgradeHandler tyrusHttpUpgradeHandler;
-    private final Deque<QueuedFrame> queue = new LinkedList<QueuedFrame>();
+    private final Deque<QueuedFrame<?>> queue = new LinkedList<QueuedFrame<?>>();
 
     private static final Logger LOGGER = Logger.getLogger(TyrusServletWriter.class.getName());
 
@@ -74,13 +74,20 @@ class TyrusServletWriter extends Writer implements WriteListener {
 
     private boolean isListenerSet;
 
-    private static class QueuedFrame {
-        public final CompletionHandler<ByteBuffer> completionHandler;
-        public final ByteBuffer dataFrame;
+    /**
+     * Data to be written with the completion handler to be notified.
+     *
+     * @param <T> type of the data passed to the writer, either {@link ByteBuffer} or {@link ByteBuffer}{@code []}.
+     */
+    private static class QueuedFrame<T> {
+        public final CompletionHandler<T> completionHandler;
+        public final T data;
+        public final ByteBuffer[] dataFrames;
 
-        QueuedFrame(CompletionHandler<ByteBuffer> completionHandler, ByteBuffer dataFrame) {
+        QueuedFrame(CompletionHandler<T> completionHandler, T data, ByteBuffer[] dataFrames) {
             this.completionHandler = completionHandler;
-            this.dataFrame = dataFrame;
+            this.data = data;
+            this.dataFrames = dataFrames;
         }
     }
 
@@ -98,10 +105,10 @@ class TyrusServletWriter extends Writer implements WriteListener {
         LOGGER.log(Level.FINEST, "OnWritePossible called");
 
         while (!queue.isEmpty() && servletOutputStream.isReady()) {
-            final QueuedFrame queuedFrame = queue.poll();
+            final QueuedFrame<?> queuedFrame = queue.poll();
             assert queuedFrame != null;
 
-            _write(queuedFrame.dataFrame, queuedFrame.completionHandler);
+            _write(queuedFrame);
         }
     }
 
@@ -109,14 +116,40 @@ class TyrusServletWriter extends Writer implements WriteListener {
     public synchronized void onError(Throwable t) {
         LOGGER.log(Level.WARNING, "TyrusServletWriter.onError", t);
 
-        QueuedFrame queuedFrame;
+        QueuedFrame<?> queuedFrame;
         while ((queuedFrame = queue.poll()) != null) {
             queuedFrame.completionHandler.failed(t);
         }
     }
 
+    @Override
+    public boolean suspendReading() {
+        tyrusHttpUpgradeHandler.suspendReading();
+        return true;
+    }
+
+    @Override
+    public void resumeReading() {
+        tyrusHttpUpgradeHandler.resumeReading();
+    }
+
     @Override
     public synchronized void write(final ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+        write(new QueuedFrame<ByteBuffer>(completionHandler, buffer, new ByteBuffer[]{buffer}));
+    }
+
+    /**
+     * Writes all the buffers to the {@link ServletOutputStream} and flushes it once.
+     *
+     * @param buffers           bytes to write.
+     * @param completionHandler completion handler to know the write status.
+     */
+    @Override
+    public synchronized void write(final ByteBuffer[] buffers, CompletionHandler<ByteBuffer[]> completionHandler) {
+        write(new QueuedFrame<ByteBuffer[]>(completionHandler, buffers, buffers));
+    }
+
+    private void write(QueuedFrame<?> frame) {
 
         // first write
         if (servletOutputStream == null) {
@@ -124,16 +157,15 @@ class TyrusServletWriter extends Writer implements WriteListener {
                 servletOutputStream = tyrusHttpUpgradeHandler.getWebConnection().getOutputStream();
             } catch (IOException e) {
                 LOGGER.log(Level.CONFIG, "ServletOutputStream cannot be obtained", e);
-                completionHandler.failed(e);
+                frame.completionHandler.failed(e);
                 return;
             }
         }
 
         if (queue.isEmpty() && servletOutputStream.isReady()) {
-            _write(buffer, completionHandler);
+            _write(frame);
         } else {
-            final QueuedFrame queuedFrame = new QueuedFrame(completionHandler, buffer);
-            queue.offer(queuedFrame);
+            queue.offer(frame);
 
             if (!isListenerSet) {
                 isListenerSet = true;
@@ -142,27 +174,42 @@ class TyrusServletWriter extends Writer implements WriteListener {
         }
     }
 
-    private void _write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+    private <T> void _write(QueuedFrame<T> frame) {
 
         try {
-            if (buffer.hasArray()) {
-                byte[] array = buffer.array();
-                servletOutputStream.write(array, buffer.arrayOffset() + buffer.position(), buffer.remaining());
-            } else {
-                final int remaining = buffer.remaining();
-                final byte[] array = new byte[remaining];
-                buffer.get(array);
-                servletOutputStream.write(array);
+            for (ByteBuffer buffer : frame.dataFrames) {
+                writeBuffer(buffer);
             }
 
             servletOutputStream.flush();
 
-            if (completionHandler != null) {
-                completionHandler.completed(buffer);
+            if (frame.completionHandler != null) {
+                frame.completionHandler.completed(frame.data);
             }
         } catch (Exception e) {
-            if (completionHandler != null) {
-                completionHandler.failed(e);
+            if (frame.completionHandler != null) {
+                frame.completionHandler.failed(e);
+            }
+        }
+    }
+
+    private void writeBuffer(ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            byte[] array = buffer.array();
+            servletOutputStream.write(array, buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        } else {
+            // servlet stream accepts only arrays, copy the buffer through a pooled one.
+            final ServletBufferPool pool = tyrusHttpUpgradeHandler.getBufferPool();
+            final byte[] array = pool.acquire(buffer.remaining());
+            try {
+                final ByteBuffer source = buffer.duplicate();
+                while (source.hasRemaining()) {
+                    final int length = Math.min(source.remaining(), array.length);
+                    source.get(array, 0, length);
+                    servletOutputStream.write(array, 0, length);
+                }
+            } finally {
+                pool.release(array);
             }
         }
     }
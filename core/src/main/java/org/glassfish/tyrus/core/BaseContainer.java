@@ -42,6 +42,8 @@ package org.glassfish.tyrus.core;
 import java.lang.reflect.Method;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -73,6 +75,7 @@ public abstract class BaseContainer extends ExecutorServiceProvider implements W
 
     private volatile ExecutorService executorService = null;
     private volatile ScheduledExecutorService scheduledExecutorService = null;
+    private volatile ForkJoinPool broadcastPool = null;
 
     public BaseContainer() {
         this.managedExecutorService = lookupManagedExecutorService();
@@ -104,7 +107,12 @@ public abstract class BaseContainer extends ExecutorServiceProvider implements W
         if (executorService == null) {
             synchronized (EXECUTORS_CLEAN_UP_LOCK) {
                 if (executorService == null) {
-                    executorService = Executors.newCachedThreadPool(threadFactory);
+                    if (useVirtualThreads()) {
+                        executorService = VirtualThreads.newThreadPerTaskExecutor("tyrus-virtual-thread-");
+                    }
+                    if (executorService == null) {
+                        executorService = Executors.newCachedThreadPool(threadFactory);
+                    }
                 }
             }
         }
@@ -129,7 +137,12 @@ public abstract class BaseContainer extends ExecutorServiceProvider implements W
         if (scheduledExecutorService == null) {
             synchronized (EXECUTORS_CLEAN_UP_LOCK) {
                 if (scheduledExecutorService == null) {
-                    scheduledExecutorService = Executors.newScheduledThreadPool(10, threadFactory);
+                    ThreadFactory factory = null;
+                    if (useVirtualThreads()) {
+                        factory = VirtualThreads.newThreadFactory("tyrus-scheduled-virtual-thread-");
+                    }
+                    scheduledExecutorService =
+                            Executors.newScheduledThreadPool(10, factory == null ? threadFactory : factory);
                 }
             }
         }
@@ -137,6 +150,59 @@ public abstract class BaseContainer extends ExecutorServiceProvider implements W
         return scheduledExecutorService;
     }
 
+    /**
+     * Indicates whether the executor services created by this container should run tasks on virtual threads.
+     * <p>
+     * Virtual threads are used only when the executor services are not provided by the application server and the
+     * current JDK supports them (JDK 21 and newer); otherwise platform threads are used as usual. The broadcast pool
+     * always uses platform threads, since broadcast tasks do not block.
+     * <p>
+     * Containers are expected to override this method according to their configuration. The default implementation
+     * returns {@code false}.
+     *
+     * @return {@code true} if virtual threads should be used.
+     * @see VirtualThreads
+     */
+    @Beta
+    protected boolean isVirtualThreadsEnabled() {
+        return false;
+    }
+
+    private boolean useVirtualThreads() {
+        if (!isVirtualThreadsEnabled()) {
+            return false;
+        }
+
+        if (!VirtualThreads.isSupported()) {
+            LOGGER.config("Virtual threads are not supported by the current JDK, platform threads will be used.");
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns a {@link java.util.concurrent.ForkJoinPool} dedicated to parallel broadcast, created and managed by this
+     * instance of {@link org.glassfish.tyrus.core.BaseContainer}.
+     * <p>
+     * Parallelism of the pool is bounded by the number of available processors; broadcast tasks are only issuing
+     * non-blocking writes, so there is no point in having more threads.
+     *
+     * @return fork join pool used for parallel broadcast.
+     */
+    public ForkJoinPool getBroadcastPool() {
+        if (broadcastPool == null) {
+            synchronized (EXECUTORS_CLEAN_UP_LOCK) {
+                if (broadcastPool == null) {
+                    broadcastPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+                                                     new BroadcastWorkerThreadFactory(), null, false);
+                }
+            }
+        }
+
+        return broadcastPool;
+    }
+
     /**
      * Release executor services managed by this instance. Executor services obtained via JNDI lookup won't be
      * shut down.
@@ -147,6 +213,11 @@ public abstract class BaseContainer extends ExecutorServiceProvider implements W
             executorService = null;
         }
 
+        if (broadcastPool != null) {
+            broadcastPool.shutdown();
+            broadcastPool = null;
+        }
+
         if (scheduledExecutorService != null) {
             scheduledExecutorService.shutdownNow();
             scheduledExecutorService = null;
@@ -234,6 +305,24 @@ public abstract class BaseContainer extends ExecutorServiceProvider implements W
         }
     }
 
+    private static class BroadcastWorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        static final AtomicInteger poolNumber = new AtomicInteger(1);
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        final String namePrefix;
+
+        BroadcastWorkerThreadFactory() {
+            namePrefix = "tyrus-broadcast-" + poolNumber.getAndIncrement() + "-thread-";
+        }
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            final ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName(namePrefix + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
     protected static interface ShutDownCondition {
 
         boolean evaluate();
@@ -0,0 +1,67 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+/**
+ * Callback notified when a broadcast started by {@link TyrusSession#broadcast(String, BroadcastHandler)}, {@link
+ * TyrusSession#broadcast(java.nio.ByteBuffer, BroadcastHandler)} or one of the {@code broadcastToGroup} methods is
+ * finished.
+ * <p>
+ * The handler is invoked exactly once per broadcast, after the outcome of the write to every local session is known.
+ * It might be invoked from a container (I/O) thread, so the implementation should not block. Only sessions connected
+ * to this node are included in the result, messages delivered to sessions connected to other cluster nodes are not.
+ * <p>
+ * When the endpoint is deployed in a cluster, the message is handed over to the cluster and delivered to the sessions
+ * by every node, including this one, without reporting back. The handler is then invoked as soon as the message is
+ * handed over, with a {@link BroadcastResult} which does not contain any succeeded or failed session.
+ *
+ * @see BroadcastResult
+ */
+@Beta
+public interface BroadcastHandler {
+
+    /**
+     * Called once the broadcast has completed.
+     *
+     * @param result aggregated result of the broadcast.
+     */
+    void onResult(BroadcastResult result);
+}
@@ -0,0 +1,111 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Aggregated result of a broadcast.
+ * <p>
+ * Contains the number of local sessions to which the message was successfully written, number of sessions for which
+ * the write failed and ids of the failed sessions.
+ *
+ * @see BroadcastHandler
+ */
+@Beta
+public final class BroadcastResult {
+
+    private final int successCount;
+    private final Set<String> failedSessionIds;
+
+    /**
+     * Create new result.
+     *
+     * @param successCount     number of sessions to which the message was written.
+     * @param failedSessionIds ids of sessions to which the message could not be written.
+     */
+    BroadcastResult(int successCount, Set<String> failedSessionIds) {
+        this.successCount = successCount;
+        this.failedSessionIds = Collections.unmodifiableSet(failedSessionIds);
+    }
+
+    /**
+     * Get number of sessions to which the message was successfully written.
+     *
+     * @return number of successful writes.
+     */
+    public int getSuccessCount() {
+        return successCount;
+    }
+
+    /**
+     * Get number of sessions to which the message could not be written.
+     *
+     * @return number of failed writes.
+     */
+    public int getFailureCount() {
+        return failedSessionIds.size();
+    }
+
+    /**
+     * Get ids of sessions to which the message could not be written.
+     *
+     * @return unmodifiable set of failed session ids, never {@code null}.
+     */
+    public Set<String> getFailedSessionIds() {
+        return failedSessionIds;
+    }
+
+    /**
+     * Determines whether the message was written to all sessions.
+     *
+     * @return {@code true} if there was no failure, {@code false} otherwise.
+     */
+    public boolean isOK() {
+        return failedSessionIds.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "BroadcastResult{successCount=" + successCount + ", failedSessionIds=" + failedSessionIds + '}';
+    }
+}
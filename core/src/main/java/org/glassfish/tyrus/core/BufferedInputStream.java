@@ -42,32 +42,85 @@ package org.glassfish.tyrus.core;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Passed to the (@link MessageHandler.Whole} in case that partial messages are being received.
+ * <p>
+ * Bytes are read directly from the received message parts.
  *
  * @author Danny Coward (danny.coward at oracle.com)
  * @author Stepan Kopriva (stepan.kopriva at oracle.com)
  */
 class BufferedInputStream extends InputStream {
-    private final InputStreamBuffer buffer;
+    private final StreamingChunkQueue<ByteBuffer> chunks;
+
+    private ByteBuffer current = null;
+    private boolean finished = false;
 
     /**
      * Constructor.
      *
-     * @param buffer underlying buffer.
+     * @param chunks parts of the message.
      */
-    public BufferedInputStream(InputStreamBuffer buffer) {
-        this.buffer = buffer;
+    public BufferedInputStream(StreamingChunkQueue<ByteBuffer> chunks) {
+        this.chunks = chunks;
     }
 
     @Override
     public int read() throws IOException {
-        return buffer.getNextByte();
+        if (!nextChunk()) {
+            return -1;
+        }
+        return current.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+
+        final int count = Math.min(len, current.remaining());
+        current.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return current == null ? 0 : current.remaining();
     }
 
     @Override
     public void close() {
-        this.buffer.finishReading();
+        current = null;
+        finished = true;
+        chunks.discard();
+    }
+
+    /**
+     * Make sure there are bytes to be read in the current message part.
+     *
+     * @return {@code false} if the end of the message has been reached.
+     */
+    private boolean nextChunk() throws IOException {
+        while (current == null || !current.hasRemaining()) {
+            if (finished) {
+                return false;
+            }
+
+            current = chunks.take();
+            if (current == null) {
+                finished = true;
+                return false;
+            }
+        }
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -45,35 +45,62 @@ import java.io.Reader;
 
 /**
  * Passed to the (@link MessageHandler.Whole} in case that partial messages are being received.
+ * <p>
+ * Characters are read directly from the received message parts.
  *
  * @author Danny Coward (danny.coward at oracle.com)
  * @author Stepan Kopriva (stepan.kopriva at oracle.com)
  */
 class BufferedStringReader extends Reader {
-    private final ReaderBuffer readerBuffer;
+    private final StreamingChunkQueue<String> chunks;
+
+    private String current = null;
+    private int position = 0;
+    private boolean finished = false;
 
     /**
      * Constructor.
      *
-     * @param readerBuffer underlying buffer.
+     * @param chunks parts of the message.
      */
-    public BufferedStringReader(ReaderBuffer readerBuffer) {
-        this.readerBuffer = readerBuffer;
+    public BufferedStringReader(StreamingChunkQueue<String> chunks) {
+        this.chunks = chunks;
     }
 
     @Override
     public int read(char[] destination, int offsetToStart, int numberOfChars) throws IOException {
-        char[] got = readerBuffer.getNextChars(numberOfChars);
-        if (got != null) {
-            System.arraycopy(got, 0, destination, offsetToStart, got.length);
-            return got.length;
-        } else {
-            return -1;
+        if (numberOfChars == 0) {
+            return 0;
+        }
+
+        while (current == null || position == current.length()) {
+            if (finished) {
+                return -1;
+            }
+
+            current = chunks.take();
+            position = 0;
+            if (current == null) {
+                finished = true;
+                return -1;
+            }
         }
+
+        final int count = Math.min(numberOfChars, current.length() - position);
+        current.getChars(position, position + count, destination, offsetToStart);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public boolean ready() {
+        return current != null && position < current.length();
     }
 
     @Override
     public void close() {
-        this.readerBuffer.finishReading();
+        current = null;
+        finished = true;
+        chunks.discard();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,143 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of incoming frames dispatched from the reading thread to the per-session serial queues.
+ * <p>
+ * Queue time is the time between reading a frame from the connection and starting its processing on a thread of the
+ * shared executor.
+ *
+ * @see TyrusWebSocketEngine#ORDERED_DISPATCH_ENABLED
+ * @see TyrusWebSocketEngine#getDispatchStatistics()
+ */
+@Beta
+public class DispatchStatistics {
+
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong totalQueueTime = new AtomicLong();
+    private final AtomicLong maxQueueTime = new AtomicLong();
+    private final AtomicLong maxBacklog = new AtomicLong();
+    private final AtomicLong readSuspensions = new AtomicLong();
+
+    /**
+     * Get number of frames whose processing has already started.
+     *
+     * @return number of dispatched frames.
+     */
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    /**
+     * Get average time the dispatched frames spent in the session queues.
+     *
+     * @param unit time unit of the returned value.
+     * @return average queue time, {@code 0} if no frame has been dispatched yet.
+     */
+    public long getAverageQueueTime(TimeUnit unit) {
+        final long count = dispatchedCount.get();
+        return count == 0 ? 0 : unit.convert(totalQueueTime.get() / count, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the longest time a dispatched frame spent in a session queue.
+     *
+     * @param unit time unit of the returned value.
+     * @return maximal queue time.
+     */
+    public long getMaxQueueTime(TimeUnit unit) {
+        return unit.convert(maxQueueTime.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the largest number of frames that were waiting in a single session queue at the same time.
+     *
+     * @return maximal observed backlog of a session.
+     */
+    public long getMaxBacklog() {
+        return maxBacklog.get();
+    }
+
+    /**
+     * Get number of times reading from a connection was suspended because the session queue was full.
+     *
+     * @return number of read suspensions.
+     */
+    public long getReadSuspensionCount() {
+        return readSuspensions.get();
+    }
+
+    void onEnqueued(int backlog) {
+        updateMax(maxBacklog, backlog);
+    }
+
+    void onDequeued(long queueTimeNanos) {
+        dispatchedCount.incrementAndGet();
+        totalQueueTime.addAndGet(queueTimeNanos);
+        updateMax(maxQueueTime, queueTimeNanos);
+    }
+
+    void onReadingSuspended() {
+        readSuspensions.incrementAndGet();
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DispatchStatistics{dispatchedCount=" + getDispatchedCount()
+                + ", averageQueueTimeMicros=" + getAverageQueueTime(TimeUnit.MICROSECONDS)
+                + ", maxQueueTimeMicros=" + getMaxQueueTime(TimeUnit.MICROSECONDS)
+                + ", maxBacklog=" + getMaxBacklog()
+                + ", readSuspensionCount=" + getReadSuspensionCount() + "}";
+    }
+}
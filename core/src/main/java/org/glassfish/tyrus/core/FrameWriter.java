@@ -0,0 +1,70 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import org.glassfish.tyrus.core.frame.Frame;
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Writer;
+
+/**
+ * {@link Writer} able to pass whole {@link Frame frames} to the other side of the connection without serializing
+ * them.
+ * <p>
+ * Meant for transports connecting two Tyrus runtimes within the same JVM: when the {@link Writer} of a connection
+ * extends this class, Tyrus runtime hands outgoing frames to {@link #write(Frame, CompletionHandler)} unmasked and
+ * after the negotiated extensions have processed them. The transport passes them to {@link
+ * FrameReadHandler#handle(Frame)} of the other side, which validates and processes them as if they were parsed from
+ * the network. Data which is already serialized (e.g. prepared broadcast frames) is still written by {@link
+ * #write(java.nio.ByteBuffer, CompletionHandler)}, so the transport has to support both.
+ */
+@Beta
+public abstract class FrameWriter extends Writer {
+
+    /**
+     * Tyrus runtime calls this method to handover a frame to the transport.
+     * <p>
+     * The frame payload is not modified by Tyrus runtime after this call and the transport must not modify it either.
+     *
+     * @param frame             frame to write.
+     * @param completionHandler completion handler to know the write status.
+     */
+    public abstract void write(Frame frame, CompletionHandler<Frame> completionHandler);
+}
@@ -0,0 +1,171 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.glassfish.tyrus.spi.Writer;
+
+/**
+ * Suspends and resumes reading from a connection on behalf of several independent sources.
+ * <p>
+ * Every source suspends and resumes the reading using its own reason; the transport is asked to stop reading when
+ * the first reason is set and to resume when the last one is cleared. Transports which do not support suspending
+ * (see {@link Writer#suspendReading()}) are detected by the first attempt, after which all further attempts fail
+ * without asking the transport again.
+ * <p>
+ * The reasons are updated under a lock, but the transport is called without holding it, since resuming might read
+ * and process more data on the calling thread, which can suspend the reading again. Calls to the transport are not
+ * concurrent: reasons changed in the meantime are applied by the thread already calling the transport.
+ */
+class InboundFlowControl {
+
+    /**
+     * Reading suspended by the application through {@link TyrusSession#suspendReading()}.
+     */
+    static final int APPLICATION = 1;
+
+    /**
+     * Reading suspended because the per-session queue of {@link SessionDispatcher} is full.
+     */
+    static final int DISPATCH_BACKLOG = 1 << 1;
+
+    /**
+     * Reading suspended because a message streamed to {@link java.io.Reader} or {@link java.io.InputStream} is not
+     * consumed fast enough, see {@link StreamingChunkQueue}.
+     */
+    static final int STREAMING_BUFFER = 1 << 2;
+
+    private final Writer writer;
+    private final AtomicInteger updates = new AtomicInteger();
+
+    // guarded by this.
+    private int reasons = 0;
+    private volatile boolean unsupported = false;
+
+    // accessed only by the thread which is applying the updates.
+    private boolean transportSuspended = false;
+
+    /**
+     * Create new flow control of the connection served by the given writer.
+     *
+     * @param writer transport writer of the connection.
+     */
+    InboundFlowControl(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Suspend reading for the given reason.
+     *
+     * @param reason reason of the suspension.
+     * @return {@code true} if the reading has been suspended (or already was), {@code false} if the transport does
+     * not support suspending. When another thread is asking the transport at the same time, {@code true} might be
+     * returned before the transport is found not to support suspending.
+     */
+    boolean suspend(int reason) {
+        synchronized (this) {
+            if (unsupported) {
+                return false;
+            }
+            reasons |= reason;
+        }
+
+        update();
+        return !unsupported;
+    }
+
+    /**
+     * Clear the given reason of suspension and resume reading if no other reason remains.
+     *
+     * @param reason reason of the suspension.
+     */
+    void resume(int reason) {
+        synchronized (this) {
+            if ((reasons & reason) == 0) {
+                return;
+            }
+            reasons &= ~reason;
+        }
+
+        update();
+    }
+
+    /**
+     * Check whether the reading is suspended for the given reason.
+     *
+     * @param reason reason of the suspension.
+     * @return {@code true} if the reading is suspended for the given reason.
+     */
+    synchronized boolean isSuspended(int reason) {
+        return (reasons & reason) != 0;
+    }
+
+    /**
+     * Bring the transport to the state given by the current reasons.
+     */
+    private void update() {
+        if (updates.getAndIncrement() != 0) {
+            return;
+        }
+
+        do {
+            final boolean suspend;
+            synchronized (this) {
+                suspend = reasons != 0;
+            }
+
+            if (suspend && !transportSuspended) {
+                if (writer.suspendReading()) {
+                    transportSuspended = true;
+                } else {
+                    synchronized (this) {
+                        unsupported = true;
+                        reasons = 0;
+                    }
+                }
+            } else if (!suspend && transportSuspended) {
+                transportSuspended = false;
+                writer.resumeReading();
+            }
+        } while (updates.decrementAndGet() != 0);
+    }
+}
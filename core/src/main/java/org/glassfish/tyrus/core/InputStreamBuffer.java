@@ -40,14 +40,9 @@
 
 package org.glassfish.tyrus.core;
 
-import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -59,7 +54,9 @@ import org.glassfish.tyrus.core.l10n.LocalizationMessages;
  * Buffer used for the case when partial messages are received by the {@link MessageHandler.Whole}.
  * <p>
  * For the first received message {@link MessageHandler.Whole#onMessage(Object)} is called in a new {@link Thread} to
- * allow blocking reading of passed {@link java.io.InputStream}.
+ * allow blocking reading of passed {@link java.io.InputStream}. Parts of the message are passed to the {@link
+ * InputStream} through {@link StreamingChunkQueue}, which suspends reading from the connection when the {@link
+ * InputStream} is not consumed fast enough.
  *
  * @author Danny Coward (danny.coward at oracle.com)
  * @author Stepan Kopriva (stepan.kopriva at oracle.com)
@@ -67,85 +64,25 @@ import org.glassfish.tyrus.core.l10n.LocalizationMessages;
  */
 class InputStreamBuffer {
 
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Condition condition = lock.newCondition();
+    private static final Logger LOGGER = Logger.getLogger(InputStreamBuffer.class.getName());
 
-    private final List<ByteBuffer> bufferedFragments = new ArrayList<ByteBuffer>();
     private final ExecutorService executorService;
+    private final InboundFlowControl flowControl;
 
-    private static final Logger LOGGER = Logger.getLogger(InputStreamBuffer.class.getName());
-
-    private volatile boolean receivedLast = false;
-    private volatile BufferedInputStream inputStream = null;
-    private volatile MessageHandler.Whole<InputStream> messageHandler;
     private volatile int bufferSize;
-    private volatile int currentlyBuffered;
+    private volatile StreamingChunkQueue<ByteBuffer> chunks = null;
+    private volatile MessageHandler.Whole<InputStream> messageHandler;
     private volatile boolean sessionClosed = false;
 
     /**
      * Constructor.
-     */
-    public InputStreamBuffer(ExecutorService executorService) {
-        this.executorService = executorService;
-        currentlyBuffered = 0;
-    }
-
-    /**
-     * Get next received bytes.
      *
-     * @return next received bytes.
+     * @param executorService executor used to invoke the message handler.
+     * @param flowControl     flow control of the connection, {@code null} if reading cannot be suspended.
      */
-    public int getNextByte() throws IOException {
-        lock.lock();
-        try {
-            if (this.bufferedFragments.isEmpty()) {
-                if (receivedLast) {
-                    this.inputStream = null;
-                    this.currentlyBuffered = 0;
-                    return -1;
-                } else { // there's more to come...so wait here...
-                    // don't let the reader block on a closed session
-                    checkClosedSession();
-
-                    boolean interrupted;
-                    do {
-                        interrupted = false;
-                        try {
-                            condition.await();
-
-                            checkClosedSession();
-                        } catch (InterruptedException e) {
-                            interrupted = true;
-                        }
-                    } while (interrupted);
-                }
-            }
-
-            if (bufferedFragments.size() == 1 && !bufferedFragments.get(0).hasRemaining() && receivedLast) {
-                this.inputStream = null;
-                this.currentlyBuffered = 0;
-                return -1;
-            }
-
-            ByteBuffer firstBuffer = bufferedFragments.get(0);
-            byte result = firstBuffer.get();
-
-            if (!firstBuffer.hasRemaining()) {
-                bufferedFragments.remove(0);
-            }
-
-            return result & 0xFF;
-        } finally {
-            lock.unlock();
-        }
-    }
-
-    /**
-     * Finish reading of the buffer.
-     */
-    public void finishReading() {
-        this.bufferedFragments.clear();
-        this.inputStream = null;
+    public InputStreamBuffer(ExecutorService executorService, InboundFlowControl flowControl) {
+        this.executorService = executorService;
+        this.flowControl = flowControl;
     }
 
     /**
@@ -155,27 +92,32 @@ class InputStreamBuffer {
      * @param last    should be {@code true} iff this is the last part of the message, {@code false} otherwise.
      */
     public void appendMessagePart(ByteBuffer message, boolean last) {
-        lock.lock();
+        StreamingChunkQueue<ByteBuffer> queue = chunks;
+        final boolean first = queue == null;
+        if (first) {
+            queue = new StreamingChunkQueue<ByteBuffer>(flowControl, bufferSize);
+            chunks = queue;
+            if (sessionClosed) {
+                queue.onSessionClosed();
+            }
+        }
+
         try {
-            currentlyBuffered += message.remaining();
-            if (currentlyBuffered <= bufferSize) {
-                bufferedFragments.add(message);
-            } else {
-                final MessageTooBigException messageTooBigException =
-                        new MessageTooBigException(LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW());
-                LOGGER.log(Level.FINE, LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW(), messageTooBigException);
-                receivedLast = true;
-                throw messageTooBigException;
+            queue.offer(message, message.remaining(), last);
+        } catch (MessageTooBigException e) {
+            LOGGER.log(Level.FINE, LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW(), e);
+            if (last) {
+                chunks = null;
             }
+            throw e;
+        }
 
-            this.receivedLast = last;
-            condition.signalAll();
-        } finally {
-            lock.unlock();
+        if (last) {
+            chunks = null;
         }
 
-        if (this.inputStream == null) {
-            this.inputStream = new BufferedInputStream(this);
+        if (first) {
+            final InputStream inputStream = new BufferedInputStream(queue);
             executorService.execute(new Runnable() {
                 @Override
                 public void run() {
@@ -196,29 +138,23 @@ class InputStreamBuffer {
 
     /**
      * Reset the buffer size.
+     * <p>
+     * Invoked when a new message starts, the maximal amount of data buffered for the {@link InputStream} is set for the
+     * new message.
      *
      * @param bufferSize the size to be set.
      */
     public void resetBuffer(int bufferSize) {
         this.bufferSize = bufferSize;
-        currentlyBuffered = 0;
-        bufferedFragments.clear();
+        this.chunks = null;
     }
 
     void onSessionClosed() {
         sessionClosed = true;
-        lock.lock();
-        try {
+        final StreamingChunkQueue<ByteBuffer> queue = chunks;
+        if (queue != null) {
             // wake up blocked thread
-            condition.signalAll();
-        } finally {
-            lock.unlock();
-        }
-    }
-
-    private void checkClosedSession() throws IOException {
-        if (sessionClosed) {
-            throw new IOException("Websocket session has been closed.");
+            queue.onSessionClosed();
         }
     }
 }
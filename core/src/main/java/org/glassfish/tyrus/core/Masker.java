@@ -80,6 +80,21 @@ class Masker {
         return bytes;
     }
 
+    /**
+     * Unmask the given part of the array in place, continuing with the mask position where the previous call ended.
+     *
+     * @param bytes  data to be unmasked.
+     * @param offset start of the data.
+     * @param length number of bytes to be unmasked.
+     */
+    public void unmask(byte[] bytes, int offset, int length) {
+        if (mask != null) {
+            for (int i = offset; i < offset + length; i++) {
+                bytes[i] ^= mask[index++ % ProtocolHandler.MASK_SIZE];
+            }
+        }
+    }
+
     public void mask(byte[] target, int location, byte[] bytes, int length) {
         if (bytes != null && target != null) {
             for (int i = 0; i < length; i++) {
@@ -98,6 +113,10 @@ class Masker {
         return mask;
     }
 
+    public void setMask(byte[] mask) {
+        this.mask = mask;
+    }
+
     public void readMask() {
         mask = get(ProtocolHandler.MASK_SIZE);
     }
@@ -85,6 +85,18 @@ public final class ProtocolHandler {
      */
     public static final int MASK_SIZE = 4;
 
+    /**
+     * Minimal payload size for which the frame header and the payload are passed to the {@link Writer} as separate
+     * buffers; smaller payloads are cheaper to copy than to write as a separate buffer.
+     */
+    private static final int GATHERING_WRITE_THRESHOLD = 1024;
+
+    /**
+     * Maximal size of the array allocated for a frame payload before the payload data arrive. The length in the frame
+     * header is not trusted; the array grows as the data are received.
+     */
+    private static final int INITIAL_PAYLOAD_CAPACITY = 64 * 1024;
+
     private static final Logger LOGGER = Logger.getLogger(ProtocolHandler.class.getName());
     private static final int SEND_TIMEOUT = 3000; // millis.
 
@@ -95,6 +107,7 @@ public final class ProtocolHandler {
     private volatile TyrusWebSocket webSocket;
     private volatile byte outFragmentedType;
     private volatile Writer writer;
+    private volatile InboundFlowControl inboundFlowControl;
     private volatile byte inFragmentedType;
     private volatile boolean processingFragment;
     private volatile String subProtocol = null;
@@ -181,6 +194,16 @@ public final class ProtocolHandler {
      */
     public void setWriter(Writer writer) {
         this.writer = writer;
+        this.inboundFlowControl = new InboundFlowControl(writer);
+    }
+
+    /**
+     * Get flow control of the incoming data of the connection.
+     *
+     * @return flow control or {@code null} if no {@link Writer} has been set yet.
+     */
+    InboundFlowControl getInboundFlowControl() {
+        return inboundFlowControl;
     }
 
     /**
@@ -358,6 +381,32 @@ public final class ProtocolHandler {
         }
     }
 
+    /**
+     * Raw frame is always whole (not partial).
+     * <p>
+     * The completion handler is passed directly to the {@link Writer}, no {@link Future} is created.
+     *
+     * @param data              serialized frame.
+     * @param completionHandler completion handler notified about the write status.
+     */
+    public void sendRawFrame(ByteBuffer data, CompletionHandler<ByteBuffer> completionHandler) {
+        lock.lock();
+
+        try {
+            checkSendingFragment();
+
+            final Writer localWriter = writer;
+
+            if (localWriter == null) {
+                throw new IllegalStateException(LocalizationMessages.CONNECTION_NULL());
+            }
+
+            localWriter.write(data, completionHandler);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Check whether current {@link ProtocolHandler} is sending a partial message.
      * <p>
@@ -480,8 +529,20 @@ public final class ProtocolHandler {
             throw new IllegalStateException(LocalizationMessages.CONNECTION_NULL());
         }
 
-        final ByteBuffer byteBuffer = frame(frame);
-        localWriter.write(byteBuffer, new CompletionHandlerWrapper(completionHandler, future, frame));
+        if (localWriter instanceof FrameWriter) {
+            ((FrameWriter) localWriter).write(directFrame(frame),
+                                              new CompletionHandlerWrapper<Frame>(completionHandler, future, frame));
+            messageEventListener.onFrameSent(frame.getFrameType(), frame.getPayloadLength());
+            return future;
+        }
+
+        final ByteBuffer[] buffers = frame(frame, true);
+        if (buffers.length == 1) {
+            localWriter.write(buffers[0],
+                              new CompletionHandlerWrapper<ByteBuffer>(completionHandler, future, frame));
+        } else {
+            localWriter.write(buffers, new CompletionHandlerWrapper<ByteBuffer[]>(completionHandler, future, frame));
+        }
         messageEventListener.onFrameSent(frame.getFrameType(), frame.getPayloadLength());
 
         return future;
@@ -496,7 +557,7 @@ public final class ProtocolHandler {
             throw new IllegalStateException(LocalizationMessages.CONNECTION_NULL());
         }
 
-        localWriter.write(frame, new CompletionHandlerWrapper(completionHandler, future, null));
+        localWriter.write(frame, new CompletionHandlerWrapper<ByteBuffer>(completionHandler, future, null));
 
         return future;
     }
@@ -504,11 +565,12 @@ public final class ProtocolHandler {
     /**
      * Convert a byte[] to a long. Used for rebuilding payload length.
      *
-     * @param bytes byte array to be converted.
+     * @param bytes  byte array to be converted.
+     * @param length number of bytes to be converted.
      * @return converted byte array.
      */
-    private long decodeLength(byte[] bytes) {
-        return Utils.toLong(bytes, 0, bytes.length);
+    private long decodeLength(byte[] bytes, int length) {
+        return Utils.toLong(bytes, 0, length);
     }
 
     /**
@@ -586,24 +648,25 @@ public final class ProtocolHandler {
     }
 
     /* package */ ByteBuffer frame(Frame frame) {
+        return frame(frame, false)[0];
+    }
+
+    /**
+     * Serialize the frame.
+     *
+     * @param frame     frame to be serialized.
+     * @param gathering if {@code true}, unmasked payload (bigger than {@link #GATHERING_WRITE_THRESHOLD}) is returned
+     *                  as a separate buffer following the frame header, so it does not need to be copied into the
+     *                  serialized frame. Otherwise the whole frame is returned in a single buffer.
+     * @return buffers containing the serialized frame.
+     */
+    private ByteBuffer[] frame(Frame frame, boolean gathering) {
 
         if (client) {
             frame = Frame.builder(frame).maskingKey(maskingKeyGenerator.nextInt()).mask(true).build();
         }
 
-        if (extensions != null && extensions.size() > 0) {
-            for (Extension extension : extensions) {
-                if (extension instanceof ExtendedExtension) {
-                    try {
-                        frame = ((ExtendedExtension) extension).processOutgoing(extensionContext, frame);
-                    } catch (Throwable t) {
-                        // TODO: define ExtendedExtension exception handling.
-                        LOGGER.log(Level.FINE, LocalizationMessages.EXTENSION_EXCEPTION(extension.getName(), t
-                                .getMessage()), t);
-                    }
-                }
-            }
-        }
+        frame = processOutgoing(frame);
 
         byte opcode = checkForLastFrame(frame);
         if (frame.isRsv1()) {
@@ -623,6 +686,14 @@ public final class ProtocolHandler {
         // TODO - in that case, we will need to NOT store dataframe inmemory - introduce maskingByteStream or
         // TODO   maskingByteBuffer
         final int payloadLength = (int) frame.getPayloadLength();
+
+        if (gathering && !client && payloadLength >= GATHERING_WRITE_THRESHOLD) {
+            final byte[] header = new byte[1 + lengthBytes.length];
+            header[0] = opcode;
+            System.arraycopy(lengthBytes, 0, header, 1, lengthBytes.length);
+            return new ByteBuffer[]{ByteBuffer.wrap(header), ByteBuffer.wrap(bytes, 0, payloadLength)};
+        }
+
         int length = 1 + lengthBytes.length + payloadLength + (client ? MASK_SIZE : 0);
         int payloadStart = 1 + lengthBytes.length + (client ? MASK_SIZE : 0);
         final byte[] packet = new byte[length];
@@ -643,28 +714,123 @@ public final class ProtocolHandler {
         } else {
             System.arraycopy(bytes, 0, packet, payloadStart, payloadLength);
         }
-        return ByteBuffer.wrap(packet);
+        return new ByteBuffer[]{ByteBuffer.wrap(packet)};
+    }
+
+    private Frame processOutgoing(Frame frame) {
+        if (extensions != null && extensions.size() > 0) {
+            for (Extension extension : extensions) {
+                if (extension instanceof ExtendedExtension) {
+                    try {
+                        frame = ((ExtendedExtension) extension).processOutgoing(extensionContext, frame);
+                    } catch (Throwable t) {
+                        // TODO: define ExtendedExtension exception handling.
+                        LOGGER.log(Level.FINE, LocalizationMessages.EXTENSION_EXCEPTION(extension.getName(), t
+                                .getMessage()), t);
+                    }
+                }
+            }
+        }
+
+        return frame;
+    }
+
+    /**
+     * Prepare the frame for {@link FrameWriter}.
+     * <p>
+     * Does the same as {@link #frame(Frame, boolean)} except masking and serialization: the frame is processed by the
+     * extensions and gets the opcode and fin flag it would have on the wire. Payload which might be owned by the
+     * application (anything else than text and close frames, which are always encoded by Tyrus) is copied, because the
+     * other side may process the frame after the send operation completes.
+     *
+     * @param frame frame to be sent.
+     * @return frame to be passed to {@link FrameWriter}.
+     */
+    private Frame directFrame(TyrusFrame frame) {
+        final boolean copyPayload = !(frame instanceof TextFrame || frame instanceof CloseFrame);
+
+        final Frame processed = processOutgoing(frame);
+        final byte opcode = checkForLastFrame(processed);
+        final int payloadLength = (int) processed.getPayloadLength();
+        final byte[] payload = processed.getPayloadData();
+
+        return Frame.builder(processed)
+                    .fin((opcode & 0x80) != 0)
+                    .opcode(opcode)
+                    .mask(false)
+                    .maskingKey(null)
+                    .payloadData(copyPayload ? Arrays.copyOf(payload, payloadLength) : payload)
+                    .payloadLength(payloadLength)
+                    .build();
+    }
+
+    /**
+     * Validate a frame passed by {@link FrameWriter} of the other side of the connection the same way {@link
+     * #unframe(ByteBuffer, int)} validates the parsed frames.
+     *
+     * @param frame          frame to be validated.
+     * @param maxPayloadSize maximal accepted payload size of a single frame.
+     * @return validated frame.
+     * @throws IllegalArgumentException when the frame payload is bigger than {@code maxPayloadSize}.
+     */
+    public Frame checkIncoming(Frame frame, int maxPayloadSize) {
+        if (frame.isControlFrame()) {
+            if (!frame.isFin()) {
+                throw new ProtocolException(LocalizationMessages.CONTROL_FRAME_FRAGMENTED());
+            }
+            if (frame.getPayloadLength() > 125) {
+                throw new ProtocolException(LocalizationMessages.CONTROL_FRAME_LENGTH());
+            }
+        }
+
+        if (frame.getPayloadLength() < 0 || frame.getPayloadLength() > maxPayloadSize) {
+            throw new IllegalArgumentException(LocalizationMessages.BUFFER_OVERFLOW());
+        }
+
+        return frame;
     }
 
     /**
-     * TODO!
+     * Parse the next frame from the given buffer.
+     * <p>
+     * The parser keeps its state between calls, so a frame may be split across any number of buffers (e.g. the
+     * components of a composite transport buffer). The payload is copied directly into the frame being parsed, so
+     * the buffer is not referenced after this method returns.
      *
-     * @param buffer TODO.
-     * @return TODO.
+     * @param buffer data to be parsed.
+     * @return parsed frame or {@code null} when all the data from the buffer was consumed and the frame is not
+     * complete yet.
      */
     public Frame unframe(ByteBuffer buffer) {
+        return unframe(buffer, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Parse the next frame from the given buffer.
+     * <p>
+     * The parser keeps its state between calls, so a frame may be split across any number of buffers (e.g. the
+     * components of a composite transport buffer). The payload is copied directly into the frame being parsed, so
+     * the buffer is not referenced after this method returns.
+     *
+     * @param buffer          data to be parsed.
+     * @param maxPayloadSize maximal accepted payload size of a single frame.
+     * @return parsed frame or {@code null} when all the data from the buffer was consumed and the frame is not
+     * complete yet.
+     * @throws IllegalArgumentException when the frame payload is bigger than {@code maxPayloadSize}.
+     */
+    public Frame unframe(ByteBuffer buffer, int maxPayloadSize) {
 
         try {
             // this do { .. } while cycle was forced by findbugs check - complained about missing break statements.
             do {
                 switch (parsingState.state.get()) {
                     case 0:
-                        if (buffer.remaining() < 2) {
+                        if (!parsingState.readHeader(buffer, 2)) {
                             // Don't have enough bytes to read opcode and lengthCode
                             return null;
                         }
 
-                        byte opcode = buffer.get();
+                        byte opcode = parsingState.header[0];
 
 
                         parsingState.finalFragment = isBitSet(opcode, 7);
@@ -674,7 +840,7 @@ public final class ProtocolHandler {
                             throw new ProtocolException(LocalizationMessages.CONTROL_FRAME_FRAGMENTED());
                         }
 
-                        byte lengthCode = buffer.get();
+                        byte lengthCode = parsingState.header[1];
 
                         parsingState.masked = (lengthCode & 0x80) == 0x80;
                         parsingState.masker = new Masker(buffer);
@@ -694,36 +860,47 @@ public final class ProtocolHandler {
                             }
 
                             final int lengthBytes = parsingState.lengthCode == 126 ? 2 : 8;
-                            if (buffer.remaining() < lengthBytes) {
+                            if (!parsingState.readHeader(buffer, lengthBytes)) {
                                 // Don't have enough bytes to read length
                                 return null;
                             }
-                            parsingState.masker.setBuffer(buffer);
-                            parsingState.length = decodeLength(parsingState.masker.unmask(lengthBytes));
+                            parsingState.length = decodeLength(parsingState.header, lengthBytes);
+                        }
+
+                        if (parsingState.length < 0 || parsingState.length > maxPayloadSize) {
+                            throw new IllegalArgumentException(LocalizationMessages.BUFFER_OVERFLOW());
                         }
                         parsingState.state.incrementAndGet();
                         break;
                     case 2:
                         if (parsingState.masked) {
-                            if (buffer.remaining() < MASK_SIZE) {
+                            if (!parsingState.readHeader(buffer, MASK_SIZE)) {
                                 // Don't have enough bytes to read mask
                                 return null;
                             }
-                            parsingState.masker.setBuffer(buffer);
-                            parsingState.masker.readMask();
+                            parsingState.masker.setMask(Arrays.copyOf(parsingState.header, MASK_SIZE));
                         }
+                        parsingState.payload = new byte[(int) Math.min(
+                                parsingState.length, Math.max(INITIAL_PAYLOAD_CAPACITY, buffer.remaining()))];
+                        parsingState.payloadPosition = 0;
                         parsingState.state.incrementAndGet();
                         break;
                     case 3:
-                        if (buffer.remaining() < parsingState.length) {
-                            return null;
+                        final int position = parsingState.payloadPosition;
+                        final int count = (int) Math.min(buffer.remaining(), parsingState.length - position);
+                        if (position + count > parsingState.payload.length) {
+                            parsingState.payload = Arrays.copyOf(parsingState.payload, (int) Math.min(
+                                    parsingState.length,
+                                    Math.max((long) parsingState.payload.length << 1, position + count)));
                         }
+                        final byte[] data = parsingState.payload;
+
+                        buffer.get(data, position, count);
+                        parsingState.masker.unmask(data, position, count);
+                        parsingState.payloadPosition = position + count;
 
-                        parsingState.masker.setBuffer(buffer);
-                        final byte[] data = parsingState.masker.unmask((int) parsingState.length);
-                        if (data.length != parsingState.length) {
-                            throw new ProtocolException(
-                                    LocalizationMessages.DATA_UNEXPECTED_LENGTH(data.length, parsingState.length));
+                        if (parsingState.payloadPosition < parsingState.length) {
+                            return null;
                         }
 
                         final Frame frame = Frame.builder().fin(parsingState.finalFragment)
@@ -823,7 +1000,7 @@ public final class ProtocolHandler {
     /**
      * Handler passed to the {@link org.glassfish.tyrus.spi.Writer}.
      */
-    private static class CompletionHandlerWrapper extends CompletionHandler<ByteBuffer> {
+    private static class CompletionHandlerWrapper<T> extends CompletionHandler<T> {
 
         private final CompletionHandler<Frame> frameCompletionHandler;
         private final TyrusFuture<Frame> future;
@@ -859,7 +1036,7 @@ public final class ProtocolHandler {
         }
 
         @Override
-        public void completed(ByteBuffer result) {
+        public void completed(T result) {
             if (frameCompletionHandler != null) {
                 frameCompletionHandler.completed(frame);
             }
@@ -870,7 +1047,7 @@ public final class ProtocolHandler {
         }
 
         @Override
-        public void updated(ByteBuffer result) {
+        public void updated(T result) {
             if (frameCompletionHandler != null) {
                 frameCompletionHandler.updated(frame);
             }
@@ -888,7 +1065,47 @@ public final class ProtocolHandler {
 
         private volatile byte lengthCode = -1;
 
+        /**
+         * Frame header fields (opcode and length code, extended length, mask) which might be split between buffers.
+         */
+        final byte[] header = new byte[8];
+        volatile int headerPosition = 0;
+
+        volatile byte[] payload;
+        volatile int payloadPosition;
+
+        /**
+         * Accumulate {@code size} bytes of a header field into {@link #header}.
+         *
+         * @param buffer buffer to read from.
+         * @param size   size of the header field.
+         * @return {@code true} when the whole field is available in {@link #header}, {@code false} when the buffer was
+         * exhausted and the rest of the field has to come with the next buffer.
+         */
+        boolean readHeader(ByteBuffer buffer, int size) {
+            int position = headerPosition;
+            if (position == 0 && buffer.remaining() >= size) {
+                buffer.get(header, 0, size);
+                return true;
+            }
+
+            final int count = Math.min(buffer.remaining(), size - position);
+            buffer.get(header, position, count);
+            position += count;
+
+            if (position < size) {
+                headerPosition = position;
+                return false;
+            }
+
+            headerPosition = 0;
+            return true;
+        }
+
         void recycle() {
+            headerPosition = 0;
+            payload = null;
+            payloadPosition = 0;
             state.set(0);
             opcode = (byte) -1;
             length = -1;
@@ -40,12 +40,8 @@
 
 package org.glassfish.tyrus.core;
 
-import java.io.IOException;
 import java.io.Reader;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -57,7 +53,9 @@ import org.glassfish.tyrus.core.l10n.LocalizationMessages;
  * Buffer used for the case when partial messages are received by the {@link MessageHandler.Whole}.
  * <p>
  * For the first received message {@link MessageHandler.Whole#onMessage(Object)} is called within a new executor to
- * allow blocking reading of passed {@link Reader}.
+ * allow blocking reading of passed {@link Reader}. Parts of the message are passed to the {@link Reader} through
+ * {@link StreamingChunkQueue}, which suspends reading from the connection when the {@link Reader} is not consumed fast
+ * enough.
  *
  * @author Danny Coward (danny.coward at oracle.com)
  * @author Stepan Kopriva (stepan.kopriva at oracle.com)
@@ -65,80 +63,25 @@ import org.glassfish.tyrus.core.l10n.LocalizationMessages;
  */
 class ReaderBuffer {
 
-    private final AtomicBoolean buffering = new AtomicBoolean(true);
-    private final ExecutorService executorService;
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Condition condition = lock.newCondition();
-
     private static final Logger LOGGER = Logger.getLogger(ReaderBuffer.class.getName());
 
-    private volatile boolean receivedLast = false;
+    private final ExecutorService executorService;
+    private final InboundFlowControl flowControl;
+
     private volatile int bufferSize;
-    private volatile int currentlyBuffered;
-    private volatile StringBuffer buffer;
-    private volatile BufferedStringReader reader = null;
+    private volatile StreamingChunkQueue<String> chunks = null;
     private volatile MessageHandler.Whole<Reader> messageHandler;
     private volatile boolean sessionClosed = false;
 
     /**
      * Constructor.
-     */
-    public ReaderBuffer(ExecutorService executorService) {
-        this.buffer = new StringBuffer();
-        this.executorService = executorService;
-        currentlyBuffered = 0;
-    }
-
-    /**
-     * Get next received chars.
      *
-     * @return next received chars.
-     */
-    public char[] getNextChars(int number) throws IOException {
-        lock.lock();
-        try {
-            if (buffer.length() == 0) {
-                if (receivedLast) {
-                    this.reader = null;
-                    buffering.set(true);
-                    this.currentlyBuffered = 0;
-                    return null;
-                } else { // there's more to come...so wait here...
-                    // don't let the reader block on a closed session
-                    checkClosedSession();
-
-                    boolean interrupted;
-                    do {
-                        interrupted = false;
-                        try {
-                            condition.await();
-
-                            checkClosedSession();
-                        } catch (InterruptedException e) {
-                            interrupted = true;
-                        }
-                    } while (interrupted);
-                }
-            }
-
-            int size = number > buffer.length() ? buffer.length() : number;
-
-            char[] result = new char[size];
-            buffer.getChars(0, size, result, 0);
-            buffer.delete(0, size);
-
-            return result;
-        } finally {
-            lock.unlock();
-        }
-    }
-
-    /**
-     * Finish reading of the buffer.
+     * @param executorService executor used to invoke the message handler.
+     * @param flowControl     flow control of the connection, {@code null} if reading cannot be suspended.
      */
-    public void finishReading() {
-        buffer = new StringBuffer();
-        reader = null;
+    public ReaderBuffer(ExecutorService executorService, InboundFlowControl flowControl) {
+        this.executorService = executorService;
+        this.flowControl = flowControl;
     }
 
     /**
@@ -148,31 +91,32 @@ class ReaderBuffer {
      * @param last    should be {@code true} iff this is the last part of the message, {@code false} otherwise.
      */
     public void appendMessagePart(String message, boolean last) {
-        lock.lock();
+        StreamingChunkQueue<String> queue = chunks;
+        final boolean first = queue == null;
+        if (first) {
+            queue = new StreamingChunkQueue<String>(flowControl, bufferSize);
+            chunks = queue;
+            if (sessionClosed) {
+                queue.onSessionClosed();
+            }
+        }
+
         try {
-            currentlyBuffered += message.length();
-            if (currentlyBuffered <= bufferSize) {
-                buffer.append(message);
-            } else {
-                if (buffering.get()) {
-                    buffering.set(false);
-                    final MessageTooBigException messageTooBigException =
-                            new MessageTooBigException(LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW());
-                    LOGGER.log(Level.FINE, LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW(),
-                               messageTooBigException);
-                    receivedLast = true;
-                    throw messageTooBigException;
-                }
+            queue.offer(message, message.length(), last);
+        } catch (MessageTooBigException e) {
+            LOGGER.log(Level.FINE, LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW(), e);
+            if (last) {
+                chunks = null;
             }
+            throw e;
+        }
 
-            this.receivedLast = last;
-            condition.signalAll();
-        } finally {
-            lock.unlock();
+        if (last) {
+            chunks = null;
         }
 
-        if (this.reader == null) {
-            this.reader = new BufferedStringReader(this);
+        if (first) {
+            final Reader reader = new BufferedStringReader(queue);
             executorService.execute(new Runnable() {
                 @Override
                 public void run() {
@@ -183,9 +127,9 @@ class ReaderBuffer {
     }
 
     /**
-     * Set the {@link MessageHandler} that will consume the constructed {@link java.io.InputStream}.
+     * Set the {@link MessageHandler} that will consume the constructed {@link Reader}.
      *
-     * @param messageHandler {@link MessageHandler} that will consume the constructed {@link java.io.InputStream}.
+     * @param messageHandler {@link MessageHandler} that will consume the constructed {@link Reader}.
      */
     public void setMessageHandler(MessageHandler.Whole<Reader> messageHandler) {
         this.messageHandler = messageHandler;
@@ -193,30 +137,23 @@ class ReaderBuffer {
 
     /**
      * Reset the buffer size.
+     * <p>
+     * Invoked when a new message starts, the maximal amount of data buffered for the {@link Reader} is set for the new
+     * message.
      *
      * @param bufferSize the size to be set.
      */
     public void resetBuffer(int bufferSize) {
         this.bufferSize = bufferSize;
-        buffering.set(true);
-        currentlyBuffered = 0;
-        buffer.delete(0, buffer.length());
+        this.chunks = null;
     }
 
     void onSessionClosed() {
         sessionClosed = true;
-        lock.lock();
-        try {
+        final StreamingChunkQueue<String> queue = chunks;
+        if (queue != null) {
             // wake up blocked thread
-            condition.signalAll();
-        } finally {
-            lock.unlock();
-        }
-    }
-
-    private void checkClosedSession() throws IOException {
-        if (sessionClosed) {
-            throw new IOException("Websocket session has been closed.");
+            queue.onSessionClosed();
         }
     }
 }
@@ -0,0 +1,171 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.glassfish.tyrus.core.cluster.RemoteSession;
+
+/**
+ * Local directory of sessions connected to the same endpoint on other cluster nodes.
+ * <p>
+ * The directory is maintained incrementally from {@link org.glassfish.tyrus.core.cluster.SessionListener} events,
+ * so lookups and counts are answered locally in constant time without asking the
+ * {@link org.glassfish.tyrus.core.cluster.ClusterContext}. Every modification increments the version of the
+ * directory; {@link #snapshot()} returns an immutable list of sessions which is reused until the next modification,
+ * so repeated iterations over an unchanged directory do not copy anything.
+ */
+class RemoteSessionDirectory {
+
+    private final ConcurrentMap<String, RemoteSession> sessions = new ConcurrentHashMap<String, RemoteSession>();
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Snapshot snapshot = new Snapshot(0, Collections.<RemoteSession>emptyList());
+
+    /**
+     * Add a session, unless a session with the same id is already present.
+     *
+     * @param session session to be added.
+     * @return {@code true} if the session was added.
+     */
+    boolean add(RemoteSession session) {
+        if (sessions.putIfAbsent(session.getId(), session) == null) {
+            version.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remove a session.
+     *
+     * @param sessionId id of the session to be removed.
+     * @return removed session or {@code null} if there was no session with the id.
+     */
+    RemoteSession remove(String sessionId) {
+        final RemoteSession removed = sessions.remove(sessionId);
+        if (removed != null) {
+            version.incrementAndGet();
+        }
+        return removed;
+    }
+
+    /**
+     * Get a session.
+     *
+     * @param sessionId session id.
+     * @return session or {@code null} if there is no session with the id.
+     */
+    RemoteSession get(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    /**
+     * Check whether the session is present in the directory.
+     *
+     * @param session session to be checked.
+     * @return {@code true} if the directory contains the session.
+     */
+    boolean contains(RemoteSession session) {
+        return sessions.get(session.getId()) == session;
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Get current version, incremented by every modification.
+     *
+     * @return current version.
+     */
+    long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Get snapshot of the directory.
+     * <p>
+     * The snapshot is rebuilt only when the directory was modified since the last snapshot was taken. A snapshot
+     * might contain modifications made after its version was read, never the other way around.
+     *
+     * @return current snapshot.
+     */
+    Snapshot snapshot() {
+        final Snapshot current = snapshot;
+        final long currentVersion = version.get();
+        if (current.version == currentVersion) {
+            return current;
+        }
+
+        final Snapshot updated = new Snapshot(currentVersion, Collections.unmodifiableList(
+                new ArrayList<RemoteSession>(sessions.values())));
+        snapshot = updated;
+        return updated;
+    }
+
+    /**
+     * Immutable list of sessions present in the directory at a given version.
+     */
+    static final class Snapshot {
+
+        private final long version;
+        private final List<RemoteSession> sessions;
+
+        private Snapshot(long version, List<RemoteSession> sessions) {
+            this.version = version;
+            this.sessions = sessions;
+        }
+
+        long getVersion() {
+            return version;
+        }
+
+        List<RemoteSession> getSessions() {
+            return sessions;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serial queue of tasks belonging to one session, executed on a shared {@link Executor}.
+ * <p>
+ * Tasks are executed one at a time and in the order in which they were dispatched, but never on the thread which
+ * dispatched them (unless the executor rejects the task). At most one thread of the shared executor is used by the
+ * dispatcher at any given time; the thread is released after {@value #BATCH_SIZE} tasks, so a busy session cannot
+ * monopolize the pool.
+ * <p>
+ * The number of tasks waiting in the queue is bounded. When the limit is reached, reading from the connection is
+ * suspended through {@link InboundFlowControl} and resumed once the backlog drops to half of the limit, so the remote
+ * endpoint is throttled by the transport flow control. If the transport does not support suspending, {@link
+ * #dispatch(Runnable)} blocks the reading thread until the backlog drops below the limit instead.
+ * <p>
+ * Suspending and resuming is serialized without holding any lock of the dispatcher, since resuming might make the
+ * transport read and dispatch more data on the resuming thread.
+ */
+class SessionDispatcher implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(SessionDispatcher.class.getName());
+    private static final int BATCH_SIZE = 16;
+
+    private final Executor executor;
+    private final int maxBacklog;
+    private final int resumeThreshold;
+    private final DispatchStatistics statistics;
+    private final Queue<Task> queue = new ConcurrentLinkedQueue<Task>();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Object backlogLock = new Object();
+    private final AtomicInteger flowControlUpdates = new AtomicInteger();
+
+    private volatile InboundFlowControl flowControl;
+    private volatile boolean readingSuspended = false;
+    private volatile boolean flowControlUnsupported = false;
+    private volatile boolean waiting = false;
+
+    /**
+     * Create new dispatcher.
+     *
+     * @param executor   shared executor the tasks will be executed on.
+     * @param maxBacklog maximal number of tasks waiting for execution.
+     * @param statistics statistics updated by the dispatcher.
+     */
+    SessionDispatcher(Executor executor, int maxBacklog, DispatchStatistics statistics) {
+        this.executor = executor;
+        this.maxBacklog = maxBacklog;
+        this.resumeThreshold = maxBacklog / 2;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Set flow control used to suspend reading when the backlog is full.
+     * <p>
+     * Must be set before the first task is dispatched. If no flow control is set, {@link #dispatch(Runnable)} blocks
+     * while the backlog is full.
+     *
+     * @param flowControl flow control of the connection.
+     */
+    void setFlowControl(InboundFlowControl flowControl) {
+        this.flowControl = flowControl;
+    }
+
+    /**
+     * Enqueue a task for execution.
+     * <p>
+     * Suspends reading from the connection when the backlog of the dispatcher gets full, or blocks if suspending is
+     * not supported.
+     *
+     * @param task task to be executed.
+     */
+    void dispatch(Runnable task) {
+        queue.add(new Task(task, System.nanoTime()));
+        statistics.onEnqueued(backlog.incrementAndGet());
+        schedule();
+
+        if (backlog.get() >= maxBacklog) {
+            if (flowControl == null || flowControlUnsupported) {
+                awaitBacklog();
+            } else {
+                updateFlowControl();
+            }
+        }
+    }
+
+    /**
+     * Get number of tasks waiting for execution.
+     *
+     * @return current backlog.
+     */
+    int getBacklog() {
+        return backlog.get();
+    }
+
+    @Override
+    public void run() {
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                final Task task = queue.poll();
+                if (task == null) {
+                    break;
+                }
+
+                statistics.onDequeued(System.nanoTime() - task.enqueued);
+                try {
+                    task.runnable.run();
+                } catch (Throwable t) {
+                    LOGGER.log(Level.WARNING, t.getMessage(), t);
+                } finally {
+                    final int remaining = backlog.decrementAndGet();
+                    if (readingSuspended && remaining <= resumeThreshold) {
+                        updateFlowControl();
+                    }
+                    if (waiting && remaining < maxBacklog) {
+                        synchronized (backlogLock) {
+                            backlogLock.notifyAll();
+                        }
+                    }
+                }
+            }
+        } finally {
+            scheduled.set(false);
+        }
+
+        // a task might have been added after the last poll, but before the scheduled flag was reset.
+        if (!queue.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            executor.execute(this);
+        } catch (RejectedExecutionException e) {
+            LOGGER.log(Level.FINE, "Dispatch executor rejected the task, executing on the current thread.", e);
+            run();
+        }
+    }
+
+    /**
+     * Suspend or resume reading according to the current backlog.
+     * <p>
+     * Only one thread at a time applies the changes; a thread which finds another one applying them just makes it
+     * re-evaluate the backlog once more.
+     */
+    private void updateFlowControl() {
+        if (flowControlUpdates.getAndIncrement() != 0) {
+            return;
+        }
+
+        do {
+            final int current = backlog.get();
+            if (!readingSuspended && current >= maxBacklog) {
+                if (flowControl.suspend(InboundFlowControl.DISPATCH_BACKLOG)) {
+                    readingSuspended = true;
+                    statistics.onReadingSuspended();
+                } else {
+                    flowControlUnsupported = true;
+                }
+            } else if (readingSuspended && current <= resumeThreshold) {
+                readingSuspended = false;
+                flowControl.resume(InboundFlowControl.DISPATCH_BACKLOG);
+            }
+        } while (flowControlUpdates.decrementAndGet() != 0);
+    }
+
+    private void awaitBacklog() {
+        synchronized (backlogLock) {
+            waiting = true;
+            try {
+                while (backlog.get() >= maxBacklog) {
+                    try {
+                        backlogLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            } finally {
+                waiting = false;
+            }
+        }
+    }
+
+    private static class Task {
+
+        private final Runnable runnable;
+        private final long enqueued;
+
+        Task(Runnable runnable, long enqueued) {
+            this.runnable = runnable;
+            this.enqueued = enqueued;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.websocket.CloseReason;
+
+/**
+ * {@link org.glassfish.tyrus.core.TyrusEndpointWrapper.SessionListener} enforcing {@link
+ * TyrusWebSocketEngine#MAX_SESSIONS_PER_APP}, {@link TyrusWebSocketEngine#MAX_SESSIONS_PER_REMOTE_ADDR} and
+ * {@link SessionAdmissionController}.
+ * <p>
+ * Counters are updated using CAS only. Counter of a remote address is removed from the map when its last session is
+ * closed; a counter which dropped to zero is never incremented again, so a session cannot be counted in a counter
+ * which is no longer in the map.
+ */
+class SessionLimiter extends TyrusEndpointWrapper.SessionListener {
+
+    private final Integer maxSessionsPerApp;
+    private final Integer maxSessionsPerRemoteAddr;
+    private final SessionAdmissionController admissionController;
+
+    // limit per application counter
+    private final AtomicInteger counter = new AtomicInteger(0);
+
+    // limit per remote address counters
+    private final ConcurrentMap<String, AtomicInteger> remoteAddressCounters =
+            new ConcurrentHashMap<String, AtomicInteger>();
+
+    /**
+     * Create new limiter.
+     *
+     * @param maxSessionsPerApp        maximal number of open sessions per application. If {@code null}, no limit is
+     *                                 applied.
+     * @param maxSessionsPerRemoteAddr maximal number of open sessions per remote address. If {@code null}, no limit is
+     *                                 applied.
+     * @param admissionController      admission controller consulted after the limits are checked, can be {@code
+     *                                 null}.
+     */
+    SessionLimiter(Integer maxSessionsPerApp, Integer maxSessionsPerRemoteAddr,
+                   SessionAdmissionController admissionController) {
+        this.maxSessionsPerApp = maxSessionsPerApp;
+        this.maxSessionsPerRemoteAddr = maxSessionsPerRemoteAddr;
+        this.admissionController = admissionController;
+    }
+
+    @Override
+    public OnOpenResult onOpen(final TyrusSession session) {
+        if (maxSessionsPerApp != null && !tryIncrement(counter, maxSessionsPerApp)) {
+            return OnOpenResult.MAX_SESSIONS_PER_APP_EXCEEDED;
+        }
+
+        if (maxSessionsPerRemoteAddr != null && !tryAcquireRemoteAddr(getRemoteAddr(session))) {
+            releaseApp();
+            return OnOpenResult.MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED;
+        }
+
+        if (admissionController != null && !admissionController.admit(session)) {
+            releaseRemoteAddr(session);
+            releaseApp();
+            return OnOpenResult.SESSION_REFUSED;
+        }
+
+        return OnOpenResult.SESSION_ALLOWED;
+    }
+
+    @Override
+    public void onClose(final TyrusSession session, final CloseReason closeReason) {
+        if (admissionController != null) {
+            admissionController.release(session);
+        }
+        releaseRemoteAddr(session);
+        releaseApp();
+    }
+
+    /**
+     * Get number of sessions counted for the application.
+     *
+     * @return number of open sessions.
+     */
+    int getSessionCount() {
+        return counter.get();
+    }
+
+    /**
+     * Get number of sessions counted for a remote address.
+     *
+     * @param remoteAddr remote address.
+     * @return number of open sessions from the remote address.
+     */
+    int getSessionCount(String remoteAddr) {
+        final AtomicInteger remoteAddressCounter = remoteAddressCounters.get(remoteAddr);
+        return remoteAddressCounter == null ? 0 : remoteAddressCounter.get();
+    }
+
+    private boolean tryAcquireRemoteAddr(String remoteAddr) {
+        while (true) {
+            AtomicInteger remoteAddressCounter = remoteAddressCounters.get(remoteAddr);
+            if (remoteAddressCounter == null) {
+                remoteAddressCounter = remoteAddressCounters.putIfAbsent(remoteAddr, new AtomicInteger(1));
+                if (remoteAddressCounter == null) {
+                    return true;
+                }
+            }
+
+            final int current = remoteAddressCounter.get();
+            if (current == 0) {
+                // last session was just closed, help with the removal and start over with a new counter
+                remoteAddressCounters.remove(remoteAddr, remoteAddressCounter);
+            } else if (current >= maxSessionsPerRemoteAddr) {
+                return false;
+            } else if (remoteAddressCounter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void releaseRemoteAddr(TyrusSession session) {
+        if (maxSessionsPerRemoteAddr == null) {
+            return;
+        }
+
+        final String remoteAddr = getRemoteAddr(session);
+        final AtomicInteger remoteAddressCounter = remoteAddressCounters.get(remoteAddr);
+        if (remoteAddressCounter != null && remoteAddressCounter.decrementAndGet() == 0) {
+            remoteAddressCounters.remove(remoteAddr, remoteAddressCounter);
+        }
+    }
+
+    private void releaseApp() {
+        if (maxSessionsPerApp != null) {
+            counter.decrementAndGet();
+        }
+    }
+
+    private static boolean tryIncrement(AtomicInteger counter, int max) {
+        while (true) {
+            final int current = counter.get();
+            if (current >= max) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private static String getRemoteAddr(TyrusSession session) {
+        // ConcurrentHashMap does not support null keys
+        return session.getRemoteAddr() == null ? "" : session.getRemoteAddr();
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.glassfish.tyrus.core.l10n.LocalizationMessages;
+
+/**
+ * Queue of the parts of one streamed message, passed from the reading thread to the thread consuming the message
+ * through {@link java.io.Reader} or {@link java.io.InputStream}.
+ * <p>
+ * The queue has exactly one producer (the thread processing incoming frames of the session) and one consumer (the
+ * thread executing the message handler), so it is implemented as a lock-free linked list, where the producer only
+ * touches the tail and the consumer only touches the head. Message parts are handed over without copying; the
+ * consumer reads directly from them.
+ * <p>
+ * Reading from the connection is suspended through {@link InboundFlowControl} when the amount of data which has been
+ * received, but not consumed yet, reaches {@value #SUSPEND_THRESHOLD} (characters or bytes) and resumed once the
+ * consumer gets below {@value #RESUME_THRESHOLD}, so a message of any size can be streamed in constant memory. The
+ * total size of the message is still limited by the message buffer size of the session, {@link MessageTooBigException}
+ * is thrown when the limit is exceeded.
+ *
+ * @param <T> type of message parts.
+ */
+class StreamingChunkQueue<T> {
+
+    /**
+     * Amount of not consumed data which makes the queue suspend reading from the connection.
+     */
+    static final int SUSPEND_THRESHOLD = 64 * 1024;
+
+    /**
+     * Amount of not consumed data which makes the queue resume reading suspended by {@link #SUSPEND_THRESHOLD}.
+     */
+    static final int RESUME_THRESHOLD = 16 * 1024;
+
+    private final InboundFlowControl flowControl;
+    private final int maxMessageSize;
+    private final int suspendThreshold;
+    private final int resumeThreshold;
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final AtomicInteger flowControlUpdates = new AtomicInteger();
+
+    // accessed by the consumer only
+    private Node<T> head;
+    // accessed by the producer only
+    private Node<T> tail;
+    // accessed by the producer only
+    private long received = 0;
+
+    private volatile boolean receivedLast = false;
+    private volatile boolean closed = false;
+    // rest of the message is dropped by the producer
+    private volatile boolean dropping = false;
+    // consumer is not interested in the message anymore
+    private volatile boolean discarded = false;
+    private volatile boolean readingSuspended = false;
+    private volatile Thread waitingConsumer;
+
+    /**
+     * Create new queue.
+     *
+     * @param flowControl    flow control of the connection the message is read from, {@code null} if reading cannot
+     *                       be suspended.
+     * @param maxMessageSize maximal size of the whole message (characters or bytes).
+     */
+    StreamingChunkQueue(InboundFlowControl flowControl, int maxMessageSize) {
+        this(flowControl, maxMessageSize, SUSPEND_THRESHOLD, RESUME_THRESHOLD);
+    }
+
+    /**
+     * Create new queue with custom flow control thresholds.
+     *
+     * @param flowControl      flow control of the connection the message is read from, {@code null} if reading cannot
+     *                         be suspended.
+     * @param maxMessageSize   maximal size of the whole message (characters or bytes).
+     * @param suspendThreshold amount of not consumed data which makes the queue suspend reading.
+     * @param resumeThreshold  amount of not consumed data which makes the queue resume reading.
+     */
+    StreamingChunkQueue(InboundFlowControl flowControl, int maxMessageSize, int suspendThreshold,
+                        int resumeThreshold) {
+        this.flowControl = flowControl;
+        this.maxMessageSize = maxMessageSize;
+        this.suspendThreshold = suspendThreshold;
+        this.resumeThreshold = resumeThreshold;
+        this.head = new Node<T>(null, 0);
+        this.tail = head;
+    }
+
+    /**
+     * Append next part of the message. Invoked by the producer.
+     *
+     * @param chunk message part.
+     * @param size  size of the message part (number of characters or bytes).
+     * @param last  {@code true} if this is the last part of the message.
+     * @throws MessageTooBigException when the maximal message size has been exceeded.
+     */
+    void offer(T chunk, int size, boolean last) {
+        if (dropping) {
+            return;
+        }
+
+        received += size;
+        if (received > maxMessageSize) {
+            // the consumer reads what has been received so far and gets end of the stream.
+            dropping = true;
+            receivedLast = true;
+            wakeUpConsumer();
+            resumeReading();
+            throw new MessageTooBigException(LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW());
+        }
+
+        final Node<T> node = new Node<T>(chunk, size);
+        buffered.addAndGet(size);
+        tail.next = node;
+        tail = node;
+        if (last) {
+            receivedLast = true;
+        }
+        wakeUpConsumer();
+
+        if (flowControl != null && buffered.get() >= suspendThreshold) {
+            updateFlowControl();
+        }
+    }
+
+    /**
+     * Get next part of the message, waiting for it if necessary. Invoked by the consumer.
+     *
+     * @return next part of the message or {@code null} if the whole message has been consumed.
+     * @throws IOException when the session is closed before the whole message has been received.
+     */
+    T take() throws IOException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                if (discarded) {
+                    return null;
+                }
+
+                final Node<T> next = head.next;
+                if (next != null) {
+                    final T chunk = next.chunk;
+                    // the node becomes the new head, don't keep the consumed part reachable.
+                    next.chunk = null;
+                    head = next;
+
+                    final int remaining = buffered.addAndGet(-next.size);
+                    if (readingSuspended && remaining <= resumeThreshold) {
+                        updateFlowControl();
+                    }
+                    return chunk;
+                }
+
+                if (receivedLast) {
+                    // the last part might have been added after the head was checked.
+                    if (head.next == null) {
+                        return null;
+                    }
+                    continue;
+                }
+
+                // don't let the reader block on a closed session
+                if (closed) {
+                    throw new IOException("Websocket session has been closed.");
+                }
+
+                waitingConsumer = Thread.currentThread();
+                if (head.next == null && !receivedLast && !closed) {
+                    LockSupport.park(this);
+                }
+                waitingConsumer = null;
+                if (Thread.interrupted()) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stop consuming the message. Remaining parts of the message are dropped and reading is resumed if it has been
+     * suspended. Invoked by the consumer.
+     */
+    void discard() {
+        discarded = true;
+        dropping = true;
+        head.next = null;
+        resumeReading();
+    }
+
+    /**
+     * Wake up the consumer waiting for the next part of the message, because no more parts will come.
+     */
+    void onSessionClosed() {
+        closed = true;
+        wakeUpConsumer();
+    }
+
+    private void wakeUpConsumer() {
+        final Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private void resumeReading() {
+        if (readingSuspended) {
+            updateFlowControl();
+        }
+    }
+
+    /**
+     * Suspend or resume reading according to the amount of buffered data.
+     * <p>
+     * Only one thread at a time applies the changes; a thread which finds another one applying them just makes it
+     * re-evaluate the buffered amount once more. No lock is held, since resuming might make the transport read and
+     * offer more data on the resuming thread.
+     */
+    private void updateFlowControl() {
+        if (flowControlUpdates.getAndIncrement() != 0) {
+            return;
+        }
+
+        do {
+            final int current = buffered.get();
+            if (!readingSuspended && !dropping && current >= suspendThreshold) {
+                readingSuspended = flowControl.suspend(InboundFlowControl.STREAMING_BUFFER);
+            } else if (readingSuspended && (dropping || current <= resumeThreshold)) {
+                readingSuspended = false;
+                flowControl.resume(InboundFlowControl.STREAMING_BUFFER);
+            }
+        } while (flowControlUpdates.decrementAndGet() != 0);
+    }
+
+    private static class Node<T> {
+
+        private final int size;
+        private T chunk;
+        private volatile Node<T> next;
+
+        Node(T chunk, int size) {
+            this.chunk = chunk;
+            this.size = size;
+        }
+    }
+}
@@ -40,40 +40,146 @@
 
 package org.glassfish.tyrus.core;
 
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.glassfish.tyrus.core.l10n.LocalizationMessages;
 
 /**
+ * Buffer aggregating parts of a text message for a whole message handler.
+ * <p>
+ * Parts are aggregated as validated UTF-8 encoded bytes and decoded just once, when the whole message has been
+ * received. The byte array is borrowed from a pool shared by all sessions when the first part arrives and returned
+ * once the message is complete, so sessions do not hold any array between messages. Arrays which have grown above
+ * {@value #POOLED_CAPACITY} bytes are not returned.
+ *
  * @author Stepan Kopriva (stepan.kopriva at oracle.com)
  */
 class TextBuffer {
-    private StringBuffer buffer;
-    private int bufferSize;
+
     private static final Logger LOGGER = Logger.getLogger(BinaryBuffer.class.getName());
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int POOLED_CAPACITY = 64 * 1024;
+    private static final int MAX_POOLED = 64;
+
+    private static final Queue<byte[]> POOL = new ConcurrentLinkedQueue<byte[]>();
+    private static final AtomicInteger POOLED = new AtomicInteger();
 
-    void appendMessagePart(String message) {
-        if (message == null || message.length() == 0) {
+    private byte[] buffer;
+    private int length;
+    // number of characters in the buffer, counted only when number of bytes exceeds the buffer size
+    private int charCount;
+    private int bufferSize;
+
+    /**
+     * Append next part of the message.
+     *
+     * @param utf8Part validated UTF-8 encoded part of the message, ending on a character boundary.
+     */
+    void appendMessagePart(ByteBuffer utf8Part) {
+        final int partLength = utf8Part.remaining();
+        if (partLength == 0) {
             return;
         }
 
-        if (buffer.length() + message.length() <= bufferSize) {
-            buffer.append(message);
-        } else {
-            final MessageTooBigException messageTooBigException =
-                    new MessageTooBigException(LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW());
-            LOGGER.log(Level.FINE, LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW(), messageTooBigException);
-            throw messageTooBigException;
+        ensureCapacity(length + partLength);
+        final int start = length;
+        utf8Part.get(buffer, start, partLength);
+        length += partLength;
+
+        // the size limit is in characters; there are never more characters than bytes.
+        if (length > bufferSize) {
+            if (charCount < 0) {
+                charCount = countChars(buffer, 0, length);
+            } else {
+                charCount += countChars(buffer, start, partLength);
+            }
+
+            if (charCount > bufferSize) {
+                final MessageTooBigException messageTooBigException =
+                        new MessageTooBigException(LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW());
+                LOGGER.log(Level.FINE, LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW(),
+                           messageTooBigException);
+                throw messageTooBigException;
+            }
         }
     }
 
     String getBufferedContent() {
-        return buffer.toString();
+        final String content = Utf8Codec.decodeValidated(buffer, 0, length);
+        release(buffer);
+        buffer = null;
+        length = 0;
+        return content;
     }
 
     void resetBuffer(int bufferSize) {
         this.bufferSize = bufferSize;
-        this.buffer = new StringBuffer();
+        this.length = 0;
+        this.charCount = -1;
+        // buffer of a message which has not been completed is reused.
+        if (buffer == null || buffer.length > POOLED_CAPACITY) {
+            buffer = acquire();
+        }
+    }
+
+    private static byte[] acquire() {
+        final byte[] array = POOL.poll();
+        if (array == null) {
+            return new byte[INITIAL_CAPACITY];
+        }
+
+        POOLED.decrementAndGet();
+        return array;
+    }
+
+    private static void release(byte[] array) {
+        if (array.length > POOLED_CAPACITY) {
+            return;
+        }
+
+        if (POOLED.incrementAndGet() <= MAX_POOLED) {
+            POOL.offer(array);
+        } else {
+            POOLED.decrementAndGet();
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity < 0) {
+            // int overflow
+            throw new MessageTooBigException(LocalizationMessages.PARTIAL_MESSAGE_BUFFER_OVERFLOW());
+        }
+
+        if (capacity > buffer.length) {
+            int newCapacity = Math.max(buffer.length << 1, capacity);
+            if (newCapacity < 0) {
+                newCapacity = capacity;
+            }
+            final byte[] newBuffer = new byte[newCapacity];
+            System.arraycopy(buffer, 0, newBuffer, 0, length);
+            buffer = newBuffer;
+        }
+    }
+
+    /**
+     * Count UTF-16 characters encoded by valid UTF-8 bytes.
+     * <p>
+     * Every byte which is not a continuation byte starts a character; four byte sequences encode two characters
+     * (surrogate pair).
+     */
+    private static int countChars(byte[] data, int offset, int length) {
+        int count = 0;
+        for (int i = offset; i < offset + length; i++) {
+            final int b = data[i] & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                count += b >= 0xF0 ? 2 : 1;
+            }
+        }
+        return count;
     }
 }
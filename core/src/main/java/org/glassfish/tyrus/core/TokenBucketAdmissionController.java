@@ -0,0 +1,231 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link SessionAdmissionController} limiting the rate of new sessions per remote address.
+ * <p>
+ * Each remote address has its own token bucket, which holds up to {@code burst} tokens and is refilled by {@code
+ * permitsPerSecond} tokens per second; opening a session takes one token. The bucket is implemented as a single
+ * {@link AtomicLong} holding the "theoretical arrival time" (generic cell rate algorithm), so the admission is a
+ * single CAS and no lock is involved. Buckets which are full again are removed periodically.
+ * <p>
+ * Only the rate of new sessions is limited, use {@link TyrusWebSocketEngine#MAX_SESSIONS_PER_REMOTE_ADDR} to limit
+ * the number of open sessions.
+ * <p>
+ * When the controller is configured by its class name (see {@link TyrusWebSocketEngine#ADMISSION_CONTROLLER}), the
+ * no-argument constructor is used and the rate and burst are read from system properties {@link #PERMITS_PER_SECOND}
+ * and {@link #BURST}.
+ */
+@Beta
+public class TokenBucketAdmissionController implements SessionAdmissionController {
+
+    /**
+     * System property used by {@link #TokenBucketAdmissionController()} to set number of sessions per second which can
+     * be opened from one remote address in the long run.
+     * <p>
+     * The value must be a positive number, default value is {@value #DEFAULT_PERMITS_PER_SECOND}.
+     */
+    public static final String PERMITS_PER_SECOND = "org.glassfish.tyrus.server.admissionController.permitsPerSecond";
+
+    /**
+     * System property used by {@link #TokenBucketAdmissionController()} to set maximal number of sessions which can be
+     * opened from one remote address at once.
+     * <p>
+     * The value must be a positive integer, default value is {@value #DEFAULT_BURST}.
+     */
+    public static final String BURST = "org.glassfish.tyrus.server.admissionController.burst";
+
+    /**
+     * Default value of {@link #PERMITS_PER_SECOND}.
+     */
+    public static final double DEFAULT_PERMITS_PER_SECOND = 10;
+
+    /**
+     * Default value of {@link #BURST}.
+     */
+    public static final int DEFAULT_BURST = 20;
+
+    private static final Logger LOGGER = Logger.getLogger(TokenBucketAdmissionController.class.getName());
+
+    /**
+     * Marks a bucket which is being removed.
+     */
+    private static final long REMOVED = Long.MIN_VALUE;
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<String, AtomicLong>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final long intervalNanos;
+    private final long toleranceNanos;
+
+    /**
+     * Create new controller configured by system properties {@link #PERMITS_PER_SECOND} and {@link #BURST}.
+     * <p>
+     * Invalid values are logged and replaced by the defaults.
+     */
+    public TokenBucketAdmissionController() {
+        this(getPermitsPerSecond(), getBurst());
+    }
+
+    /**
+     * Create new controller.
+     *
+     * @param permitsPerSecond number of sessions per second which can be opened from one remote address in the long
+     *                         run. Must be positive.
+     * @param burst            maximal number of sessions which can be opened from one remote address at once. Must be
+     *                         positive.
+     */
+    public TokenBucketAdmissionController(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("burst must be positive: " + burst);
+        }
+
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * burst;
+    }
+
+    private static double getPermitsPerSecond() {
+        final String value = System.getProperty(PERMITS_PER_SECOND);
+        if (value != null) {
+            try {
+                final double permitsPerSecond = Double.parseDouble(value.trim());
+                if (permitsPerSecond > 0) {
+                    return permitsPerSecond;
+                }
+            } catch (NumberFormatException e) {
+                // logged below
+            }
+            LOGGER.log(Level.WARNING, "Invalid value of " + PERMITS_PER_SECOND + ": " + value + ", using default "
+                    + DEFAULT_PERMITS_PER_SECOND);
+        }
+        return DEFAULT_PERMITS_PER_SECOND;
+    }
+
+    private static int getBurst() {
+        final String value = System.getProperty(BURST);
+        if (value != null) {
+            try {
+                final int burst = Integer.parseInt(value.trim());
+                if (burst > 0) {
+                    return burst;
+                }
+            } catch (NumberFormatException e) {
+                // logged below
+            }
+            LOGGER.log(Level.WARNING, "Invalid value of " + BURST + ": " + value + ", using default " + DEFAULT_BURST);
+        }
+        return DEFAULT_BURST;
+    }
+
+    @Override
+    public boolean admit(TyrusSession session) {
+        final String remoteAddr = session.getRemoteAddr() == null ? "" : session.getRemoteAddr();
+        final long now = System.nanoTime();
+
+        sweep(now);
+
+        while (true) {
+            AtomicLong bucket = buckets.get(remoteAddr);
+            if (bucket == null) {
+                bucket = new AtomicLong(now + intervalNanos);
+                if (buckets.putIfAbsent(remoteAddr, bucket) == null) {
+                    return true;
+                }
+                continue;
+            }
+
+            final long arrivalTime = bucket.get();
+            if (arrivalTime == REMOVED) {
+                buckets.remove(remoteAddr, bucket);
+                continue;
+            }
+
+            final long nextArrivalTime = Math.max(arrivalTime, now) + intervalNanos;
+            if (nextArrivalTime - now > toleranceNanos) {
+                return false;
+            }
+
+            if (bucket.compareAndSet(arrivalTime, nextArrivalTime)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release(TyrusSession session) {
+        // rate of new sessions is limited, closing does not return a token.
+    }
+
+    /**
+     * Remove buckets which are full, at most once per {@link #SWEEP_INTERVAL_NANOS}.
+     * <p>
+     * A bucket is first marked as {@link #REMOVED}, so that concurrent {@link #admit(TyrusSession)} cannot update a
+     * bucket which is no longer in the map.
+     *
+     * @param now current time in nanoseconds.
+     */
+    private void sweep(long now) {
+        final long last = lastSweep.get();
+        if (now - last < SWEEP_INTERVAL_NANOS || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+
+        for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+            final AtomicLong bucket = entry.getValue();
+            final long arrivalTime = bucket.get();
+            if (arrivalTime != REMOVED && arrivalTime - now <= 0 && bucket.compareAndSet(arrivalTime, REMOVED)) {
+                buckets.remove(entry.getKey(), bucket);
+            }
+        }
+    }
+}
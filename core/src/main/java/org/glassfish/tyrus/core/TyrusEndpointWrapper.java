@@ -53,18 +53,26 @@ import java.lang.reflect.Method;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.security.Principal;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.concurrent.Callable;
+import java.util.Spliterator;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -87,6 +95,8 @@ import javax.websocket.server.ServerEndpointConfig;
 
 import org.glassfish.tyrus.core.cluster.BroadcastListener;
 import org.glassfish.tyrus.core.cluster.ClusterContext;
+import org.glassfish.tyrus.core.cluster.DistributedSession;
+import org.glassfish.tyrus.core.cluster.GroupBroadcastListener;
 import org.glassfish.tyrus.core.cluster.RemoteSession;
 import org.glassfish.tyrus.core.coder.CoderWrapper;
 import org.glassfish.tyrus.core.coder.InputStreamDecoder;
@@ -102,6 +112,7 @@ import org.glassfish.tyrus.core.frame.TextFrame;
 import org.glassfish.tyrus.core.frame.TyrusFrame;
 import org.glassfish.tyrus.core.l10n.LocalizationMessages;
 import org.glassfish.tyrus.core.monitoring.EndpointEventListener;
+import org.glassfish.tyrus.spi.CompletionHandler;
 import org.glassfish.tyrus.spi.UpgradeRequest;
 import org.glassfish.tyrus.spi.UpgradeResponse;
 
@@ -120,10 +131,18 @@ public class TyrusEndpointWrapper {
     private static final Logger LOGGER = Logger.getLogger(TyrusEndpointWrapper.class.getName());
 
     /**
-     * Used as threshold for parallel broadcast. When the sessions are divided between threads, number of sessions per
-     * thread should not be lower than this constant.
+     * Used as threshold for parallel broadcast. When the sessions are divided between broadcast tasks, number of
+     * sessions per task should not be lower than this constant.
      */
-    private static final int MIN_SESSIONS_PER_THREAD = 16;
+    private static final long MIN_SESSIONS_PER_TASK = 4;
+    /**
+     * Upper bound of the number of sessions processed by one broadcast task.
+     */
+    private static final long MAX_SESSIONS_PER_TASK = 1024;
+    /**
+     * Desired duration of one broadcast task, see {@link #getBroadcastChunkSize()}.
+     */
+    private static final long TARGET_BROADCAST_TASK_NANOS = 100000;
     /**
      * The container for this session.
      */
@@ -138,8 +157,15 @@ public class TyrusEndpointWrapper {
     private final Endpoint endpoint;
     private final Map<TyrusWebSocket, TyrusSession> webSocketToSession =
             new ConcurrentHashMap<TyrusWebSocket, TyrusSession>();
-    private final Map<String, RemoteSession> clusteredSessions =
-            new ConcurrentHashMap<String, RemoteSession>();
+    private final RemoteSessionDirectory remoteSessionDirectory = new RemoteSessionDirectory();
+    private final Set<TyrusSession> openSessions = new OpenSessionsView();
+    private final Set<RemoteSession> remoteSessions = new RemoteSessionsView();
+    private final Set<DistributedSession> allSessions = new AllSessionsView();
+    /**
+     * Group name to members of the group. Empty groups are removed.
+     */
+    private final ConcurrentMap<String, Map<TyrusWebSocket, TyrusSession>> groups =
+            new ConcurrentHashMap<String, Map<TyrusWebSocket, TyrusSession>>();
     private final ComponentProviderService componentProvider;
     private final ServerEndpointConfig.Configurator configurator;
     private final Method onOpen;
@@ -150,6 +176,12 @@ public class TyrusEndpointWrapper {
     private final boolean parallelBroadcastEnabled;
     private final boolean programmaticEndpoint;
 
+    /**
+     * Average cost of a broadcast send to one session in nanoseconds, initial value corresponds to 16 sessions per
+     * broadcast task.
+     */
+    private volatile long sendCostNanos = TARGET_BROADCAST_TASK_NANOS / 16;
+
     private final ClusterContext clusterContext;
 
     /**
@@ -352,36 +384,53 @@ public class TyrusEndpointWrapper {
                         public void onSessionOpened(String sessionId) {
                             final Map<RemoteSession.DistributedMapKey, Object> distributedSessionProperties =
                                     clusterContext.getDistributedSessionProperties(sessionId);
-                            clusteredSessions.put(sessionId, new RemoteSession(sessionId, clusterContext,
-                                                                               distributedSessionProperties,
-                                                                               TyrusEndpointWrapper.this,
-                                                                               dummySession));
+                            remoteSessionDirectory.add(new RemoteSession(sessionId, clusterContext,
+                                                                         distributedSessionProperties,
+                                                                         TyrusEndpointWrapper.this, dummySession));
                         }
 
                         @Override
                         public void onSessionClosed(String sessionId) {
-                            clusteredSessions.remove(sessionId);
+                            remoteSessionDirectory.remove(sessionId);
                         }
                     });
 
-            clusterContext.registerBroadcastListener(getEndpointPath(), new BroadcastListener() {
+            clusterContext.registerBroadcastListener(getEndpointPath(), new GroupBroadcastListener() {
                 @Override
                 public void onBroadcast(String text) {
-                    broadcast(text, true);
+                    broadcastFrame(webSocketToSession, new TextFrame(text, false, true), TyrusFrame.FrameType.TEXT,
+                                   null);
                 }
 
                 @Override
                 public void onBroadcast(byte[] data) {
-                    broadcast(ByteBuffer.wrap(data), true);
+                    broadcastFrame(webSocketToSession, new BinaryFrame(data, false, true),
+                                   TyrusFrame.FrameType.BINARY, null);
+                }
+
+                @Override
+                public void onBroadcast(String group, String text) {
+                    broadcastFrame(getGroupMembers(group), new TextFrame(text, false, true),
+                                   TyrusFrame.FrameType.TEXT, null);
+                }
+
+                @Override
+                public void onBroadcast(String group, byte[] data) {
+                    broadcastFrame(getGroupMembers(group), new BinaryFrame(data, false, true),
+                                   TyrusFrame.FrameType.BINARY, null);
                 }
             });
 
             for (String sessionId : clusterContext.getRemoteSessionIds(getEndpointPath())) {
                 final Map<RemoteSession.DistributedMapKey, Object> distributedSessionProperties =
                         clusterContext.getDistributedSessionProperties(sessionId);
-                clusteredSessions.put(sessionId,
-                                      new RemoteSession(sessionId, clusterContext, distributedSessionProperties, this,
-                                                        dummySession));
+                remoteSessionDirectory.add(new RemoteSession(sessionId, clusterContext, distributedSessionProperties,
+                                                             this, dummySession));
+
+                // the session might have been closed before it was added, the listener has nothing to remove then.
+                if (!clusterContext.isSessionOpen(sessionId, getEndpointPath())) {
+                    remoteSessionDirectory.remove(sessionId);
+                }
             }
         }
     }
@@ -617,30 +666,60 @@ public class TyrusEndpointWrapper {
 
     /**
      * Get the set of open {@link TyrusSession}.
+     * <p>
+     * Returned set is a read-only view backed by the session registry, no copy is made. Iterators are weakly
+     * consistent and skip sessions which are not open.
      *
      * @return open sessions.
      */
     Set<TyrusSession> getOpenSessions() {
-        Set<TyrusSession> result = new HashSet<TyrusSession>();
-
-        for (TyrusSession session : webSocketToSession.values()) {
-            if (session.isOpen()) {
-                result.add(session);
-            }
-        }
-
-        return Collections.unmodifiableSet(result);
+        return openSessions;
     }
 
+    /**
+     * Get the set of sessions connected to other cluster nodes.
+     * <p>
+     * Returned set is a read-only view backed by the local directory of remote sessions, which is kept up to date by
+     * cluster events; no copy is made and the cluster is not queried. {@link Set#size()} and {@link
+     * Set#contains(Object)} are constant time operations, iterators iterate over a snapshot which is shared until the
+     * directory is modified.
+     *
+     * @return remote sessions, empty set when not running in cluster environment.
+     */
     Set<RemoteSession> getRemoteSessions() {
-        Set<RemoteSession> result = new HashSet<RemoteSession>();
+        return remoteSessions;
+    }
 
-        // clustered mode
-        if (clusterContext != null) {
-            result.addAll(clusteredSessions.values());
-        }
+    /**
+     * Get a session connected to other cluster node.
+     *
+     * @param sessionId session id.
+     * @return remote session or {@code null} if there is no such session connected to this endpoint.
+     */
+    RemoteSession getRemoteSession(String sessionId) {
+        return remoteSessionDirectory.get(sessionId);
+    }
+
+    /**
+     * Get the set of local and remote sessions.
+     * <p>
+     * Returned set is a read-only view, see {@link #getOpenSessions()} and {@link #getRemoteSessions()}.
+     *
+     * @return all sessions.
+     */
+    Set<DistributedSession> getAllSessions() {
+        return allSessions;
+    }
 
-        return Collections.unmodifiableSet(result);
+    /**
+     * Get number of sessions registered to this endpoint.
+     * <p>
+     * The count is obtained in constant time and might include sessions which are just being opened or closed.
+     *
+     * @return number of sessions.
+     */
+    int getOpenSessionCount() {
+        return webSocketToSession.size();
     }
 
     /**
@@ -720,6 +799,9 @@ public class TyrusEndpointWrapper {
                             case MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED:
                                 refuseDetail = LocalizationMessages.MAX_SESSIONS_PER_REMOTEADDR_EXCEEDED();
                                 break;
+                            case SESSION_REFUSED:
+                                refuseDetail = LocalizationMessages.SESSION_REFUSED_BY_ADMISSION_CONTROLLER();
+                                break;
                             default:
                                 // should not happen.
                                 refuseDetail = null;
@@ -913,11 +995,15 @@ public class TyrusEndpointWrapper {
      * does not support streaming, it will need to reconstruct the message here and pass the whole
      * thing along.
      *
-     * @param socket        {@link TyrusWebSocket} who sent the message.
-     * @param partialString the String message.
-     * @param last          to indicate if this is the last partial string in the sequence
+     * <p>
+     * When the message is reconstructed for a whole message handler, raw UTF-8 payloads of the frames are aggregated
+     * and the message is decoded just once, when the last part is received.
+     *
+     * @param socket {@link TyrusWebSocket} who sent the message.
+     * @param frame  frame with the part of the message.
+     * @param last   to indicate if this is the last partial string in the sequence
      */
-    void onPartialMessage(TyrusWebSocket socket, String partialString, boolean last) {
+    void onPartialMessage(TyrusWebSocket socket, TextFrame frame, boolean last) {
         TyrusSession session = getSession(socket);
 
         if (session == null) {
@@ -932,7 +1018,7 @@ public class TyrusEndpointWrapper {
             session.restartIdleTimeoutExecutor();
             final TyrusSession.State state = session.getState();
             if (session.isPartialTextHandlerPresent()) {
-                session.notifyMessageHandlers(partialString, last);
+                session.notifyMessageHandlers(frame.getTextPayload(), last);
                 if (state == TyrusSession.State.RECEIVING_BINARY || state == TyrusSession.State.RECEIVING_TEXT) {
                     session.setState(TyrusSession.State.RUNNING);
                 }
@@ -942,16 +1028,17 @@ public class TyrusEndpointWrapper {
                     case RUNNING:
                         if (buffer == null) {
                             // TODO:
-                            buffer = new ReaderBuffer(((BaseContainer) container).getExecutorService());
+                            buffer = new ReaderBuffer(((BaseContainer) container).getExecutorService(),
+                                                      session.getInboundFlowControl());
                             session.setReaderBuffer(buffer);
                         }
                         buffer.resetBuffer(session.getMaxTextMessageBufferSize());
                         buffer.setMessageHandler((session.getMessageHandler(Reader.class)));
-                        buffer.appendMessagePart(partialString, last);
+                        buffer.appendMessagePart(frame.getTextPayload(), last);
                         session.setState(TyrusSession.State.RECEIVING_TEXT);
                         break;
                     case RECEIVING_TEXT:
-                        buffer.appendMessagePart(partialString, last);
+                        buffer.appendMessagePart(frame.getTextPayload(), last);
                         if (last) {
                             session.setState(TyrusSession.State.RUNNING);
                         }
@@ -967,15 +1054,19 @@ public class TyrusEndpointWrapper {
                 switch (state) {
                     case RUNNING:
                         session.getTextBuffer().resetBuffer(session.getMaxTextMessageBufferSize());
-                        session.getTextBuffer().appendMessagePart(partialString);
+                        session.getTextBuffer().appendMessagePart(frame.getUtf8Payload());
                         session.setState(TyrusSession.State.RECEIVING_TEXT);
                         break;
                     case RECEIVING_TEXT:
-                        session.getTextBuffer().appendMessagePart(partialString);
+                        session.getTextBuffer().appendMessagePart(frame.getUtf8Payload());
                         if (last) {
-                            final String message = session.getTextBuffer().getBufferedContent();
-                            session.notifyMessageHandlers(message, findApplicableDecoders(session, message, true));
-                            session.setState(TyrusSession.State.RUNNING);
+                            try {
+                                final String message = session.getTextBuffer().getBufferedContent();
+                                session.notifyMessageHandlers(message, findApplicableDecoders(session, message, true));
+                            } finally {
+                                // the buffer has been released, the next message has to start a new one.
+                                session.setState(TyrusSession.State.RUNNING);
+                            }
                         }
                         break;
                     default:
@@ -1045,7 +1136,8 @@ public class TyrusEndpointWrapper {
                     case RUNNING:
                         if (buffer == null) {
                             // TODO
-                            buffer = new InputStreamBuffer(((BaseContainer) container).getExecutorService());
+                            buffer = new InputStreamBuffer(((BaseContainer) container).getExecutorService(),
+                                                           session.getInboundFlowControl());
                             session.setInputStreamBuffer(buffer);
                         }
                         buffer.resetBuffer(session.getMaxBinaryMessageBufferSize());
@@ -1293,6 +1385,9 @@ public class TyrusEndpointWrapper {
             session.setState(TyrusSession.State.CLOSED);
 
             webSocketToSession.remove(socket);
+            for (String group : session.getGroups()) {
+                leaveGroup(session, group);
+            }
             endpointEventListener.onSessionClosed(session.getId());
             componentProvider.removeSession(session);
             sessionListener.onClose(session, closeReason);
@@ -1316,12 +1411,7 @@ public class TyrusEndpointWrapper {
      * from other cluster nodes are not included.
      */
     Map<Session, Future<?>> broadcast(final String message) {
-        return broadcast(message, false);
-    }
-
-    private Map<Session, Future<?>> broadcast(final String message, boolean local) {
-
-        if (!local && clusterContext != null) {
+        if (clusterContext != null) {
             clusterContext.broadcastText(getEndpointPath(), message);
             return new HashMap<Session, Future<?>>();
         } else {
@@ -1367,14 +1457,9 @@ public class TyrusEndpointWrapper {
      * from other cluster nodes are not included.
      */
     Map<Session, Future<?>> broadcast(final ByteBuffer message) {
-        return broadcast(message, false);
-    }
-
-    private Map<Session, Future<?>> broadcast(final ByteBuffer message, boolean local) {
-
         final byte[] byteArrayMessage = Utils.getRemainingArray(message);
 
-        if (!local && clusterContext != null) {
+        if (clusterContext != null) {
             clusterContext.broadcastBinary(getEndpointPath(), byteArrayMessage);
             // TODO: fix for cluster case
             return new HashMap<Session, Future<?>>();
@@ -1413,6 +1498,265 @@ public class TyrusEndpointWrapper {
         }
     }
 
+    /**
+     * Broadcasts text message to all connected clients without creating a {@link Future} per recipient.
+     *
+     * @param message message to be broadcasted.
+     * @param handler handler notified with the aggregated result of the broadcast, can be {@code null}, see
+     *                {@link BroadcastHandler}.
+     */
+    void broadcast(final String message, final BroadcastHandler handler) {
+        if (clusterContext != null) {
+            clusterContext.broadcastText(getEndpointPath(), message);
+            notifyClusteredBroadcast(handler);
+        } else {
+            broadcastFrame(webSocketToSession, new TextFrame(message, false, true), TyrusFrame.FrameType.TEXT,
+                           handler);
+        }
+    }
+
+    /**
+     * Broadcasts binary message to all connected clients without creating a {@link Future} per recipient.
+     *
+     * @param message message to be broadcasted.
+     * @param handler handler notified with the aggregated result of the broadcast, can be {@code null}, see
+     *                {@link BroadcastHandler}.
+     */
+    void broadcast(final ByteBuffer message, final BroadcastHandler handler) {
+        final byte[] byteArrayMessage = Utils.getRemainingArray(message);
+
+        if (clusterContext != null) {
+            clusterContext.broadcastBinary(getEndpointPath(), byteArrayMessage);
+            notifyClusteredBroadcast(handler);
+        } else {
+            broadcastFrame(webSocketToSession, new BinaryFrame(byteArrayMessage, false, true),
+                           TyrusFrame.FrameType.BINARY, handler);
+        }
+    }
+
+    /**
+     * Broadcasts text message to all members of a group.
+     * <p>
+     * The message is serialized once and written to all local members of the group. When a {@link ClusterContext}
+     * supporting group broadcast is present, the message is delivered to members connected to other nodes as well.
+     *
+     * @param group   name of the group.
+     * @param message message to be broadcasted.
+     * @param handler handler notified with the aggregated result of the broadcast, can be {@code null}, see
+     *                {@link BroadcastHandler}.
+     * @see ClusterContext#broadcastText(String, String, String)
+     */
+    void broadcastToGroup(String group, String message, BroadcastHandler handler) {
+        if (clusterContext != null && clusterContext.broadcastText(getEndpointPath(), group, message)) {
+            notifyClusteredBroadcast(handler);
+        } else {
+            broadcastFrame(getGroupMembers(group), new TextFrame(message, false, true), TyrusFrame.FrameType.TEXT,
+                           handler);
+        }
+    }
+
+    /**
+     * Broadcasts binary message to all members of a group.
+     * <p>
+     * The message is serialized once and written to all local members of the group. When a {@link ClusterContext}
+     * supporting group broadcast is present, the message is delivered to members connected to other nodes as well.
+     *
+     * @param group   name of the group.
+     * @param message message to be broadcasted.
+     * @param handler handler notified with the aggregated result of the broadcast, can be {@code null}, see
+     *                {@link BroadcastHandler}.
+     * @see ClusterContext#broadcastBinary(String, String, byte[])
+     */
+    void broadcastToGroup(String group, ByteBuffer message, BroadcastHandler handler) {
+        final byte[] byteArrayMessage = Utils.getRemainingArray(message);
+
+        if (clusterContext != null && clusterContext.broadcastBinary(getEndpointPath(), group, byteArrayMessage)) {
+            notifyClusteredBroadcast(handler);
+        } else {
+            broadcastFrame(getGroupMembers(group), new BinaryFrame(byteArrayMessage, false, true),
+                           TyrusFrame.FrameType.BINARY, handler);
+        }
+    }
+
+    /**
+     * Add a session to a group. The group is created if it does not exist.
+     *
+     * @param session session to be added.
+     * @param group   name of the group.
+     * @return {@code true} if the session was not a member of the group.
+     */
+    boolean joinGroup(final TyrusSession session, String group) {
+        if (!session.addGroup(group)) {
+            return false;
+        }
+
+        groups.compute(group, new BiFunction<String, Map<TyrusWebSocket, TyrusSession>,
+                Map<TyrusWebSocket, TyrusSession>>() {
+            @Override
+            public Map<TyrusWebSocket, TyrusSession> apply(String name, Map<TyrusWebSocket, TyrusSession> members) {
+                if (members == null) {
+                    members = new ConcurrentHashMap<TyrusWebSocket, TyrusSession>();
+                }
+                members.put(session.getWebSocket(), session);
+                return members;
+            }
+        });
+
+        // the session might have been closed concurrently, after onClose removed it from its groups
+        if (!session.isOpen()) {
+            session.removeGroup(group);
+            removeGroupMember(session, group);
+        }
+
+        return true;
+    }
+
+    /**
+     * Remove a session from a group. The group is removed when its last member leaves.
+     *
+     * @param session session to be removed.
+     * @param group   name of the group.
+     * @return {@code true} if the session was a member of the group.
+     */
+    boolean leaveGroup(TyrusSession session, String group) {
+        if (!session.removeGroup(group)) {
+            return false;
+        }
+
+        removeGroupMember(session, group);
+        return true;
+    }
+
+    private void removeGroupMember(final TyrusSession session, String group) {
+        groups.computeIfPresent(group, new BiFunction<String, Map<TyrusWebSocket, TyrusSession>,
+                Map<TyrusWebSocket, TyrusSession>>() {
+            @Override
+            public Map<TyrusWebSocket, TyrusSession> apply(String name, Map<TyrusWebSocket, TyrusSession> members) {
+                members.remove(session.getWebSocket());
+                return members.isEmpty() ? null : members;
+            }
+        });
+    }
+
+    /**
+     * Get local members of a group.
+     *
+     * @param group name of the group.
+     * @return live view of the group members, empty map if there is no such group.
+     */
+    private Map<TyrusWebSocket, TyrusSession> getGroupMembers(String group) {
+        final Map<TyrusWebSocket, TyrusSession> members = groups.get(group);
+        return members == null ? Collections.<TyrusWebSocket, TyrusSession>emptyMap() : members;
+    }
+
+    /**
+     * Broadcast is delivered to local sessions via {@link BroadcastListener}, outcome of the writes is not known here,
+     * so the handler is notified with an empty result right away.
+     *
+     * @param handler handler to be notified, can be {@code null}.
+     */
+    private void notifyClusteredBroadcast(BroadcastHandler handler) {
+        if (handler != null) {
+            handler.onResult(new BroadcastResult(0, Collections.<String>emptySet()));
+        }
+    }
+
+    /**
+     * Write a frame to all open sessions from {@code recipients}.
+     * <p>
+     * The frame is serialized once and the serialized form is shared among all sessions which don't have any
+     * extension negotiated. Only the completion handler passed to the {@link org.glassfish.tyrus.spi.Writer} is
+     * created per session, no {@link Future}s or maps are involved.
+     * <p>
+     * When parallel broadcast is enabled, the writes are issued by {@link BroadcastTask}s running on the broadcast
+     * pool and this method returns immediately; {@code handler} is notified once the last write is finished.
+     *
+     * @param recipients local sessions the frame will be sent to, either all sessions or members of a group.
+     * @param dataFrame  frame to be sent.
+     * @param frameType  type of the frame (monitoring).
+     * @param handler    handler notified with the aggregated result of the broadcast, can be {@code null}.
+     */
+    private void broadcastFrame(Map<TyrusWebSocket, TyrusSession> recipients, final Frame dataFrame,
+                                final TyrusFrame.FrameType frameType, BroadcastHandler handler) {
+        final BroadcastAggregator aggregator = handler == null ? null : new BroadcastAggregator(handler);
+        final long payloadLength = dataFrame.getPayloadLength();
+        final ByteBuffer frame = serializeFrame(recipients, dataFrame);
+
+        final SessionCallable broadcastCallable = new SessionCallable() {
+
+            @Override
+            public Future<?> call(TyrusWebSocket webSocket, TyrusSession session) {
+                final ProtocolHandler protocolHandler = webSocket.getProtocolHandler();
+                final CompletionHandler<ByteBuffer> completionHandler =
+                        aggregator == null ? NO_OP_COMPLETION_HANDLER : aggregator.register(session.getId());
+
+                try {
+                    final ByteBuffer data;
+
+                    // we need to let protocol handler execute extensions if there are any
+                    if (frame == null || protocolHandler.hasExtensions()) {
+                        data = protocolHandler.frame(Frame.builder(dataFrame).build());
+                    } else {
+                        data = frame.duplicate();
+                    }
+
+                    webSocket.sendRawFrame(data, completionHandler);
+                    webSocket.getMessageEventListener().onFrameSent(frameType, payloadLength);
+                } catch (RuntimeException e) {
+                    completionHandler.failed(e);
+                }
+
+                return null;
+            }
+        };
+
+        final ForkJoinPool broadcastPool = getBroadcastPool();
+
+        if (broadcastPool != null) {
+            final BroadcastTask.Listener listener = new BroadcastTask.Listener() {
+                @Override
+                public void onComplete(long elapsedNanos, int processed) {
+                    recordSendCost(elapsedNanos, processed);
+                    if (aggregator != null) {
+                        aggregator.release();
+                    }
+                }
+            };
+
+            broadcastPool.execute(new BroadcastTask<TyrusWebSocket, TyrusSession>(
+                    recipients, getBroadcastChunkSize(), new BroadcastAction(broadcastCallable, null), listener));
+            return;
+        }
+
+        for (Map.Entry<TyrusWebSocket, TyrusSession> e : recipients.entrySet()) {
+            if (e.getValue().isOpen()) {
+                broadcastCallable.call(e.getKey(), e.getValue());
+            }
+        }
+
+        if (aggregator != null) {
+            aggregator.release();
+        }
+    }
+
+    /**
+     * Serialize the frame using {@link ProtocolHandler} of any session without negotiated extensions.
+     *
+     * @param recipients sessions the frame will be sent to.
+     * @param dataFrame  frame to be serialized.
+     * @return serialized frame or {@code null} if there is no session without negotiated extensions.
+     */
+    private ByteBuffer serializeFrame(Map<TyrusWebSocket, TyrusSession> recipients, Frame dataFrame) {
+        for (TyrusWebSocket webSocket : recipients.keySet()) {
+            final ProtocolHandler protocolHandler = webSocket.getProtocolHandler();
+            if (!protocolHandler.hasExtensions()) {
+                return protocolHandler.frame(dataFrame);
+            }
+        }
+
+        return null;
+    }
+
     /**
      * Perform broadcast.
      *
@@ -1425,8 +1769,10 @@ public class TyrusEndpointWrapper {
      * @see #broadcast(java.lang.String)
      */
     private Map<Session, Future<?>> broadcast(SessionCallable broadcastCallable) {
-        if (parallelBroadcastEnabled) {
-            return executeInParallel(broadcastCallable);
+        final ForkJoinPool broadcastPool = getBroadcastPool();
+
+        if (broadcastPool != null) {
+            return executeInParallel(broadcastPool, broadcastCallable);
         }
 
         Map<Session, Future<?>> futures = new HashMap<Session, Future<?>>();
@@ -1462,80 +1808,245 @@ public class TyrusEndpointWrapper {
     }
 
     /**
-     * Divides open sessions into subsets on which an operation passed as {@code broadcastCallable} will be executed in
-     * parallel.
+     * Executes an operation passed as {@code broadcastCallable} on all open sessions in parallel and waits until it is
+     * executed on all of them.
+     * <p>
+     * The sessions are split recursively by {@link BroadcastTask}s, see {@link #getBroadcastChunkSize()}.
      *
+     * @param broadcastPool     pool used for execution of {@link BroadcastTask}s.
      * @param broadcastCallable operation to be executed on open sessions.
      * @return futures of the operations executed on each session.
      */
-    private Map<Session, Future<?>> executeInParallel(final SessionCallable broadcastCallable) {
-        final List<Map.Entry<TyrusWebSocket, TyrusSession>> sessions =
-                new ArrayList<Map.Entry<TyrusWebSocket, TyrusSession>>();
+    private Map<Session, Future<?>> executeInParallel(ForkJoinPool broadcastPool,
+                                                      SessionCallable broadcastCallable) {
+        final Map<Session, Future<?>> futures = new ConcurrentHashMap<Session, Future<?>>();
 
-        for (Map.Entry<TyrusWebSocket, TyrusSession> e : webSocketToSession.entrySet()) {
-            if (e.getValue().isOpen()) {
-                sessions.add(e);
-            }
+        broadcastPool.invoke(new BroadcastTask<TyrusWebSocket, TyrusSession>(
+                webSocketToSession, getBroadcastChunkSize(), new BroadcastAction(broadcastCallable, futures),
+                new BroadcastTask.Listener() {
+                    @Override
+                    public void onComplete(long elapsedNanos, int processed) {
+                        recordSendCost(elapsedNanos, processed);
+                    }
+                }));
+
+        return futures;
+    }
+
+    /**
+     * Get the pool used for parallel broadcast.
+     *
+     * @return broadcast pool or {@code null} if parallel broadcast is not enabled or not supported by the container.
+     */
+    private ForkJoinPool getBroadcastPool() {
+        if (parallelBroadcastEnabled && container instanceof BaseContainer) {
+            return ((BaseContainer) container).getBroadcastPool();
         }
 
-        if (sessions.isEmpty()) {
-            return new HashMap<Session, Future<?>>();
+        return null;
+    }
+
+    /**
+     * Get number of sessions which should be processed by one {@link BroadcastTask} without further splitting.
+     * <p>
+     * The number is computed from the measured average cost of a send to one session, so that one task takes roughly
+     * {@link #TARGET_BROADCAST_TASK_NANOS}. Cheap sends are processed in larger chunks (less task overhead), expensive
+     * ones (SSL, compression, ...) in smaller chunks, so that idle threads can steal the remaining work.
+     *
+     * @return chunk size.
+     */
+    private long getBroadcastChunkSize() {
+        final long chunkSize = TARGET_BROADCAST_TASK_NANOS / Math.max(1, sendCostNanos);
+        return Math.max(MIN_SESSIONS_PER_TASK, Math.min(MAX_SESSIONS_PER_TASK, chunkSize));
+    }
+
+    /**
+     * Update the average cost of a send to one session.
+     * <p>
+     * Exponentially weighted moving average, concurrent updates might get lost, which is not an issue.
+     *
+     * @param elapsedNanos time spent sending.
+     * @param sessionCount number of sessions the message was sent to.
+     */
+    private void recordSendCost(long elapsedNanos, int sessionCount) {
+        if (sessionCount > 0) {
+            final long current = sendCostNanos;
+            sendCostNanos = current - (current >> 3) + ((elapsedNanos / sessionCount) >> 3);
         }
+    }
 
-        ExecutorService executor = ((BaseContainer) sessions.get(0).getValue().getContainer()).getExecutorService();
-        Map<Future<Map<Session, Future<?>>>, int[]> submitFutures =
-                new HashMap<Future<Map<Session, Future<?>>>, int[]>();
+    /**
+     * {@link BroadcastTask.Action} executing {@link SessionCallable} on an open session.
+     */
+    private static final class BroadcastAction implements BroadcastTask.Action<TyrusWebSocket, TyrusSession> {
 
-        int sessionCount = sessions.size();
-        int maxThreadCount = sessionCount / MIN_SESSIONS_PER_THREAD == 0 ? 1 : sessionCount / MIN_SESSIONS_PER_THREAD;
-        int threadCount = Math.min(Runtime.getRuntime().availableProcessors(), maxThreadCount);
+        private final SessionCallable broadcastCallable;
+        private final Map<Session, Future<?>> futures;
 
-        for (int i = 0; i < threadCount; i++) {
+        /**
+         * Create new action.
+         *
+         * @param broadcastCallable operation to be executed on open sessions.
+         * @param futures           map to which the futures returned from {@code broadcastCallable} will be put, can
+         *                          be {@code null}.
+         */
+        private BroadcastAction(SessionCallable broadcastCallable, Map<Session, Future<?>> futures) {
+            this.broadcastCallable = broadcastCallable;
+            this.futures = futures;
+        }
 
-            final int lowerBound = (sessionCount + threadCount - 1) / threadCount * i;
-            final int upperBound = Math.min((sessionCount + threadCount - 1) / threadCount * (i + 1), sessionCount);
+        @Override
+        public boolean execute(TyrusWebSocket webSocket, TyrusSession session) {
+            if (!session.isOpen()) {
+                return false;
+            }
 
-            Future<Map<Session, Future<?>>> submitFuture = executor.submit(new Callable<Map<Session, Future<?>>>() {
+            Future<?> future;
+            try {
+                future = broadcastCallable.call(webSocket, session);
+            } catch (RuntimeException ex) {
+                final TyrusFuture<Void> failedFuture = new TyrusFuture<Void>();
+                failedFuture.setFailure(ex);
+                future = failedFuture;
+            }
 
-                @Override
-                public Map<Session, Future<?>> call() throws Exception {
-                    Map<Session, Future<?>> futures = new HashMap<Session, Future<?>>();
+            if (futures != null) {
+                futures.put(session, future);
+            }
 
-                    for (int j = lowerBound; j < upperBound; j++) {
-                        Map.Entry<TyrusWebSocket, TyrusSession> e = sessions.get(j);
-                        Future<?> future = broadcastCallable.call(e.getKey(), e.getValue());
-                        futures.put(e.getValue(), future);
-                    }
-                    return futures;
-                }
-            });
+            return true;
+        }
+    }
+
+    /**
+     * Recursive task executing an {@link Action} on a part of entries of a map.
+     * <p>
+     * Entries are split directly using {@link java.util.Spliterator} of the map (session registry or group
+     * membership), no copy of the map is made. The task forks subtasks as long as its part is bigger than the chunk
+     * size and then processes the rest itself.
+     * <p>
+     * A failure of the action is logged and does not complete the task exceptionally, so the {@link Listener} is
+     * notified exactly once, after all the subtasks have finished.
+     *
+     * @param <K> type of the map keys.
+     * @param <V> type of the map values.
+     */
+    static final class BroadcastTask<K, V> extends CountedCompleter<Void> implements Consumer<Map.Entry<K, V>> {
 
-            submitFutures.put(submitFuture, new int[]{lowerBound, upperBound});
+        /**
+         * Operation executed on one entry.
+         *
+         * @param <K> type of the map keys.
+         * @param <V> type of the map values.
+         */
+        interface Action<K, V> {
+
+            /**
+             * Execute the operation.
+             *
+             * @param key   key of the entry.
+             * @param value value of the entry.
+             * @return {@code true} if the operation was executed, {@code false} if the entry was skipped.
+             */
+            boolean execute(K key, V value);
+        }
+
+        /**
+         * Notified when the operation was executed on all entries.
+         */
+        interface Listener {
+
+            /**
+             * Called once, after all the tasks have finished.
+             *
+             * @param elapsedNanos time spent executing the operation summed over all the tasks.
+             * @param processed    number of entries the operation was executed on.
+             */
+            void onComplete(long elapsedNanos, int processed);
         }
 
-        final Map<Session, Future<?>> futures = new HashMap<Session, Future<?>>();
+        private final Spliterator<Map.Entry<K, V>> spliterator;
+        private final long chunkSize;
+        private final Action<K, V> action;
+        private final Listener listener;
+        private final AtomicLong elapsedNanos;
+        private final AtomicInteger processed;
+        private final AtomicBoolean notified;
+
+        private int processedLocally = 0;
+
+        /**
+         * Create root task.
+         *
+         * @param entries   map the operation will be executed on.
+         * @param chunkSize number of entries which are processed by one task without further splitting.
+         * @param action    operation to be executed.
+         * @param listener  notified when the operation was executed on all entries.
+         */
+        BroadcastTask(Map<K, V> entries, long chunkSize, Action<K, V> action, Listener listener) {
+            super(null);
+            this.spliterator = entries.entrySet().spliterator();
+            this.chunkSize = chunkSize;
+            this.action = action;
+            this.listener = listener;
+            this.elapsedNanos = new AtomicLong();
+            this.processed = new AtomicInteger();
+            this.notified = new AtomicBoolean();
+        }
+
+        private BroadcastTask(BroadcastTask<K, V> parent, Spliterator<Map.Entry<K, V>> spliterator) {
+            super(parent);
+            this.spliterator = spliterator;
+            this.chunkSize = parent.chunkSize;
+            this.action = parent.action;
+            this.listener = null;
+            this.elapsedNanos = parent.elapsedNanos;
+            this.processed = parent.processed;
+            this.notified = parent.notified;
+        }
 
-        for (Future<Map<Session, Future<?>>> submitFuture : submitFutures.keySet()) {
+        @Override
+        public void compute() {
             try {
-                futures.putAll(submitFuture.get());
-            } catch (InterruptedException e) {
-                handleSubmitException(futures, sessions, submitFutures.get(submitFuture), e);
-            } catch (ExecutionException e) {
-                handleSubmitException(futures, sessions, submitFutures.get(submitFuture), e);
+                Spliterator<Map.Entry<K, V>> split;
+                while (spliterator.estimateSize() > chunkSize && (split = spliterator.trySplit()) != null) {
+                    addToPendingCount(1);
+                    new BroadcastTask<K, V>(this, split).fork();
+                }
+
+                final long start = System.nanoTime();
+
+                //noinspection StatementWithEmptyBody
+                while (spliterator.tryAdvance(this)) {
+                }
+
+                elapsedNanos.addAndGet(System.nanoTime() - start);
+                processed.addAndGet(processedLocally);
+            } catch (Throwable t) {
+                LOGGER.log(Level.WARNING, t.getMessage(), t);
             }
-        }
 
-        return futures;
-    }
+            // completing exceptionally would complete the root while siblings are still running
+            tryComplete();
+        }
 
-    private void handleSubmitException(Map<Session, Future<?>> futures,
-                                       List<Map.Entry<TyrusWebSocket, TyrusSession>> sessions,
-                                       int[] bounds, Exception e) {
+        @Override
+        public void accept(Map.Entry<K, V> e) {
+            try {
+                if (action.execute(e.getKey(), e.getValue())) {
+                    processedLocally++;
+                }
+            } catch (Throwable t) {
+                LOGGER.log(Level.WARNING, t.getMessage(), t);
+            }
+        }
 
-        for (int j = bounds[0]; j < bounds[1]; j++) {
-            TyrusFuture<Void> future = new TyrusFuture<Void>();
-            future.setFailure(e);
-            futures.put(sessions.get(j).getValue(), future);
+        @Override
+        public void onCompletion(CountedCompleter<?> caller) {
+            // only the root task has a listener
+            if (listener != null && notified.compareAndSet(false, true)) {
+                listener.onComplete(elapsedNanos.get(), processed.get());
+            }
         }
     }
 
@@ -1731,7 +2242,12 @@ public class TyrusEndpointWrapper {
             /**
              * Session cannot be opened - the maximal number of open session per remote address exceeded.
              */
-            MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED
+            MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED,
+
+            /**
+             * Session cannot be opened - refused by {@link SessionAdmissionController}.
+             */
+            SESSION_REFUSED
         }
 
         /**
@@ -1901,6 +2417,202 @@ public class TyrusEndpointWrapper {
         }
     };
 
+    private static final CompletionHandler<ByteBuffer> NO_OP_COMPLETION_HANDLER = new CompletionHandler<ByteBuffer>() {
+    };
+
+    /**
+     * Read-only view of open local sessions backed by {@link #webSocketToSession}.
+     * <p>
+     * {@link #size()} has to iterate over the registry to skip closed sessions, use {@link #getOpenSessionCount()}
+     * when an estimate is sufficient.
+     */
+    private final class OpenSessionsView extends AbstractSet<TyrusSession> {
+
+        @Override
+        public Iterator<TyrusSession> iterator() {
+            return new OpenSessionsIterator<TyrusSession>(webSocketToSession.values().iterator());
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (TyrusSession session : webSocketToSession.values()) {
+                if (session.isOpen()) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !iterator().hasNext();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof TyrusSession)) {
+                return false;
+            }
+
+            final TyrusSession session = (TyrusSession) o;
+            return session.isOpen() && webSocketToSession.get(session.getWebSocket()) == session;
+        }
+    }
+
+    /**
+     * Read-only view of remote sessions backed by {@link #remoteSessionDirectory}.
+     */
+    private final class RemoteSessionsView extends AbstractSet<RemoteSession> {
+
+        @Override
+        public Iterator<RemoteSession> iterator() {
+            // snapshot list is unmodifiable.
+            return remoteSessionDirectory.snapshot().getSessions().iterator();
+        }
+
+        @Override
+        public int size() {
+            return remoteSessionDirectory.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return remoteSessionDirectory.size() == 0;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof RemoteSession && remoteSessionDirectory.contains((RemoteSession) o);
+        }
+    }
+
+    /**
+     * Read-only view of open local sessions followed by remote sessions.
+     */
+    private final class AllSessionsView extends AbstractSet<DistributedSession> {
+
+        @Override
+        public Iterator<DistributedSession> iterator() {
+            final Iterator<TyrusSession> local = openSessions.iterator();
+            final Iterator<RemoteSession> remote = remoteSessions.iterator();
+
+            return new Iterator<DistributedSession>() {
+                @Override
+                public boolean hasNext() {
+                    return local.hasNext() || remote.hasNext();
+                }
+
+                @Override
+                public DistributedSession next() {
+                    return local.hasNext() ? local.next() : remote.next();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return openSessions.size() + remoteSessions.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return openSessions.contains(o) || remoteSessions.contains(o);
+        }
+    }
+
+    /**
+     * Iterator skipping sessions which are not open. The state is checked in {@link #hasNext()}, so a session
+     * might be closed by the time it is returned from {@link #next()}.
+     *
+     * @param <T> type of the elements.
+     */
+    private static final class OpenSessionsIterator<T extends Session> implements Iterator<T> {
+
+        private final Iterator<? extends T> iterator;
+        private T next;
+
+        private OpenSessionsIterator(Iterator<? extends T> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && iterator.hasNext()) {
+                final T candidate = iterator.next();
+                if (candidate.isOpen()) {
+                    next = candidate;
+                }
+            }
+
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final T result = next;
+            next = null;
+            return result;
+        }
+    }
+
+    /**
+     * Collects outcomes of the writes performed by {@link #broadcastFrame(Map, Frame, TyrusFrame.FrameType,
+     * BroadcastHandler)} and notifies {@link BroadcastHandler} when the last one is known.
+     * <p>
+     * The pending counter starts at one, which is released when all writes were issued, so the handler cannot be
+     * notified before the iteration over sessions is finished.
+     */
+    private static final class BroadcastAggregator {
+
+        private final BroadcastHandler handler;
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicInteger succeeded = new AtomicInteger(0);
+        private final Set<String> failed = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        private BroadcastAggregator(BroadcastHandler handler) {
+            this.handler = handler;
+        }
+
+        private CompletionHandler<ByteBuffer> register(final String sessionId) {
+            pending.incrementAndGet();
+
+            return new CompletionHandler<ByteBuffer>() {
+                @Override
+                public void cancelled() {
+                    failed.add(sessionId);
+                    release();
+                }
+
+                @Override
+                public void failed(Throwable throwable) {
+                    failed.add(sessionId);
+                    release();
+                }
+
+                @Override
+                public void completed(ByteBuffer result) {
+                    succeeded.incrementAndGet();
+                    release();
+                }
+            };
+        }
+
+        private void release() {
+            if (pending.decrementAndGet() == 0) {
+                try {
+                    handler.onResult(new BroadcastResult(succeeded.get(), failed));
+                } catch (Throwable t) {
+                    LOGGER.log(Level.WARNING, t.getMessage(), t);
+                }
+            }
+        }
+    }
+
     private static interface SessionCallable {
 
         Future<?> call(TyrusWebSocket tyrusWebSocket, TyrusSession session);
@@ -47,11 +47,11 @@ import java.nio.charset.Charset;
 import java.security.Principal;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -90,6 +90,7 @@ public class TyrusSession implements Session, DistributedSession {
 
     private final WebSocketContainer container;
     private final TyrusEndpointWrapper endpointWrapper;
+    private final TyrusWebSocket socket;
     private final TyrusRemoteEndpoint.Basic basicRemote;
     private final TyrusRemoteEndpoint.Async asyncRemote;
     private final boolean isSecure;
@@ -110,6 +111,7 @@ public class TyrusSession implements Session, DistributedSession {
     private final String negotiatedSubprotocol;
     private final String remoteAddr;
     private final DebugContext debugContext;
+    private final Set<String> groups = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
     private final Map<RemoteSession.DistributedMapKey, Object> distributedPropertyMap;
     private final Map<String, Object> distributedUserProperties;
@@ -131,6 +133,7 @@ public class TyrusSession implements Session, DistributedSession {
                  String connectionId, final String remoteAddr, DebugContext debugContext) {
         this.container = container;
         this.endpointWrapper = endpointWrapper;
+        this.socket = socket;
         this.negotiatedExtensions =
                 extensions == null ? Collections.<Extension>emptyList() : Collections.unmodifiableList(extensions);
         this.negotiatedSubprotocol = subprotocol == null ? "" : subprotocol;
@@ -263,18 +266,38 @@ public class TyrusSession implements Session, DistributedSession {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returned set is a read-only view backed by the registry of sessions connected to the endpoint, no copy is made
+     * per call. Its iterators are weakly consistent: they never throw {@link java.util.ConcurrentModificationException}
+     * and skip sessions which are closed. Note that {@link Set#size()} of the view has to iterate over the registry,
+     * use {@link #getOpenSessionCount()} if a constant time estimate is sufficient.
+     */
     @Override
     public Set<Session> getOpenSessions() {
-        Set<Session> openSessions = new HashSet<Session>();
-        openSessions.addAll(endpointWrapper.getOpenSessions());
+        return Collections.<Session>unmodifiableSet(endpointWrapper.getOpenSessions());
+    }
 
-        return Collections.unmodifiableSet(openSessions);
+    /**
+     * Get number of sessions connected to the same endpoint as this session.
+     * <p>
+     * The value is obtained in constant time and might include sessions which are just being opened or closed.
+     *
+     * @return number of local sessions connected to the endpoint.
+     * @see #getOpenSessions()
+     */
+    @Beta
+    public int getOpenSessionCount() {
+        return endpointWrapper.getOpenSessionCount();
     }
 
     /**
      * Get set of remote sessions.
      * <p>
-     * Remote sessions are websocket sessions which are bound to another node in the cluster.
+     * Remote sessions are websocket sessions which are bound to another node in the cluster. Returned set is a
+     * read-only view backed by the local directory of remote sessions, its iterators iterate over a snapshot of the
+     * directory.
      *
      * @return set of remote sessions or empty set, when not running in cluster environment.
      */
@@ -282,21 +305,94 @@ public class TyrusSession implements Session, DistributedSession {
         return endpointWrapper.getRemoteSessions();
     }
 
+    /**
+     * Get a remote session connected to the same endpoint.
+     * <p>
+     * The session is looked up in the local directory of remote sessions, the cluster is not queried.
+     *
+     * @param sessionId id of the remote session.
+     * @return remote session or {@code null} if there is no such session or when not running in cluster environment.
+     */
+    @Beta
+    public RemoteSession getRemoteSession(String sessionId) {
+        return endpointWrapper.getRemoteSession(sessionId);
+    }
+
+    /**
+     * Get number of remote sessions connected to the same endpoint.
+     * <p>
+     * The value is obtained in constant time from the local directory of remote sessions.
+     *
+     * @return number of remote sessions, {@code 0} when not running in cluster environment.
+     */
+    @Beta
+    public int getRemoteSessionCount() {
+        return endpointWrapper.getRemoteSessions().size();
+    }
+
+    /**
+     * Stop reading incoming data of this session.
+     * <p>
+     * Messages already read from the connection might still be delivered, but no more data is read until {@link
+     * #resumeReading()} is invoked. The remote endpoint is then throttled by the flow control of the underlying
+     * transport (e.g. TCP), which can be used to apply backpressure to a fast producer.
+     * <p>
+     * Reading is suspended only if the container supports it; Tyrus may also suspend reading by itself, for instance
+     * when {@link TyrusWebSocketEngine#ORDERED_DISPATCH_ENABLED ordered dispatch} falls behind. Reading is resumed
+     * once both the application and Tyrus resume it.
+     *
+     * @return {@code true} if reading has been suspended, {@code false} if the container does not support it.
+     */
+    @Beta
+    public boolean suspendReading() {
+        final InboundFlowControl flowControl = getInboundFlowControl();
+        return flowControl != null && flowControl.suspend(InboundFlowControl.APPLICATION);
+    }
+
+    /**
+     * Resume reading of incoming data suspended by {@link #suspendReading()}.
+     * <p>
+     * Depending on the container, data read after resuming might be processed on the invoking thread.
+     */
+    @Beta
+    public void resumeReading() {
+        final InboundFlowControl flowControl = getInboundFlowControl();
+        if (flowControl != null) {
+            flowControl.resume(InboundFlowControl.APPLICATION);
+        }
+    }
+
+    /**
+     * Check whether reading of incoming data has been suspended by {@link #suspendReading()}.
+     *
+     * @return {@code true} if the application suspended reading and has not resumed it yet.
+     */
+    @Beta
+    public boolean isReadingSuspended() {
+        final InboundFlowControl flowControl = getInboundFlowControl();
+        return flowControl != null && flowControl.isSuspended(InboundFlowControl.APPLICATION);
+    }
+
+    /**
+     * Get flow control of the incoming data of this session.
+     *
+     * @return flow control or {@code null} if the connection has no {@link org.glassfish.tyrus.spi.Writer} yet.
+     */
+    InboundFlowControl getInboundFlowControl() {
+        return socket == null ? null : socket.getProtocolHandler().getInboundFlowControl();
+    }
+
     /**
      * Get set of all sessions opened to the same endpoint.
      * <p>
-     * Set returned from this method contains all "local" and {@link RemoteSession remote} sessions (if any).
+     * Set returned from this method contains all "local" and {@link RemoteSession remote} sessions (if any). It is a
+     * read-only view, see {@link #getOpenSessions()} and {@link #getRemoteSessions()}.
      *
      * @return set of distributed sessions.
      * @see RemoteSession
      */
     public Set<DistributedSession> getAllSessions() {
-        Set<DistributedSession> result = new HashSet<DistributedSession>();
-
-        result.addAll(endpointWrapper.getOpenSessions());
-        result.addAll(endpointWrapper.getRemoteSessions());
-
-        return Collections.unmodifiableSet(result);
+        return endpointWrapper.getAllSessions();
     }
 
     @Override
@@ -474,6 +570,127 @@ public class TyrusSession implements Session, DistributedSession {
         return endpointWrapper.broadcast(message);
     }
 
+    /**
+     * Broadcasts text message to all connected clients, including remote sessions (if any).
+     * <p>
+     * Unlike {@link #broadcast(String)}, this method does not create any {@link Future} or map entry per recipient;
+     * the message is serialized once and written to all local sessions. Outcome of the broadcast can be observed by
+     * passing a {@link BroadcastHandler}, which is notified once the writes to all local sessions are finished.
+     * <p>
+     * When {@link org.glassfish.tyrus.core.TyrusWebSocketEngine#PARALLEL_BROADCAST_ENABLED} is set to {@code true},
+     * the writes are issued from a dedicated {@link java.util.concurrent.ForkJoinPool} and this method returns without
+     * waiting for them.
+     *
+     * @param message message to be broadcasted.
+     * @param handler handler notified with aggregated result of the broadcast, can be {@code null} when the caller is
+     *                not interested in the result, see {@link BroadcastHandler}.
+     */
+    @Beta
+    public void broadcast(String message, BroadcastHandler handler) {
+        endpointWrapper.broadcast(message, handler);
+    }
+
+    /**
+     * Broadcasts binary message to all connected clients, including remote sessions (if any).
+     * <p>
+     * Unlike {@link #broadcast(ByteBuffer)}, this method does not create any {@link Future} or map entry per
+     * recipient; the message is serialized once and written to all local sessions. Outcome of the broadcast can be
+     * observed by passing a {@link BroadcastHandler}, which is notified once the writes to all local sessions are
+     * finished.
+     * <p>
+     * When {@link org.glassfish.tyrus.core.TyrusWebSocketEngine#PARALLEL_BROADCAST_ENABLED} is set to {@code true},
+     * the writes are issued from a dedicated {@link java.util.concurrent.ForkJoinPool} and this method returns without
+     * waiting for them.
+     *
+     * @param message message to be broadcasted.
+     * @param handler handler notified with aggregated result of the broadcast, can be {@code null} when the caller is
+     *                not interested in the result, see {@link BroadcastHandler}.
+     */
+    @Beta
+    public void broadcast(ByteBuffer message, BroadcastHandler handler) {
+        endpointWrapper.broadcast(message, handler);
+    }
+
+    /**
+     * Add this session to a group of sessions connected to the same endpoint.
+     * <p>
+     * The group is created when the first session joins it and removed when the last one leaves. The session leaves
+     * all its groups automatically when it is closed.
+     *
+     * @param group name of the group.
+     * @return {@code true} if this session was not already a member of the group.
+     * @throws IllegalStateException when the session is closed.
+     * @see #broadcastToGroup(String, String, BroadcastHandler)
+     */
+    @Beta
+    public boolean joinGroup(String group) {
+        if (group == null) {
+            throw new IllegalArgumentException(LocalizationMessages.ARGUMENT_NOT_NULL("group"));
+        }
+        checkConnectionState(State.CLOSED);
+        return endpointWrapper.joinGroup(this, group);
+    }
+
+    /**
+     * Remove this session from a group.
+     *
+     * @param group name of the group.
+     * @return {@code true} if this session was a member of the group.
+     */
+    @Beta
+    public boolean leaveGroup(String group) {
+        if (group == null) {
+            throw new IllegalArgumentException(LocalizationMessages.ARGUMENT_NOT_NULL("group"));
+        }
+        return endpointWrapper.leaveGroup(this, group);
+    }
+
+    /**
+     * Get names of the groups this session is a member of.
+     *
+     * @return unmodifiable live view of the group names.
+     */
+    @Beta
+    public Set<String> getGroups() {
+        return Collections.unmodifiableSet(groups);
+    }
+
+    /**
+     * Broadcasts text message to all members of a group, including members connected to other cluster nodes when
+     * supported by the {@link ClusterContext}.
+     * <p>
+     * The message is serialized once and the same frame is written to all local members, no {@link Future} is created
+     * per recipient. This session does not need to be a member of the group.
+     *
+     * @param group   name of the group.
+     * @param message message to be broadcasted.
+     * @param handler handler notified with aggregated result of the broadcast, can be {@code null} when the caller is
+     *                not interested in the result, see {@link BroadcastHandler}.
+     * @see #joinGroup(String)
+     */
+    @Beta
+    public void broadcastToGroup(String group, String message, BroadcastHandler handler) {
+        endpointWrapper.broadcastToGroup(group, message, handler);
+    }
+
+    /**
+     * Broadcasts binary message to all members of a group, including members connected to other cluster nodes when
+     * supported by the {@link ClusterContext}.
+     * <p>
+     * The message is serialized once and the same frame is written to all local members, no {@link Future} is created
+     * per recipient. This session does not need to be a member of the group.
+     *
+     * @param group   name of the group.
+     * @param message message to be broadcasted.
+     * @param handler handler notified with aggregated result of the broadcast, can be {@code null} when the caller is
+     *                not interested in the result, see {@link BroadcastHandler}.
+     * @see #joinGroup(String)
+     */
+    @Beta
+    public void broadcastToGroup(String group, ByteBuffer message, BroadcastHandler handler) {
+        endpointWrapper.broadcastToGroup(group, message, handler);
+    }
+
     /**
      * Return an interval in milliseconds between scheduled periodic Pong messages.
      * A negative value or 0 means that sending of periodic Pong messages is not turned on.
@@ -503,6 +720,18 @@ public class TyrusSession implements Session, DistributedSession {
                                                     TimeUnit.MILLISECONDS);
     }
 
+    TyrusWebSocket getWebSocket() {
+        return socket;
+    }
+
+    boolean addGroup(String group) {
+        return groups.add(group);
+    }
+
+    boolean removeGroup(String group) {
+        return groups.remove(group);
+    }
+
     void restartIdleTimeoutExecutor() {
         if (this.maxIdleTimeout < 1) {
             synchronized (idleTimeoutLock) {
@@ -62,6 +62,7 @@ import org.glassfish.tyrus.core.frame.TextFrame;
 import org.glassfish.tyrus.core.frame.TyrusFrame;
 import org.glassfish.tyrus.core.l10n.LocalizationMessages;
 import org.glassfish.tyrus.core.monitoring.MessageEventListener;
+import org.glassfish.tyrus.spi.CompletionHandler;
 import org.glassfish.tyrus.spi.UpgradeRequest;
 
 /**
@@ -187,7 +188,7 @@ public class TyrusWebSocket {
     public void onFragment(TextFrame frame, boolean last) {
         awaitOnConnect();
         if (endpointWrapper != null) {
-            endpointWrapper.onPartialMessage(this, frame.getTextPayload(), last);
+            endpointWrapper.onPartialMessage(this, frame, last);
             messageEventListener.onFrameReceived(frame.getFrameType(), frame.getPayloadLength());
         }
     }
@@ -329,6 +330,17 @@ public class TyrusWebSocket {
         return protocolHandler.sendRawFrame(data);
     }
 
+    /**
+     * Send a frame to the remote endpoint.
+     *
+     * @param data              complete data frame.
+     * @param completionHandler completion handler notified when sending is complete.
+     */
+    public void sendRawFrame(ByteBuffer data, CompletionHandler<ByteBuffer> completionHandler) {
+        checkConnectedState();
+        protocolHandler.sendRawFrame(data, completionHandler);
+    }
+
     /**
      * Sends a <code>ping</code> frame with the specified payload (if any).
      *
@@ -48,7 +48,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -117,6 +116,20 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
      */
     public static final String MAX_SESSIONS_PER_REMOTE_ADDR = "org.glassfish.tyrus.maxSessionsPerRemoteAddr";
 
+    /**
+     * {@link SessionAdmissionController} consulted before a session is opened.
+     * <p>
+     * The value must be an instance of {@link SessionAdmissionController}; when configured as a servlet context
+     * parameter, the value is a fully qualified name of a class implementing {@link SessionAdmissionController} with a
+     * public no-argument constructor.
+     * <p>
+     * No admission control is applied by default.
+     *
+     * @see TokenBucketAdmissionController
+     */
+    @Beta
+    public static final String ADMISSION_CONTROLLER = "org.glassfish.tyrus.server.admissionController";
+
     /**
      * Property used for configuring the type of tracing supported by the server.
      * <p>
@@ -164,7 +177,57 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
      */
     public static final String PARALLEL_BROADCAST_ENABLED = "org.glassfish.tyrus.server.parallelBroadcastEnabled";
 
-    private static final int BUFFER_STEP_SIZE = 256;
+    /**
+     * Ordered dispatch of incoming messages.
+     * <p>
+     * When enabled, the thread reading from the connection only parses the incoming frames; processing of the frames,
+     * including invocation of the message handlers, is executed on the executor service of the container. Every
+     * session has its own serial queue, so the messages of one session are still delivered in order and never
+     * concurrently, but slow message handlers of one session do not delay reading from other connections.
+     * <p>
+     * Expected value is {@code true} or {@code false} and the default value is {@code false}.
+     *
+     * @see #ORDERED_DISPATCH_MAX_BACKLOG
+     * @see #getDispatchStatistics()
+     */
+    @Beta
+    public static final String ORDERED_DISPATCH_ENABLED = "org.glassfish.tyrus.server.orderedDispatchEnabled";
+
+    /**
+     * Maximal number of incoming frames waiting in the queue of one session when {@link #ORDERED_DISPATCH_ENABLED
+     * ordered dispatch} is enabled.
+     * <p>
+     * When the limit is reached, reading from the connection is suspended until the session catches up (see {@link
+     * org.glassfish.tyrus.spi.Writer#suspendReading()}). If the container does not support suspending, the reading
+     * thread is blocked instead.
+     * <p>
+     * The value must be positive {@link java.lang.Integer} or its primitive alternative. Default value is {@value
+     * #DEFAULT_ORDERED_DISPATCH_MAX_BACKLOG}.
+     */
+    @Beta
+    public static final String ORDERED_DISPATCH_MAX_BACKLOG = "org.glassfish.tyrus.server.orderedDispatchMaxBacklog";
+
+    /**
+     * Default value of {@link #ORDERED_DISPATCH_MAX_BACKLOG}.
+     */
+    @Beta
+    public static final int DEFAULT_ORDERED_DISPATCH_MAX_BACKLOG = 64;
+
+    /**
+     * Use virtual threads for the executor services of the server container.
+     * <p>
+     * Tasks executed on the executor services, such as message handlers invoked by {@link #ORDERED_DISPATCH_ENABLED
+     * ordered dispatch} or handlers consuming streamed messages, may block without occupying a platform thread.
+     * Virtual threads are available on JDK 21 and newer; on older JDKs, or when the executor services are provided by
+     * the application server, the property is ignored.
+     * <p>
+     * Expected value is {@code true} or {@code false} and the default value is {@code false}.
+     *
+     * @see VirtualThreads
+     */
+    @Beta
+    public static final String VIRTUAL_THREADS_ENABLED = "org.glassfish.tyrus.server.virtualThreadsEnabled";
+
     private static final Logger LOGGER = Logger.getLogger(TyrusWebSocketEngine.class.getName());
 
     private static final UpgradeInfo NOT_APPLICABLE_UPGRADE_INFO =
@@ -186,6 +249,8 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
     private final ApplicationEventListener applicationEventListener;
     private final TyrusEndpointWrapper.SessionListener sessionListener;
     private final Boolean parallelBroadcastEnabled;
+    private final DispatchStatistics dispatchStatistics;
+    private final int orderedDispatchMaxBacklog;
 
     private final DebugContext.TracingType tracingType;
     private final DebugContext.TracingThreshold tracingThreshold;
@@ -214,15 +279,23 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
      *                                 applied.
      * @param maxSessionsPerRemoteAddr maximal number of open sessions per remote address. If {@code null}, no limit is
      *                                 applied.
+     * @param admissionController      controller consulted before a session is opened. If {@code null}, no admission
+     *                                 control is applied.
      * @param tracingType              type of tracing.
      * @param tracingThreshold         tracing threshold.
      * @param parallelBroadcastEnabled {@code true} if parallel broadcast should be enabled, {@code true} is default.
+     * @param orderedDispatchEnabled   {@code true} if incoming messages should be processed on the executor service
+     *                                 of the container, {@code false} is default.
+     * @param orderedDispatchMaxBacklog maximal number of frames waiting in the queue of one session. If {@code null},
+     *                                 default value will be used.
      */
     private TyrusWebSocketEngine(WebSocketContainer webSocketContainer, Integer incomingBufferSize,
                                  ClusterContext clusterContext, ApplicationEventListener applicationEventListener,
-                                 final Integer maxSessionsPerApp, final Integer maxSessionsPerRemoteAddr,
+                                 Integer maxSessionsPerApp, Integer maxSessionsPerRemoteAddr,
+                                 SessionAdmissionController admissionController,
                                  DebugContext.TracingType tracingType, DebugContext.TracingThreshold tracingThreshold,
-                                 Boolean parallelBroadcastEnabled) {
+                                 Boolean parallelBroadcastEnabled, Boolean orderedDispatchEnabled,
+                                 Integer orderedDispatchMaxBacklog) {
         if (incomingBufferSize != null) {
             this.incomingBufferSize = incomingBufferSize;
         }
@@ -241,70 +314,36 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         LOGGER.config("Incoming buffer size: " + this.incomingBufferSize);
         LOGGER.config("Max sessions per app: " + maxSessionsPerApp);
         LOGGER.config("Max sessions per remote address: " + maxSessionsPerRemoteAddr);
+        if (admissionController != null) {
+            LOGGER.config("Session admission controller " + admissionController.getClass().getName() + " registered");
+        }
         // parallel broadcast is enabled by default, so null means true
         LOGGER.config("Parallel broadcast enabled: " + (parallelBroadcastEnabled != null && parallelBroadcastEnabled));
 
+        if (orderedDispatchEnabled != null && orderedDispatchEnabled) {
+            if (webSocketContainer instanceof ExecutorServiceProvider) {
+                this.dispatchStatistics = new DispatchStatistics();
+            } else {
+                LOGGER.config("Ordered dispatch is not supported by " + webSocketContainer.getClass().getName());
+                this.dispatchStatistics = null;
+            }
+        } else {
+            this.dispatchStatistics = null;
+        }
+        this.orderedDispatchMaxBacklog =
+                orderedDispatchMaxBacklog == null ? DEFAULT_ORDERED_DISPATCH_MAX_BACKLOG : orderedDispatchMaxBacklog;
+        LOGGER.config("Ordered dispatch enabled: " + (dispatchStatistics != null));
+        if (dispatchStatistics != null) {
+            LOGGER.config("Ordered dispatch max backlog: " + this.orderedDispatchMaxBacklog);
+        }
+
         this.tracingType = tracingType;
         this.tracingThreshold = tracingThreshold;
 
         this.sessionListener = maxSessionsPerApp == null && maxSessionsPerRemoteAddr == null
-                ? NO_OP_SESSION_LISTENER : new TyrusEndpointWrapper.SessionListener() {
-            // Implementation of {@link org.glassfish.tyrus.core.TyrusEndpointWrapper.SessionListener} counting
-            // sessions.
-
-            // limit per application counter
-            private final AtomicInteger counter = new AtomicInteger(0);
-            private final Object counterLock = new Object();
-
-            // limit per remote address counter
-            private final Map<String, AtomicInteger> remoteAddressCounters = new HashMap<String, AtomicInteger>();
-
-            @Override
-            public OnOpenResult onOpen(final TyrusSession session) {
-                if (maxSessionsPerApp != null) {
-                    synchronized (counterLock) {
-                        if (counter.get() >= maxSessionsPerApp) {
-                            return OnOpenResult.MAX_SESSIONS_PER_APP_EXCEEDED;
-                        } else {
-                            counter.incrementAndGet();
-                        }
-                    }
-                }
-
-                if (maxSessionsPerRemoteAddr != null) {
-                    synchronized (remoteAddressCounters) {
-                        AtomicInteger remoteAddressCounter = remoteAddressCounters.get(session.getRemoteAddr());
-                        if (remoteAddressCounter == null) {
-                            remoteAddressCounter = new AtomicInteger(1);
-                            remoteAddressCounters.put(session.getRemoteAddr(), remoteAddressCounter);
-                        } else if (remoteAddressCounter.get() >= maxSessionsPerRemoteAddr) {
-                            return OnOpenResult.MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED;
-                        } else {
-                            remoteAddressCounter.incrementAndGet();
-                        }
-                    }
-                }
-
-                return OnOpenResult.SESSION_ALLOWED;
-            }
-
-            @Override
-            public void onClose(final TyrusSession session, final CloseReason closeReason) {
-                if (maxSessionsPerApp != null) {
-                    synchronized (counterLock) {
-                        counter.decrementAndGet();
-                    }
-                }
-                if (maxSessionsPerRemoteAddr != null) {
-                    synchronized (remoteAddressCounters) {
-                        int remoteAddressCounter = remoteAddressCounters.get(session.getRemoteAddr()).decrementAndGet();
-                        if (remoteAddressCounter == 0) {
-                            remoteAddressCounters.remove(session.getRemoteAddr());
-                        }
-                    }
-                }
-            }
-        };
+                && admissionController == null
+                ? NO_OP_SESSION_LISTENER
+                : new SessionLimiter(maxSessionsPerApp, maxSessionsPerRemoteAddr, admissionController);
     }
 
     private static ProtocolHandler loadHandler(UpgradeRequest request) {
@@ -425,7 +464,7 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
 
             response.getHeaders().putAll(debugContext.getTracingHeaders());
             return new SuccessfulUpgradeInfo(endpointWrapper, protocolHandler, incomingBufferSize, request, response,
-                                             extensionContext, debugContext);
+                                             extensionContext, debugContext, createDispatcher());
         }
 
         response.setStatus(500);
@@ -434,6 +473,15 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         return NOT_APPLICABLE_UPGRADE_INFO;
     }
 
+    private SessionDispatcher createDispatcher() {
+        if (dispatchStatistics == null) {
+            return null;
+        }
+
+        return new SessionDispatcher(((ExecutorServiceProvider) webSocketContainer).getExecutorService(),
+                                     orderedDispatchMaxBacklog, dispatchStatistics);
+    }
+
     private void logExtensionsAndSubprotocol(ProtocolHandler protocolHandler, DebugContext debugContext) {
         StringBuilder sb = new StringBuilder();
         sb.append("Using negotiated extensions: [");
@@ -492,7 +540,7 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         return HANDSHAKE_FAILED_UPGRADE_INFO;
     }
 
-    private static class TyrusReadHandler implements ReadHandler {
+    private static class TyrusReadHandler implements FrameReadHandler {
 
         private final ProtocolHandler protocolHandler;
         private final TyrusWebSocket socket;
@@ -500,12 +548,13 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         private final int incomingBufferSize;
         private final ExtendedExtension.ExtensionContext extensionContext;
         private final DebugContext debugContext;
-
-        private volatile ByteBuffer buffer;
+        private final SessionDispatcher dispatcher;
 
         private TyrusReadHandler(ProtocolHandler protocolHandler, TyrusWebSocket socket,
                                  TyrusEndpointWrapper endpointWrapper, int incomingBufferSize,
-                                 ExtendedExtension.ExtensionContext extensionContext, DebugContext debugContext) {
+                                 ExtendedExtension.ExtensionContext extensionContext, DebugContext debugContext,
+                                 SessionDispatcher dispatcher) {
+            this.dispatcher = dispatcher;
             this.extensionContext = extensionContext;
             this.protocolHandler = protocolHandler;
             this.socket = socket;
@@ -519,62 +568,97 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
             try {
                 if (data != null && data.hasRemaining()) {
 
-                    if (buffer != null) {
-                        data = Utils.appendBuffers(buffer, data, incomingBufferSize, BUFFER_STEP_SIZE);
-                    } else {
-                        int newSize = data.remaining();
-                        if (newSize > incomingBufferSize) {
-                            throw new IllegalArgumentException(LocalizationMessages.BUFFER_OVERFLOW());
-                        } else {
-                            final int roundedSize = (newSize % BUFFER_STEP_SIZE) > 0
-                                    ? ((newSize / BUFFER_STEP_SIZE) + 1) * BUFFER_STEP_SIZE : newSize;
-                            final ByteBuffer result =
-                                    ByteBuffer.allocate(roundedSize > incomingBufferSize ? newSize : roundedSize);
-                            result.flip();
-                            data = Utils.appendBuffers(result, data, incomingBufferSize, BUFFER_STEP_SIZE);
-                        }
-                    }
-
                     do {
-                        final Frame incomingFrame = protocolHandler.unframe(data);
+                        final Frame incomingFrame = protocolHandler.unframe(data, incomingBufferSize);
 
                         if (incomingFrame == null) {
-                            buffer = data;
+                            // the whole buffer was consumed, the rest of the frame (if any) comes with the
+                            // next buffer.
                             break;
                         } else {
-                            Frame frame = incomingFrame;
-
-                            for (Extension extension : protocolHandler.getExtensions()) {
-                                if (extension instanceof ExtendedExtension) {
-                                    try {
-                                        frame = ((ExtendedExtension) extension)
-                                                .processIncoming(extensionContext, frame);
-                                    } catch (Throwable t) {
-                                        debugContext.appendLogMessageWithThrowable(
-                                                LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN, t, "Extension '",
-                                                extension.getName(),
-                                                "' threw an exception during processIncoming method invocation: ",
-                                                t.getMessage());
-                                    }
-                                }
-                            }
-
-                            protocolHandler.process(frame, socket);
+                            handleFrame(incomingFrame);
                         }
                     } while (true);
                 }
-            } catch (WebSocketException e) {
+            } catch (final Exception e) {
+                handleReadException(e);
+            }
+        }
+
+        @Override
+        public void handle(Frame frame) {
+            try {
+                handleFrame(protocolHandler.checkIncoming(frame, incomingBufferSize));
+            } catch (final Exception e) {
+                handleReadException(e);
+            }
+        }
+
+        private void handleFrame(Frame incomingFrame) {
+            Frame frame = incomingFrame;
+
+            for (Extension extension : protocolHandler.getExtensions()) {
+                if (extension instanceof ExtendedExtension) {
+                    try {
+                        frame = ((ExtendedExtension) extension).processIncoming(extensionContext, frame);
+                    } catch (Throwable t) {
+                        debugContext.appendLogMessageWithThrowable(
+                                LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN, t, "Extension '",
+                                extension.getName(),
+                                "' threw an exception during processIncoming method invocation: ",
+                                t.getMessage());
+                    }
+                }
+            }
+
+            if (dispatcher == null) {
+                protocolHandler.process(frame, socket);
+            } else {
+                dispatch(frame);
+            }
+        }
+
+        private void handleReadException(final Exception e) {
+            if (dispatcher == null) {
+                handleException(e);
+            } else {
+                // frames read before the failure have to be processed first.
+                dispatcher.dispatch(new Runnable() {
+                    @Override
+                    public void run() {
+                        handleException(e);
+                    }
+                });
+            }
+        }
+
+        private void dispatch(final Frame frame) {
+            dispatcher.dispatch(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        protocolHandler.process(frame, socket);
+                    } catch (Exception e) {
+                        handleException(e);
+                    }
+                }
+            });
+        }
+
+        private void handleException(Exception e) {
+            if (e instanceof WebSocketException) {
                 debugContext.appendLogMessageWithThrowable(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN, e,
                                                            e.getMessage());
-                socket.onClose(new CloseFrame(e.getCloseReason()));
-            } catch (Exception e) {
+                socket.onClose(new CloseFrame(((WebSocketException) e).getCloseReason()));
+            } else {
                 String message = e.getMessage();
                 debugContext.appendLogMessageWithThrowable(LOGGER, Level.FINE, DebugContext.Type.MESSAGE_IN, e,
                                                            e.getMessage());
                 if (endpointWrapper.onError(socket, e)) {
                     if (message != null && message.length() > 123) {
-                        // reason phrase length is limited.
-                        message = message.substring(0, 123);
+                        // reason phrase length is limited; don't split a surrogate pair.
+                        final int end = Character.isHighSurrogate(message.charAt(122)) ? 122 : 123;
+                        message = message.substring(0, end);
                     }
                     socket.onClose(
                             new CloseFrame(new CloseReason(CloseReason.CloseCodes.UNEXPECTED_CONDITION, message)));
@@ -733,11 +817,14 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         private final UpgradeResponse upgradeResponse;
         private final ExtendedExtension.ExtensionContext extensionContext;
         private final DebugContext debugContext;
+        private final SessionDispatcher dispatcher;
 
         SuccessfulUpgradeInfo(TyrusEndpointWrapper endpointWrapper, ProtocolHandler protocolHandler,
                               int incomingBufferSize,
                               UpgradeRequest upgradeRequest, UpgradeResponse upgradeResponse,
-                              ExtendedExtension.ExtensionContext extensionContext, DebugContext debugContext) {
+                              ExtendedExtension.ExtensionContext extensionContext, DebugContext debugContext,
+                              SessionDispatcher dispatcher) {
+            this.dispatcher = dispatcher;
             this.endpointWrapper = endpointWrapper;
             this.protocolHandler = protocolHandler;
             this.incomingBufferSize = incomingBufferSize;
@@ -756,7 +843,8 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         public Connection createConnection(Writer writer, Connection.CloseListener closeListener) {
             TyrusConnection tyrusConnection =
                     new TyrusConnection(endpointWrapper, protocolHandler, incomingBufferSize, writer, closeListener,
-                                        upgradeRequest, upgradeResponse, extensionContext, debugContext);
+                                        upgradeRequest, upgradeResponse, extensionContext, debugContext,
+                                        dispatcher);
             debugContext.flush();
             return tyrusConnection;
         }
@@ -772,6 +860,16 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         return applicationEventListener;
     }
 
+    /**
+     * Get statistics of the {@link #ORDERED_DISPATCH_ENABLED ordered dispatch} of incoming messages.
+     *
+     * @return dispatch statistics or {@code null} when ordered dispatch is not enabled.
+     */
+    @Beta
+    public DispatchStatistics getDispatchStatistics() {
+        return dispatchStatistics;
+    }
+
     /**
      * Get {@link org.glassfish.tyrus.core.wsadl.model.Application} representing current set of deployed endpoints.
      *
@@ -798,11 +896,13 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         private final TyrusWebSocket socket;
         private final ExtendedExtension.ExtensionContext extensionContext;
         private final List<Extension> extensions;
+        private final SessionDispatcher dispatcher;
 
         TyrusConnection(TyrusEndpointWrapper endpointWrapper, ProtocolHandler protocolHandler, int incomingBufferSize,
                         Writer writer, CloseListener closeListener,
                         UpgradeRequest upgradeRequest, UpgradeResponse upgradeResponse,
-                        ExtendedExtension.ExtensionContext extensionContext, DebugContext debugContext) {
+                        ExtendedExtension.ExtensionContext extensionContext, DebugContext debugContext,
+                        SessionDispatcher dispatcher) {
             protocolHandler.setWriter(writer);
             extensions = protocolHandler.getExtensions();
             this.socket = endpointWrapper.createSocket(protocolHandler);
@@ -821,12 +921,17 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
             this.socket.onConnect(upgradeRequest, protocolHandler.getSubProtocol(), extensions, connectionId,
                                   debugContext);
 
+            if (dispatcher != null) {
+                dispatcher.setFlowControl(protocolHandler.getInboundFlowControl());
+            }
+
             this.readHandler =
                     new TyrusReadHandler(protocolHandler, socket, endpointWrapper, incomingBufferSize, extensionContext,
-                                         debugContext);
+                                         debugContext, dispatcher);
             this.writer = writer;
             this.closeListener = closeListener;
             this.extensionContext = extensionContext;
+            this.dispatcher = dispatcher;
         }
 
         @Override
@@ -845,11 +950,27 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         }
 
         @Override
-        public void close(CloseReason reason) {
+        public void close(final CloseReason reason) {
             if (!socket.isConnected()) {
                 return;
             }
 
+            if (dispatcher == null) {
+                doClose(reason);
+            } else {
+                // frames read before the connection was closed have to be processed first.
+                dispatcher.dispatch(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (socket.isConnected()) {
+                            doClose(reason);
+                        }
+                    }
+                });
+            }
+        }
+
+        private void doClose(CloseReason reason) {
             socket.close(reason.getCloseCode().getCode(), reason.getReasonPhrase());
 
             for (Extension extension : extensions) {
@@ -876,9 +997,12 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
         private ApplicationEventListener applicationEventListener = null;
         private Integer maxSessionsPerApp = null;
         private Integer maxSessionsPerRemoteAddr = null;
+        private SessionAdmissionController admissionController = null;
         private DebugContext.TracingType tracingType = null;
         private DebugContext.TracingThreshold tracingThreshold = null;
         private Boolean parallelBroadcastEnabled = null;
+        private Boolean orderedDispatchEnabled = null;
+        private Integer orderedDispatchMaxBacklog = null;
 
         /**
          * Create new {@link org.glassfish.tyrus.core.TyrusWebSocketEngine} instance with current set of parameters.
@@ -907,9 +1031,17 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
                                          maxSessionsPerApp));
             }
 
+            if (orderedDispatchMaxBacklog != null && orderedDispatchMaxBacklog <= 0) {
+                LOGGER.log(Level.CONFIG, "Invalid configuration value " + ORDERED_DISPATCH_MAX_BACKLOG + " ("
+                        + orderedDispatchMaxBacklog + "), expected value greater than 0.");
+                orderedDispatchMaxBacklog = null;
+            }
+
             return new TyrusWebSocketEngine(webSocketContainer, incomingBufferSize, clusterContext,
                                             applicationEventListener, maxSessionsPerApp, maxSessionsPerRemoteAddr,
-                                            tracingType, tracingThreshold, parallelBroadcastEnabled);
+                                            admissionController, tracingType, tracingThreshold,
+                                            parallelBroadcastEnabled, orderedDispatchEnabled,
+                                            orderedDispatchMaxBacklog);
         }
 
         TyrusWebSocketEngineBuilder(WebSocketContainer webSocketContainer) {
@@ -983,6 +1115,22 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
             return this;
         }
 
+        /**
+         * Set {@link SessionAdmissionController}.
+         * <p>
+         * The controller is consulted before every session is opened, after the limits set by {@link
+         * #maxSessionsPerApp(Integer)} and {@link #maxSessionsPerRemoteAddr(Integer)} were checked.
+         *
+         * @param admissionController admission controller. If {@code null}, no admission control is applied.
+         * @return updated builder.
+         * @see TokenBucketAdmissionController
+         */
+        @Beta
+        public TyrusWebSocketEngineBuilder admissionController(SessionAdmissionController admissionController) {
+            this.admissionController = admissionController;
+            return this;
+        }
+
         /**
          * Set type of tracing.
          *
@@ -1009,6 +1157,33 @@ public class TyrusWebSocketEngine implements WebSocketEngine {
             this.parallelBroadcastEnabled = parallelBroadcastEnabled;
             return this;
         }
+
+        /**
+         * Enable or disable ordered dispatch of incoming messages.
+         *
+         * @param orderedDispatchEnabled {@code true} if incoming messages should be processed on the executor service
+         *                               of the container. If {@code null}, ordered dispatch is disabled.
+         * @return updated builder.
+         * @see TyrusWebSocketEngine#ORDERED_DISPATCH_ENABLED
+         */
+        @Beta
+        public TyrusWebSocketEngineBuilder orderedDispatchEnabled(Boolean orderedDispatchEnabled) {
+            this.orderedDispatchEnabled = orderedDispatchEnabled;
+            return this;
+        }
+
+        /**
+         * Set maximal number of incoming frames waiting in the queue of one session.
+         *
+         * @param orderedDispatchMaxBacklog maximal backlog of a session. If {@code null}, default value will be used.
+         * @return updated builder.
+         * @see TyrusWebSocketEngine#ORDERED_DISPATCH_MAX_BACKLOG
+         */
+        @Beta
+        public TyrusWebSocketEngineBuilder orderedDispatchMaxBacklog(Integer orderedDispatchMaxBacklog) {
+            this.orderedDispatchMaxBacklog = orderedDispatchMaxBacklog;
+            return this;
+        }
     }
 
     /**
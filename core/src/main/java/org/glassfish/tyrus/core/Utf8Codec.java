@@ -0,0 +1,188 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+
+/**
+ * Strict UTF-8 encoding and decoding of text messages.
+ * <p>
+ * Replaces {@link StrictUtf8} on the paths executed for every message. Incoming data is validated by {@link
+ * Utf8Validator} and the {@link String} is then created directly by the JDK, which is much faster than decoding
+ * through a {@link java.nio.charset.CharsetDecoder}. Outgoing strings are encoded by the JDK as well, unless they
+ * contain unpaired surrogates, which are passed to {@link StrictUtf8} and rejected. Close reasons, which must not
+ * fail the close, are encoded by {@link #encodeReplacing(String)} instead.
+ */
+public final class Utf8Codec {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte[] EMPTY_BYTES = new byte[0];
+
+    private Utf8Codec() {
+    }
+
+    /**
+     * Validate and decode UTF-8 encoded data.
+     *
+     * @param data   encoded data.
+     * @param offset offset of the first byte.
+     * @param length number of bytes.
+     * @return decoded string.
+     * @throws Utf8DecodingException when the data is not valid UTF-8 or does not end on a character boundary.
+     */
+    public static String decode(byte[] data, int offset, int length) {
+        if (Utf8Validator.validate(data, offset, length) != 0) {
+            throw new Utf8DecodingException();
+        }
+        return decodeValidated(data, offset, length);
+    }
+
+    /**
+     * Decode UTF-8 encoded data which has already been validated by {@link Utf8Validator}.
+     *
+     * @param data   validated data.
+     * @param offset offset of the first byte.
+     * @param length number of bytes.
+     * @return decoded string.
+     */
+    public static String decodeValidated(byte[] data, int offset, int length) {
+        return new String(data, offset, length, UTF_8);
+    }
+
+    /**
+     * Encode a string using strict UTF-8 encoding.
+     *
+     * @param string string to be encoded, can be {@code null}.
+     * @return encoded string, empty array for {@code null}.
+     * @throws IllegalArgumentException when the string contains an unpaired surrogate.
+     */
+    public static byte[] encode(String string) {
+        if (string == null || string.isEmpty()) {
+            return EMPTY_BYTES;
+        }
+
+        if (isWellFormed(string)) {
+            return string.getBytes(UTF_8);
+        }
+
+        return encodeStrict(string);
+    }
+
+    /**
+     * Encode a string using UTF-8, replacing unpaired surrogates with {@code '?'} like {@link String#getBytes}.
+     * <p>
+     * Used for data which can come from anywhere and must be sent even if it is not well-formed, such as close reasons
+     * created from exception messages.
+     *
+     * @param string string to be encoded, can be {@code null}.
+     * @return encoded string, empty array for {@code null}.
+     */
+    public static byte[] encodeReplacing(String string) {
+        if (string == null || string.isEmpty()) {
+            return EMPTY_BYTES;
+        }
+
+        return string.getBytes(UTF_8);
+    }
+
+    /**
+     * Check that every surrogate in the string is a part of a surrogate pair.
+     */
+    private static boolean isWellFormed(String string) {
+        final int length = string.length();
+        for (int i = 0; i < length; i++) {
+            final char c = string.charAt(i);
+            if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(string.charAt(i + 1))) {
+                    i++;
+                } else {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static byte[] encodeStrict(String string) {
+        CharsetEncoder ce = new StrictUtf8().newEncoder();
+        int en = scale(string.length(), ce.maxBytesPerChar());
+        byte[] ba = new byte[en];
+
+        ce.reset();
+        ByteBuffer bb = ByteBuffer.wrap(ba);
+        CharBuffer cb = CharBuffer.wrap(string);
+        try {
+            CoderResult cr = ce.encode(cb, bb, true);
+            if (!cr.isUnderflow()) {
+                cr.throwException();
+            }
+            cr = ce.flush(bb);
+            if (!cr.isUnderflow()) {
+                cr.throwException();
+            }
+        } catch (CharacterCodingException x) {
+            throw new IllegalArgumentException("String is not well-formed UTF-16.", x);
+        }
+        return safeTrim(ba, bb.position());
+    }
+
+    private static int scale(int len, float expansionFactor) {
+        // We need to perform double, not float, arithmetic; otherwise
+        // we lose low order bits when len is larger than 2**24.
+        return (int) (len * (double) expansionFactor);
+    }
+
+    // Trim the given byte array to the given length
+    private static byte[] safeTrim(byte[] ba, int len) {
+        if (len == ba.length && (System.getSecurityManager() == null)) {
+            return ba;
+        } else {
+            final byte[] copy = new byte[len];
+            System.arraycopy(ba, 0, copy, 0, len);
+            return copy;
+        }
+    }
+}
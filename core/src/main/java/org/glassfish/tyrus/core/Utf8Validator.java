@@ -0,0 +1,194 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+/**
+ * Strict UTF-8 validation of data received in (possibly) several frames.
+ * <p>
+ * Accepts the same byte sequences as {@link StrictUtf8}; overlong encodings, surrogates and code points above
+ * U+10FFFF are rejected. Validated data can be decoded by any UTF-8 decoder with the same result.
+ * <p>
+ * Validation is driven by a deterministic finite automaton (based on the decoder by Bjoern Hoehrmann), which maps
+ * every byte to a character class and the class together with the current state to the next state, so it needs just
+ * two table lookups per byte and the state can be carried from one frame to the next one. Runs of ASCII characters
+ * are skipped eight bytes at a time.
+ */
+public final class Utf8Validator {
+
+    /**
+     * State of the automaton on a character boundary; initial state.
+     */
+    public static final int ACCEPT = 0;
+
+    private static final int REJECT = 12;
+
+    private static final byte[] CHARACTER_CLASSES = new byte[256];
+
+    /**
+     * Next state indexed by current state (multiple of 12) plus character class.
+     */
+    private static final byte[] TRANSITIONS = {
+            0, 12, 24, 36, 60, 96, 84, 12, 12, 12, 48, 72,
+            12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12,
+            12, 0, 12, 12, 12, 12, 12, 0, 12, 0, 12, 12,
+            12, 24, 12, 12, 12, 12, 12, 24, 12, 24, 12, 12,
+            12, 12, 12, 12, 12, 12, 12, 24, 12, 12, 12, 12,
+            12, 24, 12, 12, 12, 12, 12, 12, 12, 24, 12, 12,
+            12, 12, 12, 12, 12, 12, 12, 36, 12, 36, 12, 12,
+            12, 36, 12, 12, 12, 12, 12, 36, 12, 36, 12, 12,
+            12, 36, 12, 12, 12, 12, 12, 12, 12, 12, 12, 12
+    };
+
+    static {
+        // 00..7F: 0 (ASCII)
+        fill(0x80, 0x8F, 1);
+        fill(0x90, 0x9F, 9);
+        fill(0xA0, 0xBF, 7);
+        // C0, C1: overlong two byte sequences
+        fill(0xC0, 0xC1, 8);
+        fill(0xC2, 0xDF, 2);
+        fill(0xE0, 0xE0, 10);
+        fill(0xE1, 0xEC, 3);
+        // ED: second byte limited to exclude surrogates
+        fill(0xED, 0xED, 4);
+        fill(0xEE, 0xEF, 3);
+        fill(0xF0, 0xF0, 11);
+        fill(0xF1, 0xF3, 6);
+        fill(0xF4, 0xF4, 5);
+        // F5..FF: above U+10FFFF
+        fill(0xF5, 0xFF, 8);
+    }
+
+    private Utf8Validator() {
+    }
+
+    /**
+     * Validate UTF-8 encoded data.
+     * <p>
+     * The data does not need to end on a character boundary; an incomplete, but so far valid, sequence at the end of
+     * the range is reported by the returned value, so it can be validated again together with the data which follows.
+     *
+     * @param data   data to be validated.
+     * @param offset offset of the first byte to be validated.
+     * @param length number of bytes to be validated.
+     * @return number of bytes at the end of the range forming an incomplete sequence, {@code 0} if the range ends on a
+     * character boundary.
+     * @throws Utf8DecodingException when the data is not valid UTF-8.
+     */
+    public static int validate(byte[] data, int offset, int length) {
+        final int end = offset + length;
+        int state = ACCEPT;
+        int boundary = offset;
+        int i = offset;
+
+        while (i < end) {
+            if (state == ACCEPT) {
+                i = skipAscii(data, i, end);
+                boundary = i;
+                if (i == end) {
+                    break;
+                }
+            }
+
+            state = TRANSITIONS[state + CHARACTER_CLASSES[data[i] & 0xFF]];
+            if (state == REJECT) {
+                throw new Utf8DecodingException();
+            }
+            i++;
+        }
+
+        return state == ACCEPT ? 0 : end - boundary;
+    }
+
+    /**
+     * Validate next part of UTF-8 encoded data, continuing from the state returned for the previous part.
+     *
+     * @param state  state returned for the previous part or {@link #ACCEPT} for the first part.
+     * @param data   data to be validated.
+     * @param offset offset of the first byte to be validated.
+     * @param length number of bytes to be validated.
+     * @return state of the validation, {@link #ACCEPT} if the data ends on a character boundary.
+     * @throws Utf8DecodingException when the data is not valid UTF-8.
+     */
+    public static int validate(int state, byte[] data, int offset, int length) {
+        final int end = offset + length;
+        int i = offset;
+
+        while (i < end) {
+            if (state == ACCEPT) {
+                i = skipAscii(data, i, end);
+                if (i == end) {
+                    break;
+                }
+            }
+
+            state = TRANSITIONS[state + CHARACTER_CLASSES[data[i] & 0xFF]];
+            if (state == REJECT) {
+                throw new Utf8DecodingException();
+            }
+            i++;
+        }
+
+        return state;
+    }
+
+    /**
+     * Skip ASCII characters.
+     *
+     * @return index of the first non-ASCII byte or {@code end}.
+     */
+    private static int skipAscii(byte[] data, int i, int end) {
+        while (i + 8 <= end && ((data[i] | data[i + 1] | data[i + 2] | data[i + 3]
+                | data[i + 4] | data[i + 5] | data[i + 6] | data[i + 7]) & 0x80) == 0) {
+            i += 8;
+        }
+        while (i < end && data[i] >= 0) {
+            i++;
+        }
+        return i;
+    }
+
+    private static void fill(int from, int to, int characterClass) {
+        for (int i = from; i <= to; i++) {
+            CHARACTER_CLASSES[i] = (byte) characterClass;
+        }
+    }
+}
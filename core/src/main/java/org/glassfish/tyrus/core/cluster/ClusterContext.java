@@ -42,15 +42,24 @@ package org.glassfish.tyrus.core.cluster;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import javax.websocket.CloseReason;
 import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+
+import org.glassfish.tyrus.core.Beta;
 
 /**
  * Cluster related context.
  * <p>
  * There is exactly one instance per cluster node and all communication is realized using this instance.
+ * <p>
+ * Messages sent to the same session have to be delivered in the order in which the send methods were invoked,
+ * regardless of whether the sender waits for the result. Callers rely on this to pipeline sends, i.e. to send the
+ * next part of a message before the previous one is acknowledged, so implementations are free to coalesce messages
+ * going to the same node as long as the order is kept.
  *
  * @author Pavel Bucek (pavel.bucek at oracle.com)
  */
@@ -154,6 +163,40 @@ public abstract class ClusterContext {
      */
     public abstract void sendBinary(String sessionId, byte[] data, SendHandler sendHandler);
 
+    /**
+     * Send partial text message with {@link javax.websocket.SendHandler}.
+     * <p>
+     * Default implementation uses {@link #sendText(String, String, boolean)} and waits for the result in the calling
+     * thread; implementations should override it to report the result asynchronously.
+     *
+     * @param sessionId   remote session id.
+     * @param text        text to be sent.
+     * @param isLast      {@code true} when the partial message being sent is the last part of the message.
+     * @param sendHandler sendhandler instance on which
+     *                    {@link javax.websocket.SendHandler#onResult(javax.websocket.SendResult)} will be invoked.
+     */
+    @Beta
+    public void sendText(String sessionId, String text, boolean isLast, SendHandler sendHandler) {
+        notifyHandler(sendText(sessionId, text, isLast), sendHandler);
+    }
+
+    /**
+     * Send partial binary message with {@link javax.websocket.SendHandler}.
+     * <p>
+     * Default implementation uses {@link #sendBinary(String, byte[], boolean)} and waits for the result in the
+     * calling thread; implementations should override it to report the result asynchronously.
+     *
+     * @param sessionId   remote session id.
+     * @param data        data to be sent.
+     * @param isLast      {@code true} when the partial message being sent is the last part of the message.
+     * @param sendHandler sendhandler instance on which
+     *                    {@link javax.websocket.SendHandler#onResult(javax.websocket.SendResult)} will be invoked.
+     */
+    @Beta
+    public void sendBinary(String sessionId, byte[] data, boolean isLast, SendHandler sendHandler) {
+        notifyHandler(sendBinary(sessionId, data, isLast), sendHandler);
+    }
+
     /**
      * Broadcast text message.
      *
@@ -170,6 +213,42 @@ public abstract class ClusterContext {
      */
     public abstract void broadcastBinary(String endpointPath, byte[] data);
 
+    /**
+     * Broadcast text message to members of a session group on all nodes.
+     * <p>
+     * Implementations supporting group broadcast deliver the message to
+     * {@link GroupBroadcastListener#onBroadcast(String, String)} of all listeners registered for the endpoint path
+     * (including the one on this node) and return {@code true}. Default implementation does not support group
+     * broadcast and returns {@code false}, in which case the message is delivered only to members connected to this
+     * node.
+     *
+     * @param endpointPath endpoint path identifying sessions alignment to the endpoint.
+     * @param group        name of the group.
+     * @param text         message to be broadcasted.
+     * @return {@code true} if the message was propagated to the cluster.
+     */
+    public boolean broadcastText(String endpointPath, String group, String text) {
+        return false;
+    }
+
+    /**
+     * Broadcast binary message to members of a session group on all nodes.
+     * <p>
+     * Implementations supporting group broadcast deliver the message to
+     * {@link GroupBroadcastListener#onBroadcast(String, byte[])} of all listeners registered for the endpoint path
+     * (including the one on this node) and return {@code true}. Default implementation does not support group
+     * broadcast and returns {@code false}, in which case the message is delivered only to members connected to this
+     * node.
+     *
+     * @param endpointPath endpoint path identifying sessions alignment to the endpoint.
+     * @param group        name of the group.
+     * @param data         data to be broadcasted.
+     * @return {@code true} if the message was propagated to the cluster.
+     */
+    public boolean broadcastBinary(String endpointPath, String group, byte[] data) {
+        return false;
+    }
+
     /**
      * Get information about session state.
      *
@@ -311,4 +390,16 @@ public abstract class ClusterContext {
      * is invoked.
      */
     public abstract void shutdown();
+
+    private static void notifyHandler(Future<Void> future, SendHandler sendHandler) {
+        try {
+            future.get();
+            sendHandler.onResult(new SendResult());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendHandler.onResult(new SendResult(e));
+        } catch (ExecutionException e) {
+            sendHandler.onResult(new SendResult(e.getCause()));
+        }
+    }
 }
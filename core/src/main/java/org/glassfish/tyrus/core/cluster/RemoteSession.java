@@ -332,6 +332,8 @@ public class RemoteSession implements Session, DistributedSession {
             @Override
             public OutputStream getSendStream() throws IOException {
                 return new OutputStream() {
+                    private final PartialSendTracker tracker = new PartialSendTracker();
+
                     @Override
                     public void write(byte b[], int off, int len) throws IOException {
                         if (b == null) {
@@ -346,18 +348,9 @@ public class RemoteSession implements Session, DistributedSession {
                         byte[] toSend = new byte[len];
                         System.arraycopy(b, off, toSend, 0, len);
 
-                        final Future<?> future = clusterContext.sendBinary(sessionId, toSend, false);
-                        try {
-                            future.get();
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                        } catch (ExecutionException e) {
-                            if (e.getCause() instanceof IOException) {
-                                throw (IOException) e.getCause();
-                            } else {
-                                throw new IOException(e.getCause());
-                            }
-                        }
+                        // parts are pipelined, failure of a previous part is reported by the next write.
+                        tracker.checkFailure();
+                        clusterContext.sendBinary(sessionId, toSend, false, tracker.sent());
                     }
 
                     @Override
@@ -369,12 +362,14 @@ public class RemoteSession implements Session, DistributedSession {
 
                     @Override
                     public void flush() throws IOException {
-                        // do nothing.
+                        tracker.await();
                     }
 
                     @Override
                     public void close() throws IOException {
-                        clusterContext.sendBinary(sessionId, new byte[]{}, true);
+                        tracker.checkFailure();
+                        clusterContext.sendBinary(sessionId, new byte[]{}, true, tracker.sent());
+                        tracker.await();
                     }
                 };
             }
@@ -382,10 +377,12 @@ public class RemoteSession implements Session, DistributedSession {
             @Override
             public Writer getSendWriter() throws IOException {
                 return new Writer() {
+                    private final PartialSendTracker tracker = new PartialSendTracker();
                     private String buffer = null;
 
-                    private void sendBuffer(boolean last) {
-                        clusterContext.sendText(sessionId, buffer, last);
+                    private void sendBuffer(boolean last) throws IOException {
+                        tracker.checkFailure();
+                        clusterContext.sendText(sessionId, buffer == null ? "" : buffer, last, tracker.sent());
                     }
 
                     @Override
@@ -399,13 +396,17 @@ public class RemoteSession implements Session, DistributedSession {
 
                     @Override
                     public void flush() throws IOException {
-                        this.sendBuffer(false);
-                        buffer = null;
+                        if (buffer != null) {
+                            this.sendBuffer(false);
+                            buffer = null;
+                        }
+                        tracker.await();
                     }
 
                     @Override
                     public void close() throws IOException {
                         this.sendBuffer(true);
+                        tracker.await();
                     }
                 };
             }
@@ -950,4 +951,75 @@ public class RemoteSession implements Session, DistributedSession {
     public Set<Session> getOpenSessions() {
         throw new UnsupportedOperationException();
     }
+
+    /**
+     * Tracks parts of a message sent without waiting for the acknowledgement of the previous part.
+     * <p>
+     * Number of unacknowledged parts is limited, {@link #sent()} blocks when the limit is reached.
+     */
+    private static final class PartialSendTracker implements SendHandler {
+
+        private static final int MAX_IN_FLIGHT = 64;
+
+        private int inFlight = 0;
+        private Throwable failure = null;
+
+        /**
+         * Register a part being sent.
+         *
+         * @return handler to be notified about the result of the send.
+         * @throws IOException when waiting for acknowledgements of previous parts was interrupted or timed out.
+         */
+        synchronized SendHandler sent() throws IOException {
+            waitFor(MAX_IN_FLIGHT - 1);
+            inFlight++;
+            return this;
+        }
+
+        @Override
+        public synchronized void onResult(SendResult result) {
+            inFlight--;
+            if (!result.isOK() && failure == null) {
+                failure = result.getException();
+            }
+            notifyAll();
+        }
+
+        /**
+         * Throw failure of a previously sent part, if any.
+         *
+         * @throws IOException failure of a previously sent part.
+         */
+        synchronized void checkFailure() throws IOException {
+            if (failure != null) {
+                throw failure instanceof IOException ? (IOException) failure : new IOException(failure);
+            }
+        }
+
+        /**
+         * Wait until all sent parts are acknowledged.
+         *
+         * @throws IOException when any of the parts failed or the acknowledgement did not arrive in time.
+         */
+        synchronized void await() throws IOException {
+            waitFor(0);
+            checkFailure();
+        }
+
+        private void waitFor(int maxInFlight) throws IOException {
+            final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(SYNC_SEND_TIMEOUT);
+            while (inFlight > maxInFlight && failure == null) {
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new IOException(new TimeoutException());
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+        }
+    }
 }
@@ -40,19 +40,12 @@
 
 package org.glassfish.tyrus.core.frame;
 
-import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
-import java.nio.charset.Charset;
-import java.nio.charset.CharsetDecoder;
-import java.nio.charset.CoderResult;
-
 import javax.websocket.CloseReason;
 
 import org.glassfish.tyrus.core.CloseReasons;
 import org.glassfish.tyrus.core.ProtocolException;
-import org.glassfish.tyrus.core.StrictUtf8;
 import org.glassfish.tyrus.core.TyrusWebSocket;
-import org.glassfish.tyrus.core.Utf8DecodingException;
+import org.glassfish.tyrus.core.Utf8Codec;
 import org.glassfish.tyrus.core.Utils;
 
 /**
@@ -100,7 +93,7 @@ public class CloseFrame extends TyrusFrame {
                 throw new ProtocolException("Illegal status code: " + closeCode);
             }
             if (data.length > 2) {
-                closeReasonString = utf8Decode(data);
+                closeReasonString = Utf8Codec.decode(data, 2, data.length - 2);
             } else {
                 closeReasonString = null;
             }
@@ -136,43 +129,14 @@ public class CloseFrame extends TyrusFrame {
         socket.close();
     }
 
-    private String utf8Decode(byte[] data) {
-        String reason;
-        final ByteBuffer b = ByteBuffer.wrap(data, 2, data.length - 2);
-        Charset charset = new StrictUtf8();
-        final CharsetDecoder decoder = charset.newDecoder();
-        int n = (int) (b.remaining() * decoder.averageCharsPerByte());
-        CharBuffer cb = CharBuffer.allocate(n);
-        while (true) {
-            CoderResult result = decoder.decode(b, cb, true);
-            if (result.isUnderflow()) {
-                decoder.flush(cb);
-                cb.flip();
-                reason = cb.toString();
-                break;
-            }
-            if (result.isOverflow()) {
-                CharBuffer tmp = CharBuffer.allocate(2 * n + 1);
-                cb.flip();
-                tmp.put(cb);
-                cb = tmp;
-                continue;
-            }
-            if (result.isError() || result.isMalformed()) {
-                throw new Utf8DecodingException();
-            }
-        }
-
-        return reason;
-    }
-
     private static byte[] getPayload(int closeCode, String closeReason) {
         if (closeCode == -1) {
             return EMPTY_BYTES;
         }
 
         final byte[] bytes = Utils.toArray(closeCode);
-        final byte[] reasonBytes = closeReason == null ? EMPTY_BYTES : closeReason.getBytes(new StrictUtf8());
+        // unpaired surrogates are replaced, the close must not fail because of the reason
+        final byte[] reasonBytes = Utf8Codec.encodeReplacing(closeReason);
         final byte[] frameBytes = new byte[2 + reasonBytes.length];
         System.arraycopy(bytes, bytes.length - 2, frameBytes, 0, 2);
         System.arraycopy(reasonBytes, 0, frameBytes, 2, reasonBytes.length);
@@ -41,16 +41,11 @@
 package org.glassfish.tyrus.core.frame;
 
 import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
-import java.nio.charset.Charset;
-import java.nio.charset.CharsetDecoder;
-import java.nio.charset.CharsetEncoder;
-import java.nio.charset.CoderResult;
 
-import org.glassfish.tyrus.core.StrictUtf8;
 import org.glassfish.tyrus.core.TyrusWebSocket;
+import org.glassfish.tyrus.core.Utf8Codec;
 import org.glassfish.tyrus.core.Utf8DecodingException;
+import org.glassfish.tyrus.core.Utf8Validator;
 
 /**
  * Text frame representation.
@@ -59,12 +54,13 @@ import org.glassfish.tyrus.core.Utf8DecodingException;
  */
 public class TextFrame extends TyrusFrame {
 
-    private final Charset utf8 = new StrictUtf8();
-    private final CharsetDecoder currentDecoder = utf8.newDecoder();
-    private final String textPayload;
     private final boolean continuation;
 
+    private volatile String textPayload;
     private ByteBuffer remainder;
+    // validated data to be decoded, includes the remainder of the previous frame
+    private byte[] decodable;
+    private int decodableLength;
 
     /**
      * Constructor.
@@ -74,7 +70,7 @@ public class TextFrame extends TyrusFrame {
      */
     public TextFrame(Frame frame, ByteBuffer remainder) {
         super(frame, FrameType.TEXT);
-        this.textPayload = utf8Decode(isFin(), getPayloadData(), remainder);
+        utf8Validate(isFin(), getPayloadData(), remainder);
         this.continuation = false;
     }
 
@@ -87,7 +83,7 @@ public class TextFrame extends TyrusFrame {
      */
     public TextFrame(Frame frame, ByteBuffer remainder, boolean continuation) {
         super(frame, continuation ? FrameType.TEXT_CONTINUATION : FrameType.TEXT);
-        this.textPayload = utf8Decode(isFin(), getPayloadData(), remainder);
+        utf8Validate(isFin(), getPayloadData(), remainder);
         this.continuation = continuation;
     }
 
@@ -101,7 +97,7 @@ public class TextFrame extends TyrusFrame {
      */
     public TextFrame(String message, boolean continuation, boolean fin) {
         super(Frame.builder()
-                   .payloadData(encode(new StrictUtf8(), message))
+                   .payloadData(Utf8Codec.encode(message))
                    .opcode(continuation ? (byte) 0x00 : (byte) 0x01)
                    .fin(fin)
                    .build(), continuation ? FrameType.TEXT_CONTINUATION : FrameType.TEXT);
@@ -111,11 +107,36 @@ public class TextFrame extends TyrusFrame {
 
     /**
      * Get text payload.
+     * <p>
+     * Payload of a received frame is validated when the frame is created, but it is decoded when this method is
+     * invoked for the first time, so frames which are aggregated on byte level (see {@link #getPayloadData()}) are
+     * never decoded.
      *
      * @return text payload.
      */
     public String getTextPayload() {
-        return textPayload;
+        String payload = textPayload;
+        if (payload == null) {
+            payload = Utf8Codec.decodeValidated(decodable, 0, decodableLength);
+            textPayload = payload;
+        }
+        return payload;
+    }
+
+    /**
+     * Get UTF-8 encoded payload which has been validated and is decoded by {@link #getTextPayload()}.
+     * <p>
+     * The payload starts with the remainder of the previous frame and does not contain the remainder of this frame
+     * (see {@link #getRemainder()}), so it always ends on a character boundary. Concatenated payloads of all frames of
+     * a message form the whole encoded message.
+     *
+     * @return read-only buffer with validated UTF-8 encoded payload.
+     */
+    public ByteBuffer getUtf8Payload() {
+        if (decodable == null) {
+            return ByteBuffer.wrap(getPayloadData()).asReadOnlyBuffer();
+        }
+        return ByteBuffer.wrap(decodable, 0, decodableLength).asReadOnlyBuffer();
     }
 
     /**
@@ -144,115 +165,44 @@ public class TextFrame extends TyrusFrame {
 
     }
 
-    private String utf8Decode(boolean finalFragment, byte[] data, ByteBuffer remainder) {
-        final ByteBuffer b = getByteBuffer(data, remainder);
-        int n = (int) (b.remaining() * currentDecoder.averageCharsPerByte());
-        CharBuffer cb = CharBuffer.allocate(n);
-        String res;
-        while (true) {
-            CoderResult result = currentDecoder.decode(b, cb, finalFragment);
-            if (result.isUnderflow()) {
-                if (finalFragment) {
-                    currentDecoder.flush(cb);
-                    if (b.hasRemaining()) {
-                        throw new IllegalStateException(
-                                "Final UTF-8 fragment received, but not all bytes consumed by decode process");
-                    }
-                    currentDecoder.reset();
-                } else {
-                    if (b.hasRemaining()) {
-                        this.remainder = b;
-                    }
-                }
-                cb.flip();
-                res = cb.toString();
-                break;
-            }
-            if (result.isOverflow()) {
-                CharBuffer tmp = CharBuffer.allocate(2 * n + 1);
-                cb.flip();
-                tmp.put(cb);
-                cb = tmp;
-                continue;
-            }
-            if (result.isError() || result.isMalformed()) {
+    /**
+     * Validate payload of the frame, preceded by the UTF-8 remainder of the previous frame.
+     *
+     * @param finalFragment {@code true} if this is the last frame of the message.
+     * @param data          payload of the frame.
+     * @param remainder     UTF-8 remainder of the previous frame or {@code null}.
+     */
+    private void utf8Validate(boolean finalFragment, byte[] data, ByteBuffer remainder) {
+        final byte[] b = getBytes(data, remainder);
+        final int incomplete = Utf8Validator.validate(b, 0, b.length);
+        if (incomplete > 0) {
+            if (finalFragment) {
                 throw new Utf8DecodingException();
             }
+            this.remainder = ByteBuffer.wrap(b, b.length - incomplete, incomplete);
         }
 
-        return res;
+        this.decodable = b;
+        this.decodableLength = b.length - incomplete;
     }
 
-    private ByteBuffer getByteBuffer(final byte[] data, ByteBuffer remainder) {
+    private static byte[] getBytes(final byte[] data, ByteBuffer remainder) {
         if (remainder == null) {
-            return ByteBuffer.wrap(data);
+            return data;
         } else {
             final int rem = remainder.remaining();
             final byte[] orig = remainder.array();
             byte[] b = new byte[rem + data.length];
             System.arraycopy(orig, orig.length - rem, b, 0, rem);
             System.arraycopy(data, 0, b, rem, data.length);
-            return ByteBuffer.wrap(b);
+            return b;
         }
     }
 
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder(super.toString());
-        sb.append(", textPayload='").append(textPayload).append('\'');
+        sb.append(", textPayload='").append(getTextPayload()).append('\'');
         return sb.toString();
     }
-
-    private static byte[] encode(Charset charset, String string) {
-        if (string == null || string.isEmpty()) {
-            return new byte[0];
-        }
-
-        CharsetEncoder ce = charset.newEncoder();
-        int en = scale(string.length(), ce.maxBytesPerChar());
-        byte[] ba = new byte[en];
-        if (string.length() == 0) {
-            return ba;
-        }
-
-        ce.reset();
-        ByteBuffer bb = ByteBuffer.wrap(ba);
-        CharBuffer cb = CharBuffer.wrap(string);
-        try {
-            CoderResult cr = ce.encode(cb, bb, true);
-            if (!cr.isUnderflow()) {
-                cr.throwException();
-            }
-            cr = ce.flush(bb);
-            if (!cr.isUnderflow()) {
-                cr.throwException();
-            }
-        } catch (CharacterCodingException x) {
-            // Substitution is always enabled,
-            // so this shouldn't happen
-            throw new Error(x);
-        }
-        return safeTrim(ba, bb.position());
-    }
-
-    private static int scale(int len, float expansionFactor) {
-        // We need to perform double, not float, arithmetic; otherwise
-        // we lose low order bits when len is larger than 2**24.
-        return (int) (len * (double) expansionFactor);
-    }
-
-    // Trim the given byte array to the given length
-    private static byte[] safeTrim(byte[] ba, int len) {
-        if (len == ba.length && (System.getSecurityManager() == null)) {
-            return ba;
-        } else {
-            return copyOf(ba, len);
-        }
-    }
-
-    private static byte[] copyOf(byte[] original, int newLength) {
-        byte[] copy = new byte[newLength];
-        System.arraycopy(original, 0, copy, 0, Math.min(original.length, newLength));
-        return copy;
-    }
 }
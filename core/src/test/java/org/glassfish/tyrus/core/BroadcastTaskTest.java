@@ -0,0 +1,121 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link TyrusEndpointWrapper.BroadcastTask}.
+ */
+public class BroadcastTaskTest {
+
+    private static final int ENTRY_COUNT = 10000;
+
+    @Test
+    public void testFailingSubtask() throws InterruptedException {
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final Map<Integer, Integer> entries = new ConcurrentHashMap<Integer, Integer>();
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                entries.put(i, i);
+            }
+
+            final AtomicInteger executed = new AtomicInteger();
+            final AtomicInteger notifications = new AtomicInteger();
+            final AtomicInteger executedWhenNotified = new AtomicInteger(-1);
+            final AtomicInteger processedWhenNotified = new AtomicInteger(-1);
+            final CountDownLatch notified = new CountDownLatch(1);
+
+            final TyrusEndpointWrapper.BroadcastTask.Action<Integer, Integer> action =
+                    new TyrusEndpointWrapper.BroadcastTask.Action<Integer, Integer>() {
+                        @Override
+                        public boolean execute(Integer key, Integer value) {
+                            if (value % 100 == 0) {
+                                executed.incrementAndGet();
+                                throw new IllegalStateException("Failing entry " + value);
+                            }
+                            if (value % 1000 == 1) {
+                                // let the siblings of the failed tasks run for a while
+                                try {
+                                    Thread.sleep(10);
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                            }
+                            executed.incrementAndGet();
+                            return true;
+                        }
+                    };
+
+            final TyrusEndpointWrapper.BroadcastTask.Listener listener =
+                    new TyrusEndpointWrapper.BroadcastTask.Listener() {
+                        @Override
+                        public void onComplete(long elapsedNanos, int processed) {
+                            executedWhenNotified.set(executed.get());
+                            processedWhenNotified.set(processed);
+                            notifications.incrementAndGet();
+                            notified.countDown();
+                        }
+                    };
+
+            pool.execute(new TyrusEndpointWrapper.BroadcastTask<Integer, Integer>(entries, 4, action, listener));
+
+            assertTrue(notified.await(10, TimeUnit.SECONDS));
+            // give a potential second notification a chance to arrive
+            Thread.sleep(200);
+
+            assertEquals(1, notifications.get());
+            assertEquals(ENTRY_COUNT, executedWhenNotified.get());
+            assertEquals(ENTRY_COUNT - ENTRY_COUNT / 100, processedWhenNotified.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
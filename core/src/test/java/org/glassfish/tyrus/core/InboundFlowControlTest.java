@@ -0,0 +1,141 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link InboundFlowControl}.
+ */
+public class InboundFlowControlTest {
+
+    @Test
+    public void testReasons() {
+        final AtomicInteger suspended = new AtomicInteger();
+        final AtomicInteger resumed = new AtomicInteger();
+        final InboundFlowControl flowControl = new InboundFlowControl(new SessionDispatcherTest.TestWriter(true) {
+            @Override
+            public boolean suspendReading() {
+                suspended.incrementAndGet();
+                return true;
+            }
+
+            @Override
+            public void resumeReading() {
+                resumed.incrementAndGet();
+            }
+        });
+
+        assertTrue(flowControl.suspend(InboundFlowControl.APPLICATION));
+        assertTrue(flowControl.suspend(InboundFlowControl.DISPATCH_BACKLOG));
+        assertEquals(1, suspended.get());
+        assertTrue(flowControl.isSuspended(InboundFlowControl.APPLICATION));
+
+        flowControl.resume(InboundFlowControl.APPLICATION);
+        assertFalse(flowControl.isSuspended(InboundFlowControl.APPLICATION));
+        assertEquals(0, resumed.get());
+
+        // resuming a reason which is not set has no effect.
+        flowControl.resume(InboundFlowControl.APPLICATION);
+        assertEquals(0, resumed.get());
+
+        flowControl.resume(InboundFlowControl.DISPATCH_BACKLOG);
+        assertEquals(1, resumed.get());
+        assertFalse(flowControl.isSuspended(InboundFlowControl.DISPATCH_BACKLOG));
+    }
+
+    @Test
+    public void testTransportCalledWithoutLock() {
+        final InboundFlowControl[] flowControl = new InboundFlowControl[1];
+        final AtomicInteger suspended = new AtomicInteger();
+        final AtomicInteger resumed = new AtomicInteger();
+        flowControl[0] = new InboundFlowControl(new SessionDispatcherTest.TestWriter(true) {
+            @Override
+            public boolean suspendReading() {
+                assertFalse(Thread.holdsLock(flowControl[0]));
+                suspended.incrementAndGet();
+                return true;
+            }
+
+            @Override
+            public void resumeReading() {
+                assertFalse(Thread.holdsLock(flowControl[0]));
+                resumed.incrementAndGet();
+                // resumed transport delivers data which fills the dispatcher queue again.
+                if (resumed.get() == 1) {
+                    flowControl[0].suspend(InboundFlowControl.DISPATCH_BACKLOG);
+                }
+            }
+        });
+
+        assertTrue(flowControl[0].suspend(InboundFlowControl.APPLICATION));
+        flowControl[0].resume(InboundFlowControl.APPLICATION);
+
+        assertEquals(1, resumed.get());
+        assertEquals(2, suspended.get());
+        assertTrue(flowControl[0].isSuspended(InboundFlowControl.DISPATCH_BACKLOG));
+
+        flowControl[0].resume(InboundFlowControl.DISPATCH_BACKLOG);
+        assertEquals(2, resumed.get());
+    }
+
+    @Test
+    public void testUnsupported() {
+        final AtomicInteger attempts = new AtomicInteger();
+        final InboundFlowControl flowControl = new InboundFlowControl(new SessionDispatcherTest.TestWriter(false) {
+            @Override
+            public boolean suspendReading() {
+                attempts.incrementAndGet();
+                return false;
+            }
+        });
+
+        assertFalse(flowControl.suspend(InboundFlowControl.APPLICATION));
+        assertFalse(flowControl.suspend(InboundFlowControl.DISPATCH_BACKLOG));
+        assertFalse(flowControl.isSuspended(InboundFlowControl.APPLICATION));
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.websocket.CloseReason;
+
+import org.glassfish.tyrus.core.frame.CloseFrame;
+import org.glassfish.tyrus.core.frame.Frame;
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Writer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests parsing of frames split between multiple buffers and writing frames as multiple buffers.
+ */
+public class ProtocolHandlerTest {
+
+    @Test
+    public void testSingleBuffer() {
+        final byte[] payload = payload(300);
+        final ByteBuffer data = framed(true, payload, payload);
+
+        final ProtocolHandler handler = new ProtocolHandler(false, null);
+        assertArrayEquals(payload, handler.unframe(data).getPayloadData());
+        assertArrayEquals(payload, handler.unframe(data).getPayloadData());
+        assertNull(handler.unframe(data));
+        assertFalse(data.hasRemaining());
+    }
+
+    @Test
+    public void testEverySplitPoint() {
+        // covers 7 bit, 16 bit and 64 bit lengths, header straddling the boundary and an empty payload.
+        for (int size : new int[]{0, 10, 125, 126, 300, 70000}) {
+            final byte[] payload = payload(size);
+            for (boolean masked : new boolean[]{true, false}) {
+                final byte[] data = toArray(framed(masked, payload, payload));
+
+                final int step = data.length > 1000 ? 997 : 1;
+                for (int split = 0; split <= data.length; split += step) {
+                    final List<Frame> frames = new ArrayList<Frame>();
+                    final ProtocolHandler handler = new ProtocolHandler(false, null);
+                    unframeAll(handler, ByteBuffer.wrap(data, 0, split), frames);
+                    unframeAll(handler, ByteBuffer.wrap(data, split, data.length - split), frames);
+
+                    assertEquals("size " + size + ", split " + split, 2, frames.size());
+                    assertArrayEquals(payload, frames.get(0).getPayloadData());
+                    assertArrayEquals(payload, frames.get(1).getPayloadData());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testByteByByte() {
+        final byte[] payload = payload(200);
+        final byte[] data = toArray(framed(true, payload));
+
+        final List<Frame> frames = new ArrayList<Frame>();
+        final ProtocolHandler handler = new ProtocolHandler(false, null);
+        for (byte b : data) {
+            unframeAll(handler, ByteBuffer.wrap(new byte[]{b}), frames);
+        }
+
+        assertEquals(1, frames.size());
+        assertArrayEquals(payload, frames.get(0).getPayloadData());
+    }
+
+    @Test
+    public void testPayloadGrowsWithData() {
+        final byte[] payload = payload(200000);
+        final byte[] data = toArray(framed(true, payload));
+
+        final List<Frame> frames = new ArrayList<Frame>();
+        final ProtocolHandler handler = new ProtocolHandler(false, null);
+        for (int offset = 0; offset < data.length; offset += 1000) {
+            unframeAll(handler, ByteBuffer.wrap(data, offset, Math.min(1000, data.length - offset)), frames);
+        }
+
+        assertEquals(1, frames.size());
+        assertArrayEquals(payload, frames.get(0).getPayloadData());
+    }
+
+    @Test
+    public void testHugeDeclaredLength() {
+        // header of a binary frame declaring a payload of almost 2 GB followed by the mask only.
+        final ByteBuffer data = ByteBuffer.allocate(14);
+        data.put((byte) 0x82).put((byte) (0x80 | 127)).putLong(Integer.MAX_VALUE - 16).putInt(0x12345678);
+        data.flip();
+
+        // no payload data has been received, so no payload sized array may be allocated.
+        assertNull(new ProtocolHandler(false, null).unframe(data));
+    }
+
+    @Test
+    public void testMaxPayloadSize() {
+        final ByteBuffer data = framed(true, payload(1000));
+
+        final ProtocolHandler handler = new ProtocolHandler(false, null);
+        try {
+            handler.unframe(data, 999);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        data.rewind();
+        assertEquals(1000, handler.unframe(data, 1000).getPayloadLength());
+    }
+
+    @Test
+    public void testGatheringWrite() {
+        final List<ByteBuffer[]> gathered = new ArrayList<ByteBuffer[]>();
+        final List<ByteBuffer> written = new ArrayList<ByteBuffer>();
+
+        final ProtocolHandler handler = new ProtocolHandler(false, null);
+        handler.setWriter(new Writer() {
+            @Override
+            public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+                written.add(buffer);
+                completionHandler.completed(buffer);
+            }
+
+            @Override
+            public void write(ByteBuffer[] buffers, CompletionHandler<ByteBuffer[]> completionHandler) {
+                gathered.add(buffers);
+                completionHandler.completed(buffers);
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        final byte[] small = payload(10);
+        final byte[] large = payload(5000);
+        handler.send(small);
+        handler.send(large);
+
+        // small frame is written as a single buffer, large one as header + payload.
+        assertEquals(1, written.size());
+        assertEquals(1, gathered.size());
+        assertEquals(2, gathered.get(0).length);
+
+        final ProtocolHandler parser = new ProtocolHandler(false, null);
+        final List<Frame> frames = new ArrayList<Frame>();
+        unframeAll(parser, written.get(0), frames);
+        for (ByteBuffer buffer : gathered.get(0)) {
+            unframeAll(parser, buffer, frames);
+        }
+
+        assertEquals(2, frames.size());
+        assertArrayEquals(small, frames.get(0).getPayloadData());
+        assertArrayEquals(large, frames.get(1).getPayloadData());
+    }
+
+    @Test
+    public void testCloseWithUnpairedSurrogate() {
+        final List<ByteBuffer> written = new ArrayList<ByteBuffer>();
+
+        final ProtocolHandler handler = new ProtocolHandler(false, null);
+        handler.setWriter(new Writer() {
+            @Override
+            public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+                written.add(buffer);
+                completionHandler.completed(buffer);
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        // e.g. a reason created from an exception message
+        handler.send(new CloseFrame(new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "bye \ud83d")));
+
+        assertEquals(1, written.size());
+        final CloseReason closeReason =
+                new CloseFrame(new ProtocolHandler(false, null).unframe(written.get(0))).getCloseReason();
+        assertEquals(CloseReason.CloseCodes.GOING_AWAY, closeReason.getCloseCode());
+        assertEquals("bye ?", closeReason.getReasonPhrase());
+    }
+
+    @Test
+    public void testDefaultGatheringWrite() {
+        final List<ByteBuffer> written = new ArrayList<ByteBuffer>();
+        final Writer writer = new Writer() {
+            @Override
+            public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+                written.add(buffer);
+                completionHandler.completed(buffer);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        final ByteBuffer[] buffers = {ByteBuffer.wrap(new byte[]{1, 2}), ByteBuffer.wrap(new byte[]{3})};
+        final List<ByteBuffer[]> completed = new ArrayList<ByteBuffer[]>();
+        writer.write(buffers, new CompletionHandler<ByteBuffer[]>() {
+            @Override
+            public void completed(ByteBuffer[] result) {
+                completed.add(result);
+            }
+        });
+
+        assertEquals(1, written.size());
+        assertArrayEquals(new byte[]{1, 2, 3}, toArray(written.get(0)));
+        assertEquals(1, completed.size());
+        assertSame(buffers, completed.get(0));
+        // buffers passed by the caller are left untouched
+        assertEquals(0, buffers[0].position());
+        assertEquals(0, buffers[1].position());
+    }
+
+    private static void unframeAll(ProtocolHandler handler, ByteBuffer buffer, List<Frame> frames) {
+        Frame frame;
+        while ((frame = handler.unframe(buffer)) != null) {
+            frames.add(frame);
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    private static ByteBuffer framed(boolean masked, byte[]... payloads) {
+        final ProtocolHandler handler = new ProtocolHandler(masked, new MaskingKeyGenerator() {
+            private int key = 0x12345678;
+
+            @Override
+            public int nextInt() {
+                return key++;
+            }
+        });
+
+        final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+        int size = 0;
+        for (byte[] payload : payloads) {
+            final ByteBuffer buffer = handler.frame(Frame.builder().fin(true).opcode((byte) 0x02)
+                                                         .payloadData(payload).build());
+            buffers.add(buffer);
+            size += buffer.remaining();
+        }
+
+        final ByteBuffer result = ByteBuffer.allocate(size);
+        for (ByteBuffer buffer : buffers) {
+            result.put(buffer);
+        }
+        result.flip();
+        return result;
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static byte[] payload(int size) {
+        final byte[] payload = new byte[size];
+        for (int i = 0; i < size; i++) {
+            payload[i] = (byte) (i * 31);
+        }
+        return payload;
+    }
+}
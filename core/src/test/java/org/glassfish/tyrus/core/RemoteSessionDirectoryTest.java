@@ -0,0 +1,116 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.glassfish.tyrus.core.cluster.RemoteSession;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link RemoteSessionDirectory}.
+ */
+public class RemoteSessionDirectoryTest {
+
+    @Test
+    public void testAddRemove() {
+        final RemoteSessionDirectory directory = new RemoteSessionDirectory();
+        final RemoteSession session = createSession("a");
+
+        assertTrue(directory.add(session));
+        assertFalse(directory.add(createSession("a")));
+        assertEquals(1, directory.size());
+        assertSame(session, directory.get("a"));
+        assertTrue(directory.contains(session));
+        assertFalse(directory.contains(createSession("a")));
+
+        assertSame(session, directory.remove("a"));
+        assertNull(directory.remove("a"));
+        assertEquals(0, directory.size());
+        assertNull(directory.get("a"));
+        assertEquals(2, directory.getVersion());
+    }
+
+    @Test
+    public void testSnapshot() {
+        final RemoteSessionDirectory directory = new RemoteSessionDirectory();
+        directory.add(createSession("a"));
+        directory.add(createSession("b"));
+
+        final RemoteSessionDirectory.Snapshot snapshot = directory.snapshot();
+        assertEquals(2, snapshot.getSessions().size());
+        assertEquals(directory.getVersion(), snapshot.getVersion());
+        // unchanged directory, the snapshot is reused.
+        assertSame(snapshot, directory.snapshot());
+
+        directory.remove("a");
+        final List<RemoteSession> sessions = snapshot.getSessions();
+        assertEquals(2, sessions.size());
+
+        final RemoteSessionDirectory.Snapshot updated = directory.snapshot();
+        assertNotSame(snapshot, updated);
+        assertEquals(1, updated.getSessions().size());
+        assertEquals("b", updated.getSessions().get(0).getId());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotReadOnly() {
+        final RemoteSessionDirectory directory = new RemoteSessionDirectory();
+        directory.add(createSession("a"));
+        directory.snapshot().getSessions().clear();
+    }
+
+    private static RemoteSession createSession(String id) {
+        final Map<RemoteSession.DistributedMapKey, Object> properties =
+                new HashMap<RemoteSession.DistributedMapKey, Object>();
+        properties.put(RemoteSession.DistributedMapKey.CONNECTION_ID, "connection-" + id);
+        return new RemoteSession(id, null, properties, null, null);
+    }
+}
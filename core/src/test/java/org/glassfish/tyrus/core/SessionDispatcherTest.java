@@ -0,0 +1,305 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.glassfish.tyrus.spi.CompletionHandler;
+import org.glassfish.tyrus.spi.Writer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link SessionDispatcher}.
+ */
+public class SessionDispatcherTest {
+
+    @Test
+    public void testOrderAndExclusivity() throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final DispatchStatistics statistics = new DispatchStatistics();
+            final SessionDispatcher dispatcher = new SessionDispatcher(executor, 1000, statistics);
+            final List<Integer> processed = Collections.synchronizedList(new ArrayList<Integer>());
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicBoolean overlap = new AtomicBoolean();
+            final CountDownLatch done = new CountDownLatch(1000);
+            final Thread dispatchingThread = Thread.currentThread();
+            final AtomicBoolean inline = new AtomicBoolean();
+
+            for (int i = 0; i < 1000; i++) {
+                final int index = i;
+                dispatcher.dispatch(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (running.incrementAndGet() != 1) {
+                            overlap.set(true);
+                        }
+                        if (Thread.currentThread() == dispatchingThread) {
+                            inline.set(true);
+                        }
+                        processed.add(index);
+                        running.decrementAndGet();
+                        done.countDown();
+                    }
+                });
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertFalse(overlap.get());
+            assertFalse(inline.get());
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i, (int) processed.get(i));
+            }
+            assertEquals(1000, statistics.getDispatchedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBacklogLimit() throws InterruptedException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final DispatchStatistics statistics = new DispatchStatistics();
+            final SessionDispatcher dispatcher = new SessionDispatcher(executor, 4, statistics);
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch blocked = new CountDownLatch(1);
+            final CountDownLatch dispatched = new CountDownLatch(1);
+
+            final Thread reader = new Thread() {
+                @Override
+                public void run() {
+                    dispatcher.dispatch(new Runnable() {
+                        @Override
+                        public void run() {
+                            blocked.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                // ignore
+                            }
+                        }
+                    });
+                    for (int i = 0; i < 10; i++) {
+                        dispatcher.dispatch(new Runnable() {
+                            @Override
+                            public void run() {
+                            }
+                        });
+                    }
+                    dispatched.countDown();
+                }
+            };
+            reader.start();
+
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            assertFalse(dispatched.await(200, TimeUnit.MILLISECONDS));
+            assertEquals(4, dispatcher.getBacklog());
+
+            release.countDown();
+            assertTrue(dispatched.await(5, TimeUnit.SECONDS));
+            reader.join(5000);
+            assertEquals(4, statistics.getMaxBacklog());
+            assertTrue(statistics.getMaxQueueTime(TimeUnit.MILLISECONDS) >= 100);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFlowControl() throws InterruptedException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final DispatchStatistics statistics = new DispatchStatistics();
+            final SessionDispatcher dispatcher = new SessionDispatcher(executor, 4, statistics);
+            final AtomicInteger suspended = new AtomicInteger();
+            final AtomicInteger resumed = new AtomicInteger();
+            final CountDownLatch resumedLatch = new CountDownLatch(1);
+            dispatcher.setFlowControl(new InboundFlowControl(new TestWriter(true) {
+                @Override
+                public boolean suspendReading() {
+                    suspended.incrementAndGet();
+                    return true;
+                }
+
+                @Override
+                public void resumeReading() {
+                    resumed.incrementAndGet();
+                    resumedLatch.countDown();
+                }
+            }));
+
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch blocked = new CountDownLatch(1);
+            dispatcher.dispatch(new Runnable() {
+                @Override
+                public void run() {
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        // ignore
+                    }
+                }
+            });
+            assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+            // the reading thread is not blocked when the backlog is full, the transport is suspended instead.
+            for (int i = 0; i < 10; i++) {
+                dispatcher.dispatch(new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                });
+            }
+            assertEquals(1, suspended.get());
+            assertEquals(0, resumed.get());
+            assertEquals(1, statistics.getReadSuspensionCount());
+
+            release.countDown();
+            assertTrue(resumedLatch.await(5, TimeUnit.SECONDS));
+            assertEquals(1, resumed.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFlowControlUnsupported() throws InterruptedException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final SessionDispatcher dispatcher = new SessionDispatcher(executor, 4, new DispatchStatistics());
+            dispatcher.setFlowControl(new InboundFlowControl(new TestWriter(false)));
+            final CountDownLatch release = new CountDownLatch(1);
+            final CountDownLatch dispatched = new CountDownLatch(1);
+
+            final Thread reader = new Thread() {
+                @Override
+                public void run() {
+                    dispatcher.dispatch(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                // ignore
+                            }
+                        }
+                    });
+                    for (int i = 0; i < 10; i++) {
+                        dispatcher.dispatch(new Runnable() {
+                            @Override
+                            public void run() {
+                            }
+                        });
+                    }
+                    dispatched.countDown();
+                }
+            };
+            reader.start();
+
+            // falls back to blocking the reading thread.
+            assertFalse(dispatched.await(200, TimeUnit.MILLISECONDS));
+            release.countDown();
+            assertTrue(dispatched.await(5, TimeUnit.SECONDS));
+            reader.join(5000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRejectedExecution() {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+
+        final SessionDispatcher dispatcher = new SessionDispatcher(executor, 4, new DispatchStatistics());
+        final AtomicInteger counter = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(new Runnable() {
+                @Override
+                public void run() {
+                    counter.incrementAndGet();
+                }
+            });
+        }
+
+        assertEquals(10, counter.get());
+        assertEquals(0, dispatcher.getBacklog());
+    }
+
+    static class TestWriter extends Writer {
+
+        private final boolean suspendSupported;
+
+        TestWriter(boolean suspendSupported) {
+            this.suspendSupported = suspendSupported;
+        }
+
+        @Override
+        public void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler) {
+            completionHandler.completed(buffer);
+        }
+
+        @Override
+        public boolean suspendReading() {
+            return suspendSupported;
+        }
+
+        @Override
+        public void close() throws IOException {
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.util.HashMap;
+import java.util.List;
+
+import javax.websocket.CloseReason;
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.EndpointConfig;
+import javax.websocket.Session;
+
+import org.glassfish.tyrus.core.TyrusEndpointWrapper.SessionListener.OnOpenResult;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link SessionLimiter} and {@link TokenBucketAdmissionController}.
+ */
+public class SessionLimiterTest {
+
+    private static final CloseReason CLOSE_REASON = CloseReasons.NORMAL_CLOSURE.getCloseReason();
+
+    private final TyrusEndpointWrapper endpointWrapper;
+
+    public SessionLimiterTest() throws DeploymentException {
+        endpointWrapper = new TyrusEndpointWrapper(TestEndpoint.class, null, ComponentProviderService.create(), null,
+                                                   null, null, null, null, null, null);
+    }
+
+    @Test
+    public void testMaxSessionsPerApp() {
+        SessionLimiter limiter = new SessionLimiter(2, null, null);
+
+        TyrusSession session1 = createSession("a");
+        TyrusSession session2 = createSession("b");
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(session1));
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(session2));
+        assertEquals(OnOpenResult.MAX_SESSIONS_PER_APP_EXCEEDED, limiter.onOpen(createSession("c")));
+
+        limiter.onClose(session1, CLOSE_REASON);
+        assertEquals(1, limiter.getSessionCount());
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("c")));
+    }
+
+    @Test
+    public void testMaxSessionsPerRemoteAddr() {
+        SessionLimiter limiter = new SessionLimiter(3, 2, null);
+
+        TyrusSession session1 = createSession("a");
+        TyrusSession session2 = createSession("a");
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(session1));
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(session2));
+        assertEquals(OnOpenResult.MAX_SESSIONS_PER_REMOTE_ADDR_EXCEEDED, limiter.onOpen(createSession("a")));
+
+        // refused session is not counted for the application
+        assertEquals(2, limiter.getSessionCount());
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("b")));
+
+        limiter.onClose(session1, CLOSE_REASON);
+        limiter.onClose(session2, CLOSE_REASON);
+        assertEquals(0, limiter.getSessionCount("a"));
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("a")));
+        assertEquals(1, limiter.getSessionCount("a"));
+    }
+
+    @Test
+    public void testConcurrentOpenClose() throws InterruptedException {
+        final int threadCount = 8;
+        final int iterations = 10000;
+        final SessionLimiter limiter = new SessionLimiter(threadCount, threadCount, null);
+
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    TyrusSession session = createSession("a");
+                    for (int j = 0; j < iterations; j++) {
+                        if (limiter.onOpen(session) == OnOpenResult.SESSION_ALLOWED) {
+                            limiter.onClose(session, CLOSE_REASON);
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, limiter.getSessionCount());
+        assertEquals(0, limiter.getSessionCount("a"));
+    }
+
+    @Test
+    public void testAdmissionControllerRefusal() {
+        final SessionLimiter limiter = new SessionLimiter(10, 10, new SessionAdmissionController() {
+            @Override
+            public boolean admit(TyrusSession session) {
+                return !"refused".equals(session.getRemoteAddr());
+            }
+
+            @Override
+            public void release(TyrusSession session) {
+            }
+        });
+
+        assertEquals(OnOpenResult.SESSION_REFUSED, limiter.onOpen(createSession("refused")));
+        assertEquals(0, limiter.getSessionCount());
+        assertEquals(0, limiter.getSessionCount("refused"));
+        assertEquals(OnOpenResult.SESSION_ALLOWED, limiter.onOpen(createSession("a")));
+    }
+
+    @Test
+    public void testTokenBucket() {
+        // one token per 1000 seconds - the bucket is not refilled during the test
+        TokenBucketAdmissionController controller = new TokenBucketAdmissionController(0.001, 2);
+
+        assertTrue(controller.admit(createSession("a")));
+        assertTrue(controller.admit(createSession("a")));
+        assertFalse(controller.admit(createSession("a")));
+        assertTrue(controller.admit(createSession("b")));
+    }
+
+    @Test
+    public void testTokenBucketRefill() throws InterruptedException {
+        TokenBucketAdmissionController controller = new TokenBucketAdmissionController(100, 1);
+
+        assertTrue(controller.admit(createSession("a")));
+        Thread.sleep(50);
+        assertTrue(controller.admit(createSession("a")));
+    }
+
+    @Test
+    public void testTokenBucketSystemProperties() {
+        System.setProperty(TokenBucketAdmissionController.PERMITS_PER_SECOND, "0.001");
+        System.setProperty(TokenBucketAdmissionController.BURST, "3");
+        try {
+            TokenBucketAdmissionController controller = new TokenBucketAdmissionController();
+
+            assertTrue(controller.admit(createSession("a")));
+            assertTrue(controller.admit(createSession("a")));
+            assertTrue(controller.admit(createSession("a")));
+            assertFalse(controller.admit(createSession("a")));
+        } finally {
+            System.clearProperty(TokenBucketAdmissionController.PERMITS_PER_SECOND);
+            System.clearProperty(TokenBucketAdmissionController.BURST);
+        }
+    }
+
+    private TyrusSession createSession(String remoteAddr) {
+        return new TyrusSession(null, null, endpointWrapper, null, null, false, null, null, null, null,
+                                new HashMap<String, List<String>>(), null, null, remoteAddr, new DebugContext());
+    }
+
+    public static class TestEndpoint extends Endpoint {
+
+        @Override
+        public void onOpen(Session session, EndpointConfig config) {
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link StreamingChunkQueue}.
+ */
+public class StreamingChunkQueueTest {
+
+    @Test
+    public void testStreaming() throws Exception {
+        final StreamingChunkQueue<String> queue = new StreamingChunkQueue<String>(null, 1000);
+        final StringBuilder received = new StringBuilder();
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+
+        final Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    String chunk;
+                    while ((chunk = queue.take()) != null) {
+                        received.append(chunk);
+                    }
+                } catch (Throwable t) {
+                    error.set(t);
+                }
+            }
+        };
+        consumer.start();
+
+        for (int i = 0; i < 1000; i++) {
+            queue.offer(Integer.toString(i % 10), 1, false);
+        }
+        queue.offer("", 0, true);
+
+        consumer.join(5000);
+        assertNull(error.get());
+        assertEquals(1000, received.length());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Character.forDigit(i % 10, 10), received.charAt(i));
+        }
+    }
+
+    @Test
+    public void testFlowControl() throws Exception {
+        final AtomicInteger suspended = new AtomicInteger();
+        final AtomicInteger resumed = new AtomicInteger();
+        final InboundFlowControl flowControl = new InboundFlowControl(new SessionDispatcherTest.TestWriter(true) {
+            @Override
+            public boolean suspendReading() {
+                suspended.incrementAndGet();
+                return true;
+            }
+
+            @Override
+            public void resumeReading() {
+                resumed.incrementAndGet();
+            }
+        });
+        final StreamingChunkQueue<String> queue = new StreamingChunkQueue<String>(flowControl, 100, 4, 2);
+
+        queue.offer("abc", 3, false);
+        assertEquals(0, suspended.get());
+        queue.offer("d", 1, false);
+        assertEquals(1, suspended.get());
+        assertTrue(flowControl.isSuspended(InboundFlowControl.STREAMING_BUFFER));
+
+        // data already read by the transport can still be offered.
+        queue.offer("ef", 2, false);
+
+        assertEquals("abc", queue.take());
+        assertEquals(0, resumed.get());
+        assertEquals("d", queue.take());
+        assertEquals(1, resumed.get());
+        assertEquals("ef", queue.take());
+
+        queue.offer("g", 1, true);
+        assertEquals("g", queue.take());
+        assertNull(queue.take());
+        assertEquals(1, suspended.get());
+    }
+
+    @Test
+    public void testOverflow() throws Exception {
+        final StreamingChunkQueue<String> queue = new StreamingChunkQueue<String>(null, 5);
+        queue.offer("abc", 3, false);
+        assertEquals("abc", queue.take());
+
+        // the limit applies to the whole message, not only to the data which has not been consumed yet.
+        queue.offer("d", 1, false);
+        try {
+            queue.offer("ef", 2, false);
+            fail();
+        } catch (MessageTooBigException e) {
+            // expected
+        }
+
+        // rest of the message is dropped, data received so far can be read.
+        queue.offer("g", 1, true);
+        assertEquals("d", queue.take());
+        assertNull(queue.take());
+    }
+
+    @Test
+    public void testDiscard() throws Exception {
+        final AtomicInteger resumed = new AtomicInteger();
+        final InboundFlowControl flowControl = new InboundFlowControl(new SessionDispatcherTest.TestWriter(true) {
+            @Override
+            public void resumeReading() {
+                resumed.incrementAndGet();
+            }
+        });
+        final StreamingChunkQueue<String> queue = new StreamingChunkQueue<String>(flowControl, 100, 2, 1);
+        queue.offer("abc", 3, false);
+        assertTrue(flowControl.isSuspended(InboundFlowControl.STREAMING_BUFFER));
+
+        queue.discard();
+        assertEquals(1, resumed.get());
+
+        queue.offer("d", 1, true);
+        assertNull(queue.take());
+    }
+
+    @Test
+    public void testSessionClosed() throws Exception {
+        final StreamingChunkQueue<String> queue = new StreamingChunkQueue<String>(null, 16);
+        final CountDownLatch failed = new CountDownLatch(1);
+
+        final Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    queue.take();
+                } catch (IOException e) {
+                    failed.countDown();
+                }
+            }
+        };
+        consumer.start();
+
+        Thread.sleep(100);
+        queue.onSessionClosed();
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link TextBuffer}.
+ */
+public class TextBufferTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void testAggregation() {
+        final TextBuffer buffer = new TextBuffer();
+        final StringBuilder expected = new StringBuilder();
+
+        for (int message = 0; message < 2; message++) {
+            buffer.resetBuffer(Integer.MAX_VALUE);
+            expected.setLength(0);
+            for (int i = 0; i < 1000; i++) {
+                final String part = i + "\u00e9";
+                expected.append(part);
+                buffer.appendMessagePart(ByteBuffer.wrap(part.getBytes(UTF_8)));
+            }
+            assertEquals(expected.toString(), buffer.getBufferedContent());
+        }
+    }
+
+    @Test
+    public void testSharedArrays() {
+        final TextBuffer first = new TextBuffer();
+        final TextBuffer second = new TextBuffer();
+
+        first.resetBuffer(Integer.MAX_VALUE);
+        first.appendMessagePart(ByteBuffer.wrap("first".getBytes(UTF_8)));
+        assertEquals("first", first.getBufferedContent());
+
+        // the array released by the first buffer is used by the second one, the first one needs another array.
+        second.resetBuffer(Integer.MAX_VALUE);
+        first.resetBuffer(Integer.MAX_VALUE);
+        second.appendMessagePart(ByteBuffer.wrap("second".getBytes(UTF_8)));
+        first.appendMessagePart(ByteBuffer.wrap("third".getBytes(UTF_8)));
+        assertEquals("second", second.getBufferedContent());
+        assertEquals("third", first.getBufferedContent());
+    }
+
+    @Test
+    public void testLimitInCharacters() {
+        final TextBuffer buffer = new TextBuffer();
+        buffer.resetBuffer(4);
+
+        // 4 characters, 8 bytes.
+        buffer.appendMessagePart(ByteBuffer.wrap("\u00e9\u00e9".getBytes(UTF_8)));
+        buffer.appendMessagePart(ByteBuffer.wrap("\u00e9\u00e9".getBytes(UTF_8)));
+        assertEquals("\u00e9\u00e9\u00e9\u00e9", buffer.getBufferedContent());
+
+        buffer.resetBuffer(4);
+        // surrogate pair counts as two characters.
+        buffer.appendMessagePart(ByteBuffer.wrap("a\ud83d\ude00".getBytes(UTF_8)));
+        try {
+            buffer.appendMessagePart(ByteBuffer.wrap("bc".getBytes(UTF_8)));
+            fail();
+        } catch (MessageTooBigException e) {
+            // expected
+        }
+    }
+}
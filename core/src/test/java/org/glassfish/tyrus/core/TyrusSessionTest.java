@@ -43,8 +43,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
 import javax.websocket.DeploymentException;
 import javax.websocket.Endpoint;
@@ -55,11 +57,15 @@ import javax.websocket.PongMessage;
 import javax.websocket.Session;
 import javax.websocket.server.ServerEndpoint;
 
+import org.glassfish.tyrus.core.frame.TextFrame;
+
 import org.junit.Test;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Pavel Bucek (pavel.bucek at oracle.com)
@@ -471,6 +477,79 @@ public class TyrusSessionTest {
         assertNotNull(session2.getUserProperties().get(test2));
     }
 
+    @Test
+    public void openSessionsView() throws DeploymentException {
+        TyrusEndpointWrapper wrapper =
+                new TyrusEndpointWrapper(EchoEndpoint.class, null, ComponentProviderService.create(), null, "/",
+                                         null, null, null, null, null);
+
+        TyrusSession session1 = (TyrusSession) wrapper.createSessionForRemoteEndpoint(
+                new TestRemoteEndpoint(), null, null, new DebugContext());
+        TyrusSession session2 = (TyrusSession) wrapper.createSessionForRemoteEndpoint(
+                new TestRemoteEndpoint(), null, null, new DebugContext());
+
+        Set<Session> openSessions = session1.getOpenSessions();
+        assertEquals(2, openSessions.size());
+        assertEquals(2, session1.getOpenSessionCount());
+        assertTrue(openSessions.contains(session1));
+        assertTrue(openSessions.contains(session2));
+
+        // live view
+        TyrusSession session3 = (TyrusSession) wrapper.createSessionForRemoteEndpoint(
+                new TestRemoteEndpoint(), null, null, new DebugContext());
+        assertEquals(3, openSessions.size());
+        assertTrue(openSessions.contains(session3));
+
+        // closed sessions are skipped
+        session2.setState(TyrusSession.State.CLOSED);
+        assertEquals(2, openSessions.size());
+        assertFalse(openSessions.contains(session2));
+        for (Session session : openSessions) {
+            assertTrue(session.isOpen());
+        }
+
+        assertEquals(2, session1.getAllSessions().size());
+        assertTrue(session1.getRemoteSessions().isEmpty());
+
+        try {
+            openSessions.remove(session1);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void partialTextAfterFailedHandler() throws DeploymentException {
+        final TyrusEndpointWrapper wrapper =
+                new TyrusEndpointWrapper(EchoEndpoint.class, null, ComponentProviderService.create(), null, "/",
+                                         null, null, null, null, null);
+        final TestRemoteEndpoint socket = new TestRemoteEndpoint();
+        final Session session = wrapper.createSessionForRemoteEndpoint(socket, null, null, new DebugContext());
+
+        final List<String> messages = new ArrayList<String>();
+        session.addMessageHandler(new MessageHandler.Whole<String>() {
+            @Override
+            public void onMessage(String message) {
+                messages.add(message);
+                if (messages.size() == 1) {
+                    throw new RuntimeException("first message fails");
+                }
+            }
+        });
+
+        wrapper.onPartialMessage(socket, new TextFrame("first ", false, false), false);
+        wrapper.onPartialMessage(socket, new TextFrame("message", true, true), true);
+
+        // the next message must not be affected by the failure
+        wrapper.onPartialMessage(socket, new TextFrame("second ", false, false), false);
+        wrapper.onPartialMessage(socket, new TextFrame("message", true, true), true);
+
+        assertEquals(2, messages.size());
+        assertEquals("first message", messages.get(0));
+        assertEquals("second message", messages.get(1));
+    }
+
     private TyrusSession createSession(TyrusEndpointWrapper endpointWrapper) {
         return new TyrusSession(null, new TestRemoteEndpoint(), endpointWrapper, null, null, false, null, null, null,
                                 null, new HashMap<String, List<String>>(), null, null, null, new DebugContext());
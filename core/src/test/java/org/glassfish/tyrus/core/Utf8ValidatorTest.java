@@ -0,0 +1,220 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.websocket.CloseReason;
+
+import org.glassfish.tyrus.core.frame.CloseFrame;
+import org.glassfish.tyrus.core.frame.Frame;
+import org.glassfish.tyrus.core.frame.TextFrame;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link Utf8Validator}, {@link Utf8Codec} and incremental validation of {@link TextFrame}s.
+ */
+public class Utf8ValidatorTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void testValid() {
+        final byte[] data = "a\u00e9\u20ac\ud83d\ude00z".getBytes(UTF_8);
+        assertEquals(0, Utf8Validator.validate(data, 0, data.length));
+    }
+
+    @Test
+    public void testIncomplete() {
+        // euro sign: E2 82 AC, emoji: F0 9F 98 80
+        assertEquals(1, validate(0x61, 0xE2));
+        assertEquals(2, validate(0x61, 0xE2, 0x82));
+        assertEquals(3, validate(0xF0, 0x9F, 0x98));
+        assertEquals(0, validate(0xF0, 0x9F, 0x98, 0x80));
+    }
+
+    @Test
+    public void testInvalid() {
+        // overlong encodings
+        assertInvalid(0xC0, 0x80);
+        assertInvalid(0xC1, 0xBF);
+        assertInvalid(0xE0, 0x80, 0x80);
+        assertInvalid(0xF0, 0x80, 0x80, 0x80);
+        // surrogates
+        assertInvalid(0xED, 0xA0, 0x80);
+        assertInvalid(0xED, 0xBF, 0xBF);
+        // above U+10FFFF
+        assertInvalid(0xF4, 0x90, 0x80, 0x80);
+        assertInvalid(0xF5, 0x80, 0x80, 0x80);
+        // unexpected continuation and missing continuation
+        assertInvalid(0x80);
+        assertInvalid(0xE2, 0x41);
+        // invalid prefix is detected before the sequence is complete
+        assertInvalid(0xED, 0xA0);
+    }
+
+    @Test
+    public void testAgainstStrictUtf8() {
+        final int[] interesting = {0x00, 0x41, 0x7F, 0x80, 0x8F, 0x90, 0x9F, 0xA0, 0xBF, 0xC0, 0xC1, 0xC2, 0xDF, 0xE0,
+                0xE1, 0xEC, 0xED, 0xEE, 0xEF, 0xF0, 0xF1, 0xF3, 0xF4, 0xF5, 0xFF};
+        final Random random = new Random(42);
+
+        for (int n = 0; n < 100000; n++) {
+            final byte[] data = new byte[1 + random.nextInt(6)];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = (byte) interesting[random.nextInt(interesting.length)];
+            }
+
+            boolean expected;
+            try {
+                new StrictUtf8().newDecoder().decode(ByteBuffer.wrap(data));
+                expected = true;
+            } catch (CharacterCodingException e) {
+                expected = false;
+            }
+
+            boolean valid;
+            try {
+                valid = Utf8Validator.validate(data, 0, data.length) == 0;
+            } catch (Utf8DecodingException e) {
+                valid = false;
+            }
+
+            assertEquals(Arrays.toString(data), expected, valid);
+        }
+    }
+
+    @Test
+    public void testIncrementalState() {
+        final byte[] data = "abcdefghij\u00e9\u20ac\ud83d\ude00klmnopqrstuvwxyz\u00e9".getBytes(UTF_8);
+
+        for (int split = 0; split <= data.length; split++) {
+            int state = Utf8Validator.validate(Utf8Validator.ACCEPT, data, 0, split);
+            state = Utf8Validator.validate(state, data, split, data.length - split);
+            assertEquals(Utf8Validator.ACCEPT, state);
+        }
+    }
+
+    @Test
+    public void testCodec() {
+        final String text = "ASCII only, \u00e9\u20ac\ud83d\ude00 and more ASCII";
+        final byte[] encoded = Utf8Codec.encode(text);
+        assertArrayEquals(text.getBytes(new StrictUtf8()), encoded);
+        assertEquals(text, Utf8Codec.decode(encoded, 0, encoded.length));
+        assertEquals(0, Utf8Codec.encode("").length);
+
+        try {
+            // incomplete euro sign
+            Utf8Codec.decode(encoded, 0, text.indexOf('\u20ac') + 3);
+            fail();
+        } catch (Utf8DecodingException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCloseReasonEncoding() {
+        final String reason = "\u00e9\u20ac\ud83d\ude00";
+        final byte[] payload =
+                new CloseFrame(new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, reason)).getPayloadData();
+        assertEquals(reason, Utf8Codec.decode(payload, 2, payload.length - 2));
+
+        // unpaired surrogate is replaced, as by String#getBytes
+        final byte[] replaced = new CloseFrame(
+                new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, "reason \ud83d")).getPayloadData();
+        assertEquals("reason ?", Utf8Codec.decode(replaced, 2, replaced.length - 2));
+    }
+
+    @Test
+    public void testFragmentedFrames() {
+        final byte[] data = "\u20ac\u20ac".getBytes(UTF_8);
+
+        final TextFrame first = new TextFrame(frame(data, 0, 4, false, (byte) 0x01), null);
+        assertEquals("\u20ac", first.getTextPayload());
+        assertEquals(1, first.getRemainder().remaining());
+
+        final TextFrame second = new TextFrame(frame(data, 4, 2, true, (byte) 0x00), first.getRemainder(), true);
+        assertEquals("\u20ac", second.getTextPayload());
+        assertNull(second.getRemainder());
+
+        final ByteBuffer aggregated = ByteBuffer.allocate(data.length);
+        aggregated.put(first.getUtf8Payload()).put(second.getUtf8Payload());
+        assertEquals("\u20ac\u20ac", new String(aggregated.array(), UTF_8));
+    }
+
+    @Test(expected = Utf8DecodingException.class)
+    public void testIncompleteFinalFrame() {
+        final byte[] data = "\u20ac".getBytes(UTF_8);
+        new TextFrame(frame(data, 0, 2, true, (byte) 0x01), null);
+    }
+
+    private static Frame frame(byte[] data, int offset, int length, boolean fin, byte opcode) {
+        final byte[] payload = new byte[length];
+        System.arraycopy(data, offset, payload, 0, length);
+        return Frame.builder().payloadData(payload).fin(fin).opcode(opcode).build();
+    }
+
+    private static int validate(int... bytes) {
+        final byte[] data = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            data[i] = (byte) bytes[i];
+        }
+        return Utf8Validator.validate(data, 0, data.length);
+    }
+
+    private static void assertInvalid(int... bytes) {
+        try {
+            validate(bytes);
+            fail();
+        } catch (Utf8DecodingException e) {
+            // expected
+        }
+    }
+}
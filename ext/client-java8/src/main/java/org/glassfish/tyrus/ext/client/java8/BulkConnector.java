@@ -0,0 +1,304 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.ext.client.java8;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.websocket.ClientEndpointConfig;
+import javax.websocket.DeploymentException;
+import javax.websocket.Endpoint;
+import javax.websocket.Session;
+import javax.websocket.WebSocketContainer;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.client.ClientProperties;
+
+/**
+ * Opens many sessions with one endpoint while limiting the number of handshakes in progress and the rate of new
+ * connections.
+ * <p>
+ * The connection attempts are started one by one from a single scheduler thread shared by all the bulk connectors.
+ * An attempt is started when there is a free handshake slot and the next connect slot given by the rate has come;
+ * otherwise the dispatching is resumed when a handshake in progress completes or when the next connect slot comes, so
+ * no thread waits for a free slot.
+ * <p>
+ * {@link WebSocketContainer#connectToServer(Endpoint, ClientEndpointConfig, URI)} blocks until the handshake is
+ * completed, so each handshake in progress still occupies one thread of a shared pool. The number of these threads
+ * is bounded by the maximal number of handshakes in progress; the threads are reused by later attempts and bulk
+ * connects and terminate when idle.
+ * <p>
+ * The host each session connects to (the server host or the host of {@link ClientProperties#PROXY_URI}) is resolved
+ * once before the first attempt. This only warms the {@link InetAddress} cache: the container still resolves the host
+ * for every connection, which is then answered from the cache, and a host that cannot be resolved fails its sessions
+ * without any connection attempt.
+ */
+class BulkConnector {
+
+    private static final Logger LOGGER = Logger.getLogger(BulkConnector.class.getName());
+
+    private final WebSocketContainer container;
+    private final Endpoint endpoint;
+    private final ClientEndpointConfig clientEndpointConfig;
+    private final Semaphore inFlightHandshakes;
+    private final long connectIntervalNanos;
+    private final List<Attempt> attempts;
+    // written before the dispatching is started
+    private final Map<String, UnknownHostException> resolvedHosts = new HashMap<>();
+
+    // accessed only from the scheduler thread
+    private int nextAttempt = 0;
+    private long nextConnect = System.nanoTime();
+    private boolean dispatchScheduled = false;
+
+    /**
+     * Create new bulk connector.
+     *
+     * @param container              container used for connecting.
+     * @param endpoint               endpoint instance used for all sessions.
+     * @param clientEndpointConfig   endpoint configuration used for all sessions.
+     * @param uris                   server endpoint addresses, one for each session to be opened.
+     * @param maxInFlightHandshakes  maximal number of handshakes in progress.
+     * @param maxConnectsPerSecond   maximal number of connection attempts started per second, {@code 0} for no limit.
+     */
+    BulkConnector(WebSocketContainer container, Endpoint endpoint, ClientEndpointConfig clientEndpointConfig,
+                  List<URI> uris, int maxInFlightHandshakes, int maxConnectsPerSecond) {
+        this.container = container;
+        this.endpoint = endpoint;
+        this.clientEndpointConfig = clientEndpointConfig;
+        this.inFlightHandshakes = new Semaphore(maxInFlightHandshakes);
+        this.connectIntervalNanos = maxConnectsPerSecond == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / maxConnectsPerSecond;
+
+        final List<Attempt> attempts = new ArrayList<>(uris.size());
+        for (URI uri : uris) {
+            attempts.add(new Attempt(uri));
+        }
+        this.attempts = Collections.unmodifiableList(attempts);
+    }
+
+    /**
+     * Start the connection attempts. Returns immediately.
+     *
+     * @return futures of the sessions, in the same order as the uris passed to the constructor.
+     */
+    List<CompletableFuture<Session>> start() {
+        final List<CompletableFuture<Session>> futures = new ArrayList<>(attempts.size());
+        for (Attempt attempt : attempts) {
+            futures.add(attempt.future);
+        }
+
+        // resolving is blocking, so it must not be done on the shared scheduler thread
+        SharedExecutors.CONNECT_EXECUTOR.execute(() -> {
+            for (Attempt attempt : attempts) {
+                resolve(attempt.uri);
+            }
+            SharedExecutors.SCHEDULER.execute(this::dispatch);
+        });
+
+        return Collections.unmodifiableList(futures);
+    }
+
+    /**
+     * Start as many attempts as the limits allow. Executed only on the scheduler thread.
+     */
+    private void dispatch() {
+        while (nextAttempt < attempts.size()) {
+            final Attempt attempt = attempts.get(nextAttempt);
+
+            // cancelled by the user
+            if (attempt.future.isDone()) {
+                nextAttempt++;
+                continue;
+            }
+
+            final UnknownHostException unknownHost = resolvedHosts.get(getConnectHost(attempt.uri));
+            if (unknownHost != null) {
+                attempt.future.completeExceptionally(new DeploymentException(
+                        String.format("Connection to '%s' failed.", attempt.uri), unknownHost));
+                nextAttempt++;
+                continue;
+            }
+
+            final long now = System.nanoTime();
+            if (connectIntervalNanos > 0 && nextConnect - now > 0) {
+                if (!dispatchScheduled) {
+                    dispatchScheduled = true;
+                    SharedExecutors.SCHEDULER.schedule(() -> {
+                        dispatchScheduled = false;
+                        dispatch();
+                    }, nextConnect - now, TimeUnit.NANOSECONDS);
+                }
+                return;
+            }
+
+            // the dispatching is resumed when a handshake in progress completes
+            if (!inFlightHandshakes.tryAcquire()) {
+                return;
+            }
+
+            nextAttempt++;
+            nextConnect = now + connectIntervalNanos;
+            SharedExecutors.CONNECT_EXECUTOR.execute(attempt);
+        }
+    }
+
+    /**
+     * Resolve the host the session to given uri connects to, unless it was already resolved.
+     * <p>
+     * The result is kept in the {@link InetAddress} cache, so the connection attempts don't need to wait for the name
+     * service.
+     *
+     * @param uri server endpoint address.
+     */
+    private void resolve(URI uri) {
+        final String host = getConnectHost(uri);
+        if (host == null || resolvedHosts.containsKey(host)) {
+            return;
+        }
+
+        UnknownHostException result = null;
+        try {
+            InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            LOGGER.log(Level.CONFIG, String.format("Host '%s' cannot be resolved.", host), e);
+            result = e;
+        }
+        resolvedHosts.put(host, result);
+    }
+
+    private String getConnectHost(URI uri) {
+        if (container instanceof ClientManager) {
+            final Object proxyString = ((ClientManager) container).getProperties().get(ClientProperties.PROXY_URI);
+            if (proxyString != null) {
+                try {
+                    return new URI(proxyString.toString()).getHost();
+                } catch (URISyntaxException e) {
+                    // the container will report the invalid proxy.
+                    return null;
+                }
+            }
+        }
+
+        return uri.getHost();
+    }
+
+    private class Attempt implements Runnable {
+
+        private final URI uri;
+        private final CompletableFuture<Session> future = new CompletableFuture<>();
+
+        Attempt(URI uri) {
+            this.uri = uri;
+        }
+
+        @Override
+        public void run() {
+            try {
+                final Session session = container.connectToServer(endpoint, clientEndpointConfig, uri);
+                if (!future.complete(session)) {
+                    // cancelled while connecting.
+                    session.close();
+                }
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                inFlightHandshakes.release();
+                SharedExecutors.SCHEDULER.execute(BulkConnector.this::dispatch);
+            }
+        }
+    }
+
+    /**
+     * Executors shared by all the bulk connectors, created when the first bulk connect is started. The threads are
+     * daemon threads which terminate when idle, so the executors are never shut down.
+     */
+    private static class SharedExecutors {
+
+        private static final long KEEP_ALIVE_SECONDS = 60;
+
+        /**
+         * Single thread dispatching the attempts of all the bulk connectors.
+         */
+        static final ScheduledThreadPoolExecutor SCHEDULER =
+                new ScheduledThreadPoolExecutor(1, threadFactory("tyrus-bulk-connect-dispatcher-"));
+
+        /**
+         * Threads executing the blocking connection attempts, their number is bounded by the handshake slots of the
+         * bulk connectors in progress.
+         */
+        static final ExecutorService CONNECT_EXECUTOR =
+                new ThreadPoolExecutor(0, Integer.MAX_VALUE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                                       new SynchronousQueue<>(), threadFactory("tyrus-bulk-connect-"));
+
+        static {
+            SCHEDULER.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+            SCHEDULER.allowCoreThreadTimeOut(true);
+        }
+
+        private static ThreadFactory threadFactory(String namePrefix) {
+            final AtomicInteger threadCounter = new AtomicInteger();
+            return r -> {
+                Thread thread = new Thread(r);
+                thread.setName(namePrefix + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+}
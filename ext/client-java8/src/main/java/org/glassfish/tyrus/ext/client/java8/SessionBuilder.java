@@ -44,6 +44,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -86,12 +87,23 @@ import org.glassfish.tyrus.core.MessageHandlerManager;
  *      .onError((session1, throwable) -&gt; onErrorLatch.countDown())
  *      .onClose((session1, closeReason) -&gt; onCloseLatch.countDown())
  *      .connect();</pre>
+ * <p>
+ * Many sessions can be opened at once by {@link #connectAsync(int)} or {@link #connectAsync(List, int)}; the load put
+ * on the server and the network can be limited by {@link #maxInFlightHandshakes(int)} and {@link
+ * #maxConnectsPerSecond(int)}.
  *
  * @author Pavel Bucek (pavel.bucek at oracle.com)
  */
 @Beta
 public class SessionBuilder {
 
+    /**
+     * Default maximal number of handshakes in progress when opening multiple sessions.
+     *
+     * @see #maxInFlightHandshakes(int)
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_HANDSHAKES = 64;
+
     private static final BiConsumer NO_OP_BI_CONSUMER = (o, o2) -> {
         // no-op
     };
@@ -107,6 +119,9 @@ public class SessionBuilder {
     private BiConsumer<Session, Throwable> onError;
     private BiConsumer<Session, CloseReason> onClose;
 
+    private int maxInFlightHandshakes = DEFAULT_MAX_IN_FLIGHT_HANDSHAKES;
+    private int maxConnectsPerSecond = 0;
+
     /**
      * Create SessionBuilder with provided {@link javax.websocket.WebSocketContainer}.
      *
@@ -218,6 +233,41 @@ public class SessionBuilder {
         return this;
     }
 
+    /**
+     * Set the maximal number of handshakes in progress when opening multiple sessions by {@link #connectAsync(int)}
+     * or {@link #connectAsync(List, int)}.
+     * <p>
+     * Default value is {@link #DEFAULT_MAX_IN_FLIGHT_HANDSHAKES}.
+     *
+     * @param maxInFlightHandshakes maximal number of handshakes in progress, has to be positive.
+     * @return updated SessionBuilder instance.
+     */
+    public SessionBuilder maxInFlightHandshakes(int maxInFlightHandshakes) {
+        if (maxInFlightHandshakes <= 0) {
+            throw new IllegalArgumentException("maxInFlightHandshakes must be positive.");
+        }
+        this.maxInFlightHandshakes = maxInFlightHandshakes;
+        return this;
+    }
+
+    /**
+     * Set the maximal number of connection attempts started per second when opening multiple sessions by {@link
+     * #connectAsync(int)} or {@link #connectAsync(List, int)}.
+     * <p>
+     * Default value is {@code 0}, which means that the connection attempts are limited only by {@link
+     * #maxInFlightHandshakes(int)}.
+     *
+     * @param maxConnectsPerSecond maximal number of connection attempts per second, {@code 0} for no limit.
+     * @return updated SessionBuilder instance.
+     */
+    public SessionBuilder maxConnectsPerSecond(int maxConnectsPerSecond) {
+        if (maxConnectsPerSecond < 0) {
+            throw new IllegalArgumentException("maxConnectsPerSecond must not be negative.");
+        }
+        this.maxConnectsPerSecond = maxConnectsPerSecond;
+        return this;
+    }
+
     /**
      * Connect to the remote (server) endpoint.
      * <p>
@@ -230,6 +280,58 @@ public class SessionBuilder {
      *                             issue.
      */
     public Session connect() throws IOException, DeploymentException {
+        return container.connectToServer(createEndpoint(), clientEndpointConfig, uri);
+    }
+
+    /**
+     * Open multiple sessions to the remote (server) endpoint set by {@link #uri(URI)}.
+     * <p>
+     * Same as {@link #connectAsync(List, int)} called with a list containing only the set {@link URI}.
+     *
+     * @param count number of sessions to be opened.
+     * @return list of completable futures returning the created sessions.
+     * @throws DeploymentException when there is a problem with provided settings.
+     */
+    public List<CompletableFuture<Session>> connectAsync(int count) throws DeploymentException {
+        return connectAsync(Collections.singletonList(uri), count);
+    }
+
+    /**
+     * Open multiple sessions to the remote (server) endpoints.
+     * <p>
+     * {@code sessionsPerUri} sessions are opened to every {@link URI} from the list, the connection attempts to
+     * different {@link URI}s are interleaved. This method returns immediately; at most {@link
+     * #maxInFlightHandshakes(int)} handshakes are in progress at a time and at most {@link #maxConnectsPerSecond(int)}
+     * connection attempts are started per second. Each host is resolved once before the first attempt, which warms the
+     * {@link java.net.InetAddress} cache for the connections to it; a host which cannot be resolved fails all its
+     * futures without any connection attempt.
+     * <p>
+     * The handshakes are blocking, so each handshake in progress occupies one thread of a pool shared by all bulk
+     * connects until it completes; {@link #maxInFlightHandshakes(int)} also bounds the number of these threads.
+     * <p>
+     * Cancelling a future which has not been completed yet prevents the connection attempt or closes the session when
+     * it is opened.
+     *
+     * @param uris           server endpoint addresses.
+     * @param sessionsPerUri number of sessions to be opened to each of the addresses.
+     * @return list of completable futures returning the created sessions, {@code sessionsPerUri} times the size of
+     * {@code uris}.
+     * @throws DeploymentException when there is a problem with provided settings.
+     */
+    public List<CompletableFuture<Session>> connectAsync(List<URI> uris, int sessionsPerUri)
+            throws DeploymentException {
+        final Endpoint endpoint = createEndpoint();
+
+        final List<URI> attempts = new ArrayList<>(uris.size() * sessionsPerUri);
+        for (int i = 0; i < sessionsPerUri; i++) {
+            attempts.addAll(uris);
+        }
+
+        return new BulkConnector(container, endpoint, clientEndpointConfig, attempts, maxInFlightHandshakes,
+                                 maxConnectsPerSecond).start();
+    }
+
+    private Endpoint createEndpoint() throws DeploymentException {
 
         // default values
         if (clientEndpointConfig == null) {
@@ -263,14 +365,11 @@ public class SessionBuilder {
         // validation end
 
 
-        final URI path = this.uri;
-        final ClientEndpointConfig clientEndpointConfig = this.clientEndpointConfig;
-
         final BiConsumer<Session, EndpointConfig> onOpen = this.onOpen;
         final BiConsumer<Session, Throwable> onError = this.onError;
         final BiConsumer<Session, CloseReason> onClose = this.onClose;
 
-        final Endpoint endpoint = new Endpoint() {
+        return new Endpoint() {
             @Override
             public void onOpen(Session session, EndpointConfig config) {
                 for (Map.Entry<Class<?>, MessageHandler.Whole<?>> entry : wholeMessageHandlers) {
@@ -294,8 +393,6 @@ public class SessionBuilder {
                 onError.accept(session, thr);
             }
         };
-
-        return container.connectToServer(endpoint, clientEndpointConfig, path);
     }
 
     /**
@@ -41,10 +41,15 @@
 package org.glassfish.tyrus.ext.client.java8;
 
 import java.io.IOException;
+import java.net.URI;
+import java.net.UnknownHostException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
@@ -64,7 +69,9 @@ import org.glassfish.tyrus.server.Server;
 import org.glassfish.tyrus.test.tools.TestContainer;
 
 import org.junit.Test;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Pavel Bucek (pavel.bucek at oracle.com)
@@ -234,6 +241,59 @@ public class SessionBuilderTest extends TestContainer {
         }
     }
 
+    @Test
+    public void testConnectAsyncBulk() throws Exception {
+        Server server = startServer(SessionBuilderTestEndpoint.class);
+
+        final int sessionsPerUri = 10;
+        final URI uri = getURI(SessionBuilderTestEndpoint.class);
+        CountDownLatch messageLatch = new CountDownLatch(2 * sessionsPerUri);
+
+        try {
+            List<CompletableFuture<Session>> futures = new SessionBuilder()
+                    .messageHandler(String.class,
+                                    message -> {
+                                        if (MESSAGE.equals(message)) {
+                                            messageLatch.countDown();
+                                        }
+                                    })
+                    .maxInFlightHandshakes(3)
+                    .maxConnectsPerSecond(100)
+                    .connectAsync(Arrays.asList(uri, uri), sessionsPerUri);
+
+            assertEquals(2 * sessionsPerUri, futures.size());
+
+            for (CompletableFuture<Session> future : futures) {
+                Session session = future.get(10, TimeUnit.SECONDS);
+                assertTrue(session.isOpen());
+                session.getBasicRemote().sendText(MESSAGE);
+            }
+
+            assertTrue(messageLatch.await(3, TimeUnit.SECONDS));
+        } finally {
+            stopServer(server);
+        }
+    }
+
+    @Test
+    public void testConnectAsyncBulkUnknownHost() throws Exception {
+        List<CompletableFuture<Session>> futures = new SessionBuilder()
+                .uri(URI.create("ws://unknown-host.invalid/sessionBuilderTest"))
+                .connectAsync(3);
+
+        assertEquals(3, futures.size());
+
+        for (CompletableFuture<Session> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail("Connection to an unknown host should fail.");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof DeploymentException);
+                assertTrue(e.getCause().getCause() instanceof UnknownHostException);
+            }
+        }
+    }
+
     public static class AClass {
         @Override
         public String toString() {
@@ -0,0 +1,295 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.ext.cluster.nio;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.websocket.Extension;
+
+import org.glassfish.tyrus.core.Beta;
+import org.glassfish.tyrus.core.TyrusExtension;
+
+/**
+ * Default {@link PropertyCodec}.
+ * <p>
+ * Strings, {@link Integer}, {@link Long}, {@link Boolean}, {@link Double}, byte arrays, {@link URI URIs},
+ * {@link Extension Extensions}, {@link Principal Principals} and lists and maps of such values are written using a
+ * compact tagged binary format. Other values are rejected with an {@link IOException}, so they are not replicated;
+ * use a custom {@link PropertyCodec} to replicate them.
+ * <p>
+ * Only the content is written, not the implementation class: lists are decoded as {@link ArrayList}, maps as
+ * {@link LinkedHashMap} (keeping the iteration order of the original map), extensions as {@link TyrusExtension} and
+ * principals as a {@link Principal} with the same name. Java serialization is not used, so decoding data received
+ * from other nodes cannot instantiate arbitrary classes.
+ */
+@Beta
+public class DefaultPropertyCodec implements PropertyCodec {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte BYTES = 6;
+    private static final byte URI_VALUE = 7;
+    private static final byte LIST = 8;
+    private static final byte MAP = 9;
+    // 10 was used by Java serialization, which is not supported anymore.
+    private static final byte EXTENSION = 11;
+    private static final byte PRINCIPAL = 12;
+
+    /**
+     * Maximal nesting of lists and maps.
+     */
+    private static final int MAX_DEPTH = 32;
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream(64);
+        final DataOutputStream out = new DataOutputStream(baos);
+        write(value, out, 0);
+        out.flush();
+        return baos.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] data) throws IOException {
+        try {
+            return read(new DataInputStream(new ByteArrayInputStream(data)), 0);
+        } catch (IllegalArgumentException e) {
+            // invalid URI or extension name.
+            throw new IOException(e);
+        }
+    }
+
+    private static void write(Object value, DataOutputStream out, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("Values nested deeper than " + MAX_DEPTH + " levels are not supported.");
+        }
+
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString((String) value, out);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            out.writeInt(((byte[]) value).length);
+            out.write((byte[]) value);
+        } else if (value instanceof URI) {
+            out.writeByte(URI_VALUE);
+            writeString(value.toString(), out);
+        } else if (value instanceof List) {
+            final List<?> list = (List<?>) value;
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                write(element, out, depth + 1);
+            }
+        } else if (value instanceof Map) {
+            final Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                write(entry.getKey(), out, depth + 1);
+                write(entry.getValue(), out, depth + 1);
+            }
+        } else if (value instanceof Extension) {
+            final Extension extension = (Extension) value;
+            out.writeByte(EXTENSION);
+            writeString(extension.getName(), out);
+            out.writeInt(extension.getParameters().size());
+            for (Extension.Parameter parameter : extension.getParameters()) {
+                writeString(parameter.getName(), out);
+                write(parameter.getValue(), out, depth + 1);
+            }
+        } else if (value instanceof Principal) {
+            out.writeByte(PRINCIPAL);
+            writeString(((Principal) value).getName(), out);
+        } else {
+            throw new IOException("Values of type " + value.getClass().getName() + " are not supported.");
+        }
+    }
+
+    private static Object read(DataInputStream in, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("Values nested deeper than " + MAX_DEPTH + " levels are not supported.");
+        }
+
+        final byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case BOOLEAN:
+                return in.readBoolean();
+            case DOUBLE:
+                return in.readDouble();
+            case BYTES:
+                return readBytes(in);
+            case URI_VALUE:
+                return URI.create(readString(in));
+            case LIST:
+                final int listSize = readSize(in);
+                final List<Object> list = new ArrayList<Object>(listSize);
+                for (int i = 0; i < listSize; i++) {
+                    list.add(read(in, depth + 1));
+                }
+                return list;
+            case MAP:
+                final int mapSize = readSize(in);
+                final Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+                for (int i = 0; i < mapSize; i++) {
+                    final Object key = read(in, depth + 1);
+                    map.put(key, read(in, depth + 1));
+                }
+                return map;
+            case EXTENSION:
+                final String name = readString(in);
+                final int parameterCount = readSize(in);
+                final List<Extension.Parameter> parameters = new ArrayList<Extension.Parameter>(parameterCount);
+                for (int i = 0; i < parameterCount; i++) {
+                    final String parameterName = readString(in);
+                    final Object parameterValue = read(in, depth + 1);
+                    if (parameterValue != null && !(parameterValue instanceof String)) {
+                        throw new IOException("Invalid extension parameter value.");
+                    }
+                    parameters.add(new TyrusExtension.TyrusParameter(parameterName, (String) parameterValue));
+                }
+                return new TyrusExtension(name, parameters);
+            case PRINCIPAL:
+                return new RemotePrincipal(readString(in));
+            default:
+                throw new IOException("Unknown value tag: " + tag);
+        }
+    }
+
+    private static void writeString(String value, DataOutputStream out) throws IOException {
+        final byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), UTF_8);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[readSize(in)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Read size of an array or a collection. Every element takes at least one byte, so the size cannot exceed the
+     * remaining data; nothing is allocated based on a corrupted size.
+     */
+    private static int readSize(DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        if (size < 0 || size > in.available()) {
+            throw new IOException("Invalid size: " + size);
+        }
+        return size;
+    }
+
+    /**
+     * {@link Principal} received from another node.
+     */
+    private static final class RemotePrincipal implements Principal {
+
+        private final String name;
+
+        RemotePrincipal(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RemotePrincipal && name.equals(((RemotePrincipal) o).name);
+        }
+
+        @Override
+        public int hashCode() {
+            return name.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
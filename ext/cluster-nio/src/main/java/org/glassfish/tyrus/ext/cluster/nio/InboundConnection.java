@@ -0,0 +1,158 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.ext.cluster.nio;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Incoming connection from another cluster node.
+ * <p>
+ * Messages are read and processed by a dedicated thread in the order they were sent. The first message identifies
+ * the remote node; when the connection is closed, the remote node is considered to be down. Messages longer than
+ * {@link NioClusterContext.Builder#maxMessageSize(int)} are not accepted, the connection is closed instead.
+ */
+class InboundConnection implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(InboundConnection.class.getName());
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final SocketChannel channel;
+    private final NioClusterContext context;
+    private final ByteBuffer lengthBuffer = ByteBuffer.allocate(Protocol.LENGTH_SIZE);
+
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private volatile String nodeId;
+
+    /**
+     * Create new connection.
+     *
+     * @param channel accepted channel.
+     * @param context cluster context.
+     */
+    InboundConnection(SocketChannel channel, NioClusterContext context) {
+        this.channel = channel;
+        this.context = context;
+    }
+
+    void start() {
+        final Thread thread = new Thread(this, "tyrus-cluster-reader-" + channel.socket().getRemoteSocketAddress());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        try {
+            final MessageReader hello = readMessage();
+            if (hello.getByte() != Protocol.HELLO) {
+                LOGGER.log(Level.WARNING, "Unexpected cluster message, closing connection.");
+                return;
+            }
+
+            nodeId = hello.getString();
+            context.onInboundConnected(nodeId, this);
+
+            while (context.isRunning()) {
+                context.onMessage(nodeId, readMessage());
+            }
+        } catch (EOFException e) {
+            LOGGER.log(Level.FINE, "Cluster node " + nodeId + " closed connection.");
+        } catch (ProtocolException e) {
+            LOGGER.log(Level.WARNING, e.getMessage() + " Closing connection from " + channel.socket()
+                    .getRemoteSocketAddress() + ".");
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Connection from cluster node " + nodeId + " lost.", e);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Processing of cluster message failed, closing connection from "
+                    + channel.socket().getRemoteSocketAddress() + ".", e);
+        } finally {
+            close();
+            if (nodeId != null) {
+                context.onInboundDisconnected(nodeId, this);
+            }
+        }
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // ignore.
+        }
+    }
+
+    private MessageReader readMessage() throws IOException {
+        lengthBuffer.clear();
+        readFully(lengthBuffer);
+        lengthBuffer.flip();
+        final int length = lengthBuffer.getInt();
+
+        final int maxMessageSize = context.getMaxMessageSize();
+        if (length < 1 || length > maxMessageSize) {
+            throw new ProtocolException("Invalid cluster message length: " + length + ".");
+        }
+
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(Math.min(Math.max(length, buffer.capacity() * 2), maxMessageSize));
+        }
+        buffer.clear();
+        buffer.limit(length);
+        readFully(buffer);
+        buffer.flip();
+
+        return new MessageReader(buffer);
+    }
+
+    private void readFully(ByteBuffer target) throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.ext.cluster.nio;
+
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Decoder of one protocol message.
+ *
+ * @see Protocol
+ * @see MessageWriter
+ */
+final class MessageReader {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer buffer;
+
+    /**
+     * Create new reader.
+     *
+     * @param buffer buffer containing one message without the length prefix, positioned at the message type.
+     */
+    MessageReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    byte getByte() throws ProtocolException {
+        require(1);
+        return buffer.get();
+    }
+
+    boolean getBoolean() throws ProtocolException {
+        require(1);
+        return buffer.get() != 0;
+    }
+
+    int getInt() throws ProtocolException {
+        require(4);
+        return buffer.getInt();
+    }
+
+    long getLong() throws ProtocolException {
+        require(8);
+        return buffer.getLong();
+    }
+
+    String getString() throws ProtocolException {
+        final int length = getInt();
+        if (length < 0) {
+            return null;
+        }
+        require(length);
+
+        final String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            final byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, UTF_8);
+        }
+        return value;
+    }
+
+    byte[] getBytes() throws ProtocolException {
+        final int length = getInt();
+        if (length < 0) {
+            return null;
+        }
+        require(length);
+
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Check that the message contains at least {@code length} more bytes, lengths read from the message are not
+     * trusted.
+     */
+    private void require(int length) throws ProtocolException {
+        if (length > buffer.remaining()) {
+            throw new ProtocolException("Invalid cluster message: " + length + " bytes expected, " + buffer
+                    .remaining() + " bytes remaining.");
+        }
+    }
+}
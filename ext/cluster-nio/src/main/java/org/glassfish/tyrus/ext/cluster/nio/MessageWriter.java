@@ -0,0 +1,153 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.ext.cluster.nio;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Encoder of one protocol message.
+ * <p>
+ * Space for the length prefix is reserved up front, so {@link #toByteBuffer()} does not need to copy the message.
+ *
+ * @see Protocol
+ */
+final class MessageWriter {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private byte[] buffer;
+    private int position;
+
+    /**
+     * Create new message.
+     *
+     * @param type         message type.
+     * @param expectedSize expected size of the payload, used as initial capacity.
+     */
+    MessageWriter(byte type, int expectedSize) {
+        this.buffer = new byte[Protocol.LENGTH_SIZE + 1 + Math.max(16, expectedSize)];
+        this.position = Protocol.LENGTH_SIZE;
+        putByte(type);
+    }
+
+    MessageWriter putByte(byte value) {
+        ensureCapacity(1);
+        buffer[position++] = value;
+        return this;
+    }
+
+    MessageWriter putBoolean(boolean value) {
+        return putByte(value ? (byte) 1 : (byte) 0);
+    }
+
+    MessageWriter putInt(int value) {
+        ensureCapacity(4);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    MessageWriter putLong(long value) {
+        putInt((int) (value >>> 32));
+        return putInt((int) value);
+    }
+
+    /**
+     * Put string, {@code null} is supported.
+     *
+     * @param value string to be written.
+     * @return this writer.
+     */
+    MessageWriter putString(String value) {
+        return putBytes(value == null ? null : value.getBytes(UTF_8));
+    }
+
+    /**
+     * Put byte array, {@code null} is supported.
+     *
+     * @param value bytes to be written.
+     * @return this writer.
+     */
+    MessageWriter putBytes(byte[] value) {
+        if (value == null) {
+            return putInt(-1);
+        }
+
+        putInt(value.length);
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, buffer, position, value.length);
+        position += value.length;
+        return this;
+    }
+
+    /**
+     * Get size of the message written so far, not including the length prefix.
+     *
+     * @return size in bytes.
+     */
+    int size() {
+        return position - Protocol.LENGTH_SIZE;
+    }
+
+    /**
+     * Finish the message.
+     *
+     * @return buffer containing the length prefix and the message.
+     */
+    ByteBuffer toByteBuffer() {
+        final int length = position - Protocol.LENGTH_SIZE;
+        buffer[0] = (byte) (length >>> 24);
+        buffer[1] = (byte) (length >>> 16);
+        buffer[2] = (byte) (length >>> 8);
+        buffer[3] = (byte) length;
+        return ByteBuffer.wrap(buffer, 0, position);
+    }
+
+    private void ensureCapacity(int size) {
+        if (position + size > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + size));
+        }
+    }
+}
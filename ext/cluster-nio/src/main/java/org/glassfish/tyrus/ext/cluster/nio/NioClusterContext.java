@@ -0,0 +1,1140 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.ext.cluster.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.websocket.CloseReason;
+import javax.websocket.SendHandler;
+
+import org.glassfish.tyrus.core.Beta;
+import org.glassfish.tyrus.core.TyrusFuture;
+import org.glassfish.tyrus.core.cluster.BroadcastListener;
+import org.glassfish.tyrus.core.cluster.ClusterContext;
+import org.glassfish.tyrus.core.cluster.GroupBroadcastListener;
+import org.glassfish.tyrus.core.cluster.RemoteSession;
+import org.glassfish.tyrus.core.cluster.SessionEventListener;
+import org.glassfish.tyrus.core.cluster.SessionListener;
+
+/**
+ * {@link ClusterContext} implementation connecting cluster nodes directly over TCP.
+ * <p>
+ * Cluster members are configured statically; every node has to be created with the same list of member addresses
+ * and its own address as {@code localAddress} (the address has to be the one other nodes use to connect to it).
+ * Each node keeps one outgoing connection to every other member and uses it only for sending; messages are encoded
+ * using a compact length-prefixed binary protocol. Messages sent from one node to another are delivered in the order
+ * they were sent.
+ * <p>
+ * Sends to sessions connected to other nodes are pipelined: messages going to the same node within the linger window
+ * are coalesced into one batch and acknowledged together, the result is reported asynchronously to the returned
+ * future or to the {@link SendHandler}. Results are reported by the thread reading from the other node, so handlers
+ * should not block.
+ * <p>
+ * Messages received from one node are processed by a single thread, the one reading from the connection, in the order
+ * they were sent. Sends to local sessions, broadcasts and listener notifications run on this thread and the sends
+ * block until the message is written to the session, so a slow local session delays everything that follows from
+ * the same node, including acknowledgements of requests this node sent to it. Messages longer than
+ * {@link Builder#maxMessageSize(int)} are not sent: sends to remote sessions fail, broadcasts throw
+ * {@link IllegalArgumentException}; when such message is received, the connection is closed.
+ * <p>
+ * Session registry and distributed properties are fully replicated, so {@link #getRemoteSessionIds(String)},
+ * {@link #isSessionOpen(String, String)} and reads of distributed properties never leave the node. Modified
+ * properties are not sent one by one; the modified keys are tracked and their current values are sent in batches
+ * every replication interval, so other nodes see a modification at most one interval (plus network latency) late.
+ * Properties of a new session are sent before the session is announced to other nodes. Values are serialized using a
+ * {@link PropertyCodec}, {@link DefaultPropertyCodec} by default. When a node becomes unreachable, its sessions are
+ * removed from the registry; when it reconnects, it sends its complete state again.
+ * <p>
+ * Usage:
+ * <pre>
+ * ClusterContext clusterContext = NioClusterContext.builder(new InetSocketAddress("node1", 7800),
+ *         Arrays.asList(new InetSocketAddress("node1", 7800), new InetSocketAddress("node2", 7800)))
+ *         .replicationInterval(50, TimeUnit.MILLISECONDS)
+ *         .build();
+ * serverProperties.put(ClusterContext.CLUSTER_CONTEXT, clusterContext);
+ * </pre>
+ */
+@Beta
+public class NioClusterContext extends ClusterContext {
+
+    private static final Logger LOGGER = Logger.getLogger(NioClusterContext.class.getName());
+
+    /**
+     * Default linger window, in microseconds.
+     */
+    public static final long DEFAULT_LINGER_MICROS = 100;
+
+    /**
+     * Default interval of distributed property replication, in milliseconds.
+     */
+    public static final long DEFAULT_REPLICATION_INTERVAL_MILLIS = 20;
+
+    /**
+     * Default maximal size of one message exchanged between nodes, in bytes.
+     */
+    public static final int DEFAULT_MAX_MESSAGE_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Default time to wait for acknowledgement of a send to a session connected to another node, in milliseconds.
+     */
+    public static final long DEFAULT_ACK_TIMEOUT_MILLIS = 30000;
+
+    private final String localNodeId;
+    private final ServerSocketChannel serverChannel;
+    private final Map<String, PeerConnection> peers = new ConcurrentHashMap<String, PeerConnection>();
+    private final Map<String, InboundConnection> inbound = new ConcurrentHashMap<String, InboundConnection>();
+
+    private final Map<String, LocalSession> localSessions = new ConcurrentHashMap<String, LocalSession>();
+    private final Object registryLock = new Object();
+    private final ConcurrentMap<String, Set<String>> remoteSessions = new ConcurrentHashMap<String, Set<String>>();
+    private final Map<String, String> remoteSessionPaths = new ConcurrentHashMap<String, String>();
+
+    private final ConcurrentMap<String, List<SessionListener>> sessionListeners =
+            new ConcurrentHashMap<String, List<SessionListener>>();
+    private final ConcurrentMap<String, List<BroadcastListener>> broadcastListeners =
+            new ConcurrentHashMap<String, List<BroadcastListener>>();
+
+    private final ConcurrentMap<String, ReplicatedMap<RemoteSession.DistributedMapKey, Object>> sessionProperties =
+            new ConcurrentHashMap<String, ReplicatedMap<RemoteSession.DistributedMapKey, Object>>();
+    private final ConcurrentMap<String, ReplicatedMap<String, Object>> userProperties =
+            new ConcurrentHashMap<String, ReplicatedMap<String, Object>>();
+
+    private final Set<ReplicatedMap<?, ?>> dirtyMaps =
+            Collections.newSetFromMap(new ConcurrentHashMap<ReplicatedMap<?, ?>, Boolean>());
+    private final PropertyCodec propertyCodec;
+    private final int maxMessageSize;
+    private final ScheduledExecutorService replicationExecutor;
+
+    private volatile boolean running = true;
+
+    /**
+     * Create new cluster context with default settings and start connecting to other cluster members.
+     *
+     * @param localAddress address this node listens on.
+     * @param members      addresses of all cluster members, may contain {@code localAddress}.
+     * @throws IOException when the local address cannot be bound.
+     * @see #builder(InetSocketAddress, Collection)
+     */
+    public NioClusterContext(InetSocketAddress localAddress, Collection<InetSocketAddress> members)
+            throws IOException {
+        this(builder(localAddress, members));
+    }
+
+    private NioClusterContext(Builder builder) throws IOException {
+        final InetSocketAddress localAddress = builder.localAddress;
+        this.propertyCodec = builder.propertyCodec;
+        this.maxMessageSize = builder.maxMessageSize;
+        this.localNodeId = nodeId(localAddress);
+
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.socket().setReuseAddress(true);
+        serverChannel.socket().bind(localAddress);
+
+        if (builder.replicationIntervalNanos > 0) {
+            replicationExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    final Thread thread = new Thread(r, "tyrus-cluster-replication-" + localNodeId);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            replicationExecutor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    flushDirtyMaps();
+                }
+            }, builder.replicationIntervalNanos, builder.replicationIntervalNanos, TimeUnit.NANOSECONDS);
+        } else {
+            replicationExecutor = null;
+        }
+
+        final Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        }, "tyrus-cluster-acceptor-" + localNodeId);
+        acceptor.setDaemon(true);
+        acceptor.start();
+
+        for (InetSocketAddress member : builder.members) {
+            final String nodeId = nodeId(member);
+            if (!nodeId.equals(localNodeId) && !peers.containsKey(nodeId)) {
+                final PeerConnection peer = new PeerConnection(nodeId, member, this, builder.lingerNanos,
+                                                             builder.ackTimeoutNanos);
+                peers.put(nodeId, peer);
+                peer.start();
+            }
+        }
+    }
+
+    /**
+     * Create new builder.
+     *
+     * @param localAddress address this node listens on. It has to be the address other nodes use to connect to it.
+     * @param members      addresses of all cluster members, may contain {@code localAddress}.
+     * @return new builder.
+     */
+    public static Builder builder(InetSocketAddress localAddress, Collection<InetSocketAddress> members) {
+        return new Builder(localAddress, members);
+    }
+
+    /**
+     * Get id of this node.
+     *
+     * @return node id in the form {@code host:port}.
+     */
+    public String getLocalNodeId() {
+        return localNodeId;
+    }
+
+    /**
+     * Get ids of other cluster members this node is currently connected to.
+     *
+     * @return ids of connected nodes.
+     */
+    public Set<String> getConnectedNodeIds() {
+        final Set<String> result = new HashSet<String>();
+        for (PeerConnection peer : peers.values()) {
+            if (peer.isConnected()) {
+                result.add(peer.getNodeId());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Future<Void> sendText(String sessionId, String text) {
+        final TyrusFuture<Void> future = new TyrusFuture<Void>();
+        send(sessionId, Protocol.SEND_TEXT, (byte) 0, text, null, future, null);
+        return future;
+    }
+
+    @Override
+    public Future<Void> sendText(String sessionId, String text, boolean isLast) {
+        final TyrusFuture<Void> future = new TyrusFuture<Void>();
+        send(sessionId, Protocol.SEND_TEXT, partialFlags(isLast), text, null, future, null);
+        return future;
+    }
+
+    @Override
+    public Future<Void> sendBinary(String sessionId, byte[] data) {
+        final TyrusFuture<Void> future = new TyrusFuture<Void>();
+        send(sessionId, Protocol.SEND_BINARY, (byte) 0, null, data, future, null);
+        return future;
+    }
+
+    @Override
+    public Future<Void> sendBinary(String sessionId, byte[] data, boolean isLast) {
+        final TyrusFuture<Void> future = new TyrusFuture<Void>();
+        send(sessionId, Protocol.SEND_BINARY, partialFlags(isLast), null, data, future, null);
+        return future;
+    }
+
+    @Override
+    public Future<Void> sendPing(String sessionId, byte[] data) {
+        final TyrusFuture<Void> future = new TyrusFuture<Void>();
+        send(sessionId, Protocol.SEND_PING, (byte) 0, null, data, future, null);
+        return future;
+    }
+
+    @Override
+    public Future<Void> sendPong(String sessionId, byte[] data) {
+        final TyrusFuture<Void> future = new TyrusFuture<Void>();
+        send(sessionId, Protocol.SEND_PONG, (byte) 0, null, data, future, null);
+        return future;
+    }
+
+    @Override
+    public void sendText(String sessionId, String text, SendHandler sendHandler) {
+        send(sessionId, Protocol.SEND_TEXT, (byte) 0, text, null, null, sendHandler);
+    }
+
+    @Override
+    public void sendBinary(String sessionId, byte[] data, SendHandler sendHandler) {
+        send(sessionId, Protocol.SEND_BINARY, (byte) 0, null, data, null, sendHandler);
+    }
+
+    @Override
+    public void sendText(String sessionId, String text, boolean isLast, SendHandler sendHandler) {
+        send(sessionId, Protocol.SEND_TEXT, partialFlags(isLast), text, null, null, sendHandler);
+    }
+
+    @Override
+    public void sendBinary(String sessionId, byte[] data, boolean isLast, SendHandler sendHandler) {
+        send(sessionId, Protocol.SEND_BINARY, partialFlags(isLast), null, data, null, sendHandler);
+    }
+
+    @Override
+    public void broadcastText(String endpointPath, String text) {
+        sendToAll(checkMessageSize(
+                new MessageWriter(Protocol.BROADCAST_TEXT, text.length() + endpointPath.length() + 8)
+                        .putString(endpointPath).putString(text).toByteBuffer()));
+        onBroadcast(endpointPath, null, text, null);
+    }
+
+    @Override
+    public void broadcastBinary(String endpointPath, byte[] data) {
+        sendToAll(checkMessageSize(
+                new MessageWriter(Protocol.BROADCAST_BINARY, data.length + endpointPath.length() + 8)
+                        .putString(endpointPath).putBytes(data).toByteBuffer()));
+        onBroadcast(endpointPath, null, null, data);
+    }
+
+    @Override
+    public boolean broadcastText(String endpointPath, String group, String text) {
+        sendToAll(checkMessageSize(
+                new MessageWriter(Protocol.GROUP_BROADCAST_TEXT,
+                                  text.length() + endpointPath.length() + group.length() + 12)
+                        .putString(endpointPath).putString(group).putString(text).toByteBuffer()));
+        onBroadcast(endpointPath, group, text, null);
+        return true;
+    }
+
+    @Override
+    public boolean broadcastBinary(String endpointPath, String group, byte[] data) {
+        sendToAll(checkMessageSize(
+                new MessageWriter(Protocol.GROUP_BROADCAST_BINARY,
+                                  data.length + endpointPath.length() + group.length() + 12)
+                        .putString(endpointPath).putString(group).putBytes(data).toByteBuffer()));
+        onBroadcast(endpointPath, group, null, data);
+        return true;
+    }
+
+    @Override
+    public boolean isSessionOpen(String sessionId, String endpointPath) {
+        final LocalSession localSession = localSessions.get(sessionId);
+        if (localSession != null) {
+            return localSession.endpointPath.equals(endpointPath);
+        }
+
+        return endpointPath.equals(remoteSessionPaths.get(sessionId));
+    }
+
+    @Override
+    public Future<Void> close(String sessionId) {
+        return close(sessionId, null);
+    }
+
+    @Override
+    public Future<Void> close(String sessionId, CloseReason closeReason) {
+        final TyrusFuture<Void> future = new TyrusFuture<Void>();
+
+        final LocalSession localSession = localSessions.get(sessionId);
+        if (localSession != null) {
+            try {
+                if (closeReason == null) {
+                    localSession.listener.onClose();
+                } else {
+                    localSession.listener.onClose(closeReason);
+                }
+                future.setResult(null);
+            } catch (IOException e) {
+                future.setFailure(e);
+            }
+            return future;
+        }
+
+        sendRequest(new SendRequest(Protocol.CLOSE, sessionId, (byte) 0, null, null, closeReason, future, null),
+                    sessionId);
+        return future;
+    }
+
+    @Override
+    public Set<String> getRemoteSessionIds(String endpointPath) {
+        final Set<String> sessionIds = remoteSessions.get(endpointPath);
+        if (sessionIds == null) {
+            return Collections.emptySet();
+        }
+        return new HashSet<String>(sessionIds);
+    }
+
+    @Override
+    public String createSessionId() {
+        return UUID.randomUUID().toString() + "@" + localNodeId;
+    }
+
+    @Override
+    public String createConnectionId() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Override
+    public void registerSession(String sessionId, String endpointPath, SessionEventListener listener) {
+        // other nodes create remote session from its properties when they get notified.
+        getSessionProperties(sessionId).flush();
+
+        synchronized (registryLock) {
+            localSessions.put(sessionId, new LocalSession(endpointPath, listener));
+            sendToAll(sessionMessage(Protocol.SESSION_OPENED, endpointPath, sessionId));
+        }
+    }
+
+    @Override
+    public void registerSessionListener(String endpointPath, SessionListener listener) {
+        getListeners(sessionListeners, endpointPath).add(listener);
+    }
+
+    @Override
+    public void registerBroadcastListener(String endpointPath, BroadcastListener listener) {
+        getListeners(broadcastListeners, endpointPath).add(listener);
+    }
+
+    @Override
+    public Map<RemoteSession.DistributedMapKey, Object> getDistributedSessionProperties(String sessionId) {
+        return getSessionProperties(sessionId);
+    }
+
+    @Override
+    public Map<String, Object> getDistributedUserProperties(String connectionId) {
+        return getUserProperties(connectionId);
+    }
+
+    @Override
+    public void destroyDistributedUserProperties(String connectionId) {
+        final ReplicatedMap<String, Object> map = userProperties.remove(connectionId);
+        if (map != null) {
+            map.destroy();
+            sendToAll(new MessageWriter(Protocol.MAP_DESTROY, connectionId.length() + 8)
+                              .putByte(Protocol.USER_PROPERTIES).putString(connectionId).toByteBuffer());
+        }
+    }
+
+    @Override
+    public void removeSession(String sessionId, String endpointPath) {
+        synchronized (registryLock) {
+            if (localSessions.remove(sessionId) == null) {
+                return;
+            }
+            destroy(sessionProperties.remove(sessionId));
+            sendToAll(sessionMessage(Protocol.SESSION_CLOSED, endpointPath, sessionId));
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+
+        if (replicationExecutor != null) {
+            replicationExecutor.shutdownNow();
+        }
+
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            // ignore.
+        }
+
+        for (PeerConnection peer : peers.values()) {
+            peer.close();
+        }
+        for (InboundConnection connection : inbound.values()) {
+            connection.close();
+        }
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    PropertyCodec getPropertyCodec() {
+        return propertyCodec;
+    }
+
+    int getMaxMessageSize() {
+        return maxMessageSize;
+    }
+
+    /**
+     * A map has been modified, replicate it immediately or schedule it for the next replication.
+     *
+     * @param map modified map.
+     */
+    void onDirty(ReplicatedMap<?, ?> map) {
+        if (replicationExecutor == null) {
+            map.flush();
+        } else {
+            dirtyMaps.add(map);
+        }
+    }
+
+    /**
+     * Send the state of this node to a newly connected node.
+     *
+     * @param peer connection to the node.
+     */
+    void onPeerConnected(PeerConnection peer) {
+        for (ReplicatedMap<RemoteSession.DistributedMapKey, Object> map : sessionProperties.values()) {
+            if (isLocal(map.getId())) {
+                map.replicateTo(peer);
+            }
+        }
+        for (ReplicatedMap<String, Object> map : userProperties.values()) {
+            map.replicateTo(peer);
+        }
+
+        synchronized (registryLock) {
+            for (Map.Entry<String, LocalSession> entry : localSessions.entrySet()) {
+                peer.send(sessionMessage(Protocol.SESSION_OPENED, entry.getValue().endpointPath, entry.getKey()));
+            }
+        }
+    }
+
+    /**
+     * A node connected to this node. Previous connection from the same node is replaced and all state received over
+     * it is dropped, since the node sends its complete state again.
+     *
+     * @param nodeId     id of the node.
+     * @param connection new connection.
+     */
+    void onInboundConnected(String nodeId, InboundConnection connection) {
+        final InboundConnection previous = inbound.put(nodeId, connection);
+        if (previous != null) {
+            previous.close();
+            removeNodeSessions(nodeId);
+        }
+    }
+
+    /**
+     * Connection from a node has been closed, the node is considered to be down.
+     *
+     * @param nodeId     id of the node.
+     * @param connection closed connection.
+     */
+    void onInboundDisconnected(String nodeId, InboundConnection connection) {
+        if (inbound.remove(nodeId) != connection) {
+            // replaced by a newer connection, removal has already been handled.
+            return;
+        }
+        removeNodeSessions(nodeId);
+
+        // acknowledgements of requests sent to the node cannot arrive anymore.
+        final PeerConnection peer = peers.get(nodeId);
+        if (peer != null) {
+            peer.failPending();
+        }
+    }
+
+    /**
+     * Process message received from another node.
+     *
+     * @param nodeId id of the node the message was received from.
+     * @param reader message.
+     * @throws ProtocolException when the message is malformed.
+     */
+    void onMessage(String nodeId, MessageReader reader) throws ProtocolException {
+        final byte type = reader.getByte();
+
+        switch (type) {
+            case Protocol.BATCH:
+                onBatch(nodeId, reader);
+                break;
+            case Protocol.BATCH_ACK:
+                onBatchAck(nodeId, reader);
+                break;
+            case Protocol.BROADCAST_TEXT:
+                onBroadcast(reader.getString(), null, reader.getString(), null);
+                break;
+            case Protocol.BROADCAST_BINARY:
+                onBroadcast(reader.getString(), null, null, reader.getBytes());
+                break;
+            case Protocol.GROUP_BROADCAST_TEXT:
+                onBroadcast(reader.getString(), reader.getString(), reader.getString(), null);
+                break;
+            case Protocol.GROUP_BROADCAST_BINARY:
+                onBroadcast(reader.getString(), reader.getString(), null, reader.getBytes());
+                break;
+            case Protocol.SESSION_OPENED:
+                onRemoteSessionOpened(reader.getString(), reader.getString());
+                break;
+            case Protocol.SESSION_CLOSED:
+                onRemoteSessionClosed(reader.getString(), reader.getString());
+                break;
+            case Protocol.MAP_DELTA:
+            case Protocol.MAP_DESTROY:
+                onMapUpdate(type, reader);
+                break;
+            default:
+                LOGGER.log(Level.WARNING, "Unknown cluster message type: " + type);
+        }
+    }
+
+    private void send(String sessionId, byte type, byte flags, String text, byte[] data, TyrusFuture<Void> future,
+                      SendHandler handler) {
+        final LocalSession localSession = localSessions.get(sessionId);
+        if (localSession != null) {
+            try {
+                deliver(localSession.listener, type, flags, text, data);
+                SendRequest.complete(future, handler, null);
+            } catch (IOException e) {
+                SendRequest.complete(future, handler, e);
+            }
+            return;
+        }
+
+        sendRequest(new SendRequest(type, sessionId, flags, text, data, null, future, handler), sessionId);
+    }
+
+    private void sendRequest(SendRequest request, String sessionId) {
+        final String nodeId = ownerOf(sessionId);
+        final PeerConnection peer = nodeId == null ? null : peers.get(nodeId);
+        if (peer == null) {
+            request.fail(new IOException("Session " + sessionId + " not found."));
+        } else if (!peer.send(request)) {
+            request.fail(new IOException("Cluster node " + nodeId + " is not connected."));
+        }
+    }
+
+    private void onBatch(String nodeId, MessageReader reader) throws ProtocolException {
+        final long firstRequestId = reader.getLong();
+        final int count = reader.getInt();
+
+        Map<Integer, String> failures = null;
+        for (int i = 0; i < count; i++) {
+            final String error = onRequest(reader.getByte(), reader);
+            if (error != null) {
+                if (failures == null) {
+                    failures = new HashMap<Integer, String>();
+                }
+                failures.put(i, error);
+            }
+        }
+
+        final PeerConnection peer = peers.get(nodeId);
+        if (peer == null) {
+            LOGGER.log(Level.WARNING, "Batch received from unknown cluster node " + nodeId + ", not acknowledged.");
+            return;
+        }
+
+        final MessageWriter writer = new MessageWriter(Protocol.BATCH_ACK, 16).putLong(firstRequestId).putInt(count);
+        if (failures == null) {
+            writer.putInt(0);
+        } else {
+            writer.putInt(failures.size());
+            for (Map.Entry<Integer, String> failure : failures.entrySet()) {
+                writer.putInt(failure.getKey()).putString(failure.getValue());
+            }
+        }
+        if (!peer.send(writer.toByteBuffer())) {
+            // the requests fail on the other node after the acknowledgement timeout.
+            LOGGER.log(Level.FINE, "Acknowledgement of a batch could not be sent to cluster node " + nodeId + ".");
+        }
+    }
+
+    private void onBatchAck(String nodeId, MessageReader reader) throws ProtocolException {
+        final long firstRequestId = reader.getLong();
+        final int count = reader.getInt();
+        final int failureCount = reader.getInt();
+
+        Map<Integer, String> failures = null;
+        if (failureCount > 0) {
+            failures = new HashMap<Integer, String>();
+            for (int i = 0; i < failureCount; i++) {
+                final int index = reader.getInt();
+                failures.put(index, reader.getString());
+            }
+        }
+
+        final PeerConnection peer = peers.get(nodeId);
+        if (peer != null) {
+            peer.onBatchAck(firstRequestId, count, failures);
+        }
+    }
+
+    /**
+     * Process one entry of a {@link Protocol#BATCH}. The entry is always read completely, so the next entry can be
+     * processed even if this one fails.
+     *
+     * @return error message or {@code null} when the request succeeded.
+     * @throws ProtocolException when the entry is malformed.
+     */
+    private String onRequest(byte type, MessageReader reader) throws ProtocolException {
+        final String sessionId = reader.getString();
+
+        byte flags = 0;
+        String text = null;
+        byte[] data = null;
+        CloseReason closeReason = null;
+        switch (type) {
+            case Protocol.SEND_TEXT:
+                flags = reader.getByte();
+                text = reader.getString();
+                break;
+            case Protocol.SEND_BINARY:
+                flags = reader.getByte();
+                data = reader.getBytes();
+                break;
+            case Protocol.CLOSE:
+                if (reader.getBoolean()) {
+                    final int code = reader.getInt();
+                    closeReason = new CloseReason(CloseReason.CloseCodes.getCloseCode(code), reader.getString());
+                }
+                break;
+            default:
+                data = reader.getBytes();
+        }
+
+        final LocalSession localSession = localSessions.get(sessionId);
+        if (localSession == null) {
+            return "Session " + sessionId + " not found.";
+        }
+
+        try {
+            if (type != Protocol.CLOSE) {
+                deliver(localSession.listener, type, flags, text, data);
+            } else if (closeReason == null) {
+                localSession.listener.onClose();
+            } else {
+                localSession.listener.onClose(closeReason);
+            }
+            return null;
+        } catch (Exception e) {
+            return e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+        }
+    }
+
+    private static void deliver(SessionEventListener listener, byte type, byte flags, String text, byte[] data)
+            throws IOException {
+        final boolean partial = (flags & Protocol.FLAG_PARTIAL) != 0;
+        final boolean last = (flags & Protocol.FLAG_LAST) != 0;
+
+        switch (type) {
+            case Protocol.SEND_TEXT:
+                if (partial) {
+                    listener.onSendText(text, last);
+                } else {
+                    listener.onSendText(text);
+                }
+                break;
+            case Protocol.SEND_BINARY:
+                if (partial) {
+                    listener.onSendBinary(data, last);
+                } else {
+                    listener.onSendBinary(data);
+                }
+                break;
+            case Protocol.SEND_PING:
+                listener.onSendPing(data);
+                break;
+            case Protocol.SEND_PONG:
+                listener.onSendPong(data);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown message type: " + type);
+        }
+    }
+
+    private void onBroadcast(String endpointPath, String group, String text, byte[] data) {
+        final List<BroadcastListener> listeners = broadcastListeners.get(endpointPath);
+        if (listeners == null) {
+            return;
+        }
+
+        for (BroadcastListener listener : listeners) {
+            try {
+                if (group == null) {
+                    if (text != null) {
+                        listener.onBroadcast(text);
+                    } else {
+                        listener.onBroadcast(data);
+                    }
+                } else if (listener instanceof GroupBroadcastListener) {
+                    if (text != null) {
+                        ((GroupBroadcastListener) listener).onBroadcast(group, text);
+                    } else {
+                        ((GroupBroadcastListener) listener).onBroadcast(group, data);
+                    }
+                }
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Broadcast listener failed.", e);
+            }
+        }
+    }
+
+    private void onRemoteSessionOpened(String endpointPath, String sessionId) {
+        Set<String> sessionIds = remoteSessions.get(endpointPath);
+        if (sessionIds == null) {
+            final Set<String> newSet = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            sessionIds = remoteSessions.putIfAbsent(endpointPath, newSet);
+            if (sessionIds == null) {
+                sessionIds = newSet;
+            }
+        }
+
+        remoteSessionPaths.put(sessionId, endpointPath);
+        if (sessionIds.add(sessionId)) {
+            final List<SessionListener> listeners = sessionListeners.get(endpointPath);
+            if (listeners != null) {
+                for (SessionListener listener : listeners) {
+                    try {
+                        listener.onSessionOpened(sessionId);
+                    } catch (Exception e) {
+                        LOGGER.log(Level.WARNING, "Session listener failed.", e);
+                    }
+                }
+            }
+        }
+    }
+
+    private void onRemoteSessionClosed(String endpointPath, String sessionId) {
+        remoteSessionPaths.remove(sessionId);
+        destroy(sessionProperties.remove(sessionId));
+
+        final Set<String> sessionIds = remoteSessions.get(endpointPath);
+        if (sessionIds != null && sessionIds.remove(sessionId)) {
+            final List<SessionListener> listeners = sessionListeners.get(endpointPath);
+            if (listeners != null) {
+                for (SessionListener listener : listeners) {
+                    try {
+                        listener.onSessionClosed(sessionId);
+                    } catch (Exception e) {
+                        LOGGER.log(Level.WARNING, "Session listener failed.", e);
+                    }
+                }
+            }
+        }
+    }
+
+    private void removeNodeSessions(String nodeId) {
+        for (Map.Entry<String, String> entry : remoteSessionPaths.entrySet()) {
+            if (nodeId.equals(ownerOf(entry.getKey()))) {
+                onRemoteSessionClosed(entry.getValue(), entry.getKey());
+            }
+        }
+        for (String sessionId : sessionProperties.keySet()) {
+            if (nodeId.equals(ownerOf(sessionId))) {
+                destroy(sessionProperties.remove(sessionId));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onMapUpdate(byte type, MessageReader reader) throws ProtocolException {
+        final byte mapType = reader.getByte();
+        final String mapId = reader.getString();
+
+        if (type == Protocol.MAP_DESTROY) {
+            destroy(mapType == Protocol.SESSION_PROPERTIES ? sessionProperties.remove(mapId)
+                            : userProperties.remove(mapId));
+            return;
+        }
+
+        final ReplicatedMap<Object, Object> map = (ReplicatedMap<Object, Object>) (ReplicatedMap<?, ?>)
+                (mapType == Protocol.SESSION_PROPERTIES ? getSessionProperties(mapId) : getUserProperties(mapId));
+
+        final int count = reader.getInt();
+        for (int i = 0; i < count; i++) {
+            final Object key = decodeKey(mapType, reader.getString());
+            final byte[] value = reader.getBytes();
+            if (value == null) {
+                map.removeLocal(key);
+                continue;
+            }
+
+            try {
+                map.putLocal(key, propertyCodec.decode(value));
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Value of distributed property " + key + " cannot be deserialized.", e);
+            }
+        }
+    }
+
+    private void flushDirtyMaps() {
+        for (ReplicatedMap<?, ?> map : dirtyMaps) {
+            // removed before flushing, a concurrent modification adds the map again.
+            dirtyMaps.remove(map);
+            try {
+                map.flush();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Replication of distributed properties failed.", e);
+            }
+        }
+    }
+
+    private void destroy(ReplicatedMap<?, ?> map) {
+        if (map != null) {
+            map.destroy();
+            dirtyMaps.remove(map);
+        }
+    }
+
+    private ReplicatedMap<RemoteSession.DistributedMapKey, Object> getSessionProperties(String sessionId) {
+        ReplicatedMap<RemoteSession.DistributedMapKey, Object> map = sessionProperties.get(sessionId);
+        if (map == null) {
+            final ReplicatedMap<RemoteSession.DistributedMapKey, Object> newMap =
+                    new ReplicatedMap<RemoteSession.DistributedMapKey, Object>(this, Protocol.SESSION_PROPERTIES,
+                                                                               sessionId);
+            map = sessionProperties.putIfAbsent(sessionId, newMap);
+            if (map == null) {
+                map = newMap;
+            }
+        }
+        return map;
+    }
+
+    private ReplicatedMap<String, Object> getUserProperties(String connectionId) {
+        ReplicatedMap<String, Object> map = userProperties.get(connectionId);
+        if (map == null) {
+            final ReplicatedMap<String, Object> newMap =
+                    new ReplicatedMap<String, Object>(this, Protocol.USER_PROPERTIES, connectionId);
+            map = userProperties.putIfAbsent(connectionId, newMap);
+            if (map == null) {
+                map = newMap;
+            }
+        }
+        return map;
+    }
+
+    static String encodeKey(Object key) {
+        return key instanceof RemoteSession.DistributedMapKey ? ((RemoteSession.DistributedMapKey) key).name()
+                : key.toString();
+    }
+
+    private static Object decodeKey(byte mapType, String key) {
+        return mapType == Protocol.SESSION_PROPERTIES ? RemoteSession.DistributedMapKey.valueOf(key) : key;
+    }
+
+    /**
+     * Check that a message does not exceed the maximal message size, so that it is not dropped by
+     * {@link PeerConnection#send(ByteBuffer)}.
+     *
+     * @param message message to be checked, see {@link MessageWriter#toByteBuffer()}.
+     * @return the checked message.
+     * @throws IllegalArgumentException when the message exceeds the maximal message size.
+     */
+    private ByteBuffer checkMessageSize(ByteBuffer message) {
+        if (message.remaining() - Protocol.LENGTH_SIZE > maxMessageSize) {
+            throw new IllegalArgumentException("Cluster message of " + message.remaining() + " bytes exceeds maximal "
+                                                       + "message size " + maxMessageSize + ".");
+        }
+        return message;
+    }
+
+    /**
+     * Send a message to all connected nodes.
+     *
+     * @param message message to be sent.
+     */
+    void sendToAll(ByteBuffer message) {
+        for (PeerConnection peer : peers.values()) {
+            // buffers are shared, each connection needs its own position.
+            peer.send(message.duplicate());
+        }
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                final SocketChannel channel = serverChannel.accept();
+                channel.socket().setTcpNoDelay(true);
+                new InboundConnection(channel, this).start();
+            } catch (IOException e) {
+                if (running) {
+                    LOGGER.log(Level.WARNING, "Cannot accept cluster connection.", e);
+                }
+            }
+        }
+    }
+
+    private boolean isLocal(String sessionId) {
+        return localNodeId.equals(ownerOf(sessionId));
+    }
+
+    private static String ownerOf(String sessionId) {
+        final int index = sessionId.lastIndexOf('@');
+        return index < 0 ? null : sessionId.substring(index + 1);
+    }
+
+    private static ByteBuffer sessionMessage(byte type, String endpointPath, String sessionId) {
+        return new MessageWriter(type, endpointPath.length() + sessionId.length() + 8).putString(endpointPath)
+                                                                                      .putString(sessionId)
+                                                                                      .toByteBuffer();
+    }
+
+    private static byte partialFlags(boolean isLast) {
+        return isLast ? (byte) (Protocol.FLAG_PARTIAL | Protocol.FLAG_LAST) : Protocol.FLAG_PARTIAL;
+    }
+
+    private static String nodeId(InetSocketAddress address) {
+        return address.getHostString() + ":" + address.getPort();
+    }
+
+    private static <T> List<T> getListeners(ConcurrentMap<String, List<T>> listeners, String endpointPath) {
+        List<T> list = listeners.get(endpointPath);
+        if (list == null) {
+            final List<T> newList = new CopyOnWriteArrayList<T>();
+            list = listeners.putIfAbsent(endpointPath, newList);
+            if (list == null) {
+                list = newList;
+            }
+        }
+        return list;
+    }
+
+    private static final class LocalSession {
+
+        private final String endpointPath;
+        private final SessionEventListener listener;
+
+        LocalSession(String endpointPath, SessionEventListener listener) {
+            this.endpointPath = endpointPath;
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * {@link NioClusterContext} builder.
+     */
+    public static final class Builder {
+
+        private final InetSocketAddress localAddress;
+        private final Collection<InetSocketAddress> members;
+        private long lingerNanos = TimeUnit.MICROSECONDS.toNanos(DEFAULT_LINGER_MICROS);
+        private long replicationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_REPLICATION_INTERVAL_MILLIS);
+        private PropertyCodec propertyCodec = new DefaultPropertyCodec();
+        private int maxMessageSize = DEFAULT_MAX_MESSAGE_SIZE;
+        private long ackTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_ACK_TIMEOUT_MILLIS);
+
+        private Builder(InetSocketAddress localAddress, Collection<InetSocketAddress> members) {
+            this.localAddress = localAddress;
+            this.members = members;
+        }
+
+        /**
+         * Set time to wait for more messages going to the same node before sending them.
+         *
+         * @param linger linger window, {@code 0} sends immediately (messages queued in the meantime are still
+         *               coalesced).
+         * @param unit   unit of {@code linger}.
+         * @return updated builder.
+         */
+        public Builder linger(long linger, TimeUnit unit) {
+            this.lingerNanos = unit.toNanos(linger);
+            return this;
+        }
+
+        /**
+         * Set interval of distributed property replication.
+         *
+         * @param interval replication interval, {@code 0} replicates every modification immediately.
+         * @param unit     unit of {@code interval}.
+         * @return updated builder.
+         */
+        public Builder replicationInterval(long interval, TimeUnit unit) {
+            this.replicationIntervalNanos = unit.toNanos(interval);
+            return this;
+        }
+
+        /**
+         * Set codec used to serialize values of distributed properties.
+         *
+         * @param propertyCodec property codec, all nodes have to use compatible codecs.
+         * @return updated builder.
+         */
+        public Builder propertyCodec(PropertyCodec propertyCodec) {
+            this.propertyCodec = propertyCodec;
+            return this;
+        }
+
+        /**
+         * Set time to wait for acknowledgement of a send to a session connected to another node. The returned future
+         * fails (or the {@link SendHandler} is notified about the failure) when the acknowledgement does not arrive
+         * in time; the message might have been delivered nevertheless.
+         *
+         * @param ackTimeout acknowledgement timeout.
+         * @param unit       unit of {@code ackTimeout}.
+         * @return updated builder.
+         */
+        public Builder ackTimeout(long ackTimeout, TimeUnit unit) {
+            this.ackTimeoutNanos = unit.toNanos(ackTimeout);
+            return this;
+        }
+
+        /**
+         * Set maximal size of one message exchanged between nodes. Larger messages are not sent and a node sending
+         * one is disconnected, so the limit also bounds the memory allocated for a message read from the network.
+         *
+         * @param maxMessageSize maximal message size in bytes, all nodes have to use the same value.
+         * @return updated builder.
+         */
+        public Builder maxMessageSize(int maxMessageSize) {
+            if (maxMessageSize < 1) {
+                throw new IllegalArgumentException("maxMessageSize has to be positive.");
+            }
+            this.maxMessageSize = maxMessageSize;
+            return this;
+        }
+
+        /**
+         * Create new cluster context and start connecting to other cluster members.
+         *
+         * @return new cluster context.
+         * @throws IOException when the local address cannot be bound.
+         */
+        public NioClusterContext build() throws IOException {
+            return new NioClusterContext(this);
+        }
+    }
+}
@@ -0,0 +1,438 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.ext.cluster.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Outgoing connection to another cluster node.
+ * <p>
+ * Messages and {@link SendRequest requests} are queued and written by a dedicated thread. The thread collects
+ * everything queued within the linger window (up to {@link #MAX_BATCH} items), encodes consecutive requests into one
+ * {@link Protocol#BATCH} message and writes the result using one gathering write. Requests are acknowledged by one
+ * {@link Protocol#BATCH_ACK} per batch, received over the connection from the other node. A batch is split when it
+ * could exceed the maximal message size; messages and requests which exceed it on their own are not sent.
+ * <p>
+ * Requests which are not acknowledged within the acknowledgement timeout fail; the other node might not be able to
+ * send the acknowledgement, for example when its connection to this node is not established yet.
+ * <p>
+ * Everything is written in the order it was queued, so messages sent to the same session are delivered in order.
+ * When the connection is lost, queued and unacknowledged requests fail, other queued messages are discarded and the
+ * thread tries to reconnect; the other node gets full state of this node once the connection is established again.
+ */
+class PeerConnection implements Runnable {
+
+    private static final Logger LOGGER = Logger.getLogger(PeerConnection.class.getName());
+
+    private static final int MAX_BATCH = 256;
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final long RECONNECT_DELAY = 500;
+
+    private final String nodeId;
+    private final InetSocketAddress address;
+    private final NioClusterContext context;
+    private final long lingerNanos;
+    private final int maxMessageSize;
+    private final long ackTimeoutNanos;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<Object>();
+    private final Map<Long, SendRequest> pending = new ConcurrentHashMap<Long, SendRequest>();
+    private final Thread thread;
+
+    private volatile SocketChannel channel;
+    private volatile boolean connected = false;
+
+    // accessed only by the writer thread.
+    private long nextRequestId = 0;
+    private final Queue<WrittenBatch> unacknowledged = new ArrayDeque<WrittenBatch>();
+
+    /**
+     * Create new connection. The connection is established asynchronously after {@link #start()} is invoked.
+     *
+     * @param nodeId      id of the node.
+     * @param address     address of the node.
+     * @param context     cluster context.
+     * @param lingerNanos     time the writer waits for more messages before writing a batch, in nanoseconds.
+     * @param ackTimeoutNanos time after which a request which has not been acknowledged fails, in nanoseconds.
+     */
+    PeerConnection(String nodeId, InetSocketAddress address, NioClusterContext context, long lingerNanos,
+                   long ackTimeoutNanos) {
+        this.nodeId = nodeId;
+        this.address = address;
+        this.context = context;
+        this.lingerNanos = lingerNanos;
+        this.ackTimeoutNanos = ackTimeoutNanos;
+        this.maxMessageSize = context.getMaxMessageSize();
+        this.thread = new Thread(this, "tyrus-cluster-writer-" + nodeId);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+
+    boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Queue a message.
+     *
+     * @param message message to be sent, see {@link MessageWriter#toByteBuffer()}.
+     * @return {@code true} if the message was queued, {@code false} if the node is not connected or the message
+     * exceeds the maximal message size.
+     */
+    boolean send(ByteBuffer message) {
+        if (!connected) {
+            return false;
+        }
+
+        if (message.remaining() - Protocol.LENGTH_SIZE > maxMessageSize) {
+            LOGGER.log(Level.WARNING, "Cluster message of " + message.remaining() + " bytes exceeds maximal message "
+                    + "size, not sent to cluster node " + nodeId + ".");
+            return false;
+        }
+
+        queue.add(message);
+        return true;
+    }
+
+    /**
+     * Queue a request. The request is completed when it is acknowledged by the other node or when the connection is
+     * lost.
+     *
+     * @param request request to be sent.
+     * @return {@code true} if the request was queued, {@code false} if the node is not connected.
+     */
+    boolean send(SendRequest request) {
+        if (!connected) {
+            return false;
+        }
+
+        queue.add(request);
+        return true;
+    }
+
+    /**
+     * Process acknowledgement of a batch.
+     *
+     * @param firstRequestId id of the first request in the batch.
+     * @param count          number of requests in the batch.
+     * @param failures       failed requests, index in the batch to error message; can be {@code null}.
+     */
+    void onBatchAck(long firstRequestId, int count, Map<Integer, String> failures) {
+        for (int i = 0; i < count; i++) {
+            final SendRequest request = pending.remove(firstRequestId + i);
+            if (request == null) {
+                continue;
+            }
+
+            final String error = failures == null ? null : failures.get(i);
+            if (error == null) {
+                request.complete();
+            } else {
+                request.fail(new IOException(error));
+            }
+        }
+    }
+
+    /**
+     * Fail all requests waiting for acknowledgement, used when the acknowledgements cannot arrive anymore.
+     */
+    void failPending() {
+        final IOException failure = new IOException("Connection to cluster node " + nodeId + " lost.");
+        for (Long requestId : pending.keySet()) {
+            final SendRequest request = pending.remove(requestId);
+            if (request != null) {
+                request.fail(failure);
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        final List<Object> batch = new ArrayList<Object>(MAX_BATCH);
+
+        while (context.isRunning()) {
+            try {
+                if (!connected) {
+                    if (!connect()) {
+                        Thread.sleep(RECONNECT_DELAY);
+                    }
+                    continue;
+                }
+
+                failUnacknowledged();
+
+                final Object first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                linger(batch);
+                write(encode(batch));
+                batch.clear();
+            } catch (InterruptedException e) {
+                break;
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Connection to cluster node " + nodeId + " lost.", e);
+                // requests of the batch are pending at this point.
+                batch.clear();
+                unacknowledged.clear();
+                disconnect();
+            }
+        }
+
+        close();
+    }
+
+    /**
+     * Close the connection without reconnecting.
+     */
+    void close() {
+        connected = false;
+        closeChannel();
+        thread.interrupt();
+        failQueued();
+        failPending();
+    }
+
+    private void linger(List<Object> batch) throws InterruptedException {
+        if (lingerNanos <= 0) {
+            return;
+        }
+
+        final long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < MAX_BATCH) {
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+
+            final Object next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, MAX_BATCH - batch.size());
+        }
+    }
+
+    /**
+     * Encode queued items. Requests are registered as pending before they are written, so the acknowledgement cannot
+     * arrive before the registration.
+     */
+    private ByteBuffer[] encode(List<Object> batch) {
+        final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>(batch.size());
+
+        int i = 0;
+        while (i < batch.size()) {
+            final Object item = batch.get(i);
+            if (item instanceof ByteBuffer) {
+                buffers.add((ByteBuffer) item);
+                i++;
+                continue;
+            }
+
+            int end = i;
+            int size = 16;
+            int maxSize = 16;
+            while (end < batch.size() && batch.get(end) instanceof SendRequest) {
+                final SendRequest request = (SendRequest) batch.get(end);
+                if (end > i && maxSize + request.maxSize() > maxMessageSize) {
+                    break;
+                }
+                size += request.size();
+                maxSize += request.maxSize();
+                end++;
+            }
+
+            final MessageWriter writer = new MessageWriter(Protocol.BATCH, size).putLong(nextRequestId)
+                                                                               .putInt(end - i);
+            for (int j = i; j < end; j++) {
+                ((SendRequest) batch.get(j)).encode(writer);
+            }
+
+            if (writer.size() > maxMessageSize) {
+                // only a single request can exceed the limit, see the split above.
+                ((SendRequest) batch.get(i)).fail(new IOException("Message exceeds maximal cluster message size."));
+            } else {
+                unacknowledged.add(new WrittenBatch(nextRequestId, end - i, System.nanoTime() + ackTimeoutNanos));
+                for (int j = i; j < end; j++) {
+                    pending.put(nextRequestId++, (SendRequest) batch.get(j));
+                }
+                buffers.add(writer.toByteBuffer());
+            }
+            i = end;
+        }
+
+        return buffers.toArray(new ByteBuffer[buffers.size()]);
+    }
+
+    /**
+     * Fail requests of batches written before the acknowledgement timeout. Batches are acknowledged in the order they
+     * were written, so only the oldest ones need to be checked.
+     */
+    private void failUnacknowledged() {
+        final long now = System.nanoTime();
+
+        WrittenBatch oldest;
+        while ((oldest = unacknowledged.peek()) != null && now - oldest.deadline >= 0) {
+            unacknowledged.remove();
+
+            IOException failure = null;
+            for (long requestId = oldest.firstRequestId; requestId < oldest.firstRequestId + oldest.count;
+                 requestId++) {
+                final SendRequest request = pending.remove(requestId);
+                if (request != null) {
+                    if (failure == null) {
+                        failure = new IOException("Request not acknowledged by cluster node " + nodeId + ".");
+                    }
+                    request.fail(failure);
+                }
+            }
+        }
+    }
+
+    private boolean connect() {
+        final SocketChannel socketChannel;
+        try {
+            socketChannel = SocketChannel.open();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Cannot open channel.", e);
+            return false;
+        }
+
+        try {
+            socketChannel.socket().setTcpNoDelay(true);
+            socketChannel.socket().connect(address, CONNECT_TIMEOUT);
+            channel = socketChannel;
+            write(new ByteBuffer[]{
+                    new MessageWriter(Protocol.HELLO, 32).putString(context.getLocalNodeId()).toByteBuffer()});
+        } catch (IOException e) {
+            LOGGER.log(Level.FINEST, "Cannot connect to cluster node " + nodeId + ".", e);
+            closeChannel();
+            return false;
+        }
+
+        failQueued();
+        connected = true;
+        LOGGER.log(Level.FINE, "Connected to cluster node " + nodeId + ".");
+        context.onPeerConnected(this);
+        return true;
+    }
+
+    private void disconnect() {
+        connected = false;
+        closeChannel();
+        failQueued();
+        failPending();
+    }
+
+    private void failQueued() {
+        final List<Object> queued = new ArrayList<Object>();
+        queue.drainTo(queued);
+
+        IOException failure = null;
+        for (Object item : queued) {
+            if (item instanceof SendRequest) {
+                if (failure == null) {
+                    failure = new IOException("Cluster node " + nodeId + " is not connected.");
+                }
+                ((SendRequest) item).fail(failure);
+            }
+        }
+    }
+
+    private void write(ByteBuffer[] buffers) throws IOException {
+        if (buffers.length == 0) {
+            return;
+        }
+
+        final ByteBuffer last = buffers[buffers.length - 1];
+        while (last.hasRemaining()) {
+            channel.write(buffers);
+        }
+    }
+
+    private void closeChannel() {
+        final SocketChannel socketChannel = channel;
+        if (socketChannel != null) {
+            try {
+                socketChannel.close();
+            } catch (IOException e) {
+                // ignore.
+            }
+        }
+    }
+
+    private static final class WrittenBatch {
+
+        private final long firstRequestId;
+        private final int count;
+        private final long deadline;
+
+        WrittenBatch(long firstRequestId, int count, long deadline) {
+            this.firstRequestId = firstRequestId;
+            this.count = count;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.ext.cluster.nio;
+
+/**
+ * Constants of the binary protocol used between cluster nodes.
+ * <p>
+ * Every message is prefixed by its length (4 bytes, not including the length itself) followed by one byte
+ * identifying the message type. The rest of the message depends on the type; strings are encoded as length followed
+ * by UTF-8 bytes, see {@link MessageWriter} and {@link MessageReader}.
+ * <p>
+ * Each node opens one connection to every other node and uses it only for sending, so messages from one node to
+ * another are always delivered in order.
+ */
+final class Protocol {
+
+    /**
+     * First message sent over a new connection: {@code nodeId}.
+     */
+    static final byte HELLO = 1;
+
+    /**
+     * {@link #BATCH} entry: {@code sessionId, flags, text}.
+     */
+    static final byte SEND_TEXT = 2;
+
+    /**
+     * {@link #BATCH} entry: {@code sessionId, flags, data}.
+     */
+    static final byte SEND_BINARY = 3;
+
+    /**
+     * {@link #BATCH} entry: {@code sessionId, data}.
+     */
+    static final byte SEND_PING = 4;
+
+    /**
+     * {@link #BATCH} entry: {@code sessionId, data}.
+     */
+    static final byte SEND_PONG = 5;
+
+    /**
+     * {@link #BATCH} entry: {@code sessionId, hasReason [, closeCode, reasonPhrase]}.
+     */
+    static final byte CLOSE = 6;
+
+    /**
+     * Requests targeting sessions on the receiving node: {@code firstRequestId, count, (entryType, entry)*}.
+     * <p>
+     * Requests have consecutive ids starting with {@code firstRequestId}.
+     */
+    static final byte BATCH = 7;
+
+    /**
+     * Result of a {@link #BATCH}: {@code firstRequestId, count, failureCount, (index, errorMessage)*}.
+     */
+    static final byte BATCH_ACK = 8;
+
+    /**
+     * {@code endpointPath, text}.
+     */
+    static final byte BROADCAST_TEXT = 9;
+
+    /**
+     * {@code endpointPath, data}.
+     */
+    static final byte BROADCAST_BINARY = 10;
+
+    /**
+     * {@code endpointPath, group, text}.
+     */
+    static final byte GROUP_BROADCAST_TEXT = 11;
+
+    /**
+     * {@code endpointPath, group, data}.
+     */
+    static final byte GROUP_BROADCAST_BINARY = 12;
+
+    /**
+     * {@code endpointPath, sessionId}.
+     */
+    static final byte SESSION_OPENED = 13;
+
+    /**
+     * {@code endpointPath, sessionId}.
+     */
+    static final byte SESSION_CLOSED = 14;
+
+    /**
+     * Modified keys of a distributed map: {@code mapType, mapId, count, (key, value)*}.
+     * <p>
+     * {@code null} value means that the key was removed.
+     */
+    static final byte MAP_DELTA = 15;
+
+    /**
+     * {@code mapType, mapId}.
+     */
+    static final byte MAP_DESTROY = 16;
+
+    /**
+     * Map type - distributed session properties, keyed by session id.
+     */
+    static final byte SESSION_PROPERTIES = 1;
+
+    /**
+     * Map type - distributed user properties, keyed by connection id.
+     */
+    static final byte USER_PROPERTIES = 2;
+
+    /**
+     * Flag of {@link #SEND_TEXT} and {@link #SEND_BINARY} - partial message.
+     */
+    static final byte FLAG_PARTIAL = 1;
+
+    /**
+     * Flag of {@link #SEND_TEXT} and {@link #SEND_BINARY} - last part of a partial message.
+     */
+    static final byte FLAG_LAST = 2;
+
+    /**
+     * Size of the length prefix.
+     */
+    static final int LENGTH_SIZE = 4;
+
+    private Protocol() {
+    }
+}
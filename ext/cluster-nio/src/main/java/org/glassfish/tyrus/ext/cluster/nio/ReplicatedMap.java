@@ -0,0 +1,274 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.ext.cluster.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Map replicated to all cluster nodes.
+ * <p>
+ * Every node holds a full copy of the map, so reads are always local. Local modifications are applied immediately
+ * and the modified keys are marked dirty; {@link #flush()} sends current values of all dirty keys to all connected
+ * nodes as one {@link Protocol#MAP_DELTA} message, so a key modified several times between two flushes is sent once.
+ * {@link NioClusterContext} flushes dirty maps periodically, which bounds the staleness of the copies held by other
+ * nodes. Modifications received from other nodes are applied using {@link #putLocal(Object, Object)} and
+ * {@link #removeLocal(Object)} without further propagation. Concurrent modifications of the same key from several
+ * nodes are resolved by the order in which the nodes receive them.
+ * <p>
+ * {@code null} values are not supported, putting {@code null} removes the key.
+ *
+ * @param <K> key type.
+ * @param <V> value type.
+ */
+class ReplicatedMap<K, V> extends AbstractMap<K, V> {
+
+    private static final Logger LOGGER = Logger.getLogger(ReplicatedMap.class.getName());
+
+    private final Map<K, V> delegate = new ConcurrentHashMap<K, V>();
+    private final Set<K> dirty = Collections.newSetFromMap(new ConcurrentHashMap<K, Boolean>());
+    private final NioClusterContext context;
+    private final byte type;
+    private final String id;
+
+    // serializes flushes, so deltas of the map cannot overtake each other.
+    private final Object flushLock = new Object();
+    private boolean destroyed = false;
+
+    /**
+     * Create new map.
+     *
+     * @param context context used for the replication.
+     * @param type    map type, {@link Protocol#SESSION_PROPERTIES} or {@link Protocol#USER_PROPERTIES}.
+     * @param id      map id, session id or connection id.
+     */
+    ReplicatedMap(NioClusterContext context, byte type, String id) {
+        this.context = context;
+        this.type = type;
+        this.id = id;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    @Override
+    public V get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return delegate.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (value == null) {
+            return remove(key);
+        }
+
+        final V previous = delegate.put(key, value);
+        markDirty(key);
+        return previous;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        final V previous = delegate.remove(key);
+        if (previous != null) {
+            markDirty((K) key);
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        for (K key : delegate.keySet()) {
+            remove(key);
+        }
+    }
+
+    /**
+     * Read-only view of the entries.
+     *
+     * @return entry set.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return Collections.unmodifiableMap(delegate).entrySet();
+    }
+
+    /**
+     * Apply modification received from another node.
+     *
+     * @param key   key.
+     * @param value new value.
+     */
+    void putLocal(K key, V value) {
+        delegate.put(key, value);
+    }
+
+    /**
+     * Apply modification received from another node.
+     *
+     * @param key removed key.
+     */
+    void removeLocal(Object key) {
+        delegate.remove(key);
+    }
+
+    /**
+     * Send current values of dirty keys to all connected nodes.
+     */
+    void flush() {
+        synchronized (flushLock) {
+            if (destroyed || dirty.isEmpty()) {
+                return;
+            }
+
+            final List<K> keys = new ArrayList<K>(dirty.size());
+            for (K key : dirty) {
+                // the key has to be removed before its value is read, a concurrent modification marks it again.
+                if (dirty.remove(key)) {
+                    keys.add(key);
+                }
+            }
+
+            final ByteBuffer delta = encode(keys);
+            if (delta != null) {
+                context.sendToAll(delta);
+            }
+        }
+    }
+
+    /**
+     * Send all entries to a newly connected node.
+     *
+     * @param peer connection to the node.
+     */
+    void replicateTo(PeerConnection peer) {
+        synchronized (flushLock) {
+            if (destroyed) {
+                return;
+            }
+
+            final ByteBuffer state = encode(delegate.keySet());
+            if (state != null) {
+                peer.send(state);
+            }
+        }
+    }
+
+    /**
+     * Stop replicating the map. Dirty keys are discarded and no delta is sent after this method returns.
+     */
+    void destroy() {
+        synchronized (flushLock) {
+            destroyed = true;
+            dirty.clear();
+        }
+    }
+
+    /**
+     * Encode current values of the keys, missing keys are encoded as removed.
+     *
+     * @return encoded {@link Protocol#MAP_DELTA} or {@code null} when there is nothing to send.
+     */
+    private ByteBuffer encode(Collection<K> keys) {
+        final PropertyCodec codec = context.getPropertyCodec();
+        final List<String> encodedKeys = new ArrayList<String>(keys.size());
+        final List<byte[]> encodedValues = new ArrayList<byte[]>(keys.size());
+        int size = id.length() + 16;
+
+        for (K key : keys) {
+            final V value = delegate.get(key);
+            byte[] encodedValue = null;
+            if (value != null) {
+                try {
+                    encodedValue = codec.encode(value);
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Value of distributed property " + key + " cannot be serialized, it "
+                            + "will not be replicated to other cluster nodes.", e);
+                    continue;
+                }
+            }
+
+            final String encodedKey = NioClusterContext.encodeKey(key);
+            encodedKeys.add(encodedKey);
+            encodedValues.add(encodedValue);
+            size += encodedKey.length() + (encodedValue == null ? 0 : encodedValue.length) + 8;
+        }
+
+        if (encodedKeys.isEmpty()) {
+            return null;
+        }
+
+        final MessageWriter writer = new MessageWriter(Protocol.MAP_DELTA, size).putByte(type).putString(id)
+                                                                               .putInt(encodedKeys.size());
+        for (int i = 0; i < encodedKeys.size(); i++) {
+            writer.putString(encodedKeys.get(i)).putBytes(encodedValues.get(i));
+        }
+        return writer.toByteBuffer();
+    }
+
+    private void markDirty(K key) {
+        if (dirty.add(key)) {
+            context.onDirty(this);
+        }
+    }
+}
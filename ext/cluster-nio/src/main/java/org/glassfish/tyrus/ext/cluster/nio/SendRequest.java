@@ -0,0 +1,160 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.ext.cluster.nio;
+
+import javax.websocket.CloseReason;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+
+import org.glassfish.tyrus.core.TyrusFuture;
+
+/**
+ * Request targeting a session on another node, waiting to be sent or acknowledged.
+ */
+class SendRequest {
+
+    private final byte type;
+    private final String sessionId;
+    private final byte flags;
+    private final String text;
+    private final byte[] data;
+    private final CloseReason closeReason;
+    private final TyrusFuture<Void> future;
+    private final SendHandler handler;
+
+    /**
+     * Create new request.
+     *
+     * @param type        entry type, see {@link Protocol#BATCH}.
+     * @param sessionId   target session id.
+     * @param flags       {@link Protocol#FLAG_PARTIAL} and {@link Protocol#FLAG_LAST}.
+     * @param text        text of {@link Protocol#SEND_TEXT}.
+     * @param data        data of {@link Protocol#SEND_BINARY}, {@link Protocol#SEND_PING} and
+     *                    {@link Protocol#SEND_PONG}.
+     * @param closeReason close reason of {@link Protocol#CLOSE}, can be {@code null}.
+     * @param future      future to be completed, can be {@code null}.
+     * @param handler     handler to be notified, can be {@code null}.
+     */
+    SendRequest(byte type, String sessionId, byte flags, String text, byte[] data, CloseReason closeReason,
+                TyrusFuture<Void> future, SendHandler handler) {
+        this.type = type;
+        this.sessionId = sessionId;
+        this.flags = flags;
+        this.text = text;
+        this.data = data;
+        this.closeReason = closeReason;
+        this.future = future;
+        this.handler = handler;
+    }
+
+    /**
+     * Approximate size of the encoded entry.
+     *
+     * @return size in bytes.
+     */
+    int size() {
+        return sessionId.length() + (text != null ? text.length() : (data != null ? data.length : 0)) + 16;
+    }
+
+    /**
+     * Upper bound of the size of the encoded entry, every {@code char} can take up to three bytes in UTF-8.
+     *
+     * @return size in bytes.
+     */
+    int maxSize() {
+        return 3 * (sessionId.length() + (text != null ? text.length() : 0)) + (data != null ? data.length : 0) + 16;
+    }
+
+    /**
+     * Append the request to a {@link Protocol#BATCH} message.
+     *
+     * @param writer batch message.
+     */
+    void encode(MessageWriter writer) {
+        writer.putByte(type).putString(sessionId);
+        switch (type) {
+            case Protocol.SEND_TEXT:
+                writer.putByte(flags).putString(text);
+                break;
+            case Protocol.SEND_BINARY:
+                writer.putByte(flags).putBytes(data);
+                break;
+            case Protocol.CLOSE:
+                if (closeReason == null) {
+                    writer.putBoolean(false);
+                } else {
+                    writer.putBoolean(true).putInt(closeReason.getCloseCode().getCode())
+                          .putString(closeReason.getReasonPhrase());
+                }
+                break;
+            default:
+                writer.putBytes(data);
+        }
+    }
+
+    void complete() {
+        complete(future, handler, null);
+    }
+
+    void fail(Throwable failure) {
+        complete(future, handler, failure);
+    }
+
+    /**
+     * Complete future and notify handler.
+     *
+     * @param future  future to be completed, can be {@code null}.
+     * @param handler handler to be notified, can be {@code null}.
+     * @param failure failure or {@code null} when the request succeeded.
+     */
+    static void complete(TyrusFuture<Void> future, SendHandler handler, Throwable failure) {
+        if (future != null) {
+            if (failure == null) {
+                future.setResult(null);
+            } else {
+                future.setFailure(failure);
+            }
+        }
+        if (handler != null) {
+            handler.onResult(failure == null ? new SendResult() : new SendResult(failure));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.ext.cluster.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+
+import org.glassfish.tyrus.core.cluster.BroadcastListener;
+import org.glassfish.tyrus.core.cluster.SessionEventListener;
+
+/**
+ * Throughput benchmark of {@link NioClusterContext}, not executed as part of the test suite.
+ * <p>
+ * Starts two nodes on the loopback interface and measures cross-node sends (acknowledged asynchronously) and
+ * broadcasts. Usage: {@code NioClusterContextBenchmark [messageCount] [messageSize] [lingerMicros]}.
+ */
+public class NioClusterContextBenchmark {
+
+    private static final String PATH = "/benchmark";
+
+    public static void main(String[] args) throws Exception {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 500000;
+        final int size = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        final long linger = args.length > 2 ? Long.parseLong(args[2]) : NioClusterContext.DEFAULT_LINGER_MICROS;
+
+        final List<InetSocketAddress> members = Arrays.asList(new InetSocketAddress("127.0.0.1", 7801),
+                                                              new InetSocketAddress("127.0.0.1", 7802));
+        final NioClusterContext node1 =
+                NioClusterContext.builder(members.get(0), members).linger(linger, TimeUnit.MICROSECONDS).build();
+        final NioClusterContext node2 =
+                NioClusterContext.builder(members.get(1), members).linger(linger, TimeUnit.MICROSECONDS).build();
+
+        try {
+            while (!node1.getConnectedNodeIds().contains(node2.getLocalNodeId())
+                    || !node2.getConnectedNodeIds().contains(node1.getLocalNodeId())) {
+                Thread.sleep(10);
+            }
+
+            final char[] chars = new char[size];
+            Arrays.fill(chars, 'a');
+            final String message = new String(chars);
+
+            for (int i = 0; i < 3; i++) {
+                send(node1, node2, message, count);
+                broadcast(node1, node2, message, count);
+            }
+        } finally {
+            node1.shutdown();
+            node2.shutdown();
+        }
+    }
+
+    private static void send(NioClusterContext node1, NioClusterContext node2, String message, int count)
+            throws InterruptedException {
+        final AtomicInteger received = new AtomicInteger();
+        final String sessionId = node1.createSessionId();
+        node1.registerSession(sessionId, PATH, new SessionEventListener(null) {
+            @Override
+            public void onSendText(String text) throws IOException {
+                received.incrementAndGet();
+            }
+        });
+        while (!node2.isSessionOpen(sessionId, PATH)) {
+            Thread.sleep(10);
+        }
+
+        final CountDownLatch acknowledged = new CountDownLatch(count);
+        final SendHandler handler = new SendHandler() {
+            @Override
+            public void onResult(SendResult result) {
+                acknowledged.countDown();
+            }
+        };
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            node2.sendText(sessionId, message, handler);
+        }
+        acknowledged.await(5, TimeUnit.MINUTES);
+        report("send", count - (int) acknowledged.getCount(), start);
+
+        node1.removeSession(sessionId, PATH);
+    }
+
+    private static void broadcast(NioClusterContext node1, NioClusterContext node2, String message, int count)
+            throws InterruptedException {
+        final CountDownLatch received = new CountDownLatch(count);
+        final String path = PATH + System.nanoTime();
+        node2.registerBroadcastListener(path, new BroadcastListener() {
+            @Override
+            public void onBroadcast(String text) {
+                received.countDown();
+            }
+
+            @Override
+            public void onBroadcast(byte[] data) {
+                received.countDown();
+            }
+        });
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            node1.broadcastText(path, message);
+        }
+        received.await(5, TimeUnit.MINUTES);
+        report("broadcast", count - (int) received.getCount(), start);
+    }
+
+    private static void report(String name, int count, long start) {
+        final long elapsed = System.nanoTime() - start;
+        System.out.printf("%-10s %,d messages in %,d ms: %,.0f messages/s%n", name, count,
+                          TimeUnit.NANOSECONDS.toMillis(elapsed), count / (elapsed / 1e9));
+    }
+}
@@ -0,0 +1,531 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.ext.cluster.nio;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.websocket.Extension;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+
+import org.glassfish.tyrus.core.TyrusExtension;
+import org.glassfish.tyrus.core.cluster.BroadcastListener;
+import org.glassfish.tyrus.core.cluster.RemoteSession;
+import org.glassfish.tyrus.core.cluster.SessionEventListener;
+import org.glassfish.tyrus.core.cluster.SessionListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link NioClusterContext} with two nodes on the loopback interface.
+ */
+public class NioClusterContextTest {
+
+    private static final String PATH = "/echo";
+    private static final int MAX_MESSAGE_SIZE = 1024 * 1024;
+    private static final long ACK_TIMEOUT_MILLIS = 2000;
+
+    private NioClusterContext node1;
+    private NioClusterContext node2;
+    private List<InetSocketAddress> members;
+
+    @Before
+    public void setUp() throws Exception {
+        members = Arrays.asList(new InetSocketAddress("127.0.0.1", freePort()),
+                                new InetSocketAddress("127.0.0.1", freePort()));
+        node1 = NioClusterContext.builder(members.get(0), members).maxMessageSize(MAX_MESSAGE_SIZE)
+                                 .ackTimeout(ACK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS).build();
+        node2 = NioClusterContext.builder(members.get(1), members).maxMessageSize(MAX_MESSAGE_SIZE)
+                                 .ackTimeout(ACK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS).build();
+
+        awaitConnected(node1, node2.getLocalNodeId());
+        awaitConnected(node2, node1.getLocalNodeId());
+    }
+
+    @After
+    public void tearDown() {
+        node1.shutdown();
+        node2.shutdown();
+    }
+
+    @Test
+    public void testSessionRegistry() throws Exception {
+        final BlockingQueue<String> opened = new LinkedBlockingQueue<String>();
+        final BlockingQueue<String> closed = new LinkedBlockingQueue<String>();
+        node2.registerSessionListener(PATH, new SessionListener() {
+            @Override
+            public void onSessionOpened(String sessionId) {
+                opened.add(sessionId);
+            }
+
+            @Override
+            public void onSessionClosed(String sessionId) {
+                closed.add(sessionId);
+            }
+        });
+
+        final String sessionId = node1.createSessionId();
+        final Map<RemoteSession.DistributedMapKey, Object> properties =
+                node1.getDistributedSessionProperties(sessionId);
+        properties.put(RemoteSession.DistributedMapKey.QUERY_STRING, "a=b");
+        node1.registerSession(sessionId, PATH, new SessionEventListener(null));
+
+        assertEquals(sessionId, opened.poll(5, TimeUnit.SECONDS));
+        assertTrue(node2.isSessionOpen(sessionId, PATH));
+        assertFalse(node2.isSessionOpen(sessionId, "/other"));
+        assertEquals(1, node2.getRemoteSessionIds(PATH).size());
+        assertTrue(node1.getRemoteSessionIds(PATH).isEmpty());
+        // properties are sent before the session is announced.
+        assertEquals("a=b", node2.getDistributedSessionProperties(sessionId)
+                                 .get(RemoteSession.DistributedMapKey.QUERY_STRING));
+
+        node1.removeSession(sessionId, PATH);
+
+        assertEquals(sessionId, closed.poll(5, TimeUnit.SECONDS));
+        assertFalse(node2.isSessionOpen(sessionId, PATH));
+        assertTrue(node2.getRemoteSessionIds(PATH).isEmpty());
+    }
+
+    @Test
+    public void testUserProperties() throws Exception {
+        final String connectionId = node1.createConnectionId();
+
+        node1.getDistributedUserProperties(connectionId).put("key", "value");
+        awaitValue(node2.getDistributedUserProperties(connectionId), "key", "value");
+
+        node2.getDistributedUserProperties(connectionId).put("key", "value2");
+        awaitValue(node1.getDistributedUserProperties(connectionId), "key", "value2");
+
+        node1.getDistributedUserProperties(connectionId).remove("key");
+        awaitValue(node2.getDistributedUserProperties(connectionId), "key", null);
+    }
+
+    @Test
+    public void testPropertyDeltas() throws Exception {
+        final String connectionId = node1.createConnectionId();
+        final Map<String, Object> properties = node1.getDistributedUserProperties(connectionId);
+        final Map<String, Object> replica = node2.getDistributedUserProperties(connectionId);
+
+        for (int i = 0; i < 1000; i++) {
+            properties.put("counter", i);
+        }
+        properties.put("uri", URI.create("ws://localhost/echo"));
+        properties.put("list", Arrays.asList("a", "b"));
+
+        awaitValue(replica, "counter", 999);
+        awaitValue(replica, "uri", URI.create("ws://localhost/echo"));
+        awaitValue(replica, "list", Arrays.asList("a", "b"));
+
+        node1.destroyDistributedUserProperties(connectionId);
+        final long deadline = System.currentTimeMillis() + 5000;
+        // the map is dropped, a new empty one is created by the lookup.
+        while (node2.getDistributedUserProperties(connectionId).containsKey("counter")) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Properties not destroyed.");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testPropertyCodec() throws Exception {
+        final DefaultPropertyCodec codec = new DefaultPropertyCodec();
+        final Map<String, List<String>> map = new HashMap<String, List<String>>();
+        map.put("key", Arrays.asList("value1", "value2"));
+
+        assertEquals(map, codec.decode(codec.encode(map)));
+        assertEquals("text", codec.decode(codec.encode("text")));
+        assertEquals(Long.MAX_VALUE, codec.decode(codec.encode(Long.MAX_VALUE)));
+        assertEquals(Boolean.TRUE, codec.decode(codec.encode(true)));
+
+        final Extension extension = new TyrusExtension("permessage-deflate", Arrays.<Extension.Parameter>asList(
+                new TyrusExtension.TyrusParameter("client_no_context_takeover", null)));
+        // TyrusParameter does not implement equals().
+        assertEquals(extension.toString(), codec.decode(codec.encode(extension)).toString());
+
+        final Principal principal = (Principal) codec.decode(codec.encode(new Principal() {
+            @Override
+            public String getName() {
+                return "user";
+            }
+        }));
+        assertEquals("user", principal.getName());
+
+        // other types are not supported, java serialization is never used.
+        try {
+            codec.encode(new StringBuilder("a"));
+            fail();
+        } catch (IOException e) {
+            // expected.
+        }
+        try {
+            codec.decode(new byte[]{10, 0, 0, 0, 1, 0});
+            fail();
+        } catch (IOException e) {
+            // expected.
+        }
+        // list with a corrupted size.
+        try {
+            codec.decode(new byte[]{8, 0x7f, 0, 0, 0});
+            fail();
+        } catch (IOException e) {
+            // expected.
+        }
+    }
+
+    @Test
+    public void testSend() throws Exception {
+        final BlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+        final String sessionId = node1.createSessionId();
+        node1.registerSession(sessionId, PATH, new RecordingListener(received));
+        awaitRemoteSession(node2, sessionId);
+
+        node2.sendText(sessionId, "text").get(5, TimeUnit.SECONDS);
+        assertEquals("text", received.poll(5, TimeUnit.SECONDS));
+
+        node2.sendBinary(sessionId, new byte[]{1, 2, 3}).get(5, TimeUnit.SECONDS);
+        assertEquals(3, ((byte[]) received.poll(5, TimeUnit.SECONDS)).length);
+
+        node2.sendText(sessionId, "part", false).get(5, TimeUnit.SECONDS);
+        assertEquals("part:false", received.poll(5, TimeUnit.SECONDS));
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        node2.sendText(sessionId, "handler", new SendHandler() {
+            @Override
+            public void onResult(SendResult result) {
+                if (result.isOK()) {
+                    latch.countDown();
+                }
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals("handler", received.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testPipelinedSendOrder() throws Exception {
+        final int count = 10000;
+        final BlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+        final String sessionId = node1.createSessionId();
+        node1.registerSession(sessionId, PATH, new RecordingListener(received));
+        awaitRemoteSession(node2, sessionId);
+
+        final CountDownLatch acknowledged = new CountDownLatch(count);
+        final SendHandler handler = new SendHandler() {
+            @Override
+            public void onResult(SendResult result) {
+                if (result.isOK()) {
+                    acknowledged.countDown();
+                }
+            }
+        };
+        for (int i = 0; i < count; i++) {
+            node2.sendText(sessionId, Integer.toString(i), i == count - 1, handler);
+        }
+
+        assertTrue(acknowledged.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < count; i++) {
+            assertEquals(i + ":" + (i == count - 1), received.poll(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testSendFailure() throws Exception {
+        final String sessionId = node1.createSessionId();
+        node1.registerSession(sessionId, PATH, new RecordingListener(new LinkedBlockingQueue<Object>()) {
+            @Override
+            public void onSendText(String message) throws IOException {
+                throw new IOException("failed");
+            }
+        });
+        awaitRemoteSession(node2, sessionId);
+
+        try {
+            node2.sendText(sessionId, "text").get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertEquals("failed", e.getCause().getMessage());
+        }
+
+        try {
+            node2.sendText("unknown", "text").get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void testAckTimeout() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final String sessionId = node1.createSessionId();
+        node1.registerSession(sessionId, PATH, new RecordingListener(new LinkedBlockingQueue<Object>()) {
+            @Override
+            public void onSendText(String message) throws IOException {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+        });
+        awaitRemoteSession(node2, sessionId);
+
+        try {
+            final long start = System.nanoTime();
+            try {
+                node2.sendText(sessionId, "text").get(ACK_TIMEOUT_MILLIS * 3, TimeUnit.MILLISECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IOException);
+            }
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(ACK_TIMEOUT_MILLIS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testMessageTooLarge() throws Exception {
+        final BlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+        final String sessionId = node1.createSessionId();
+        node1.registerSession(sessionId, PATH, new RecordingListener(received));
+        awaitRemoteSession(node2, sessionId);
+
+        final Future<Void> tooLarge = node2.sendBinary(sessionId, new byte[MAX_MESSAGE_SIZE]);
+        final Future<Void> next = node2.sendBinary(sessionId, new byte[MAX_MESSAGE_SIZE / 2]);
+
+        try {
+            tooLarge.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+
+        next.get(5, TimeUnit.SECONDS);
+        assertEquals(MAX_MESSAGE_SIZE / 2, ((byte[]) received.poll(5, TimeUnit.SECONDS)).length);
+        assertTrue(node2.getConnectedNodeIds().contains(node1.getLocalNodeId()));
+    }
+
+    @Test
+    public void testInvalidMessageLength() throws Exception {
+        final Socket socket = new Socket();
+        try {
+            socket.connect(members.get(0), 5000);
+            socket.setSoTimeout(5000);
+            new DataOutputStream(socket.getOutputStream()).writeInt(Integer.MAX_VALUE);
+
+            // the node closes the connection without reading the message.
+            assertEquals(-1, socket.getInputStream().read());
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void testInvalidStringLength() throws Exception {
+        final Socket socket = new Socket();
+        try {
+            socket.connect(members.get(0), 5000);
+            socket.setSoTimeout(5000);
+            final DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            // hello message claiming a node id longer than the message itself.
+            out.writeInt(5);
+            out.writeByte(Protocol.HELLO);
+            out.writeInt(1024);
+            out.flush();
+
+            assertEquals(-1, socket.getInputStream().read());
+        } finally {
+            socket.close();
+        }
+
+        // the node keeps accepting other connections.
+        assertTrue(node2.getConnectedNodeIds().contains(node1.getLocalNodeId()));
+    }
+
+    @Test
+    public void testBroadcast() throws Exception {
+        final BlockingQueue<Object> received1 = new LinkedBlockingQueue<Object>();
+        final BlockingQueue<Object> received2 = new LinkedBlockingQueue<Object>();
+        node1.registerBroadcastListener(PATH, new RecordingBroadcastListener(received1));
+        node2.registerBroadcastListener(PATH, new RecordingBroadcastListener(received2));
+
+        node1.broadcastText(PATH, "broadcast");
+
+        assertEquals("broadcast", received1.poll(5, TimeUnit.SECONDS));
+        assertEquals("broadcast", received2.poll(5, TimeUnit.SECONDS));
+
+        assertTrue(node2.broadcastText(PATH, "group", "group broadcast"));
+        // listeners not supporting groups are not notified.
+        assertNull(received1.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testNodeShutdown() throws Exception {
+        final BlockingQueue<String> closed = new LinkedBlockingQueue<String>();
+        node2.registerSessionListener(PATH, new SessionListener() {
+            @Override
+            public void onSessionOpened(String sessionId) {
+            }
+
+            @Override
+            public void onSessionClosed(String sessionId) {
+                closed.add(sessionId);
+            }
+        });
+
+        final String sessionId = node1.createSessionId();
+        node1.registerSession(sessionId, PATH, new SessionEventListener(null));
+        awaitRemoteSession(node2, sessionId);
+
+        node1.shutdown();
+
+        assertEquals(sessionId, closed.poll(5, TimeUnit.SECONDS));
+        assertFalse(node2.isSessionOpen(sessionId, PATH));
+    }
+
+    private static int freePort() throws IOException {
+        final ServerSocket serverSocket = new ServerSocket(0);
+        try {
+            return serverSocket.getLocalPort();
+        } finally {
+            serverSocket.close();
+        }
+    }
+
+    private static void awaitConnected(NioClusterContext node, String nodeId) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 10000;
+        while (!node.getConnectedNodeIds().contains(nodeId)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Node " + nodeId + " not connected.");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitRemoteSession(NioClusterContext node, String sessionId) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!node.isSessionOpen(sessionId, PATH)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Session " + sessionId + " not registered.");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitValue(Map<String, Object> map, String key, Object value) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (value == null ? map.containsKey(key) : !value.equals(map.get(key))) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Property " + key + " not replicated.");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static class RecordingListener extends SessionEventListener {
+
+        private final BlockingQueue<Object> received;
+
+        RecordingListener(BlockingQueue<Object> received) {
+            super(null);
+            this.received = received;
+        }
+
+        @Override
+        public void onSendText(String message) throws IOException {
+            received.add(message);
+        }
+
+        @Override
+        public void onSendText(String message, boolean isLast) throws IOException {
+            received.add(message + ":" + isLast);
+        }
+
+        @Override
+        public void onSendBinary(byte[] message) throws IOException {
+            received.add(message);
+        }
+    }
+
+    private static class RecordingBroadcastListener implements BroadcastListener {
+
+        private final BlockingQueue<Object> received;
+
+        RecordingBroadcastListener(BlockingQueue<Object> received) {
+            this.received = received;
+        }
+
+        @Override
+        public void onBroadcast(String text) {
+            received.add(text);
+        }
+
+        @Override
+        public void onBroadcast(byte[] data) {
+            received.add(data);
+        }
+    }
+}
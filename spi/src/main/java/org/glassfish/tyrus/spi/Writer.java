@@ -65,4 +65,94 @@ public abstract class Writer implements Closeable {
      * @param completionHandler completion handler to know the write status.
      */
     public abstract void write(ByteBuffer buffer, CompletionHandler<ByteBuffer> completionHandler);
+
+    /**
+     * Tyrus runtime calls this method to handover multiple buffers for a connection to the transport (gathering
+     * write), typically a frame header and its payload. The content of all the buffers is written in the given order
+     * and no other data is written in between. Tyrus runtime must not use the buffers until the write is completed.
+     * <p>
+     * The default implementation copies the buffers into a single one and passes it to
+     * {@link #write(ByteBuffer, CompletionHandler)}, so existing transports keep working. Positions of the passed
+     * buffers are not changed by the copying. Transports which are able to write multiple buffers at once are
+     * encouraged to override this method.
+     *
+     * @param buffers           bytes to write.
+     * @param completionHandler completion handler to know the write status, completed with the passed array.
+     */
+    public void write(final ByteBuffer[] buffers, final CompletionHandler<ByteBuffer[]> completionHandler) {
+        final ByteBuffer buffer;
+        if (buffers.length == 1) {
+            buffer = buffers[0];
+        } else {
+            int size = 0;
+            for (ByteBuffer b : buffers) {
+                size += b.remaining();
+            }
+
+            buffer = ByteBuffer.allocate(size);
+            for (ByteBuffer b : buffers) {
+                // copy from a duplicate, so the positions of the passed buffers are not changed
+                buffer.put(b.duplicate());
+            }
+            buffer.flip();
+        }
+
+        write(buffer, new CompletionHandler<ByteBuffer>() {
+            @Override
+            public void cancelled() {
+                if (completionHandler != null) {
+                    completionHandler.cancelled();
+                }
+            }
+
+            @Override
+            public void failed(Throwable throwable) {
+                if (completionHandler != null) {
+                    completionHandler.failed(throwable);
+                }
+            }
+
+            @Override
+            public void completed(ByteBuffer result) {
+                if (completionHandler != null) {
+                    completionHandler.completed(buffers);
+                }
+            }
+
+            @Override
+            public void updated(ByteBuffer result) {
+                if (completionHandler != null) {
+                    completionHandler.updated(buffers);
+                }
+            }
+        });
+    }
+
+    /**
+     * Tyrus runtime calls this method to ask the transport to stop reading data from the connection, typically
+     * because the application does not keep up with the incoming messages.
+     * <p>
+     * The transport is expected to stop passing data to {@link ReadHandler#handle(ByteBuffer)} as soon as possible;
+     * data which has already been read may still be passed. No more data should be read from the underlying
+     * connection until {@link #resumeReading()} is invoked, so the remote endpoint gets throttled by the flow control
+     * of the underlying transport (e.g. TCP).
+     * <p>
+     * The method can be invoked from any thread, including the thread currently executing
+     * {@link ReadHandler#handle(ByteBuffer)}. The default implementation does not support suspending and returns
+     * {@code false}.
+     *
+     * @return {@code true} if the transport supports suspending the reading, {@code false} otherwise.
+     */
+    public boolean suspendReading() {
+        return false;
+    }
+
+    /**
+     * Tyrus runtime calls this method to resume reading from the connection suspended by {@link #suspendReading()}.
+     * <p>
+     * The method can be invoked from any thread. Depending on the transport, data might be read and passed to
+     * {@link ReadHandler#handle(ByteBuffer)} on the invoking thread. The default implementation does nothing.
+     */
+    public void resumeReading() {
+    }
 }
@@ -41,25 +41,33 @@
 package org.glassfish.tyrus.test.standard_config;
 
 import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import javax.websocket.ClientEndpointConfig;
 import javax.websocket.DeploymentException;
 import javax.websocket.EncodeException;
+import javax.websocket.Endpoint;
 import javax.websocket.EndpointConfig;
 import javax.websocket.MessageHandler;
+import javax.websocket.OnClose;
 import javax.websocket.OnMessage;
 import javax.websocket.RemoteEndpoint;
 import javax.websocket.Session;
 import javax.websocket.server.ServerEndpoint;
 
 import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.core.BroadcastHandler;
+import org.glassfish.tyrus.core.BroadcastResult;
 import org.glassfish.tyrus.core.TyrusSession;
 import org.glassfish.tyrus.server.Server;
 import org.glassfish.tyrus.test.tools.TestContainer;
 
 import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -69,6 +77,9 @@ import static org.junit.Assert.assertTrue;
  */
 public class BroadcasterTest extends TestContainer {
     private static final String SENT_MESSAGE = "Hello World";
+    private static final String RESULT_PREFIX = "result:";
+    private static final String JOIN_PREFIX = "join:";
+    private static final String CLOSED_MESSAGE = "closed";
 
     private final ClientEndpointConfig cec = ClientEndpointConfig.Builder.create().build();
 
@@ -148,6 +159,122 @@ public class BroadcasterTest extends TestContainer {
         }
     }
 
+    @Test
+    public void testTyrusBroadcasterWithHandler() throws DeploymentException {
+        final CountDownLatch messageLatch = new CountDownLatch(2);
+        final CountDownLatch resultLatch = new CountDownLatch(1);
+        final String[] result = new String[1];
+        Server server = startServer(TyrusBroadcastHandlerTestEndpoint.class);
+
+        try {
+            final TEndpointAdapter ea1 = new TEndpointAdapter(messageLatch) {
+                @Override
+                public void onMessage(String message) {
+                    if (message.startsWith(RESULT_PREFIX)) {
+                        result[0] = message;
+                        resultLatch.countDown();
+                    } else {
+                        super.onMessage(message);
+                    }
+                }
+            };
+            final TEndpointAdapter ea2 = new TEndpointAdapter(messageLatch);
+
+            final ClientManager client1 = createClient();
+            client1.connectToServer(ea1, cec, getURI(TyrusBroadcastHandlerTestEndpoint.class));
+            final ClientManager client2 = createClient();
+            client2.connectToServer(ea2, cec, getURI(TyrusBroadcastHandlerTestEndpoint.class));
+
+            synchronized (ea1) {
+                if (ea1.peer == null) {
+                    ea1.wait();
+                }
+            }
+
+            synchronized (ea2) {
+                if (ea2.peer == null) {
+                    ea2.wait();
+                }
+            }
+
+            ea1.peer.sendText(SENT_MESSAGE);
+
+            assertTrue("Timeout reached. Message latch value: " + messageLatch.getCount(),
+                       messageLatch.await(5, TimeUnit.SECONDS));
+            assertTrue(resultLatch.await(5, TimeUnit.SECONDS));
+            assertEquals(RESULT_PREFIX + "2/0", result[0]);
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage(), e);
+        } finally {
+            stopServer(server);
+        }
+    }
+
+    @Test
+    public void testTyrusGroupBroadcast() throws DeploymentException {
+        Server server = startServer(TyrusGroupBroadcastTestEndpoint.class);
+
+        try {
+            final QueueingEndpoint ea1 = new QueueingEndpoint();
+            final QueueingEndpoint ea2 = new QueueingEndpoint();
+            final QueueingEndpoint ea3 = new QueueingEndpoint();
+
+            final ClientManager client = createClient();
+            final Session session1 = client.connectToServer(ea1, cec, getURI(TyrusGroupBroadcastTestEndpoint.class));
+            final Session session2 = client.connectToServer(ea2, cec, getURI(TyrusGroupBroadcastTestEndpoint.class));
+            final Session session3 = client.connectToServer(ea3, cec, getURI(TyrusGroupBroadcastTestEndpoint.class));
+
+            session1.getBasicRemote().sendText(JOIN_PREFIX + "a");
+            assertEquals(JOIN_PREFIX + "a", ea1.poll());
+            session2.getBasicRemote().sendText(JOIN_PREFIX + "a");
+            assertEquals(JOIN_PREFIX + "a", ea2.poll());
+            session3.getBasicRemote().sendText(JOIN_PREFIX + "b");
+            assertEquals(JOIN_PREFIX + "b", ea3.poll());
+
+            session3.getBasicRemote().sendText("a:" + SENT_MESSAGE);
+            assertEquals(SENT_MESSAGE, ea1.poll());
+            assertEquals(SENT_MESSAGE, ea2.poll());
+            assertEquals(RESULT_PREFIX + "2/0", ea3.poll());
+
+            // closed session leaves its groups
+            session2.close();
+            assertEquals(CLOSED_MESSAGE, ea1.poll());
+            session1.getBasicRemote().sendText("a:" + SENT_MESSAGE);
+            assertEquals(SENT_MESSAGE, ea1.poll());
+            assertEquals(RESULT_PREFIX + "1/0", ea1.poll());
+
+            session1.getBasicRemote().sendText("c:" + SENT_MESSAGE);
+            assertEquals(RESULT_PREFIX + "0/0", ea1.poll());
+
+            assertNull(ea2.messages.poll(100, TimeUnit.MILLISECONDS));
+            assertNull(ea3.messages.poll(100, TimeUnit.MILLISECONDS));
+        } catch (Exception e) {
+            e.printStackTrace();
+            throw new RuntimeException(e.getMessage(), e);
+        } finally {
+            stopServer(server);
+        }
+    }
+
+    private static class QueueingEndpoint extends Endpoint {
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<String>();
+
+        @Override
+        public void onOpen(Session session, EndpointConfig config) {
+            session.addMessageHandler(new MessageHandler.Whole<String>() {
+                @Override
+                public void onMessage(String message) {
+                    messages.add(message);
+                }
+            });
+        }
+
+        String poll() throws InterruptedException {
+            return messages.poll(5, TimeUnit.SECONDS);
+        }
+    }
+
     private static class TEndpointAdapter extends TestEndpointAdapter {
         private final CountDownLatch messageLatch;
         public RemoteEndpoint.Basic peer;
@@ -203,4 +330,47 @@ public class BroadcasterTest extends TestContainer {
             ((TyrusSession) session).broadcast(message);
         }
     }
+
+    @ServerEndpoint(value = "/tyrus-broadcast-handler")
+    public static class TyrusBroadcastHandlerTestEndpoint {
+
+        @OnMessage
+        public void message(String message, final Session session) {
+            ((TyrusSession) session).broadcast(message, new BroadcastHandler() {
+                @Override
+                public void onResult(BroadcastResult result) {
+                    session.getAsyncRemote().sendText(
+                            RESULT_PREFIX + result.getSuccessCount() + "/" + result.getFailureCount());
+                }
+            });
+        }
+    }
+
+    @ServerEndpoint(value = "/tyrus-group-broadcast")
+    public static class TyrusGroupBroadcastTestEndpoint {
+
+        @OnMessage
+        public void message(String message, final Session session) throws IOException {
+            if (message.startsWith(JOIN_PREFIX)) {
+                ((TyrusSession) session).joinGroup(message.substring(JOIN_PREFIX.length()));
+                session.getBasicRemote().sendText(message);
+                return;
+            }
+
+            final int separator = message.indexOf(':');
+            ((TyrusSession) session).broadcastToGroup(
+                    message.substring(0, separator), message.substring(separator + 1), new BroadcastHandler() {
+                        @Override
+                        public void onResult(BroadcastResult result) {
+                            session.getAsyncRemote().sendText(
+                                    RESULT_PREFIX + result.getSuccessCount() + "/" + result.getFailureCount());
+                        }
+                    });
+        }
+
+        @OnClose
+        public void onClose(Session session) {
+            ((TyrusSession) session).broadcastToGroup("a", CLOSED_MESSAGE, null);
+        }
+    }
 }
@@ -0,0 +1,161 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.test.standard_config;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.websocket.ClientEndpoint;
+import javax.websocket.OnMessage;
+import javax.websocket.Session;
+import javax.websocket.server.ServerEndpoint;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.core.TyrusSession;
+import org.glassfish.tyrus.server.Server;
+import org.glassfish.tyrus.test.tools.TestContainer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link TyrusSession#suspendReading()} and {@link TyrusSession#resumeReading()}.
+ */
+public class FlowControlTest extends TestContainer {
+
+    private static final long SUSPEND_MILLIS = 500;
+
+    @Test
+    public void testSuspendResume() throws Exception {
+        Server server = startServer(SuspendingEndpoint.class);
+        try {
+            final CountDownLatch suspendedLatch = new CountDownLatch(1);
+            final CountDownLatch latch = new CountDownLatch(1);
+            final AtomicReference<String> result = new AtomicReference<String>();
+
+            ClientManager client = createClient();
+            Session session = client.connectToServer(new ResultClientEndpoint(suspendedLatch, latch, result),
+                                                     getURI(SuspendingEndpoint.class));
+
+            session.getBasicRemote().sendText("suspend");
+            assertTrue(suspendedLatch.await(5, TimeUnit.SECONDS));
+
+            for (int i = 0; i < 10; i++) {
+                session.getBasicRemote().sendText(Integer.toString(i));
+            }
+            session.getBasicRemote().sendText("end");
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals("10", result.get());
+        } finally {
+            stopServer(server);
+        }
+    }
+
+    @ClientEndpoint
+    public static class ResultClientEndpoint {
+
+        private final CountDownLatch suspendedLatch;
+        private final CountDownLatch latch;
+        private final AtomicReference<String> result;
+
+        public ResultClientEndpoint(CountDownLatch suspendedLatch, CountDownLatch latch,
+                                    AtomicReference<String> result) {
+            this.suspendedLatch = suspendedLatch;
+            this.latch = latch;
+            this.result = result;
+        }
+
+        @OnMessage
+        public void onMessage(String message) {
+            if ("suspended".equals(message)) {
+                suspendedLatch.countDown();
+                return;
+            }
+            result.set(message);
+            latch.countDown();
+        }
+    }
+
+    @ServerEndpoint("/flowControlEndpoint")
+    public static class SuspendingEndpoint {
+
+        private volatile long resumeAt;
+        private int received = 0;
+
+        @OnMessage
+        public String onMessage(String message, final Session session) {
+            if ("suspend".equals(message)) {
+                final TyrusSession tyrusSession = (TyrusSession) session;
+                if (!tyrusSession.suspendReading()) {
+                    return "Suspending not supported";
+                }
+                resumeAt = System.currentTimeMillis() + SUSPEND_MILLIS;
+
+                new Thread() {
+                    @Override
+                    public void run() {
+                        try {
+                            Thread.sleep(SUSPEND_MILLIS);
+                        } catch (InterruptedException e) {
+                            // ignore
+                        }
+                        tyrusSession.resumeReading();
+                    }
+                }.start();
+                return "suspended";
+            }
+
+            if ("end".equals(message)) {
+                return Integer.toString(received);
+            }
+
+            // messages are sent after the reading has been suspended, so none can be received before resuming.
+            if (System.currentTimeMillis() < resumeAt) {
+                return "Message received while suspended";
+            }
+            received++;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.test.standard_config;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.websocket.ClientEndpoint;
+import javax.websocket.OnClose;
+import javax.websocket.OnMessage;
+import javax.websocket.Session;
+import javax.websocket.server.HandshakeRequest;
+import javax.websocket.server.ServerEndpoint;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.core.TyrusWebSocketEngine;
+import org.glassfish.tyrus.server.Server;
+import org.glassfish.tyrus.spi.UpgradeRequest;
+import org.glassfish.tyrus.test.tools.TestContainer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link TyrusWebSocketEngine#ORDERED_DISPATCH_ENABLED}.
+ */
+public class OrderedDispatchTest extends TestContainer {
+
+    private static final int MESSAGE_COUNT = 500;
+    private static final int CLOSE_MESSAGE_COUNT = 20;
+
+    @Test
+    public void testOrderedDispatch() throws Exception {
+        // TODO: test on glassfish (servlet tests)
+        if (System.getProperty("tyrus.test.host") != null) {
+            return;
+        }
+
+        getServerProperties().put(TyrusWebSocketEngine.ORDERED_DISPATCH_ENABLED, true);
+        // small backlog, so the reading of the connection gets paused.
+        getServerProperties().put(TyrusWebSocketEngine.ORDERED_DISPATCH_MAX_BACKLOG, 4);
+
+        Server server = startServer(OrderCheckingEndpoint.class);
+        try {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final AtomicReference<String> result = new AtomicReference<String>();
+
+            ClientManager client = createClient();
+            Session session = client.connectToServer(new ResultClientEndpoint(latch, result),
+                                                     getURI(OrderCheckingEndpoint.class));
+
+            for (int i = 0; i < MESSAGE_COUNT; i++) {
+                session.getBasicRemote().sendText(Integer.toString(i));
+            }
+            session.getBasicRemote().sendText("end");
+
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(Integer.toString(MESSAGE_COUNT), result.get());
+        } finally {
+            stopServer(server);
+        }
+    }
+
+    /**
+     * Frames queued in the dispatcher have to be processed before {@code @OnClose} is invoked, even if the connection
+     * is closed without a close frame.
+     */
+    @Test
+    public void testCloseAfterQueuedFrames() throws Exception {
+        // TODO: test on glassfish (servlet tests)
+        if (System.getProperty("tyrus.test.host") != null) {
+            return;
+        }
+
+        getServerProperties().put(TyrusWebSocketEngine.ORDERED_DISPATCH_ENABLED, true);
+
+        Server server = startServer(CloseOrderEndpoint.class);
+        try {
+            final Socket socket = new Socket(getHost(), getPort());
+            try {
+                final OutputStream out = socket.getOutputStream();
+                final URI uri = getURI(CloseOrderEndpoint.class);
+                final String handshake = "GET " + uri.getPath() + " HTTP/1.1\r\n"
+                        + "Host: " + getHost() + ":" + getPort() + "\r\n"
+                        + UpgradeRequest.CONNECTION + ": " + UpgradeRequest.UPGRADE + "\r\n"
+                        + UpgradeRequest.UPGRADE + ": " + UpgradeRequest.WEBSOCKET + "\r\n"
+                        + HandshakeRequest.SEC_WEBSOCKET_KEY + ": MX3DK3cbUu5DHEWW6dyzJQ==\r\n"
+                        + HandshakeRequest.SEC_WEBSOCKET_VERSION + ": 13\r\n\r\n";
+                out.write(handshake.getBytes(Charset.forName("ISO-8859-1")));
+                out.flush();
+                readHandshakeResponse(socket.getInputStream());
+
+                for (int i = 0; i < CLOSE_MESSAGE_COUNT; i++) {
+                    out.write(maskedTextFrame(Integer.toString(i)));
+                }
+                out.flush();
+            } finally {
+                // no close frame, the server detects the closed connection.
+                socket.close();
+            }
+
+            assertTrue(CloseOrderEndpoint.closeLatch.await(10, TimeUnit.SECONDS));
+            assertFalse(CloseOrderEndpoint.messageAfterClose.get());
+            assertEquals(CLOSE_MESSAGE_COUNT, CloseOrderEndpoint.messagesBeforeClose.get());
+        } finally {
+            stopServer(server);
+        }
+    }
+
+    private static void readHandshakeResponse(InputStream in) throws Exception {
+        // the response ends with an empty line.
+        int matched = 0;
+        while (matched < 4) {
+            final int b = in.read();
+            if (b == -1) {
+                throw new IllegalStateException("Connection closed during handshake.");
+            }
+            matched = (b == (matched % 2 == 0 ? '\r' : '\n')) ? matched + 1 : (b == '\r' ? 1 : 0);
+        }
+    }
+
+    private static byte[] maskedTextFrame(String text) {
+        final byte[] payload = text.getBytes(Charset.forName("UTF-8"));
+        final byte[] frame = new byte[payload.length + 6];
+        frame[0] = (byte) 0x81;
+        frame[1] = (byte) (0x80 | payload.length);
+        // zero masking key, the payload is sent as is.
+        System.arraycopy(payload, 0, frame, 6, payload.length);
+        return frame;
+    }
+
+    @ServerEndpoint("/orderedDispatchCloseEndpoint")
+    public static class CloseOrderEndpoint {
+
+        static final CountDownLatch closeLatch = new CountDownLatch(1);
+        static final AtomicInteger messagesBeforeClose = new AtomicInteger();
+        static final AtomicBoolean messageAfterClose = new AtomicBoolean();
+
+        private volatile boolean closed = false;
+
+        @OnMessage
+        public void onMessage(String message) throws InterruptedException {
+            if (closed) {
+                messageAfterClose.set(true);
+                return;
+            }
+
+            // slow handler, the frames are still queued when the connection is closed.
+            Thread.sleep(20);
+            messagesBeforeClose.incrementAndGet();
+        }
+
+        @OnClose
+        public void onClose() {
+            closed = true;
+            closeLatch.countDown();
+        }
+    }
+
+    @ClientEndpoint
+    public static class ResultClientEndpoint {
+
+        private final CountDownLatch latch;
+        private final AtomicReference<String> result;
+
+        public ResultClientEndpoint(CountDownLatch latch, AtomicReference<String> result) {
+            this.latch = latch;
+            this.result = result;
+        }
+
+        @OnMessage
+        public void onMessage(String message) {
+            result.set(message);
+            latch.countDown();
+        }
+    }
+
+    @ServerEndpoint("/orderedDispatchEndpoint")
+    public static class OrderCheckingEndpoint {
+
+        private int expected = 0;
+
+        @OnMessage
+        public String onMessage(String message) throws InterruptedException {
+            if ("end".equals(message)) {
+                return Integer.toString(expected);
+            }
+
+            if (Integer.parseInt(message) != expected) {
+                return "Expected " + expected + ", received " + message;
+            }
+            expected++;
+
+            if (expected % 50 == 0) {
+                // slow handler.
+                Thread.sleep(20);
+            }
+            return null;
+        }
+    }
+}
@@ -48,6 +48,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.websocket.ClientEndpoint;
 import javax.websocket.OnMessage;
@@ -57,6 +58,8 @@ import javax.websocket.server.ServerEndpoint;
 import org.glassfish.tyrus.client.ClientManager;
 import org.glassfish.tyrus.client.ClientProperties;
 import org.glassfish.tyrus.client.ThreadPoolConfig;
+import org.glassfish.tyrus.core.BroadcastHandler;
+import org.glassfish.tyrus.core.BroadcastResult;
 import org.glassfish.tyrus.core.TyrusSession;
 import org.glassfish.tyrus.core.TyrusWebSocketEngine;
 import org.glassfish.tyrus.server.Server;
@@ -80,6 +83,10 @@ public class ParallelBroadcastTest extends TestContainer {
      * Number of threads used for executing the broadcast.
      */
     public static final int THREAD_COUNT = 7;
+    /**
+     * Prefix of the message carrying the result of the broadcast.
+     */
+    public static final String RESULT_PREFIX = "result:";
 
     /**
      * Test broadcasting by iterating over all sessions.
@@ -121,8 +128,8 @@ public class ParallelBroadcastTest extends TestContainer {
     /**
      * Test Tyrus text broadcast, which is parallel by default.
      * <p/>
-     * The number of threads used for the broadcast is {@code Math.min(Runtime.getRuntime().availableProcessors(),
-     * sessions.size() / 16)}.
+     * The broadcast is split into tasks executed on a {@link java.util.concurrent.ForkJoinPool} with parallelism
+     * equal to {@code Runtime.getRuntime().availableProcessors()}.
      */
     @Test
     public void testTyrusParallelTextBroadcast() {
@@ -133,8 +140,8 @@ public class ParallelBroadcastTest extends TestContainer {
     /**
      * Test Tyrus binary broadcast, which is parallel by default.
      * <p/>
-     * The number of threads used for the broadcast is {@code Math.min(Runtime.getRuntime().availableProcessors(),
-     * sessions.size() / 16)}.
+     * The broadcast is split into tasks executed on a {@link java.util.concurrent.ForkJoinPool} with parallelism
+     * equal to {@code Runtime.getRuntime().availableProcessors()}.
      */
     @Test
     public void testTyrusParallelBinaryBroadcast() {
@@ -174,6 +181,50 @@ public class ParallelBroadcastTest extends TestContainer {
         testTyrusBinaryBroadcast();
     }
 
+    /**
+     * Test Tyrus parallel text broadcast reporting the result to a {@link BroadcastHandler}.
+     */
+    @Test
+    public void testTyrusParallelBroadcastWithHandler() {
+        getServerProperties().put(TyrusWebSocketEngine.PARALLEL_BROADCAST_ENABLED, true);
+
+        Server server = null;
+        AtomicInteger messageCounter = new AtomicInteger(0);
+        CountDownLatch messageLatch = new CountDownLatch(SESSIONS_COUNT);
+        CountDownLatch resultLatch = new CountDownLatch(1);
+        AtomicReference<String> result = new AtomicReference<String>();
+        try {
+            server = startServer(TyrusBroadcastHandlerServerEndpoint.class);
+            ClientManager client = createClient();
+            client.getProperties().put(ClientProperties.SHARED_CONTAINER, true);
+
+            // The number of threads has to be limited, because all the clients will receive the broadcast
+            // simultaneously, which might lead to creating too many threads and consequently a test failure.
+            client.getProperties()
+                  .put(ClientProperties.WORKER_THREAD_POOL_CONFIG, ThreadPoolConfig.defaultConfig().setMaxPoolSize(20));
+
+            for (int i = 0; i < SESSIONS_COUNT - 1; i++) {
+                client.connectToServer(new TextClientEndpoint(messageLatch, messageCounter),
+                                       getURI(TyrusBroadcastHandlerServerEndpoint.class));
+            }
+
+            Session session = client.connectToServer(
+                    new ResultClientEndpoint(messageLatch, messageCounter, resultLatch, result),
+                    getURI(TyrusBroadcastHandlerServerEndpoint.class));
+            session.getBasicRemote().sendText("Broadcast request");
+
+            assertTrue(messageLatch.await(30, TimeUnit.SECONDS));
+            assertTrue(resultLatch.await(30, TimeUnit.SECONDS));
+            assertEquals(RESULT_PREFIX + SESSIONS_COUNT + "/0", result.get());
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        } finally {
+            System.out.println("Received messages: " + messageCounter + "/" + SESSIONS_COUNT);
+            stopServer(server);
+        }
+    }
+
     private void testTyrusTextBroadcast() {
         Server server = null;
         AtomicInteger messageCounter = new AtomicInteger(0);
@@ -266,6 +317,34 @@ public class ParallelBroadcastTest extends TestContainer {
         }
     }
 
+    @ClientEndpoint
+    public static class ResultClientEndpoint {
+
+        private final CountDownLatch messageLatch;
+        private final AtomicInteger messageCounter;
+        private final CountDownLatch resultLatch;
+        private final AtomicReference<String> result;
+
+        public ResultClientEndpoint(CountDownLatch messageLatch, AtomicInteger messageCounter,
+                                    CountDownLatch resultLatch, AtomicReference<String> result) {
+            this.messageLatch = messageLatch;
+            this.messageCounter = messageCounter;
+            this.resultLatch = resultLatch;
+            this.result = result;
+        }
+
+        @OnMessage
+        public void onMessage(String message) {
+            if (message.startsWith(RESULT_PREFIX)) {
+                result.set(message);
+                resultLatch.countDown();
+            } else {
+                messageCounter.incrementAndGet();
+                messageLatch.countDown();
+            }
+        }
+    }
+
     @ClientEndpoint
     public static class BinaryClientEndpoint {
 
@@ -330,4 +409,19 @@ public class ParallelBroadcastTest extends TestContainer {
             ((TyrusSession) session).broadcast(ByteBuffer.wrap("Hi from server".getBytes()));
         }
     }
+
+    @ServerEndpoint("/parallelTyrusBroadcastHandlerEndpoint")
+    public static class TyrusBroadcastHandlerServerEndpoint {
+
+        @OnMessage
+        public void onMessage(final Session session, String message) {
+            ((TyrusSession) session).broadcast("Hi from server", new BroadcastHandler() {
+                @Override
+                public void onResult(BroadcastResult result) {
+                    session.getAsyncRemote().sendText(
+                            RESULT_PREFIX + result.getSuccessCount() + "/" + result.getFailureCount());
+                }
+            });
+        }
+    }
 }
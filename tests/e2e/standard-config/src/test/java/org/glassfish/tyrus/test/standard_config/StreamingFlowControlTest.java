@@ -0,0 +1,178 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2016 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.tyrus.test.standard_config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.websocket.ClientEndpoint;
+import javax.websocket.OnMessage;
+import javax.websocket.Session;
+import javax.websocket.server.ServerEndpoint;
+
+import org.glassfish.tyrus.client.ClientManager;
+import org.glassfish.tyrus.server.Server;
+import org.glassfish.tyrus.test.tools.TestContainer;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests streaming of messages much larger than the amount of data buffered for {@link Reader} and {@link InputStream}
+ * message handlers, the reading is suspended while the handler does not keep up.
+ */
+public class StreamingFlowControlTest extends TestContainer {
+
+    private static final int PART_SIZE = 4 * 1024;
+    private static final int PART_COUNT = 256;
+
+    @Test
+    public void testInputStream() throws Exception {
+        Server server = startServer(InputStreamEndpoint.class);
+        try {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final AtomicReference<String> result = new AtomicReference<String>();
+
+            ClientManager client = createClient();
+            Session session = client.connectToServer(new ResultClientEndpoint(latch, result),
+                                                     getURI(InputStreamEndpoint.class));
+
+            final byte[] part = new byte[PART_SIZE];
+            Arrays.fill(part, (byte) 'a');
+            for (int i = 0; i < PART_COUNT; i++) {
+                session.getBasicRemote().sendBinary(ByteBuffer.wrap(part), i == PART_COUNT - 1);
+            }
+
+            assertTrue(latch.await(20, TimeUnit.SECONDS));
+            assertEquals(Integer.toString(PART_SIZE * PART_COUNT), result.get());
+        } finally {
+            stopServer(server);
+        }
+    }
+
+    @Test
+    public void testReader() throws Exception {
+        Server server = startServer(ReaderEndpoint.class);
+        try {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final AtomicReference<String> result = new AtomicReference<String>();
+
+            ClientManager client = createClient();
+            Session session = client.connectToServer(new ResultClientEndpoint(latch, result),
+                                                     getURI(ReaderEndpoint.class));
+
+            final char[] part = new char[PART_SIZE];
+            Arrays.fill(part, 'a');
+            final String partString = new String(part);
+            for (int i = 0; i < PART_COUNT; i++) {
+                session.getBasicRemote().sendText(partString, i == PART_COUNT - 1);
+            }
+
+            assertTrue(latch.await(20, TimeUnit.SECONDS));
+            assertEquals(Integer.toString(PART_SIZE * PART_COUNT), result.get());
+        } finally {
+            stopServer(server);
+        }
+    }
+
+    @ClientEndpoint
+    public static class ResultClientEndpoint {
+
+        private final CountDownLatch latch;
+        private final AtomicReference<String> result;
+
+        public ResultClientEndpoint(CountDownLatch latch, AtomicReference<String> result) {
+            this.latch = latch;
+            this.result = result;
+        }
+
+        @OnMessage
+        public void onMessage(String message) {
+            result.set(message);
+            latch.countDown();
+        }
+    }
+
+    @ServerEndpoint("/streamingFlowControlInputStream")
+    public static class InputStreamEndpoint {
+
+        @OnMessage
+        public String onMessage(InputStream inputStream) throws IOException, InterruptedException {
+            final byte[] buffer = new byte[1024];
+            int total = 0;
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                total += read;
+                if (total % (64 * 1024) == 0) {
+                    // slow consumer.
+                    Thread.sleep(10);
+                }
+            }
+            return Integer.toString(total);
+        }
+    }
+
+    @ServerEndpoint("/streamingFlowControlReader")
+    public static class ReaderEndpoint {
+
+        @OnMessage
+        public String onMessage(Reader reader) throws IOException, InterruptedException {
+            final char[] buffer = new char[1024];
+            int total = 0;
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                total += read;
+                if (total % (64 * 1024) == 0) {
+                    // slow consumer.
+                    Thread.sleep(10);
+                }
+            }
+            return Integer.toString(total);
+        }
+    }
+}